@@ -0,0 +1,201 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.cli;
+
+import org.e2immu.analyser.annotationxml.AnalysisSummary;
+import org.e2immu.analyser.annotationxml.AnnotatedAPIBundle;
+import org.e2immu.analyser.annotationxml.AnnotationXmlWriter;
+import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.analyser.config.AnnotatedAPIConfiguration;
+import org.e2immu.analyser.config.AnnotationXmlConfiguration;
+import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.parser.Message;
+import org.e2immu.analyser.parser.Parser;
+import org.e2immu.analyser.parser.TypeCycleListener;
+import org.e2immu.analyser.resolver.SortedTypes;
+import org.e2immu.analyser.resolver.TypeCycle;
+import org.e2immu.analyser.upload.AnnotationUploader;
+import org.e2immu.analyser.util.SMapList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+Emits the results of the analyser while it is still running, one type cycle at a time:
+
+- messages are forwarded to the message consumer as soon as they are known;
+- an annotation.xml file is written as soon as all the primary types of its package have been analysed;
+- annotations are uploaded in one batch per type cycle.
+
+The analysis summary (see AnalysisSummary) covers all source types, and is written in finish().
+
+The annotated API types are shallowly analysed before the first type cycle; they are emitted in startAnalysis,
+which also writes the annotated API bundle, when requested.
+When the analysis is skipped, no type cycles are reported, and everything is emitted in finish().
+ */
+public class IncrementalOutput implements TypeCycleListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalOutput.class);
+
+    private final Configuration configuration;
+    private final Parser parser;
+    private final Consumer<Message> messageConsumer;
+    private final AnnotationUploader annotationUploader;
+    private final Set<Message> forwarded = new HashSet<>();
+    private final Map<String, List<TypeItem>> typeItemsPerPackage = new HashMap<>();
+    private final Map<String, Integer> typesToGoPerPackage = new HashMap<>();
+    private File annotationXmlBase;
+    private boolean started;
+
+    public IncrementalOutput(Configuration configuration, Parser parser, Consumer<Message> messageConsumer) {
+        this.configuration = configuration;
+        this.parser = parser;
+        this.messageConsumer = messageConsumer;
+        this.annotationUploader = configuration.uploadConfiguration().upload()
+                ? new AnnotationUploader(configuration.uploadConfiguration()) : null;
+    }
+
+    @Override
+    public void startAnalysis(SortedTypes annotatedAPISortedTypes, SortedTypes sourceSortedTypes) {
+        started = true;
+        // resolver and shallow analyser messages
+        List<Message> messages = parser.getMessages().toList();
+        forward(messages);
+
+        List<TypeInfo> annotatedAPITypes = annotatedAPISortedTypes.primaryTypeStream().toList();
+        AnnotationXmlConfiguration xml = configuration.annotationXmlConfiguration();
+        if (xml.writeAnnotationXml()) {
+            try {
+                annotationXmlBase = AnnotationXmlWriter.baseDirectory(xml);
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+            sourceSortedTypes.primaryTypeStream().map(TypeInfo::packageName)
+                    .filter(packageName -> AnnotationXmlWriter.accept(xml, packageName))
+                    .forEach(packageName -> typesToGoPerPackage.merge(packageName, 1, Integer::sum));
+            addTypeItems(annotatedAPITypes.stream(), false);
+            writeCompletedPackages();
+        }
+        AnnotatedAPIConfiguration api = configuration.annotatedAPIConfiguration();
+        if (api.writeAnnotatedAPIBundle() && api.annotatedAPIBundle() != null) {
+            writeAnnotatedAPIBundle(api, annotatedAPITypes);
+        }
+        upload(annotatedAPITypes, messages);
+    }
+
+    private void writeAnnotatedAPIBundle(AnnotatedAPIConfiguration api, List<TypeInfo> annotatedAPITypes) {
+        AnnotatedAPIBundle bundle;
+        try {
+            bundle = parser.createAnnotatedAPIBundle(annotatedAPITypes);
+            bundle.write(new File(api.annotatedAPIBundle()));
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        LOGGER.info("Wrote annotated API bundle of {} types, and {} sources to parse, to {}",
+                bundle.typeItems().size(), bundle.sourcesToParse().size(), api.annotatedAPIBundle());
+    }
+
+    @Override
+    public void typeCycleAnalysed(TypeCycle typeCycle, List<Message> messages) {
+        forward(messages);
+        if (annotationXmlBase != null) {
+            addTypeItems(typeCycle.primaryTypeStream(), true);
+            writeCompletedPackages();
+        }
+        upload(typeCycle.primaryTypeStream().toList(), messages);
+    }
+
+    /*
+    Emits what has not been emitted incrementally: the messages of the parser that were not part of a
+    type cycle, and in case the analysis was skipped, all the annotation.xml files and annotations.
+     */
+    public void finish(Parser.RunResult runResult) throws IOException {
+        List<Message> remaining = parser.getMessages().filter(m -> !forwarded.contains(m)).toList();
+        forward(remaining);
+        AnnotationXmlConfiguration xml = configuration.annotationXmlConfiguration();
+        if (!started) {
+            if (xml.writeAnnotationXml() || annotationUploader != null) {
+                Set<TypeInfo> allPrimaryTypes = runResult.allPrimaryTypes();
+                if (xml.writeAnnotationXml()) {
+                    LOGGER.info("Write AnnotationXML");
+                    AnnotationXmlWriter.write(xml, allPrimaryTypes);
+                }
+                upload(allPrimaryTypes, parser.getMessages().toList());
+            }
+        } else if (!typeItemsPerPackage.isEmpty()) {
+            // should not happen, unless type cycles have not been reported
+            LOGGER.warn("Writing {} incomplete packages of annotation.xml files", typeItemsPerPackage.size());
+            AnnotationXmlWriter.writeAllPackages(annotationXmlBase, typeItemsPerPackage,
+                    xml.writeAnnotationXmlIncrementally());
+            typeItemsPerPackage.clear();
+        }
+        if (xml.writeAnalysisSummaryDir() != null) {
+            List<TypeItem> typeItems = runResult.sourceSortedTypes().primaryTypeStream().map(TypeItem::new).toList();
+            File file = AnalysisSummary.write(new File(xml.writeAnalysisSummaryDir()), typeItems);
+            LOGGER.info("Wrote analysis summary of {} types to {}", typeItems.size(), file);
+        }
+    }
+
+    private void forward(List<Message> messages) {
+        for (Message message : messages) {
+            if (forwarded.add(message)) messageConsumer.accept(message);
+        }
+    }
+
+    private void addTypeItems(Stream<TypeInfo> primaryTypes, boolean countDown) {
+        AnnotationXmlConfiguration xml = configuration.annotationXmlConfiguration();
+        primaryTypes.forEach(typeInfo -> {
+            String packageName = typeInfo.packageName();
+            if (AnnotationXmlWriter.accept(xml, packageName)) {
+                SMapList.add(typeItemsPerPackage, packageName, new TypeItem(typeInfo));
+                if (countDown) typesToGoPerPackage.merge(packageName, -1, Integer::sum);
+            }
+        });
+    }
+
+    private void writeCompletedPackages() {
+        List<String> completed = typeItemsPerPackage.keySet().stream()
+                .filter(packageName -> typesToGoPerPackage.getOrDefault(packageName, 0) <= 0)
+                .sorted()
+                .collect(Collectors.toList());
+        if (completed.isEmpty()) return;
+        LOGGER.debug("Write AnnotationXML for packages {}", completed);
+        Map<String, List<TypeItem>> toWrite = new HashMap<>();
+        for (String packageName : completed) {
+            toWrite.put(packageName, typeItemsPerPackage.remove(packageName));
+            typesToGoPerPackage.remove(packageName);
+        }
+        try {
+            AnnotationXmlWriter.writeAllPackages(annotationXmlBase, toWrite,
+                    configuration.annotationXmlConfiguration().writeAnnotationXmlIncrementally());
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    private void upload(Collection<TypeInfo> types, List<Message> messages) {
+        if (annotationUploader != null && !types.isEmpty()) {
+            Map<String, String> map = annotationUploader.createMap(types, messages.stream());
+            annotationUploader.writeMap(map);
+        }
+    }
+}
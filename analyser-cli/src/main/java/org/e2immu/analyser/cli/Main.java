@@ -15,6 +15,7 @@
 package org.e2immu.analyser.cli;
 
 import org.apache.commons.cli.*;
+import org.e2immu.analyser.annotationxml.AnalysisSummary;
 import org.e2immu.analyser.config.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,8 @@ import org.slf4j.LoggerFactory;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 
 public class Main {
     private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
@@ -33,11 +36,18 @@ public class Main {
     public static final String UPLOAD_PACKAGES = "upload-packages";
     public static final String UPLOAD_URL = "upload-url";
     public static final String UPLOAD = "upload";
+    public static final String UPLOAD_BATCH_SIZE = "upload-batch-size";
+    public static final String UPLOAD_RETRIES = "upload-retries";
+    public static final String UPLOAD_STATE_FILE = "upload-state-file";
+    public static final String UPLOAD_GZIP = "upload-gzip";
 
     public static final String READ_ANNOTATION_XML_PACKAGES = "read-annotation-xml-packages";
     public static final String WRITE_ANNOTATION_XML = "write-annotation-xml";
     public static final String WRITE_ANNOTATION_XML_DIR = "write-annotation-xml-dir";
     public static final String WRITE_ANNOTATION_XML_PACKAGES = "write-annotation-xml-packages";
+    public static final String ANNOTATION_XML_BINARY_CACHE = "annotation-xml-binary-cache";
+    public static final String WRITE_ANNOTATION_XML_INCREMENTALLY = "write-annotation-xml-incrementally";
+    public static final String WRITE_ANALYSIS_SUMMARY_DIR = "write-analysis-summary-dir";
 
     public static final String ANNOTATED_API_SOURCE = "annotated-api-source";
     public static final String READ_ANNOTATED_API_PACKAGES = "read-annotated-api-packages";
@@ -45,6 +55,8 @@ public class Main {
     public static final String WRITE_ANNOTATED_API_DIR = "write-annotated-api-dir";
     public static final String WRITE_ANNOTATED_API_DESTINATION_PACKAGE = "write-annotated-api-destination-package";
     public static final String WRITE_ANNOTATED_API_PACKAGES = "write-annotated-api-packages";
+    public static final String ANNOTATED_API_BUNDLE = "annotated-api-bundle";
+    public static final String WRITE_ANNOTATED_API_BUNDLE = "write-annotated-api-bundle";
 
     public static final String SOURCE_PACKAGES = "source-packages";
     public static final String JRE = "jre";
@@ -61,6 +73,20 @@ public class Main {
     public static final String QUIET = "quiet";
     public static final String SKIP_ANALYSIS = "skip-analysis"; // not available on CMD line
 
+    public static final String RELEASE_STATEMENT_ANALYSIS = "release-statement-analysis";
+    public static final String TYPE_CYCLE_ITERATION_BUDGET = "type-cycle-iteration-budget";
+    public static final String TYPE_CYCLE_TIME_BUDGET = "type-cycle-time-budget";
+    public static final String METHOD_ITERATION_BUDGET = "method-iteration-budget";
+    public static final String METHOD_TIME_BUDGET = "method-time-budget";
+    public static final String CONSERVATIVE_FALLBACK = "conservative-fallback";
+    public static final String COMPONENT_PROFILE = "component-profile";
+    public static final String CONVERGENCE_REPORT = "convergence-report";
+    public static final String HEAP_FOOTPRINT = "heap-footprint";
+    public static final String SLOW_METHODS = "slow-methods";
+    public static final String SLOW_METHOD_TIME_THRESHOLD = "slow-method-time-threshold";
+    public static final String SLOW_METHOD_COMPLEXITY_THRESHOLD = "slow-method-complexity-threshold";
+    public static final String JMX_METRICS = "jmx-metrics";
+
     public static final int EXIT_OK = 0;
     public static final int EXIT_INTERNAL_EXCEPTION = 1;
     public static final int EXIT_PARSER_ERROR = 2;
@@ -85,11 +111,10 @@ public class Main {
         configuration.initializeLoggers();
         // the following will be output if the CONFIGURATION logger is active!
         LOGGER.debug("Configuration:\n{}", configuration);
-        RunAnalyser runAnalyser = new RunAnalyser(configuration);
+        // messages are printed while the analyser is running; progress is reported on standard error
+        RunAnalyser runAnalyser = configuration.quiet() ? new RunAnalyser(configuration)
+                : new RunAnalyser(configuration, m -> System.out.println(m.detailedMessage()), System.err::println);
         runAnalyser.run();
-        if (!configuration.quiet()) {
-            runAnalyser.getMessageStream().forEach(m -> System.out.println(m.detailedMessage()));
-        }
         System.exit(runAnalyser.getExitValue());
     }
 
@@ -126,6 +151,43 @@ public class Main {
             boolean ignoreErrors = cmd.hasOption(IGNORE_ERRORS);
             builder.setIgnoreErrors(ignoreErrors);
 
+            AnalyserConfiguration.Builder analyserBuilder = new AnalyserConfiguration.Builder();
+            analyserBuilder.setReleaseStatementAnalysis(cmd.hasOption(RELEASE_STATEMENT_ANALYSIS));
+            String typeCycleIterationBudget = cmd.getOptionValue(TYPE_CYCLE_ITERATION_BUDGET);
+            if (typeCycleIterationBudget != null) {
+                analyserBuilder.setTypeCycleIterationBudget(parseIntOption(TYPE_CYCLE_ITERATION_BUDGET,
+                        typeCycleIterationBudget));
+            }
+            String typeCycleTimeBudget = cmd.getOptionValue(TYPE_CYCLE_TIME_BUDGET);
+            if (typeCycleTimeBudget != null) {
+                analyserBuilder.setTypeCycleTimeBudget(parseLongOption(TYPE_CYCLE_TIME_BUDGET, typeCycleTimeBudget));
+            }
+            String methodIterationBudget = cmd.getOptionValue(METHOD_ITERATION_BUDGET);
+            if (methodIterationBudget != null) {
+                analyserBuilder.setMethodIterationBudget(parseIntOption(METHOD_ITERATION_BUDGET, methodIterationBudget));
+            }
+            String methodTimeBudget = cmd.getOptionValue(METHOD_TIME_BUDGET);
+            if (methodTimeBudget != null) {
+                analyserBuilder.setMethodTimeBudget(parseLongOption(METHOD_TIME_BUDGET, methodTimeBudget));
+            }
+            analyserBuilder.setConservativeFallback(cmd.hasOption(CONSERVATIVE_FALLBACK));
+            analyserBuilder.setComponentProfileFile(cmd.getOptionValue(COMPONENT_PROFILE));
+            analyserBuilder.setConvergenceReportFile(cmd.getOptionValue(CONVERGENCE_REPORT));
+            analyserBuilder.setHeapFootprintFile(cmd.getOptionValue(HEAP_FOOTPRINT));
+            analyserBuilder.setSlowMethodDirectory(cmd.getOptionValue(SLOW_METHODS));
+            String slowMethodTimeThreshold = cmd.getOptionValue(SLOW_METHOD_TIME_THRESHOLD);
+            if (slowMethodTimeThreshold != null) {
+                analyserBuilder.setSlowMethodTimeThreshold(parseLongOption(SLOW_METHOD_TIME_THRESHOLD,
+                        slowMethodTimeThreshold));
+            }
+            String slowMethodComplexityThreshold = cmd.getOptionValue(SLOW_METHOD_COMPLEXITY_THRESHOLD);
+            if (slowMethodComplexityThreshold != null) {
+                analyserBuilder.setSlowMethodComplexityThreshold(parseIntOption(SLOW_METHOD_COMPLEXITY_THRESHOLD,
+                        slowMethodComplexityThreshold));
+            }
+            analyserBuilder.setJmxMetrics(cmd.hasOption(JMX_METRICS));
+            builder.setAnalyserConfiguration(analyserBuilder.build());
+
             UploadConfiguration.Builder uploadBuilder = new UploadConfiguration.Builder();
             boolean upload = cmd.hasOption(UPLOAD);
             uploadBuilder.setUpload(upload);
@@ -135,6 +197,16 @@ public class Main {
             uploadBuilder.setProjectName(projectName);
             String[] uploadPackages = cmd.getOptionValues(UPLOAD_PACKAGES);
             splitAndAdd(uploadPackages, COMMA, uploadBuilder::addUploadPackage);
+            String uploadBatchSize = cmd.getOptionValue(UPLOAD_BATCH_SIZE);
+            if (uploadBatchSize != null) {
+                uploadBuilder.setBatchSize(parseIntOption(UPLOAD_BATCH_SIZE, uploadBatchSize));
+            }
+            String uploadRetries = cmd.getOptionValue(UPLOAD_RETRIES);
+            if (uploadRetries != null) {
+                uploadBuilder.setRetries(parseIntOption(UPLOAD_RETRIES, uploadRetries));
+            }
+            uploadBuilder.setStateFile(cmd.getOptionValue(UPLOAD_STATE_FILE));
+            uploadBuilder.setGzip(cmd.hasOption(UPLOAD_GZIP));
             builder.setUploadConfiguration(uploadBuilder.build());
 
             AnnotationXmlConfiguration.Builder xmlBuilder = new AnnotationXmlConfiguration.Builder();
@@ -145,6 +217,9 @@ public class Main {
             splitAndAdd(annotationXmlWritePackages, COMMA, xmlBuilder::addAnnotationXmlWritePackages);
             String[] annotationXmlReadPackages = cmd.getOptionValues(READ_ANNOTATION_XML_PACKAGES);
             splitAndAdd(annotationXmlReadPackages, COMMA, xmlBuilder::addAnnotationXmlReadPackages);
+            xmlBuilder.setAnnotationXmlBinaryCache(cmd.hasOption(ANNOTATION_XML_BINARY_CACHE));
+            xmlBuilder.setWriteAnnotationXmlIncrementally(cmd.hasOption(WRITE_ANNOTATION_XML_INCREMENTALLY));
+            xmlBuilder.setWriteAnalysisSummaryDir(cmd.getOptionValue(WRITE_ANALYSIS_SUMMARY_DIR));
             builder.setAnnotationXmConfiguration(xmlBuilder.build());
 
             AnnotatedAPIConfiguration.Builder apiBuilder = new AnnotatedAPIConfiguration.Builder();
@@ -161,6 +236,8 @@ public class Main {
             splitAndAdd(writeAnnotatedAPIPackages, COMMA, apiBuilder::addWriteAnnotatedAPIPackages);
             String[] readAnnotatedAPIPackages = cmd.getOptionValues(READ_ANNOTATED_API_PACKAGES);
             splitAndAdd(readAnnotatedAPIPackages, COMMA, apiBuilder::addReadAnnotatedAPIPackages);
+            apiBuilder.setAnnotatedAPIBundle(cmd.getOptionValue(ANNOTATED_API_BUNDLE));
+            apiBuilder.setWriteAnnotatedAPIBundle(cmd.hasOption(WRITE_ANNOTATED_API_BUNDLE));
             AnnotatedAPIConfiguration api = apiBuilder.build();
             builder.setAnnotatedAPIConfiguration(api);
 
@@ -170,6 +247,11 @@ public class Main {
             System.err.println("Caught parse exception: " + parseException.getMessage());
             System.exit(EXIT_INTERNAL_EXCEPTION);
             return null; // unreachable statement
+        } catch (IllegalArgumentException illegalArgumentException) {
+            // a value out of range, see e.g. AnalyserConfiguration
+            System.err.println("Illegal value: " + illegalArgumentException.getMessage());
+            System.exit(EXIT_INTERNAL_EXCEPTION);
+            return null; // unreachable statement
         }
     }
 
@@ -228,6 +310,59 @@ public class Main {
                 "Silent mode. Do not write warnings, errors, etc. to stdout. " +
                         "They are still uploaded when the --upload option is activated.");
 
+        // analyser options
+
+        options.addOption(Option.builder().longOpt(RELEASE_STATEMENT_ANALYSIS)
+                .desc("Release the statement-level analysis of each type cycle once it has been analysed, " +
+                        "keeping only the type, field, method and parameter summaries. Reduces memory usage.").build());
+        options.addOption(Option.builder().longOpt(TYPE_CYCLE_ITERATION_BUDGET)
+                .hasArg().argName("N")
+                .desc("Maximal number of iterations of the analyser over a type cycle. Default is "
+                        + AnalyserConfiguration.DEFAULT_TYPE_CYCLE_ITERATION_BUDGET + ".").build());
+        options.addOption(Option.builder().longOpt(TYPE_CYCLE_TIME_BUDGET)
+                .hasArg().argName("MILLISECONDS")
+                .desc("Maximal time spent analysing a type cycle. Default is 0, unlimited.").build());
+        options.addOption(Option.builder().longOpt(METHOD_ITERATION_BUDGET)
+                .hasArg().argName("N")
+                .desc("Maximal number of iterations in which a method is analysed, in combination with --"
+                        + CONSERVATIVE_FALLBACK + ". Default is 0, unlimited.").build());
+        options.addOption(Option.builder().longOpt(METHOD_TIME_BUDGET)
+                .hasArg().argName("MILLISECONDS")
+                .desc("Maximal time spent analysing a method, in combination with --"
+                        + CONSERVATIVE_FALLBACK + ". Default is 0, unlimited.").build());
+        options.addOption(Option.builder().longOpt(CONSERVATIVE_FALLBACK)
+                .desc("When a budget has been exceeded, replace the remaining delays by conservative values, " +
+                        "and emit a warning, rather than stopping the analyser with an error.").build());
+        options.addOption(Option.builder().longOpt(COMPONENT_PROFILE)
+                .hasArg().argName("FILE")
+                .desc("Measure time and allocations per analyser component and iteration, " +
+                        "and write the profile in JSON format to this file.").build());
+        options.addOption(Option.builder().longOpt(CONVERGENCE_REPORT)
+                .hasArg().argName("FILE")
+                .desc("Write, in JSON format, for each type cycle the number of iterations, the delays per cause " +
+                        "in each iteration, and the elements that block convergence longest.").build());
+        options.addOption(Option.builder().longOpt(HEAP_FOOTPRINT)
+                .hasArg().argName("FILE")
+                .desc("After analysing each type cycle, estimate the heap retained by its statement analyses, " +
+                        "variable infos, expressions and messages; write the numbers in JSON format to this file.")
+                .build());
+        options.addOption(Option.builder().longOpt(SLOW_METHODS)
+                .hasArg().argName("DIR")
+                .desc("Detect methods which are slow to analyse, and write a report and a reproduction source " +
+                        "for each of them in this directory.").build());
+        options.addOption(Option.builder().longOpt(SLOW_METHOD_TIME_THRESHOLD)
+                .hasArg().argName("MILLISECONDS")
+                .desc("Time, summed over all iterations, above which a method is reported by --" + SLOW_METHODS
+                        + ". Default is " + AnalyserConfiguration.DEFAULT_SLOW_METHOD_TIME_THRESHOLD + ".").build());
+        options.addOption(Option.builder().longOpt(SLOW_METHOD_COMPLEXITY_THRESHOLD)
+                .hasArg().argName("N")
+                .desc("Expression complexity above which a method is reported by --" + SLOW_METHODS
+                        + ". Default is " + AnalyserConfiguration.DEFAULT_SLOW_METHOD_COMPLEXITY_THRESHOLD + ".")
+                .build());
+        options.addOption(Option.builder().longOpt(JMX_METRICS)
+                .desc("Count expressions, normalisations, delay merges, overload lookups, classes loaded and " +
+                        "iterations, and expose the counters through JMX.").build());
+
         // output options: upload
 
         options.addOption("u", UPLOAD, false, "Upload annotations to the annotation server.");
@@ -245,6 +380,25 @@ public class Main {
                 .desc("A comma-separated list of package names for" +
                         " which annotations are to be uploaded. The default is to upload all annotations of all types " +
                         "encountered during the parsing process.").build());
+        options.addOption(Option.builder()
+                .longOpt(UPLOAD_BATCH_SIZE)
+                .hasArg().argName("CHARS")
+                .desc("Maximal size of the JSON body of a single upload request, before compression. Default is "
+                        + UploadConfiguration.DEFAULT_BATCH_SIZE + ".").build());
+        options.addOption(Option.builder()
+                .longOpt(UPLOAD_RETRIES)
+                .hasArg().argName("N")
+                .desc("Number of times an upload request is retried when it fails. Default is "
+                        + UploadConfiguration.DEFAULT_RETRIES + ".").build());
+        options.addOption(Option.builder()
+                .longOpt(UPLOAD_STATE_FILE)
+                .hasArg().argName("FILE")
+                .desc("File in which the uploaded values are recorded. When present, only the values" +
+                        " that changed since the previous upload are sent.").build());
+        options.addOption(Option.builder()
+                .longOpt(UPLOAD_GZIP)
+                .desc("Compress the upload requests with gzip. The annotation server must accept" +
+                        " gzip-encoded request bodies.").build());
 
         // output options: annotation.xml
 
@@ -268,6 +422,18 @@ public class Main {
                 .hasArg().argName("DIR")
                 .desc("Alternative location to write the Xml files." +
                         " Defaults to the resources directory of the project.").build());
+        options.addOption(Option.builder()
+                .longOpt(WRITE_ANNOTATION_XML_INCREMENTALLY)
+                .desc("Only write an annotation.xml file when its content differs from that of the existing file.").build());
+        options.addOption(Option.builder()
+                .longOpt(ANNOTATION_XML_BINARY_CACHE)
+                .desc("Keep a binary copy of each annotation.xml file read from the file system next to it," +
+                        " and read that copy instead of the XML when it is up-to-date.").build());
+        options.addOption(Option.builder()
+                .longOpt(WRITE_ANALYSIS_SUMMARY_DIR)
+                .hasArg().argName("DIR")
+                .desc("Write a binary summary of the analysis of the sources, as " + AnalysisSummary.RESOURCE +
+                        " in this directory, to be packaged in the jar.").build());
 
         // output options: annotated_api
 
@@ -290,6 +456,15 @@ public class Main {
                         " which annotated API files are to be read." +
                         " Use a dot at the end of a package name to accept sub-packages." +
                         "The default is to read annotated API files from all the packages of .java files parsed.").build());
+        options.addOption(Option.builder()
+                .longOpt(ANNOTATED_API_BUNDLE)
+                .hasArg().argName("FILE")
+                .desc("Precompiled annotated APIs. When the file was made from the current annotated API sources," +
+                        " it is read instead of the sources, except for those with companion methods.").build());
+        options.addOption(Option.builder()
+                .longOpt(WRITE_ANNOTATED_API_BUNDLE)
+                .desc("Parse the annotated API sources, and write the result to the file of the " +
+                        ANNOTATED_API_BUNDLE + " option.").build());
         options.addOption(Option.builder()
                 .longOpt(WRITE_ANNOTATED_API_DIR)
                 .hasArg().argName("DIR")
@@ -309,6 +484,7 @@ public class Main {
         builder.setUploadConfiguration(uploadConfigurationFromProperties(analyserProperties));
         builder.setAnnotatedAPIConfiguration(annotatedAPIConfigurationFromProperties(analyserProperties));
         builder.setAnnotationXmConfiguration(annotationXmlConfigurationFromProperties(analyserProperties));
+        builder.setAnalyserConfiguration(analyserConfigurationFromProperties(analyserProperties));
 
         setBooleanProperty(analyserProperties, QUIET, builder::setQuiet);
         setBooleanProperty(analyserProperties, IGNORE_ERRORS, builder::setIgnoreErrors);
@@ -319,12 +495,34 @@ public class Main {
         return builder.build();
     }
 
+    public static AnalyserConfiguration analyserConfigurationFromProperties(Map<String, String> analyserProperties) {
+        AnalyserConfiguration.Builder builder = new AnalyserConfiguration.Builder();
+        setBooleanProperty(analyserProperties, RELEASE_STATEMENT_ANALYSIS, builder::setReleaseStatementAnalysis);
+        setIntProperty(analyserProperties, TYPE_CYCLE_ITERATION_BUDGET, builder::setTypeCycleIterationBudget);
+        setLongProperty(analyserProperties, TYPE_CYCLE_TIME_BUDGET, builder::setTypeCycleTimeBudget);
+        setIntProperty(analyserProperties, METHOD_ITERATION_BUDGET, builder::setMethodIterationBudget);
+        setLongProperty(analyserProperties, METHOD_TIME_BUDGET, builder::setMethodTimeBudget);
+        setBooleanProperty(analyserProperties, CONSERVATIVE_FALLBACK, builder::setConservativeFallback);
+        setStringProperty(analyserProperties, COMPONENT_PROFILE, builder::setComponentProfileFile);
+        setStringProperty(analyserProperties, CONVERGENCE_REPORT, builder::setConvergenceReportFile);
+        setStringProperty(analyserProperties, HEAP_FOOTPRINT, builder::setHeapFootprintFile);
+        setStringProperty(analyserProperties, SLOW_METHODS, builder::setSlowMethodDirectory);
+        setLongProperty(analyserProperties, SLOW_METHOD_TIME_THRESHOLD, builder::setSlowMethodTimeThreshold);
+        setIntProperty(analyserProperties, SLOW_METHOD_COMPLEXITY_THRESHOLD, builder::setSlowMethodComplexityThreshold);
+        setBooleanProperty(analyserProperties, JMX_METRICS, builder::setJmxMetrics);
+        return builder.build();
+    }
+
     public static UploadConfiguration uploadConfigurationFromProperties(Map<String, String> analyserProperties) {
         UploadConfiguration.Builder builder = new UploadConfiguration.Builder();
         setBooleanProperty(analyserProperties, UPLOAD, builder::setUpload);
         setStringProperty(analyserProperties, UPLOAD_PROJECT, builder::setProjectName);
         setStringProperty(analyserProperties, UPLOAD_URL, builder::setAnnotationServerUrl);
         setSplitStringProperty(analyserProperties, COMMA, UPLOAD_PACKAGES, builder::addUploadPackage);
+        setIntProperty(analyserProperties, UPLOAD_BATCH_SIZE, builder::setBatchSize);
+        setIntProperty(analyserProperties, UPLOAD_RETRIES, builder::setRetries);
+        setStringProperty(analyserProperties, UPLOAD_STATE_FILE, builder::setStateFile);
+        setBooleanProperty(analyserProperties, UPLOAD_GZIP, builder::setGzip);
         return builder.build();
     }
 
@@ -333,6 +531,9 @@ public class Main {
         setBooleanProperty(analyserProperties, WRITE_ANNOTATION_XML, builder::setAnnotationXml);
         setStringProperty(analyserProperties, WRITE_ANNOTATION_XML_DIR, builder::setWriteAnnotationXmlDir);
         setSplitStringProperty(analyserProperties, COMMA, WRITE_ANNOTATION_XML_PACKAGES, builder::addAnnotationXmlWritePackages);
+        setBooleanProperty(analyserProperties, ANNOTATION_XML_BINARY_CACHE, builder::setAnnotationXmlBinaryCache);
+        setBooleanProperty(analyserProperties, WRITE_ANNOTATION_XML_INCREMENTALLY, builder::setWriteAnnotationXmlIncrementally);
+        setStringProperty(analyserProperties, WRITE_ANALYSIS_SUMMARY_DIR, builder::setWriteAnalysisSummaryDir);
         return builder.build();
     }
 
@@ -354,6 +555,8 @@ public class Main {
         setSplitStringProperty(analyserProperties, Main.COMMA, Main.WRITE_ANNOTATED_API_PACKAGES, builder::addWriteAnnotatedAPIPackages);
         setSplitStringProperty(analyserProperties, Main.COMMA, Main.READ_ANNOTATED_API_PACKAGES, builder::addReadAnnotatedAPIPackages);
         setSplitStringProperty(analyserProperties, PATH_SEPARATOR, ANNOTATED_API_SOURCE, builder::addAnnotatedAPISourceDirs);
+        setStringProperty(analyserProperties, ANNOTATED_API_BUNDLE, builder::setAnnotatedAPIBundle);
+        setBooleanProperty(analyserProperties, WRITE_ANNOTATED_API_BUNDLE, builder::setWriteAnnotatedAPIBundle);
         return builder.build();
     }
 
@@ -386,6 +589,44 @@ public class Main {
         }
     }
 
+    // a value which is not a number is a usage error, rather than a crash
+    static void setIntProperty(Map<String, String> properties, String key, IntConsumer consumer) {
+        setStringProperty(properties, key, s -> {
+            try {
+                consumer.accept(Integer.parseInt(s));
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Property " + key + " expects an integer, got '" + s + "'");
+            }
+        });
+    }
+
+    static void setLongProperty(Map<String, String> properties, String key, LongConsumer consumer) {
+        setStringProperty(properties, key, s -> {
+            try {
+                consumer.accept(Long.parseLong(s));
+            } catch (NumberFormatException nfe) {
+                throw new IllegalArgumentException("Property " + key + " expects an integer, got '" + s + "'");
+            }
+        });
+    }
+
+    // reported by parseConfiguration like the other errors on the command line
+    static int parseIntOption(String option, String value) throws ParseException {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException nfe) {
+            throw new ParseException("Option --" + option + " expects an integer, got '" + value + "'");
+        }
+    }
+
+    static long parseLongOption(String option, String value) throws ParseException {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException nfe) {
+            throw new ParseException("Option --" + option + " expects an integer, got '" + value + "'");
+        }
+    }
+
     public static void setBooleanProperty(Map<String, String> properties, String key, Consumer<Boolean> consumer) {
         String value = properties.get(key);
         if (value != null) {
@@ -0,0 +1,160 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.cli;
+
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.model.TypeInspection;
+import org.e2immu.analyser.parser.Message;
+import org.e2immu.analyser.parser.TypeCycleListener;
+import org.e2immu.analyser.resolver.SortedTypes;
+import org.e2immu.analyser.resolver.TypeCycle;
+
+import java.net.URL;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*
+Reports the progress of the parser to a consumer of status lines, at most once per interval (default: one second).
+The transitions between the phases (resolution, start and end of the analysis) are always reported.
+
+The totals come from the inspection (number of compilation units) and from the sorted types of the Java sources
+(type cycles, primary types, methods and constructors). The estimated time to completion of the analysis is based
+on the throughput, in methods per second, since the start of the analysis.
+ */
+public class ProgressReporter implements TypeCycleListener {
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000L;
+
+    private final Consumer<String> statusConsumer;
+    private final LongSupplier clock;
+    private final long intervalMillis;
+
+    private long lastReport = Long.MIN_VALUE;
+    private boolean annotatedAPIs;
+    private int compilationUnits;
+    private int compilationUnitsInspected;
+
+    private int cycles;
+    private int types;
+    private long methods;
+    private int cyclesDone;
+    private int typesDone;
+    private long methodsDone;
+    private long analysisStart;
+    private String currentCycle;
+
+    public ProgressReporter(Consumer<String> statusConsumer) {
+        this(statusConsumer, System::currentTimeMillis, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public ProgressReporter(Consumer<String> statusConsumer, LongSupplier clock, long intervalMillis) {
+        this.statusConsumer = statusConsumer;
+        this.clock = clock;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void startInspection(int compilationUnits, boolean annotatedAPIs) {
+        this.annotatedAPIs = annotatedAPIs;
+        this.compilationUnits = compilationUnits;
+        this.compilationUnitsInspected = 0;
+    }
+
+    @Override
+    public void compilationUnitInspected(URL url) {
+        compilationUnitsInspected++;
+        report(false, () -> "Parsed " + compilationUnitsInspected + "/" + compilationUnits
+                + (annotatedAPIs ? " annotated API" : "") + " compilation units");
+    }
+
+    @Override
+    public void resolved(SortedTypes sortedTypes, boolean annotatedAPIs) {
+        report(true, () -> "Resolved " + sortedTypes.primaryTypeStream().count()
+                + (annotatedAPIs ? " annotated API" : "") + " primary types in "
+                + sortedTypes.typeCycles().size() + " type cycles");
+    }
+
+    @Override
+    public void startAnalysis(SortedTypes annotatedAPISortedTypes, SortedTypes sourceSortedTypes) {
+        cycles = sourceSortedTypes.typeCycles().size();
+        List<TypeInfo> primaryTypes = sourceSortedTypes.primaryTypeStream().toList();
+        types = primaryTypes.size();
+        methods = primaryTypes.stream().mapToLong(ProgressReporter::countMethods).sum();
+        analysisStart = clock.getAsLong();
+        report(true, () -> "Starting the analysis of " + cycles + " type cycles, " + types
+                + " primary types, " + methods + " methods");
+    }
+
+    @Override
+    public void startTypeCycle(TypeCycle typeCycle) {
+        currentCycle = typeCycle.primaryTypeStream().map(t -> t.fullyQualifiedName)
+                .collect(Collectors.joining(", "));
+        report(false, this::analysisStatus);
+    }
+
+    @Override
+    public void typeCycleAnalysed(TypeCycle typeCycle, List<Message> messages) {
+        cyclesDone++;
+        List<TypeInfo> primaryTypes = typeCycle.primaryTypeStream().toList();
+        typesDone += primaryTypes.size();
+        methodsDone += primaryTypes.stream().mapToLong(ProgressReporter::countMethods).sum();
+        currentCycle = null;
+        report(cyclesDone == cycles, this::analysisStatus);
+    }
+
+    private String analysisStatus() {
+        StringBuilder sb = new StringBuilder("Analysed ")
+                .append(cyclesDone).append("/").append(cycles).append(" type cycles, ")
+                .append(typesDone).append("/").append(types).append(" primary types, ")
+                .append(methodsDone).append("/").append(methods).append(" methods");
+        if (methods > 0) {
+            sb.append(" (").append(100 * methodsDone / methods).append("%)");
+        }
+        long elapsed = clock.getAsLong() - analysisStart;
+        if (methodsDone > 0 && methodsDone < methods) {
+            long eta = elapsed * (methods - methodsDone) / methodsDone;
+            sb.append(", ETA ").append(duration(eta));
+        } else if (cyclesDone == cycles) {
+            sb.append(" in ").append(duration(elapsed));
+        }
+        if (currentCycle != null) {
+            sb.append("; now: ").append(currentCycle);
+        }
+        return sb.toString();
+    }
+
+    static String duration(long millis) {
+        long seconds = (millis + 500) / 1000;
+        if (seconds < 60) return seconds + "s";
+        long minutes = seconds / 60;
+        if (minutes < 60) return minutes + "m" + (seconds % 60) + "s";
+        return (minutes / 60) + "h" + (minutes % 60) + "m";
+    }
+
+    private static long countMethods(TypeInfo typeInfo) {
+        if (!typeInfo.typeInspection.isSet()) return 0;
+        return typeInfo.typeInspection.get().methodsAndConstructors(TypeInspection.Methods.INCLUDE_SUBTYPES).count();
+    }
+
+    private void report(boolean force, Supplier<String> status) {
+        long now = clock.getAsLong();
+        if (force || lastReport == Long.MIN_VALUE || now - lastReport >= intervalMillis) {
+            lastReport = now;
+            statusConsumer.accept(status.get());
+        }
+    }
+}
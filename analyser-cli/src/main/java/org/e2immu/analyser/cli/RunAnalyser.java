@@ -16,7 +16,6 @@ package org.e2immu.analyser.cli;
 
 import com.github.javaparser.ParseProblemException;
 import org.e2immu.analyser.annotatedapi.Composer;
-import org.e2immu.analyser.annotationxml.AnnotationXmlWriter;
 import org.e2immu.analyser.config.AnnotatedAPIConfiguration;
 import org.e2immu.analyser.config.Configuration;
 import org.e2immu.analyser.inspector.NotFoundInClassPathException;
@@ -28,15 +27,15 @@ import org.e2immu.analyser.output.OutputBuilder;
 import org.e2immu.analyser.parser.Message;
 import org.e2immu.analyser.parser.Messages;
 import org.e2immu.analyser.parser.Parser;
-import org.e2immu.analyser.upload.AnnotationUploader;
 import org.e2immu.analyser.usage.CollectUsages;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -44,11 +43,33 @@ public class RunAnalyser implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(RunAnalyser.class);
 
     private final Configuration configuration;
+    private final Consumer<Message> messageConsumer;
+    private final Consumer<String> progressConsumer;
     private final Messages messages = new Messages();
     private int exitValue;
 
     public RunAnalyser(Configuration configuration) {
+        this(configuration, m -> {
+        });
+    }
+
+    /**
+     * @param messageConsumer receives the messages of the analyser as soon as they are available, i.e.,
+     *                        while later type cycles are still being analysed.
+     */
+    public RunAnalyser(Configuration configuration, Consumer<Message> messageConsumer) {
+        this(configuration, messageConsumer, null);
+    }
+
+    /**
+     * @param progressConsumer when not null, receives a progress report (counts and estimated time to completion)
+     *                         at most once per second, see {@link ProgressReporter}.
+     */
+    public RunAnalyser(Configuration configuration, Consumer<Message> messageConsumer,
+                       Consumer<String> progressConsumer) {
         this.configuration = configuration;
+        this.messageConsumer = messageConsumer;
+        this.progressConsumer = progressConsumer;
     }
 
     @Override
@@ -58,6 +79,9 @@ public class RunAnalyser implements Runnable {
             LOGGER.info(configuration.toString());
 
             Parser parser = new Parser(configuration);
+            if (progressConsumer != null) {
+                parser.addTypeCycleListener(new ProgressReporter(progressConsumer));
+            }
             AnnotatedAPIConfiguration api = configuration.annotatedAPIConfiguration();
             if (api.writeMode() == AnnotatedAPIConfiguration.WriteMode.ANALYSED) {
                 throw new UnsupportedOperationException("Not yet implemented!");
@@ -73,6 +97,8 @@ public class RunAnalyser implements Runnable {
             } else {
                 /* normal run */
                 Parser.RunResult runResult;
+                IncrementalOutput incrementalOutput = new IncrementalOutput(configuration, parser, messageConsumer);
+                parser.addTypeCycleListener(incrementalOutput);
                 try {
                     runResult = parser.run();
                 } catch (NotFoundInClassPathException typeNotFoundException) {
@@ -93,18 +119,9 @@ public class RunAnalyser implements Runnable {
                                 formatter.write(outputBuilder));
                     });
                 }
-                Set<TypeInfo> allPrimaryTypes = configuration.annotationXmlConfiguration().writeAnnotationXml() ||
-                        configuration.uploadConfiguration().upload() ? runResult.allPrimaryTypes() : Set.of();
+                // annotation XML and upload have been taken care of while analysing
+                incrementalOutput.finish(runResult);
 
-                if (configuration.annotationXmlConfiguration().writeAnnotationXml()) {
-                    LOGGER.info("Write AnnotationXML");
-                    AnnotationXmlWriter.write(configuration.annotationXmlConfiguration(), allPrimaryTypes);
-                }
-                if (configuration.uploadConfiguration().upload()) {
-                    AnnotationUploader annotationUploader = new AnnotationUploader(configuration.uploadConfiguration());
-                    Map<String, String> map = annotationUploader.createMap(allPrimaryTypes, messages.getMessageStream());
-                    annotationUploader.writeMap(map);
-                }
                 if (api.writeMode() == AnnotatedAPIConfiguration.WriteMode.USAGE) {
                     Set<TypeInfo> sourceTypes = runResult.sourceSortedTypes()
                             .primaryTypeStream().collect(Collectors.toSet());
@@ -131,6 +148,9 @@ public class RunAnalyser implements Runnable {
         } catch (IOException e) {
             LOGGER.error("ERROR: Caught IO exception during run: " + e.getMessage());
             exitValue = Main.EXIT_IO_EXCEPTION;
+        } catch (UncheckedIOException e) {
+            LOGGER.error("ERROR: Caught IO exception during incremental output: " + e.getCause().getMessage());
+            exitValue = Main.EXIT_IO_EXCEPTION;
         }
     }
 
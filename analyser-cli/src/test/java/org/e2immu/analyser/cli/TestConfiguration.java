@@ -14,6 +14,8 @@
 
 package org.e2immu.analyser.cli;
 
+import org.apache.commons.cli.ParseException;
+import org.e2immu.analyser.config.AnalyserConfiguration;
 import org.e2immu.analyser.config.Configuration;
 import org.e2immu.analyser.config.InputConfiguration;
 import org.e2immu.analyser.config.UploadConfiguration;
@@ -24,7 +26,7 @@ import org.slf4j.LoggerFactory;
 import java.util.HashMap;
 import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class TestConfiguration {
     private static final Logger LOGGER = LoggerFactory.getLogger(TestConfiguration.class);
@@ -58,4 +60,25 @@ public class TestConfiguration {
         assertEquals(configuration.toString(), configuration2.toString());
         assertEquals(configuration, configuration2);
     }
+
+    @Test
+    public void testBudgets() throws ParseException {
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Main.TYPE_CYCLE_ITERATION_BUDGET, " 20 ");
+        properties.put(Main.METHOD_TIME_BUDGET, "500");
+        AnalyserConfiguration analyserConfiguration = Main.analyserConfigurationFromProperties(properties);
+        assertEquals(20, analyserConfiguration.typeCycleIterationBudget());
+        assertEquals(500L, analyserConfiguration.methodTimeBudget());
+
+        properties.put(Main.TYPE_CYCLE_ITERATION_BUDGET, "twenty");
+        IllegalArgumentException notANumber = assertThrows(IllegalArgumentException.class,
+                () -> Main.analyserConfigurationFromProperties(properties));
+        assertTrue(notANumber.getMessage().contains(Main.TYPE_CYCLE_ITERATION_BUDGET));
+
+        properties.put(Main.TYPE_CYCLE_ITERATION_BUDGET, "0");
+        assertThrows(IllegalArgumentException.class, () -> Main.analyserConfigurationFromProperties(properties));
+
+        assertEquals(20, Main.parseIntOption(Main.TYPE_CYCLE_ITERATION_BUDGET, " 20"));
+        assertThrows(ParseException.class, () -> Main.parseLongOption(Main.METHOD_TIME_BUDGET, "1s"));
+    }
 }
@@ -0,0 +1,201 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.cli;
+
+import org.e2immu.analyser.config.AnnotationXmlConfiguration;
+import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.config.InputConfiguration;
+import org.e2immu.analyser.parser.Message;
+import org.e2immu.analyser.parser.Parser;
+import org.e2immu.analyser.parser.TypeCycleListener;
+import org.e2immu.analyser.resolver.SortedTypes;
+import org.e2immu.analyser.resolver.TypeCycle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Runs the parser on a small source set of two packages, where package 'a' depends on package 'b'.
+A second listener, registered after the IncrementalOutput, takes a snapshot of the annotations.xml files
+on disk after each type cycle.
+ */
+public class TestIncrementalOutput {
+
+    private static final String PACKAGE_A = "org.e2immu.incremental.a";
+    private static final String PACKAGE_B = "org.e2immu.incremental.b";
+
+    private static final String B = """
+            package org.e2immu.incremental.b;
+
+            public class B {
+                private final int i;
+
+                public B(int i) {
+                    this.i = i;
+                }
+
+                public int getI() {
+                    return i;
+                }
+            }
+            """;
+
+    private static final String A1 = """
+            package org.e2immu.incremental.a;
+
+            import org.e2immu.incremental.b.B;
+
+            public class A1 {
+                public int get(B b) {
+                    return b.getI();
+                }
+            }
+            """;
+
+    private static final String A2 = """
+            package org.e2immu.incremental.a;
+
+            public class A2 {
+                public static int twice(int x) {
+                    return 2 * x;
+                }
+            }
+            """;
+
+    record Snapshot(Set<String> analysedSoFar, boolean aWritten, boolean bWritten) {
+    }
+
+    static class SnapshotListener implements TypeCycleListener {
+        private final File annotationXmlDir;
+        private final Set<String> analysedSoFar = new HashSet<>();
+        final List<Snapshot> snapshots = new ArrayList<>();
+        boolean startAnalysisCalled;
+
+        SnapshotListener(File annotationXmlDir) {
+            this.annotationXmlDir = annotationXmlDir;
+        }
+
+        @Override
+        public void startAnalysis(SortedTypes annotatedAPISortedTypes, SortedTypes sourceSortedTypes) {
+            startAnalysisCalled = true;
+        }
+
+        @Override
+        public void typeCycleAnalysed(TypeCycle typeCycle, List<Message> messages) {
+            typeCycle.primaryTypeStream().forEach(typeInfo -> analysedSoFar.add(typeInfo.simpleName));
+            snapshots.add(new Snapshot(Set.copyOf(analysedSoFar), written(annotationXmlDir, PACKAGE_A),
+                    written(annotationXmlDir, PACKAGE_B)));
+        }
+    }
+
+    private static boolean written(File base, String packageName) {
+        return new File(base, packageName.replace('.', '/') + "/annotations.xml").isFile();
+    }
+
+    private static Configuration configuration(Path sources, Path annotationXmlDir, boolean skipAnalysis)
+            throws IOException {
+        write(sources, PACKAGE_B, "B", B);
+        write(sources, PACKAGE_A, "A1", A1);
+        write(sources, PACKAGE_A, "A2", A2);
+        return new Configuration.Builder()
+                .setSkipAnalysis(skipAnalysis)
+                .setInputConfiguration(new InputConfiguration.Builder()
+                        .addSources(sources.toString())
+                        .addClassPath("jmods/java.base.jmod")
+                        .addClassPath("../analyser/src/main/resources/annotations/minimal")
+                        .build())
+                .setAnnotationXmConfiguration(new AnnotationXmlConfiguration.Builder()
+                        .setAnnotationXml(true)
+                        .setWriteAnnotationXmlDir(annotationXmlDir.toString())
+                        .build())
+                .build();
+    }
+
+    private static void write(Path sources, String packageName, String simpleName, String content)
+            throws IOException {
+        Path directory = sources.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(simpleName + ".java"), content);
+    }
+
+    @Test
+    public void testWritePerPackageAsSoonAsComplete(@TempDir Path sources, @TempDir Path annotationXmlDir)
+            throws IOException {
+        Configuration configuration = configuration(sources, annotationXmlDir, false);
+        Parser parser = new Parser(configuration);
+        List<Message> messages = new ArrayList<>();
+        IncrementalOutput incrementalOutput = new IncrementalOutput(configuration, parser, messages::add);
+        parser.addTypeCycleListener(incrementalOutput);
+        SnapshotListener snapshotListener = new SnapshotListener(annotationXmlDir.toFile());
+        parser.addTypeCycleListener(snapshotListener);
+
+        Parser.RunResult runResult = parser.run();
+
+        assertTrue(snapshotListener.startAnalysisCalled);
+        assertEquals(3, snapshotListener.snapshots.size(), "One type cycle per primary type");
+        for (Snapshot snapshot : snapshotListener.snapshots) {
+            // countdown per package: a file is written as soon as, and not before, all its types have been analysed
+            assertEquals(snapshot.analysedSoFar.contains("B"), snapshot.bWritten, "Snapshot " + snapshot);
+            assertEquals(snapshot.analysedSoFar.containsAll(List.of("A1", "A2")), snapshot.aWritten,
+                    "Snapshot " + snapshot);
+        }
+        // A1 depends on B, so B is analysed first: package 'b' is written while package 'a' is still being analysed
+        assertTrue(snapshotListener.snapshots.stream().anyMatch(s -> s.bWritten && !s.aWritten));
+        assertTrue(snapshotListener.snapshots.get(2).aWritten);
+
+        File fileB = new File(annotationXmlDir.toFile(), PACKAGE_B.replace('.', '/') + "/annotations.xml");
+        long lastModified = fileB.lastModified();
+        String contentB = Files.readString(fileB.toPath());
+        assertTrue(contentB.contains(PACKAGE_B + ".B"), contentB);
+
+        incrementalOutput.finish(runResult);
+        // nothing is left to be written, so finish() does not touch the files that have been emitted
+        assertEquals(lastModified, fileB.lastModified());
+        assertEquals(contentB, Files.readString(fileB.toPath()));
+        // every message is forwarded exactly once
+        assertEquals(parser.countMessages(), messages.size());
+        assertEquals(Set.copyOf(messages).size(), messages.size());
+    }
+
+    @Test
+    public void testFinishWhenAnalysisSkipped(@TempDir Path sources, @TempDir Path annotationXmlDir)
+            throws IOException {
+        Configuration configuration = configuration(sources, annotationXmlDir, true);
+        Parser parser = new Parser(configuration);
+        IncrementalOutput incrementalOutput = new IncrementalOutput(configuration, parser, m -> {
+        });
+        parser.addTypeCycleListener(incrementalOutput);
+        SnapshotListener snapshotListener = new SnapshotListener(annotationXmlDir.toFile());
+        parser.addTypeCycleListener(snapshotListener);
+
+        Parser.RunResult runResult = parser.run();
+
+        assertFalse(snapshotListener.startAnalysisCalled);
+        assertTrue(snapshotListener.snapshots.isEmpty());
+        assertFalse(written(annotationXmlDir.toFile(), PACKAGE_A));
+        assertFalse(written(annotationXmlDir.toFile(), PACKAGE_B));
+
+        incrementalOutput.finish(runResult);
+        assertTrue(written(annotationXmlDir.toFile(), PACKAGE_A));
+        assertTrue(written(annotationXmlDir.toFile(), PACKAGE_B));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.cli;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestProgressReporter {
+
+    @Test
+    public void testAtMostOncePerInterval() {
+        AtomicLong clock = new AtomicLong(0);
+        List<String> reports = new ArrayList<>();
+        ProgressReporter progressReporter = new ProgressReporter(reports::add, clock::get, 1000L);
+        progressReporter.startInspection(10, false);
+        for (int i = 0; i < 10; i++) {
+            clock.addAndGet(300);
+            progressReporter.compilationUnitInspected(null);
+        }
+        // at 300, 1500 (first >= 1300), 2700 (first >= 2500)
+        assertEquals(List.of("Parsed 1/10 compilation units", "Parsed 5/10 compilation units",
+                "Parsed 9/10 compilation units"), reports);
+    }
+
+    @Test
+    public void testDuration() {
+        assertEquals("0s", ProgressReporter.duration(400));
+        assertEquals("59s", ProgressReporter.duration(59_000));
+        assertEquals("2m5s", ProgressReporter.duration(125_000));
+        assertEquals("1h1m", ProgressReporter.duration(3_660_000));
+    }
+}
@@ -15,13 +15,18 @@
 package org.e2immu.analyser.upload;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
 import org.e2immu.analyser.analysis.Analysis;
 import org.e2immu.analyser.config.UploadConfiguration;
 import org.e2immu.analyser.model.*;
@@ -31,13 +36,15 @@ import org.e2immu.analyser.util.SMapList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
+import java.io.*;
+import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 public class AnnotationUploader {
     private static final Logger LOGGER = LoggerFactory.getLogger(AnnotationUploader.class);
@@ -48,11 +55,21 @@ public class AnnotationUploader {
     public static final String TYPE_OF_METHOD_SUFFIX = "-mt";
     public static final String TYPE_OF_FIELD_SUFFIX = "-ft";
 
+    private static final Gson GSON = new Gson();
+    private static final Type STATE_TYPE = new TypeToken<Map<String, String>>() {
+    }.getType();
+    static final long RETRY_PAUSE_MILLIS = 200L;
+
     private final UploadConfiguration configuration;
     private final CloseableHttpClient httpClient = HttpClients.createDefault();
+    private final File stateFile;
+    // in diff mode, the values uploaded during this run and the previous runs; otherwise, empty
+    private final Map<String, String> uploadedState;
 
     public AnnotationUploader(UploadConfiguration configuration) {
         this.configuration = configuration;
+        this.stateFile = configuration.stateFile() == null ? null : new File(configuration.stateFile());
+        this.uploadedState = readState(stateFile);
     }
 
     public Map<String, String> createMap(Collection<TypeInfo> types, Stream<Message> messageStream) {
@@ -154,38 +171,144 @@ public class AnnotationUploader {
         return Map.of(qualifiedName, annotationStrings);
     }
 
-    public void writeMap(Map<String, String> map) {
-        Gson gson = new Gson();
-        String jsonString = gson.toJson(map);
-        LOGGER.debug("Json: {}", jsonString);
-        writeJson(jsonString);
+    /**
+     * Uploads the map in batches of at most <code>batchSize</code> characters of JSON each, gzip-compressed when
+     * the configuration asks for it.
+     * In diff mode, only the entries whose value differs from the one recorded in the state file are uploaded;
+     * the state file is written once, after the last batch, with the entries of all successful batches.
+     *
+     * @return the number of entries uploaded successfully
+     */
+    public int writeMap(Map<String, String> map) {
+        List<Map.Entry<String, String>> toUpload = map.entrySet().stream()
+                .filter(e -> !e.getValue().equals(uploadedState.get(e.getKey())))
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        if (toUpload.isEmpty()) {
+            LOGGER.debug("Nothing to upload, {} entries unchanged", map.size());
+            return 0;
+        }
+        int uploaded = 0;
+        try {
+            List<Map.Entry<String, String>> batch = new ArrayList<>();
+            int batchChars = 2; // {}
+            for (Map.Entry<String, String> entry : toUpload) {
+                int entryChars = jsonLength(entry);
+                if (!batch.isEmpty() && batchChars + entryChars > configuration.batchSize()) {
+                    uploaded += writeBatch(batch);
+                    batch = new ArrayList<>();
+                    batchChars = 2;
+                }
+                batch.add(entry);
+                batchChars += entryChars;
+            }
+            uploaded += writeBatch(batch);
+        } finally {
+            if (stateFile != null && uploaded > 0) writeState();
+        }
+        LOGGER.debug("Uploaded {} of {} entries, {} unchanged", uploaded, toUpload.size(), map.size() - toUpload.size());
+        return uploaded;
     }
 
-    private void writeJson(String jsonBody) {
-        String url = configuration.createUrlWithProjectName("set");
-        HttpPut httpPut = new HttpPut(url);
+    // "key":"value", including quotes and separators; an upper bound, because Gson escapes HTML characters here
+    private static int jsonLength(Map.Entry<String, String> entry) {
+        return GSON.toJson(entry.getKey()).length() + GSON.toJson(entry.getValue()).length() + 2;
+    }
+
+    private int writeBatch(List<Map.Entry<String, String>> batch) {
+        byte[] body;
         try {
-            httpPut.setEntity(new StringEntity(jsonBody));
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("Could not encode the JSON body");
+            body = json(batch, configuration.gzip());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!writeJson(body)) return 0;
+        if (stateFile != null) {
+            batch.forEach(e -> uploadedState.put(e.getKey(), e.getValue()));
+        }
+        return batch.size();
+    }
+
+    private static byte[] json(List<Map.Entry<String, String>> batch, boolean gzip) throws IOException {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        OutputStream outputStream = gzip ? new GZIPOutputStream(byteArrayOutputStream) : byteArrayOutputStream;
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            for (Map.Entry<String, String> entry : batch) {
+                writer.name(entry.getKey()).value(entry.getValue());
+            }
+            writer.endObject();
         }
-        LOGGER.debug("Calling PUT on " + url);
-        try (CloseableHttpResponse response = httpClient.execute(httpPut)) {
-            int statusCode = response.getStatusLine().getStatusCode();
-            if (statusCode == 200) {
-                HttpEntity entity = response.getEntity();
-                JsonReader reader = new JsonReader(new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8));
-                reader.beginObject();
-                while (reader.hasNext()) {
-                    String action = reader.nextName();
-                    int count = reader.nextInt();
-                    LOGGER.debug("Response: {} = {}", action, count);
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /*
+    Retried on an IOException or a 5xx response, with a linearly increasing pause; not on other responses.
+     */
+    private boolean writeJson(byte[] jsonBody) {
+        String url = configuration.createUrlWithProjectName("set");
+        for (int attempt = 0; attempt <= configuration.retries(); attempt++) {
+            if (attempt > 0) {
+                LOGGER.debug("Retry {} of PUT on {}", attempt, url);
+                try {
+                    Thread.sleep(RETRY_PAUSE_MILLIS * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            HttpPut httpPut = new HttpPut(url);
+            ByteArrayEntity entity = new ByteArrayEntity(jsonBody, ContentType.APPLICATION_JSON);
+            if (configuration.gzip()) entity.setContentEncoding("gzip");
+            httpPut.setEntity(entity);
+            LOGGER.debug("Calling PUT on {} with {} bytes", url, jsonBody.length);
+            try (CloseableHttpResponse response = httpClient.execute(httpPut)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                if (statusCode == 200) {
+                    HttpEntity responseEntity = response.getEntity();
+                    JsonReader reader = new JsonReader(new InputStreamReader(responseEntity.getContent(), StandardCharsets.UTF_8));
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String action = reader.nextName();
+                        int count = reader.nextInt();
+                        LOGGER.debug("Response: {} = {}", action, count);
+                    }
+                    return true;
                 }
-            } else {
                 LOGGER.warn("PUT on {} returned response code {}", url, statusCode);
+                EntityUtils.consume(response.getEntity());
+                if (statusCode < 500) return false;
+            } catch (IOException e) {
+                LOGGER.warn("IOException when calling PUT on {}: {}", url, e.getMessage());
             }
+        }
+        return false;
+    }
+
+    private static Map<String, String> readState(File stateFile) {
+        if (stateFile == null || !stateFile.canRead()) return new HashMap<>();
+        try (Reader reader = new InputStreamReader(new FileInputStream(stateFile), StandardCharsets.UTF_8)) {
+            Map<String, String> state = GSON.fromJson(reader, STATE_TYPE);
+            return state == null ? new HashMap<>() : new HashMap<>(state);
+        } catch (IOException | JsonParseException e) {
+            LOGGER.warn("Cannot read upload state file {}, uploading everything: {}", stateFile, e.getMessage());
+            return new HashMap<>();
+        }
+    }
+
+    // written to a temporary file first, so that an interrupted run never leaves half a state file
+    private void writeState() {
+        File tmp = new File(stateFile.getAbsoluteFile().getParentFile(), stateFile.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            GSON.toJson(new TreeMap<>(uploadedState), writer);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write upload state file {}: {}", tmp, e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
-            LOGGER.warn("IOException when calling PUT on {}: {}", url, e.getMessage());
+            LOGGER.warn("Cannot replace upload state file {}: {}", stateFile, e.getMessage());
         }
     }
 }
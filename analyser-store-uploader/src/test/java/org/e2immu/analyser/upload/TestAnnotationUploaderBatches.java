@@ -0,0 +1,198 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.upload;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpServer;
+import org.e2immu.analyser.config.UploadConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Uses a local stand-in for the annotation server, which records the (decompressed) bodies and the content encoding
+of the requests, and can be told to fail a number of times before accepting them.
+ */
+public class TestAnnotationUploaderBatches {
+    private static final String PROJECT = "test";
+
+    private HttpServer server;
+    private final List<Map<String, String>> bodies = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> bodySizes = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> contentEncodings = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failuresToGo = new AtomicInteger();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v1/set/" + PROJECT, exchange -> {
+            requests.incrementAndGet();
+            assertEquals("PUT", exchange.getRequestMethod());
+            String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            contentEncodings.add(contentEncoding);
+            byte[] body;
+            try (InputStream in = "gzip".equals(contentEncoding) ? new GZIPInputStream(exchange.getRequestBody())
+                    : exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            byte[] response;
+            int status;
+            if (failuresToGo.getAndDecrement() > 0) {
+                status = 503;
+                response = "{}".getBytes(StandardCharsets.UTF_8);
+            } else {
+                status = 200;
+                String json = new String(body, StandardCharsets.UTF_8);
+                Map<String, String> map = new Gson().fromJson(json, new TypeToken<Map<String, String>>() {
+                }.getType());
+                bodies.add(map);
+                bodySizes.add(json.length());
+                response = ("{\"updated\":" + map.size() + "}").getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.sendResponseHeaders(status, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private UploadConfiguration configuration(int batchSize, File stateFile) {
+        return configuration(batchSize, stateFile, false);
+    }
+
+    private UploadConfiguration configuration(int batchSize, File stateFile, boolean gzip) {
+        return new UploadConfiguration.Builder()
+                .setUpload(true)
+                .setAnnotationServerUrl("http://localhost:" + server.getAddress().getPort() + "/v1")
+                .setProjectName(PROJECT)
+                .setBatchSize(batchSize)
+                .setRetries(2)
+                .setStateFile(stateFile == null ? null : stateFile.getAbsolutePath())
+                .setGzip(gzip)
+                .build();
+    }
+
+    private static Map<String, String> createMap(int n) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            map.put("org.e2immu.test.Type" + i + ".method(java.util.List<java.lang.String>)", "modified-m,notnull-m");
+        }
+        return map;
+    }
+
+    @Test
+    public void testBatches() {
+        Map<String, String> map = createMap(100);
+        AnnotationUploader uploader = new AnnotationUploader(configuration(1000, null));
+        assertEquals(100, uploader.writeMap(map));
+
+        assertTrue(bodies.size() > 5, "Have " + bodies.size());
+        assertTrue(bodySizes.stream().allMatch(size -> size <= 1000), "Have " + bodySizes);
+        Map<String, String> received = new HashMap<>();
+        bodies.forEach(received::putAll);
+        assertEquals(map, received);
+
+        // without a state file, everything is uploaded again
+        assertEquals(100, uploader.writeMap(map));
+
+        // not compressed, unless asked for
+        assertTrue(contentEncodings.stream().allMatch(Objects::isNull), "Have " + contentEncodings);
+    }
+
+    @Test
+    public void testGzip() {
+        Map<String, String> map = createMap(100);
+        AnnotationUploader uploader = new AnnotationUploader(configuration(1000, null, true));
+        assertEquals(100, uploader.writeMap(map));
+
+        assertTrue(bodies.size() > 5, "Have " + bodies.size());
+        assertTrue(contentEncodings.stream().allMatch("gzip"::equals), "Have " + contentEncodings);
+        Map<String, String> received = new HashMap<>();
+        bodies.forEach(received::putAll);
+        assertEquals(map, received);
+    }
+
+    @Test
+    public void testRetry() {
+        failuresToGo.set(2);
+        AnnotationUploader uploader = new AnnotationUploader(configuration(UploadConfiguration.DEFAULT_BATCH_SIZE, null));
+        assertEquals(10, uploader.writeMap(createMap(10)));
+        assertEquals(3, requests.get());
+        assertEquals(1, bodies.size());
+
+        // more failures than retries: the batch is given up
+        failuresToGo.set(3);
+        requests.set(0);
+        assertEquals(0, uploader.writeMap(createMap(10)));
+        assertEquals(3, requests.get());
+        assertEquals(1, bodies.size());
+    }
+
+    @Test
+    public void testDiff() throws IOException {
+        File stateFile = new File(Files.createTempDirectory("e2immu").toFile(), "upload-state.json");
+        Map<String, String> map = createMap(20);
+        assertEquals(20, new AnnotationUploader(configuration(1000, stateFile)).writeMap(map));
+        assertTrue(stateFile.canRead());
+        try (Reader reader = new InputStreamReader(Files.newInputStream(stateFile.toPath()), StandardCharsets.UTF_8)) {
+            Map<String, String> state = new Gson().fromJson(reader, new TypeToken<Map<String, String>>() {
+            }.getType());
+            assertEquals(map, state);
+        }
+        // written via a temporary file, which does not stay behind
+        assertArrayEquals(new String[]{stateFile.getName()}, stateFile.getParentFile().list());
+
+        // a new uploader, as in the next run: only the changed value is sent
+        bodies.clear();
+        requests.set(0);
+        Map<String, String> changed = new HashMap<>(map);
+        String key = "org.e2immu.test.Type3.method(java.util.List<java.lang.String>)";
+        changed.put(key, "notmodified-m");
+        AnnotationUploader uploader = new AnnotationUploader(configuration(1000, stateFile));
+        assertEquals(1, uploader.writeMap(changed));
+        assertEquals(List.of(Map.of(key, "notmodified-m")), bodies);
+        assertEquals(0, uploader.writeMap(changed));
+        assertEquals(1, requests.get());
+
+        // a failed batch is not recorded, and is sent again the next time
+        failuresToGo.set(3);
+        changed.put(key, "modified-m");
+        assertEquals(0, uploader.writeMap(changed));
+        assertEquals(1, uploader.writeMap(changed));
+    }
+}
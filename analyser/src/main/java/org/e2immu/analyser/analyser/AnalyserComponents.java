@@ -14,6 +14,7 @@
 
 package org.e2immu.analyser.analyser;
 
+import org.e2immu.analyser.analyser.util.ComponentProfile;
 import org.e2immu.analyser.config.AnalyserProgram;
 import org.e2immu.analyser.model.WithInspectionAndAnalysis;
 import org.e2immu.analyser.util.Pair;
@@ -49,6 +50,10 @@ public class AnalyserComponents<T, S> {
             return cnt;
         }
 
+        public Map<CauseOfDelay.Cause, Integer> getCauses() {
+            return Collections.unmodifiableMap(causes);
+        }
+
         @Override
         public String toString() {
             return cnt + " =  " + causes.entrySet().stream().sorted((e1, e2) -> e2.getValue() - e1.getValue()).map(e -> e.getKey().label + "=" + e.getValue()).collect(Collectors.joining(", "));
@@ -66,9 +71,11 @@ public class AnalyserComponents<T, S> {
     private final boolean limitCausesOfDelay;
     private final Map<WithInspectionAndAnalysis, Info> delayHistogram;
     private final Function<S, S> updateUponProgress;
+    private final ComponentProfile profile;
+    private final String analyserKind;
 
     private AnalyserComponents(boolean limitCausesOfDelay, LinkedHashMap<T, AnalysisResultSupplier<S>> suppliers,
-                               Function<S, S> updateUponProgress) {
+                               Function<S, S> updateUponProgress, ComponentProfile profile, String analyserKind) {
         this.suppliers = suppliers;
         state = new AnalysisStatus[suppliers.size()];
         Arrays.fill(state, AnalysisStatus.NOT_YET_EXECUTED);
@@ -79,6 +86,8 @@ public class AnalyserComponents<T, S> {
             delayHistogram = null;
         }
         this.updateUponProgress = updateUponProgress;
+        this.profile = profile;
+        this.analyserKind = analyserKind;
     }
 
     public AnalysisStatus getStatus(String t) {
@@ -94,6 +103,8 @@ public class AnalyserComponents<T, S> {
         private final AnalyserProgram analyserProgram;
         private boolean limitCausesOfDelay;
         private Function<S, S> updateUponProgress;
+        private ComponentProfile profile;
+        private String analyserKind;
 
         public Builder(AnalyserProgram analyserProgram) {
             this.analyserProgram = analyserProgram;
@@ -120,8 +131,18 @@ public class AnalyserComponents<T, S> {
             return this;
         }
 
+        /**
+         * @param profile      null when profiling has not been enabled
+         * @param analyserKind the key in the profile, e.g. CMA, SA
+         */
+        public Builder<T, S> setProfile(ComponentProfile profile, String analyserKind) {
+            this.profile = profile;
+            this.analyserKind = analyserKind;
+            return this;
+        }
+
         public AnalyserComponents<T, S> build() {
-            return new AnalyserComponents<>(limitCausesOfDelay, suppliers, updateUponProgress);
+            return new AnalyserComponents<>(limitCausesOfDelay, suppliers, updateUponProgress, profile, analyserKind);
         }
     }
 
@@ -145,7 +166,15 @@ public class AnalyserComponents<T, S> {
             AnalysisStatus initialState = state[i];
             if (initialState != DONE) {
                 // execute
-                AnalysisStatus afterExec = supplier.apply(s);
+                AnalysisStatus afterExec;
+                if (profile == null) {
+                    afterExec = supplier.apply(s);
+                } else {
+                    long startNanos = System.nanoTime();
+                    long startAllocated = profile.allocatedBytes();
+                    afterExec = supplier.apply(s);
+                    profile.record(analyserKind, entry.getKey().toString(), startNanos, startAllocated);
+                }
                 assert afterExec != NOT_YET_EXECUTED;
                 if (afterExec == DONE || afterExec == DONE_ALL || afterExec.isProgress()) {
                     if (!progress) {
@@ -14,6 +14,9 @@
 
 package org.e2immu.analyser.analyser;
 
+import org.e2immu.analyser.analyser.util.ComponentProfile;
+import org.e2immu.analyser.analyser.util.ConvergenceReport;
+import org.e2immu.analyser.analyser.util.SlowMethodDetector;
 import org.e2immu.analyser.analysis.FieldAnalysis;
 import org.e2immu.analyser.analysis.MethodAnalysis;
 import org.e2immu.analyser.analysis.ParameterAnalysis;
@@ -87,6 +90,36 @@ public interface AnalyserContext extends AnalysisProvider, InspectionProvider {
         return null;
     }
 
+    /*
+    The component profile, the convergence report and the slow method detector are created once per analysis,
+    by the AnnotatedAPIAnalyser, which is the root of the analyser contexts. All other contexts delegate to their
+    parent. The Parser writes their reports at the end of the analysis.
+     */
+
+    /**
+     * @return null when component profiling has not been enabled in the configuration
+     */
+    default ComponentProfile getComponentProfile() {
+        AnalyserContext parent = getParent();
+        return parent == null ? null : parent.getComponentProfile();
+    }
+
+    /**
+     * @return null when the convergence report has not been enabled in the configuration
+     */
+    default ConvergenceReport getConvergenceReport() {
+        AnalyserContext parent = getParent();
+        return parent == null ? null : parent.getConvergenceReport();
+    }
+
+    /**
+     * @return null when the detection of slow methods has not been enabled in the configuration
+     */
+    default SlowMethodDetector getSlowMethodDetector() {
+        AnalyserContext parent = getParent();
+        return parent == null ? null : parent.getSlowMethodDetector();
+    }
+
     default FieldAnalysis getFieldAnalysis(FieldInfo fieldInfo) {
         FieldAnalyser fieldAnalyser = getFieldAnalyser(fieldInfo);
         if (fieldAnalyser == null) {
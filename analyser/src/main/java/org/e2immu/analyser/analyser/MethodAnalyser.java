@@ -58,4 +58,10 @@ public interface MethodAnalyser extends Analyser {
 
     @NotNull1
     List<ParameterAnalysis> getParameterAnalyses();
+
+    /*
+    The analysis budget of the method or its type cycle has been exhausted: replace the remaining delays in the
+    analyses of the method, its parameters and its statements by conservative values.
+     */
+    void forceConservativeValues();
 }
@@ -14,6 +14,7 @@
 
 package org.e2immu.analyser.analyser;
 
+import org.e2immu.analyser.analyser.util.IterationStatistics;
 import org.e2immu.analyser.model.TypeInfo;
 
 import java.util.function.Consumer;
@@ -25,4 +26,9 @@ public interface PrimaryTypeAnalyser extends AnalyserContext, Analyser {
     void loopOverAnalysers(Consumer<Analyser> consumer);
 
     void analyse();
+
+    /**
+     * @return the iteration counts of the last call to analyse()
+     */
+    IterationStatistics getIterationStatistics();
 }
@@ -184,6 +184,14 @@ public class Properties implements Comparable<Properties> {
         }
     }
 
+    public void replaceDelaysByConservativeValue() {
+        for (Map.Entry<Property, DV> entry : map.entrySet()) {
+            if (entry.getValue().isDelayed()) {
+                entry.setValue(entry.getKey().conservativeValue());
+            }
+        }
+    }
+
     public Properties merge(Properties valueProperties) {
         Map<Property, DV> merged = new HashMap<>(map);
         valueProperties.stream().forEach(e -> merged.merge(e.getKey(), e.getValue(), DV::min));
@@ -226,6 +226,19 @@ public enum Property {
         return valueWhenAbsentDv;
     }
 
+    /*
+    The value to assume when the analyser gives up on a property (analysis budget exhausted): the lowest value
+    of the lattice, except for the modification properties, where the safe assumption is that a modification
+    takes place.
+     */
+    public DV conservativeValue() {
+        return switch (this) {
+            case MODIFIED_VARIABLE, MODIFIED_OUTSIDE_METHOD, CONTEXT_MODIFIED, MODIFIED_METHOD, TEMP_MODIFIED_METHOD,
+                    MODIFIED_METHOD_ALT_TEMP -> DV.TRUE_DV;
+            default -> falseDv;
+        };
+    }
+
     public CauseOfDelay.Cause causeOfDelay() {
         if (cause == null) throw new UnsupportedOperationException("Cannot cause a delay! " + name);
         return cause;
@@ -18,6 +18,7 @@ import org.e2immu.analyser.model.Expression;
 import org.e2immu.analyser.model.Location;
 import org.e2immu.analyser.model.MethodInfo;
 import org.e2immu.analyser.model.expression.And;
+import org.e2immu.analyser.model.expression.BooleanConstant;
 import org.e2immu.analyser.model.expression.Or;
 import org.e2immu.analyser.model.expression.UnknownExpression;
 import org.e2immu.analyser.model.expression.VariableExpression;
@@ -90,6 +91,38 @@ public class StateData {
         }
     }
 
+    /*
+    analysis budget exhausted: no condition, no precondition; the value of the expression, and the states,
+    are unknown
+     */
+    public void forceConservativeValues(Primitives primitives) {
+        if (conditionManagerForNextStatement.isVariable()) {
+            conditionManagerForNextStatement.setFinal(ConditionManager.initialConditionManager(primitives));
+        }
+        if (precondition.isVariable()) {
+            precondition.setFinal(Precondition.empty(primitives));
+        }
+        if (preconditionFromMethodCalls.isVariable()) {
+            preconditionFromMethodCalls.setFinal(Precondition.empty(primitives));
+        }
+        if (valueOfExpression.isVariable()) {
+            Expression delayed = valueOfExpression.get();
+            valueOfExpression.setFinal(UnknownExpression.forVariableValue(delayed.getIdentifier(),
+                    delayed.returnType()));
+        }
+        Expression noState = new BooleanConstant(primitives, true);
+        if (statesOfInterrupts != null) {
+            statesOfInterrupts.stream().forEach(e -> {
+                if (e.getValue().isVariable()) e.getValue().setFinal(noState);
+            });
+        }
+        if (statesOfReturnInLoop != null) {
+            statesOfReturnInLoop.stream().forEach(e -> {
+                if (e.getValue().isVariable()) e.getValue().setFinal(noState);
+            });
+        }
+    }
+
     public boolean equalityAccordingToStateIsSet(VariableExpression variable) {
         return equalityAccordingToState.isSet(variable);
     }
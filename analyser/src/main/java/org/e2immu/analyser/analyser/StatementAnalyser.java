@@ -57,4 +57,7 @@ public interface StatementAnalyser extends HasNavigationData<StatementAnalyser>
     Stream<Message> getMessageStream();
 
     void makeUnreachable();
+
+    // see MethodAnalyser.forceConservativeValues; acts on this statement, its sub-blocks and the statements following it
+    void forceConservativeValues();
 }
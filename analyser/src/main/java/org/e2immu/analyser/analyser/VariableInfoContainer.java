@@ -207,6 +207,9 @@ public interface VariableInfoContainer {
 
     void markOverride(Property property, DV value);
 
+    // analysis budget exhausted, see StatementAnalysis.forceConservativeValues; frozen containers are left alone
+    void forceConservativeValues();
+
     SetOnceMap<Property, DV> propertyOverrides();
 
     default LinkedVariables initialLinkedVariables() {
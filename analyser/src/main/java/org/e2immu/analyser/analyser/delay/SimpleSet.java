@@ -20,6 +20,7 @@ import org.e2immu.analyser.analyser.CausesOfDelay;
 import org.e2immu.analyser.model.TranslationMap;
 import org.e2immu.analyser.model.variable.Variable;
 import org.e2immu.analyser.parser.InspectionProvider;
+import org.e2immu.analyser.util.Metrics;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -62,6 +63,7 @@ class SimpleSet extends AbstractDelay {
     @Override
     public CausesOfDelay merge(CausesOfDelay other) {
         if (other.isDone()) return this;
+        Metrics.causesOfDelayMerge();
         if (maxPriority < other.maxPriority()) return other;
         if (maxPriority > other.maxPriority()) return this;
         if (maxPriority == CauseOfDelay.LOW) return this; // we're delayed, the other is too, same level
@@ -19,6 +19,7 @@ import org.e2immu.analyser.analyser.CausesOfDelay;
 import org.e2immu.analyser.model.TranslationMap;
 import org.e2immu.analyser.model.variable.Variable;
 import org.e2immu.analyser.parser.InspectionProvider;
+import org.e2immu.analyser.util.Metrics;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -65,6 +66,7 @@ public class SingleDelay extends AbstractDelay {
     @Override
     public CausesOfDelay merge(CausesOfDelay other) {
         if (other.isDone()) return this;
+        Metrics.causesOfDelayMerge();
         if (maxPriority() < other.maxPriority()) {
             //LOGGER.debug("Dropping {} in favour of {}", this, other);
             return other;
@@ -75,7 +75,7 @@ public class AggregatingMethodAnalyser extends MethodAnalyserImpl {
                 .add(NOT_NULL, iteration -> this.aggregate(Property.NOT_NULL_EXPRESSION, DV::min, DV.MAX_INT_DV))
                 .add(METHOD_VALUE, iteration -> this.aggregateMethodValue());
 
-        analyserComponents = builder.build();
+        analyserComponents = builder.setProfile(analyserContext.getComponentProfile(), "AMA").build();
     }
 
     @Override
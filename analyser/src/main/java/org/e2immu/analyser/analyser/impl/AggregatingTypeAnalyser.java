@@ -60,7 +60,7 @@ public class AggregatingTypeAnalyser extends TypeAnalyserImpl {
                 .add(TRANSPARENT, iteration -> this.aggregateTransparent())
                 .add(IMMUTABLE_CAN_BE_INCREASED, iteration -> super.analyseImmutableCanBeIncreasedByTypeParameters());
 
-        analyserComponents = builder.build();
+        analyserComponents = builder.setProfile(analyserContext.getComponentProfile(), "ATA").build();
     }
 
     @Override
@@ -16,6 +16,9 @@ package org.e2immu.analyser.analyser.impl;
 
 import org.e2immu.analyser.analyser.*;
 import org.e2immu.analyser.analyser.util.AnalyserResult;
+import org.e2immu.analyser.analyser.util.ComponentProfile;
+import org.e2immu.analyser.analyser.util.ConvergenceReport;
+import org.e2immu.analyser.analyser.util.SlowMethodDetector;
 import org.e2immu.analyser.analysis.MethodAnalysis;
 import org.e2immu.analyser.analysis.ParameterAnalysis;
 import org.e2immu.analyser.analysis.TypeAnalysis;
@@ -30,6 +33,7 @@ import org.e2immu.analyser.model.expression.UnknownExpression;
 import org.e2immu.analyser.model.expression.VariableExpression;
 import org.e2immu.analyser.parser.*;
 import org.e2immu.analyser.pattern.PatternMatcher;
+import org.e2immu.analyser.util.AnalyserEvents;
 import org.e2immu.analyser.util.DependencyGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -82,6 +86,9 @@ public class AnnotatedAPIAnalyser implements AnalyserContext {
     private final Map<MethodInfo, MethodAnalyser> methodAnalysers;
     private final TypeMap typeMap;
     private final AnalyserProgram analyserProgram;
+    private final ComponentProfile componentProfile;
+    private final ConvergenceReport convergenceReport;
+    private final SlowMethodDetector slowMethodDetector;
 
     public AnnotatedAPIAnalyser(List<TypeInfo> types,
                                 Configuration configuration,
@@ -98,6 +105,13 @@ public class AnnotatedAPIAnalyser implements AnalyserContext {
         this.configuration = configuration;
         this.e2ImmuAnnotationExpressions = e2ImmuAnnotationExpressions;
         this.analyserProgram = AnalyserProgram.PROGRAM_ALL;
+        // this analyser is the root of all analyser contexts
+        this.componentProfile = configuration.analyserConfiguration().componentProfileFile() == null ? null
+                : new ComponentProfile();
+        this.convergenceReport = configuration.analyserConfiguration().convergenceReportFile() == null ? null
+                : new ConvergenceReport();
+        this.slowMethodDetector = configuration.analyserConfiguration().slowMethodDirectory() == null ? null
+                : new SlowMethodDetector(configuration.analyserConfiguration());
 
         LOGGER.debug("Have {} types", types.size());
 
@@ -200,6 +214,8 @@ public class AnnotatedAPIAnalyser implements AnalyserContext {
      */
     public Stream<Message> analyse() {
         LOGGER.debug("Starting AnnotatedAPI analysis on {} types", typeAnalyses.size());
+        AnalyserEvents.AnnotatedAPIAnalysis event = new AnalyserEvents.AnnotatedAPIAnalysis();
+        event.begin();
 
         hardcodedCrucialClasses();
 
@@ -252,6 +268,11 @@ public class AnnotatedAPIAnalyser implements AnalyserContext {
         }
         validateIndependence();
 
+        if (event.shouldCommit()) {
+            event.types = typeAnalyses.size();
+            event.methods = methodAnalysers.size();
+            event.commit();
+        }
         return Stream.concat(methodAnalysers.values().stream().flatMap(MethodAnalyser::getMessageStream),
                 Stream.concat(shallowFieldAnalyser.getMessageStream(), messages.getMessageStream()));
     }
@@ -386,6 +407,21 @@ public class AnnotatedAPIAnalyser implements AnalyserContext {
         methodInfo.setAnalysis(builder.build());
     }
 
+    @Override
+    public ComponentProfile getComponentProfile() {
+        return componentProfile;
+    }
+
+    @Override
+    public ConvergenceReport getConvergenceReport() {
+        return convergenceReport;
+    }
+
+    @Override
+    public SlowMethodDetector getSlowMethodDetector() {
+        return slowMethodDetector;
+    }
+
     @Override
     public Configuration getConfiguration() {
         return configuration;
@@ -80,6 +80,7 @@ public class ComputedParameterAnalyser extends ParameterAnalyserImpl {
                     .add(ANALYSE_INDEPENDENT_NO_ASSIGNMENT, ITERATION_1PLUS, this::analyseIndependentNoAssignment)
                     .add(ANALYSE_CONTAINER_NO_ASSIGNMENT, ITERATION_1PLUS, this::analyseContainerNoAssignment)
                     .add("followExtImm", this::followExternalImmutable)
+                    .setProfile(analyserContext.getComponentProfile(), "CPA")
                     .build();
 
     private AnalysisStatus analyseFirstIteration(SharedState sharedState) {
@@ -153,7 +153,9 @@ public class ComputingMethodAnalyser extends MethodAnalyserImpl {
                 .add(ANNOTATE_EVENTUAL, this::annotateEventual)
                 .add(COMPUTE_INDEPENDENT, this::computeIndependent);
 
-        analyserComponents = builder.setLimitCausesOfDelay(true).build();
+        analyserComponents = builder.setLimitCausesOfDelay(true)
+                .setProfile(analyserContext.getComponentProfile(), "CMA")
+                .build();
     }
 
     @Override
@@ -236,6 +238,14 @@ public class ComputingMethodAnalyser extends MethodAnalyserImpl {
         }
     }
 
+    @Override
+    public void forceConservativeValues() {
+        if (firstStatementAnalyser != null) {
+            firstStatementAnalyser.forceConservativeValues();
+        }
+        super.forceConservativeValues();
+    }
+
     @Override
     public boolean makeUnreachable() {
         if (super.makeUnreachable()) {
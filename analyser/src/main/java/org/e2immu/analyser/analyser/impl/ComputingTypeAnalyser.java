@@ -105,7 +105,13 @@ public class ComputingTypeAnalyser extends TypeAnalyserImpl {
                 .add(ANALYSE_TRANSPARENT_TYPES, iteration -> analyseTransparentTypes())
                 .add(ANALYSE_IMMUTABLE_CAN_BE_INCREASED, iteration -> analyseImmutableCanBeIncreasedByTypeParameters());
 
-        if (typeInfo.isInterface()) {
+        /*
+        The implementation of a lambda has no fields, no constructors, and a single non-static method which implements
+        the SAM. The approved preconditions are empty (the SAM is excluded from the assigning methods), and it cannot
+        be a utility class, singleton or extension class. We write these values directly rather than iterating.
+         */
+        boolean lambda = typeInspection.isLambdaImplementation();
+        if (typeInfo.isInterface() || lambda) {
             typeAnalysis.freezeApprovedPreconditionsE1();
             typeAnalysis.freezeApprovedPreconditionsE2();
         } else {
@@ -115,13 +121,19 @@ public class ComputingTypeAnalyser extends TypeAnalyserImpl {
         builder.add(ANALYSE_EFFECTIVELY_EVENTUALLY_E2IMMUTABLE, this::analyseEffectivelyEventuallyE2Immutable)
                 .add(ANALYSE_INDEPENDENT, this::analyseIndependent)
                 .add(ANALYSE_CONTAINER, this::analyseContainer);
-        if (!typeInfo.isInterface()) {
+        if (lambda) {
+            typeAnalysis.setProperty(Property.UTILITY_CLASS, DV.FALSE_DV);
+            typeAnalysis.setProperty(Property.SINGLETON, DV.FALSE_DV);
+            typeAnalysis.setProperty(Property.EXTENSION_CLASS, DV.FALSE_DV);
+        } else if (!typeInfo.isInterface()) {
             builder.add(ANALYSE_UTILITY_CLASS, iteration -> analyseUtilityClass())
                     .add(ANALYSE_SINGLETON, iteration -> analyseSingleton())
                     .add(ANALYSE_EXTENSION_CLASS, iteration -> analyseExtensionClass());
         }
 
-        analyserComponents = builder.setLimitCausesOfDelay(true).build();
+        analyserComponents = builder.setLimitCausesOfDelay(true)
+                .setProfile(analyserContext.getComponentProfile(), "CTA")
+                .build();
 
         analyserResultBuilder.addMessages(typeAnalysis.fromAnnotationsIntoProperties(AnalyserIdentification.TYPE,
                 typeInfo.isInterface(),
@@ -43,12 +43,10 @@ import org.e2immu.analyser.model.variable.*;
 import org.e2immu.analyser.parser.E2ImmuAnnotationExpressions;
 import org.e2immu.analyser.parser.InspectionProvider;
 import org.e2immu.analyser.parser.Message;
-import org.e2immu.analyser.resolver.impl.ListOfSortedTypes;
 import org.e2immu.analyser.resolver.impl.SortedType;
 import org.e2immu.analyser.util.StreamUtil;
 import org.e2immu.analyser.visitor.FieldAnalyserVisitor;
 import org.e2immu.annotation.*;
-import org.e2immu.support.Either;
 import org.e2immu.support.EventuallyFinal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -145,6 +143,7 @@ public class FieldAnalyserImpl extends AbstractAnalyser implements FieldAnalyser
                 .add(ANALYSE_BEFORE_MARK, sharedState -> analyseBeforeMark())
                 .add(FIELD_ERRORS, sharedState -> fieldErrors())
                 .setLimitCausesOfDelay(true)
+                .setProfile(analyserContext.getComponentProfile(), "FA")
                 .build();
     }
 
@@ -377,17 +376,9 @@ public class FieldAnalyserImpl extends AbstractAnalyser implements FieldAnalyser
                 FieldInspection.FieldInitialiser fieldInitialiser = fieldInspection.getFieldInitialiser();
                 if (fieldInitialiser.anonymousTypeCreated() != null) {
                     // the resolver has caught all variants into the SAM
-                    // we'll use the default analyser generator here
                     SortedType sortedType = fieldInitialiser.anonymousTypeCreated().typeResolution.get().sortedType();
-                    ListOfSortedTypes listOfSortedTypes = new ListOfSortedTypes(List.of(sortedType));
-                    PrimaryTypeAnalyser primaryTypeAnalyser = new PrimaryTypeAnalyserImpl(analyserContext,
-                            listOfSortedTypes,
-                            analyserContext.getConfiguration(),
-                            analyserContext.getPrimitives(),
-                            analyserContext.importantClasses(),
-                            Either.left(analyserContext.getPatternMatcher()),
-                            analyserContext.getE2ImmuAnnotationExpressions());
-                    primaryTypeAnalyser.initialize();
+                    PrimaryTypeAnalyser primaryTypeAnalyser = PrimaryTypeAnalyserImpl.forLocalTypes(analyserContext,
+                            List.of(sortedType));
                     anonymousTypeAnalyser.setFinal(primaryTypeAnalyser);
                     recursivelyAddPrimaryTypeAnalyserToAnalyserContext(primaryTypeAnalyser);
                 }
@@ -241,6 +241,12 @@ public abstract class MethodAnalyserImpl extends AbstractAnalyser implements Met
         parameterAnalysers.forEach(Analyser::makeImmutable);
     }
 
+    @Override
+    public void forceConservativeValues() {
+        methodAnalysis.forceConservativeValues();
+        parameterAnalysers.forEach(pa -> pa.getAnalysis().forceConservativeValues());
+    }
+
     @Override
     public CausesOfDelay fromFieldToParametersStatus() {
         CausesOfDelay delay = parameterAnalysers.stream().filter(pa -> !pa.getParameterAnalysis().isAssignedToFieldDelaysResolved())
@@ -16,7 +16,13 @@ package org.e2immu.analyser.analyser.impl;
 
 import org.e2immu.analyser.analyser.*;
 import org.e2immu.analyser.analyser.util.AnalyserResult;
+import org.e2immu.analyser.analyser.util.ComponentProfile;
+import org.e2immu.analyser.analyser.util.ConvergenceReport;
+import org.e2immu.analyser.analyser.util.IterationStatistics;
+import org.e2immu.analyser.analyser.util.SlowMethodDetector;
 import org.e2immu.analyser.analysis.Analysis;
+import org.e2immu.analyser.analysis.impl.MethodAnalysisImpl;
+import org.e2immu.analyser.config.AnalyserConfiguration;
 import org.e2immu.analyser.config.Configuration;
 import org.e2immu.analyser.inspector.TypeContext;
 import org.e2immu.analyser.inspector.impl.MethodInspectionImpl;
@@ -24,10 +30,15 @@ import org.e2immu.analyser.model.*;
 import org.e2immu.analyser.parser.E2ImmuAnnotationExpressions;
 import org.e2immu.analyser.parser.ImportantClasses;
 import org.e2immu.analyser.parser.Message;
+import org.e2immu.analyser.parser.Messages;
 import org.e2immu.analyser.parser.Primitives;
 import org.e2immu.analyser.pattern.PatternMatcher;
 import org.e2immu.analyser.resolver.AnalyserGenerator;
 import org.e2immu.analyser.resolver.TypeCycle;
+import org.e2immu.analyser.resolver.impl.ListOfSortedTypes;
+import org.e2immu.analyser.resolver.impl.SortedType;
+import org.e2immu.analyser.util.AnalyserEvents;
+import org.e2immu.analyser.util.Metrics;
 import org.e2immu.analyser.util.Pair;
 import org.e2immu.support.Either;
 import org.e2immu.support.FlipSwitch;
@@ -69,6 +80,10 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
     private final AnalyserComponents<Analyser, SharedState> analyserComponents;
     private final FlipSwitch unreachable = new FlipSwitch();
     private final Set<Integer> iterationsWithAllowBreakDelay = new HashSet<>();
+    private final Messages budgetMessages = new Messages();
+    private final Map<TypeInfo, BreakDelayState> breakDelayStates = new LinkedHashMap<>();
+    private int iterations;
+    private IterationStatistics iterationStatistics = IterationStatistics.EMPTY;
 
     public PrimaryTypeAnalyserImpl(AnalyserContext parent,
                                    TypeCycle typeCycle,
@@ -102,27 +117,88 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
         AnalyserComponents.Builder<Analyser, SharedState> builder = new AnalyserComponents.Builder<>(PROGRAM_ALL);
         builder.setLimitCausesOfDelay(true);
 
+        AnalyserConfiguration analyserConfiguration = configuration.analyserConfiguration();
+        boolean useMethodBudget = analyserConfiguration.conservativeFallback()
+                && (analyserConfiguration.methodIterationBudget() > 0 || analyserConfiguration.methodTimeBudget() > 0);
+
+        SlowMethodDetector slowMethodDetector = getSlowMethodDetector();
+        // in the type cycle mode, all analysers share the break-delay state of the first primary type
+        TypeInfo typeCycleKey = analyserConfiguration.breakDelayPerTypeCycle() && !analysers.isEmpty()
+                ? analysers.get(0).getMember().primaryType() : null;
         for (Analyser analyser : analysers) {
+            MethodInfo timedMethod = slowMethodDetector != null && analyser instanceof MethodAnalyser ma
+                    ? ma.getMethodInfo() : null;
+            MethodBudget methodBudget = useMethodBudget && analyser instanceof MethodAnalyser
+                    ? new MethodBudget(analyserConfiguration) : null;
+            TypeInfo breakDelayKey = typeCycleKey != null ? typeCycleKey : breakDelayKey(analyser.getMember());
+            BreakDelayState breakDelayState = breakDelayStates.computeIfAbsent(breakDelayKey, t -> new BreakDelayState());
             AnalysisStatus.AnalysisResultSupplier<SharedState> supplier = sharedState -> {
                 analyser.receiveAdditionalTypeAnalysers(localPrimaryTypeAnalysers);
-                AnalyserResult analyserResult = analyser.analyse(sharedState);
+                SharedState mySharedState = sharedState.allowBreakDelay() && !breakDelayState.allowBreakDelay()
+                        ? sharedState.removeAllowBreakDelay() : sharedState;
+                breakDelayState.countCall(mySharedState.allowBreakDelay());
+
+                if (timedMethod != null) slowMethodDetector.enter();
+                long start = methodBudget == null && timedMethod == null ? 0L : System.nanoTime();
+                AnalyserResult analyserResult;
+                try {
+                    analyserResult = analyser.analyse(mySharedState);
+                } finally {
+                    if (timedMethod != null) slowMethodDetector.exit(timedMethod, System.nanoTime() - start);
+                }
                 analyserResultBuilder.add(analyserResult, true, true);
                 if (analyser instanceof MethodAnalyser methodAnalyser) {
                     methodAnalyser.getLocallyCreatedPrimaryTypeAnalysers().forEach(localPrimaryTypeAnalysers::add);
                 }
-                return analyserResult.analysisStatus();
+                AnalysisStatus analysisStatus = analyserResult.analysisStatus();
+                if (methodBudget != null && analysisStatus.isDelayed()
+                        && methodBudget.exhausted(System.nanoTime() - start)) {
+                    forceConservativeValues(analyser, methodBudget.toString());
+                    analysisStatus = AnalysisStatus.DONE;
+                }
+                breakDelayState.update(analysisStatus);
+                return analysisStatus;
             };
 
             builder.add(analyser, supplier);
         }
-        // TODO in larger contexts, removing the allowBreakDelay immediately may be excessively slow
-        // maybe we should do that per PrimaryType, keeping a map?
-        analyserComponents = builder
-                .setUpdateUponProgress(SharedState::removeAllowBreakDelay)
-                .build();
+        // allowBreakDelay is removed per primary type, rather than for the whole type cycle, see BreakDelayState
+        analyserComponents = builder.build();
         LOGGER.debug("List of analysers: {}", analysers);
     }
 
+    /*
+    All the types defined locally, in a statement or in a field initialiser, share a single primary type analyser:
+    one set of analysers, and a single registration in the enclosing analyser contexts.
+    Returns null when there are no types to analyse.
+     */
+    public static PrimaryTypeAnalyser forLocalTypes(AnalyserContext analyserContext, List<SortedType> sortedTypes) {
+        if (sortedTypes.isEmpty()) return null;
+        // we'll use the default analyser generator here
+        PrimaryTypeAnalyser primaryTypeAnalyser = new PrimaryTypeAnalyserImpl(analyserContext,
+                new ListOfSortedTypes(sortedTypes),
+                analyserContext.getConfiguration(),
+                analyserContext.getPrimitives(),
+                analyserContext.importantClasses(),
+                Either.left(analyserContext.getPatternMatcher()),
+                analyserContext.getE2ImmuAnnotationExpressions());
+        primaryTypeAnalyser.initialize();
+        return primaryTypeAnalyser;
+    }
+
+    /*
+    The break-delay state is kept per type of the cycle. For a pool of local types, these are the local types,
+    rather than the primary type enclosing them all: each local type keeps its own loop, and progress in one
+    of them does not take away allowBreakDelay from the others.
+     */
+    private TypeInfo breakDelayKey(WithInspectionAndAnalysis member) {
+        TypeInfo typeInfo = member.getTypeInfo();
+        while (!primaryTypes.contains(typeInfo) && typeInfo.packageNameOrEnclosingType.isRight()) {
+            typeInfo = typeInfo.packageNameOrEnclosingType.getRight();
+        }
+        return typeInfo;
+    }
+
     @Override
     public ImportantClasses importantClasses() {
         return importantClasses;
@@ -145,7 +221,8 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
 
     @Override
     public Stream<Message> getMessageStream() {
-        return analysers.stream().flatMap(Analyser::getMessageStream);
+        return Stream.concat(analysers.stream().flatMap(Analyser::getMessageStream),
+                budgetMessages.getMessageStream());
     }
 
     @Override
@@ -174,25 +251,51 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
         if (typeAnalysers.size() > 10) {
             LOGGER.info("Starting to process {} types, {} methods, {} fields", typeAnalysers.size(), methodAnalysers.size(), fieldAnalysers.size());
         }
+        try {
+            iterate();
+        } finally {
+            iterationStatistics = computeIterationStatistics();
+            SlowMethodDetector slowMethodDetector = getSlowMethodDetector();
+            if (slowMethodDetector != null) detectSlowMethods(slowMethodDetector);
+            LOGGER.debug("Iteration statistics of {}: {}", name, iterationStatistics);
+        }
+    }
 
-        if (!configuration.analyserConfiguration().analyserProgram().accepts(ITERATION_0)) return;
+    private void iterate() {
+        AnalyserConfiguration analyserConfiguration = configuration.analyserConfiguration();
+        if (!analyserConfiguration.analyserProgram().accepts(ITERATION_0)) return;
         int iteration = 0;
         boolean allowBreakDelay = false;
         AnalysisStatus analysisStatus;
-
-        int MAX_ITERATION = 100;
+        breakDelayStates.values().forEach(state -> state.allowBreakDelay = false);
+
+        int maxIterations = analyserConfiguration.typeCycleIterationBudget();
+        long timeBudget = analyserConfiguration.typeCycleTimeBudget();
+        long start = System.currentTimeMillis();
+        boolean timeBudgetExhausted = false;
+        ConvergenceReport convergenceReport = getConvergenceReport();
+        ConvergenceReport.Cycle reportCycle = convergenceReport == null ? null : convergenceReport.startCycle(name);
         do {
             LOGGER.debug("\n******\nStarting iteration {} (break? {}) of the primary type analyser on {}\n******",
                     iteration, allowBreakDelay, name);
             if (allowBreakDelay) iterationsWithAllowBreakDelay.add(iteration);
 
             analyserComponents.resetDelayHistogram();
+            AnalyserEvents.PrimaryTypeAnalyserIteration event = new AnalyserEvents.PrimaryTypeAnalyserIteration();
+            event.begin();
 
             SharedState sharedState = new SharedState(iteration, allowBreakDelay, null);
             AnalyserResult analyserResult = analyse(sharedState);
+            if (event.shouldCommit()) {
+                commitIterationEvent(event, iteration, allowBreakDelay, analyserResult.analysisStatus());
+            }
             iteration++;
+            iterations = iteration;
 
-            dumpDelayHistogram(analyserComponents.getDelayHistogram());
+            if (reportCycle != null) reportCycle.addIteration(analyserComponents.getDelayHistogram());
+            if (LOGGER.isDebugEnabled()) {
+                dumpDelayHistogram(analyserComponents.getDelayHistogram());
+            }
 
             if (!configuration.analyserConfiguration().analyserProgram().accepts(ITERATION_1PLUS)) {
                 LOGGER.debug("\n******\nStopping after iteration 0 according to program\n******");
@@ -208,26 +311,217 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
             }
             analysisStatus = analyserResult.analysisStatus();
             if (analysisStatus == AnalysisStatus.DONE) break;
-            if (allowBreakDelay && !analysisStatus.isProgress()) {
-                // no point in continuing
+            if (!escalateBreakDelay()) {
+                // no point in continuing: all primary types that are still delayed have been allowed
+                // to break delays, without making progress
                 break;
             }
-            allowBreakDelay = !analysisStatus.isProgress();
-        } while (iteration < MAX_ITERATION);
+            allowBreakDelay = breakDelayStates.values().stream().anyMatch(BreakDelayState::allowBreakDelay);
+            if (timeBudget > 0 && System.currentTimeMillis() - start > timeBudget) {
+                timeBudgetExhausted = true;
+                break;
+            }
+        } while (iteration < maxIterations);
+        Metrics.typeCycleIterations(iteration);
         if (analysisStatus.isDelayed()) {
             logAnalysisStatuses(analyserComponents);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Delays: {}", analysisStatus.causesOfDelay());
             }
-            if (analysisStatus.isProgress() && iteration == MAX_ITERATION) {
+            if (analyserConfiguration.conservativeFallback()) {
+                String budget = "type cycle, " + iteration + " iterations"
+                        + (timeBudgetExhausted ? ", time budget of " + timeBudget + " ms" : "");
+                int forced = 0;
+                for (Pair<Analyser, AnalysisStatus> pair : analyserComponents.getStatuses()) {
+                    if (pair.v.isDelayed()) {
+                        forceConservativeValues(pair.k, budget);
+                        forced++;
+                    }
+                }
+                // the outcome reflects what happened, not what the configuration allows
+                if (reportCycle != null) {
+                    reportCycle.setOutcome(forced > 0 ? "CONSERVATIVE_FALLBACK" : "NO_PROGRESS");
+                }
+                return;
+            }
+            if (reportCycle != null) reportCycle.setOutcome("NO_PROGRESS");
+            if (analysisStatus.isProgress() && iteration == maxIterations) {
                 throw new NoProgressException("Looks like there is an infinite PROGRESS going on, pt " + name);
             }
             throw new NoProgressException("No progress after " + iteration + " iterations for primary type(s) " + name);
         }
+        if (reportCycle != null) reportCycle.setOutcome("DONE");
+    }
+
+    /*
+    Escalation of allowBreakDelay per primary type: a primary type that made progress in the last iteration
+    loses its allowBreakDelay; one that did not, receives it. Primary types without delayed analysers are ignored;
+    this includes primary types whose remaining analysers only return RUN_AGAIN, which is neither progress nor delay.
+    Returns false when there is no point in continuing.
+    With AnalyserConfiguration.breakDelayPerTypeCycle, there is only one state, and this method is equivalent
+    to the former escalation for the whole type cycle.
+     */
+    private boolean escalateBreakDelay() {
+        boolean change = false;
+        for (BreakDelayState state : breakDelayStates.values()) {
+            if (state.delayed) {
+                if (state.progress) {
+                    state.allowBreakDelay = false;
+                    change = true;
+                } else if (!state.allowBreakDelay) {
+                    state.allowBreakDelay = true;
+                    change = true;
+                }
+            }
+        }
+        return change;
+    }
+
+    private IterationStatistics computeIterationStatistics() {
+        int analyserCalls = 0;
+        int analyserCallsWithAllowBreakDelay = 0;
+        int iterationsWithAllowBreakDelay = 0;
+        for (BreakDelayState state : breakDelayStates.values()) {
+            analyserCalls += state.analyserCalls;
+            analyserCallsWithAllowBreakDelay += state.analyserCallsWithAllowBreakDelay;
+            iterationsWithAllowBreakDelay += state.iterationsWithAllowBreakDelay;
+        }
+        return new IterationStatistics(1, primaryTypes.size(), iterations, iterationsWithAllowBreakDelay,
+                analyserCalls, analyserCallsWithAllowBreakDelay);
+    }
+
+    /*
+    Break-delay state of a primary type, shared by the analysers of all its members. In a pool of local types,
+    each local type has its own state, see breakDelayKey.
+    The flag allowBreakDelay is set per iteration, by escalateBreakDelay; for the remainder of the iteration,
+    it is ignored as soon as one of the analysers of the primary type makes progress.
+    Outside the iteration loop of analyse(), allowBreakDelay is true, so that the shared state coming
+    in from the outside (local primary type analysers) is passed on unchanged until there is progress.
+     */
+    private static class BreakDelayState {
+        boolean allowBreakDelay = true;
+        boolean progress;
+        boolean delayed;
+        boolean usedInThisIteration;
+        int analyserCalls;
+        int analyserCallsWithAllowBreakDelay;
+        int iterationsWithAllowBreakDelay;
+
+        boolean allowBreakDelay() {
+            return allowBreakDelay && !progress;
+        }
+
+        void startIteration() {
+            progress = false;
+            delayed = false;
+            usedInThisIteration = false;
+        }
+
+        void countCall(boolean withAllowBreakDelay) {
+            analyserCalls++;
+            if (withAllowBreakDelay) {
+                analyserCallsWithAllowBreakDelay++;
+                if (!usedInThisIteration) {
+                    usedInThisIteration = true;
+                    iterationsWithAllowBreakDelay++;
+                }
+            }
+        }
+
+        // RUN_AGAIN (and NOT_YET_EXECUTED) count neither as progress nor as delay, as in AnalyserComponents.run
+        void update(AnalysisStatus analysisStatus) {
+            if (analysisStatus == AnalysisStatus.DONE || analysisStatus == AnalysisStatus.DONE_ALL
+                    || analysisStatus.isProgress()) {
+                progress = true;
+            }
+            if (analysisStatus.isDelayed()) delayed = true;
+        }
+    }
+
+    /*
+    The analyser has exhausted its budget, or that of its type cycle. We give up on the analyser: all delayed values
+    in its analysis (and, for methods, those of its parameters and statements) are replaced by conservative values.
+    It will not be called again.
+     */
+    private void forceConservativeValues(Analyser analyser, String budget) {
+        LOGGER.warn("Analysis budget exceeded ({}) in {}, using conservative values", budget, analyser.getName());
+        if (analyser instanceof MethodAnalyser methodAnalyser) {
+            methodAnalyser.forceConservativeValues();
+        } else {
+            analyser.getAnalysis().forceConservativeValues();
+        }
+        budgetMessages.add(Message.newMessage(analyser.getMember().newLocation(),
+                Message.Label.ANALYSIS_BUDGET_EXCEEDED, budget));
+    }
+
+    /*
+    Accumulates the time spent, and the number of iterations made, in a single method analyser,
+    as long as it has not reached DONE.
+     */
+    private static class MethodBudget {
+        private final int iterationBudget;
+        private final long timeBudgetNanos;
+        private int iterations;
+        private long nanos;
+
+        MethodBudget(AnalyserConfiguration analyserConfiguration) {
+            iterationBudget = analyserConfiguration.methodIterationBudget();
+            timeBudgetNanos = analyserConfiguration.methodTimeBudget() * 1_000_000L;
+        }
+
+        boolean exhausted(long nanosSpent) {
+            iterations++;
+            nanos += nanosSpent;
+            return iterationBudget > 0 && iterations >= iterationBudget
+                    || timeBudgetNanos > 0 && nanos >= timeBudgetNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "method, " + iterations + " iterations, " + (nanos / 1_000_000L) + " ms";
+        }
+    }
+
+    /*
+    The local primary type analysers (lambdas, anonymous types in statements) are not called via analyse(),
+    so we evaluate their method analysers here as well, recursively: local types can be nested in local types.
+     */
+    private void detectSlowMethods(SlowMethodDetector slowMethodDetector) {
+        List<MethodAnalyser> all = new ArrayList<>(methodAnalysers.values());
+        Set<PrimaryTypeAnalyser> visited = new HashSet<>();
+        methodAnalysers.values().forEach(ma -> addLocalMethodAnalysers(ma, all, visited));
+        slowMethodDetector.evaluate(all);
+    }
+
+    private static void addLocalMethodAnalysers(MethodAnalyser methodAnalyser,
+                                                List<MethodAnalyser> all,
+                                                Set<PrimaryTypeAnalyser> visited) {
+        methodAnalyser.getLocallyCreatedPrimaryTypeAnalysers().filter(visited::add)
+                .forEach(pta -> pta.loopOverAnalysers(a -> {
+                    if (a instanceof MethodAnalyser local) {
+                        all.add(local);
+                        addLocalMethodAnalysers(local, all, visited);
+                    }
+                }));
+    }
+
+    private void commitIterationEvent(AnalyserEvents.PrimaryTypeAnalyserIteration event,
+                                      int iteration,
+                                      boolean allowBreakDelay,
+                                      AnalysisStatus analysisStatus) {
+        Map<WithInspectionAndAnalysis, AnalyserComponents.Info> delayHistogram = analyserComponents.getDelayHistogram();
+        event.cycle = name;
+        event.iteration = iteration;
+        event.allowBreakDelay = allowBreakDelay;
+        event.delayedElements = delayHistogram.size();
+        event.delays = delayHistogram.values().stream().mapToInt(AnalyserComponents.Info::getCnt).sum();
+        event.status = analysisStatus.isDelayed() ? (analysisStatus.isProgress() ? "PROGRESS" : "DELAYED")
+                : analysisStatus.toString();
+        event.commit();
     }
 
     private static void dumpDelayHistogram(Map<WithInspectionAndAnalysis, AnalyserComponents.Info> delayHistogram) {
-        LOGGER.info("Delay histogram:\n{}",
+        LOGGER.debug("Delay histogram:\n{}",
                 delayHistogram.entrySet().stream().sorted((e1, e2) -> e2.getValue().getCnt() - e1.getValue().getCnt())
                         .limit(20)
                         .map(e -> e.getValue().getCnt() + ": " + (e.getKey() == null ? "?" : (e.getKey().niceClassName() + " " + e.getKey().fullyQualifiedName()) + ": " + e.getValue()))
@@ -261,6 +555,9 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
     @Override
     public AnalyserResult analyse(SharedState sharedState) {
         patternMatcher.startNewIteration();
+        breakDelayStates.values().forEach(BreakDelayState::startIteration);
+        ComponentProfile componentProfile = getComponentProfile();
+        if (componentProfile != null) componentProfile.setIteration(sharedState.iteration());
         AnalysisStatus analysisStatus = analyserComponents.run(sharedState);
         LOGGER.info("At end of PTA analysis, done {} of {} components, progress? {}",
                 analyserComponents.getStatuses().stream().filter(p -> p.getV().isDone()).count(),
@@ -277,8 +574,14 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
 
     @Override
     public void makeImmutable() {
+        boolean release = configuration.analyserConfiguration().releaseStatementAnalysis();
         analysers.forEach(analyser -> {
-            analyser.getMember().setAnalysis(analyser.getAnalysis().build());
+            Analysis analysis = analyser.getAnalysis();
+            if (release && analysis instanceof MethodAnalysisImpl.Builder builder) {
+                analyser.getMember().setAnalysis(builder.buildSummary());
+            } else {
+                analyser.getMember().setAnalysis(analysis.build());
+            }
             analyser.makeImmutable();
         });
     }
@@ -388,4 +691,9 @@ public class PrimaryTypeAnalyserImpl implements PrimaryTypeAnalyser {
     public Set<Integer> getIterationsWithAllowBreakDelay() {
         return Set.copyOf(iterationsWithAllowBreakDelay);
     }
+
+    @Override
+    public IterationStatistics getIterationStatistics() {
+        return iterationStatistics;
+    }
 }
@@ -186,6 +186,11 @@ public class ExpandableAnalyserContextImpl implements AnalyserContext {
         });
     }
 
+    public boolean isEmpty() {
+        return methodAnalysers.isEmpty() && typeAnalysers.isEmpty() && fieldAnalysers.isEmpty()
+                && parameterAnalysers.isEmpty();
+    }
+
     public void addAll(ExpandableAnalyserContextImpl previous) {
         methodAnalysers.putAll(previous.methodAnalysers);
         typeAnalysers.putAll(previous.typeAnalysers);
@@ -624,6 +624,14 @@ public class VariableInfoContainerImpl extends Freezable implements VariableInfo
         vii.setValue(dwe);
     }
 
+    @Override
+    public void forceConservativeValues() {
+        if (isFrozen()) return;
+        if (previousOrInitial.isRight()) previousOrInitial.getRight().forceConservativeValues();
+        if (evaluation.isSet()) evaluation.get().forceConservativeValues();
+        if (merge != null && merge.isSet()) merge.get().forceConservativeValues();
+    }
+
     @Override
     public void markOverride(Property property, DV value) {
         assert value.isDone();
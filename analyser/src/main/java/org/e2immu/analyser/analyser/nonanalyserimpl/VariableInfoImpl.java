@@ -23,6 +23,7 @@ import org.e2immu.analyser.model.MultiLevel;
 import org.e2immu.analyser.model.expression.DelayedExpression;
 import org.e2immu.analyser.model.expression.DelayedVariableExpression;
 import org.e2immu.analyser.model.expression.DelayedWrappedExpression;
+import org.e2immu.analyser.model.expression.UnknownExpression;
 import org.e2immu.analyser.model.expression.VariableExpression;
 import org.e2immu.analyser.model.variable.FieldReference;
 import org.e2immu.analyser.model.variable.Variable;
@@ -319,6 +320,25 @@ public class VariableInfoImpl implements VariableInfo {
         }
     }
 
+    /*
+    analysis budget exhausted: delayed properties get their conservative value (see Property.conservativeValue),
+    a delayed value becomes unknown, and delayed links are assumed to be dependent
+     */
+    void forceConservativeValues() {
+        properties.replaceDelaysByConservativeValue();
+        if (value.isVariable()) {
+            Expression delayed = value.get();
+            value.setFinal(UnknownExpression.forVariableValue(delayed.getIdentifier(), variable.parameterizedType()));
+        }
+        if (linkedVariables.isVariable()) {
+            LinkedVariables lvs = linkedVariables.get();
+            linkedVariables.setFinal(lvs == LinkedVariables.NOT_YET_SET ? LinkedVariables.EMPTY
+                    : LinkedVariables.of(lvs.variables().entrySet().stream()
+                    .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey,
+                            e -> e.getValue().isDelayed() ? LinkedVariables.DEPENDENT_DV : e.getValue()))));
+        }
+    }
+
     /*
     in the safest possible way, keep what you have
      */
@@ -33,10 +33,8 @@ import org.e2immu.analyser.model.variable.This;
 import org.e2immu.analyser.model.variable.Variable;
 import org.e2immu.analyser.parser.Message;
 import org.e2immu.analyser.pattern.PatternMatcher;
-import org.e2immu.analyser.resolver.impl.ListOfSortedTypes;
 import org.e2immu.analyser.resolver.impl.SortedType;
 import org.e2immu.annotation.Container;
-import org.e2immu.support.Either;
 import org.e2immu.support.FlipSwitch;
 import org.e2immu.support.SetOnce;
 import org.slf4j.Logger;
@@ -448,6 +446,7 @@ public class StatementAnalyserImpl implements StatementAnalyser {
                         .add(CHECK_USELESS_ASSIGNMENTS, sharedState -> saCheck.checkUselessAssignments(navigationData))
                         .add(TRANSFER_FROM_CLOSURE_TO_RESULT, this::transferFromClosureToResult)
                         .setLimitCausesOfDelay(true)
+                        .setProfile(analyserContext.getComponentProfile(), "SA")
                         .build();
             }
 
@@ -543,29 +542,21 @@ public class StatementAnalyserImpl implements StatementAnalyser {
             List<TypeInfo> typeDefinedInStatement = statementAnalysis.statement().getStructure().findTypeDefinedInStatement();
             Stream<TypeInfo> locallyDefinedTypes = Stream.concat(typeDefinedInStatement.stream(),
                     statement() instanceof LocalClassDeclaration lcd ? Stream.of(lcd.typeInfo) : Stream.empty());
-            List<PrimaryTypeAnalyser> analysers = locallyDefinedTypes
-                    // those without a sorted type are already in the current primary type's sorted type!!
-                    .filter(typeInfo -> typeInfo.typeResolution.get().sortedType() != null)
-                    .map(typeInfo -> {
-                        SortedType sortedType = typeInfo.typeResolution.get().sortedType();
-                        // we'll use the default analyser generator here
-                        ListOfSortedTypes listOfSortedTypes = new ListOfSortedTypes(List.of(sortedType));
-                        PrimaryTypeAnalyser primaryTypeAnalyser = new PrimaryTypeAnalyserImpl(analyserContext,
-                                listOfSortedTypes,
-                                analyserContext.getConfiguration(),
-                                analyserContext.getPrimitives(),
-                                analyserContext.importantClasses(),
-                                Either.left(analyserContext.getPatternMatcher()),
-                                analyserContext.getE2ImmuAnnotationExpressions());
-                        primaryTypeAnalyser.initialize();
-                        return primaryTypeAnalyser;
-                    }).toList();
+            // those without a sorted type are already in the current primary type's sorted type!!
+            List<SortedType> sortedTypes = locallyDefinedTypes
+                    .map(typeInfo -> typeInfo.typeResolution.get().sortedType())
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            // all the types defined in this statement share a single primary type analyser
+            PrimaryTypeAnalyser pool = PrimaryTypeAnalyserImpl.forLocalTypes(analyserContext, sortedTypes);
+            List<PrimaryTypeAnalyser> analysers = pool == null ? List.of() : List.of(pool);
             localAnalysers.set(analysers);
             recursivelyAddPrimaryTypeAnalysersToAnalyserContext(analysers);
 
             boolean haveNext = navigationData.next.get().isPresent();
             // first, simple propagation of those analysers that we've already accumulated
-            if (haveNext) {
+            if (haveNext && !analyserContext.isEmpty()) {
                 ((StatementAnalyserImpl) navigationData.next.get().get()).analyserContext.addAll(analyserContext);
                 navigationData.blocks.get().forEach(opt -> opt.ifPresent(sa ->
                         ((StatementAnalyserImpl) sa).analyserContext.addAll(analyserContext)));
@@ -718,6 +709,15 @@ public class StatementAnalyserImpl implements StatementAnalyser {
         return analyserResultBuilder.getMessageStream();
     }
 
+    @Override
+    public void forceConservativeValues() {
+        if (!unreachable.isSet()) {
+            statementAnalysis.forceConservativeValues();
+            navigationData.blocks.get().forEach(optSa -> optSa.ifPresent(StatementAnalyser::forceConservativeValues));
+        }
+        navigationData.next.get().ifPresent(StatementAnalyser::forceConservativeValues);
+    }
+
     @Override
     public void makeUnreachable() {
         if (!unreachable.isSet()) {
@@ -0,0 +1,144 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.e2immu.analyser.util.StringUtil.quote;
+
+/*
+Optional instrumentation of AnalyserComponents: wall time, number of invocations and, when the JVM supports it,
+the number of bytes allocated by the current thread, per analyser kind (CMA, CTA, FA, SA, ...), component label
+and iteration. Times and allocations are inclusive: the statement analyser's components run inside the
+method analyser's component that analyses the statements.
+
+Enabled by AnalyserConfiguration.componentProfileFile; see AnalyserContext for its life cycle.
+ */
+public class ComponentProfile {
+
+    public record Key(String analyserKind, String label, int iteration) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key o) {
+            int c = analyserKind.compareTo(o.analyserKind);
+            if (c != 0) return c;
+            int d = label.compareTo(o.label);
+            if (d != 0) return d;
+            return iteration - o.iteration;
+        }
+    }
+
+    public static class Entry {
+        private int invocations;
+        private long nanos;
+        private long allocatedBytes;
+
+        public int getInvocations() {
+            return invocations;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        private void add(Entry other) {
+            invocations += other.invocations;
+            nanos += other.nanos;
+            allocatedBytes += other.allocatedBytes;
+        }
+    }
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final com.sun.management.ThreadMXBean allocationBean;
+    private int iteration;
+
+    public ComponentProfile() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean sunBean
+                && sunBean.isThreadAllocatedMemorySupported()) {
+            if (!sunBean.isThreadAllocatedMemoryEnabled()) sunBean.setThreadAllocatedMemoryEnabled(true);
+            allocationBean = sunBean;
+        } else {
+            allocationBean = null;
+        }
+    }
+
+    // set by the primary type analyser at the start of each iteration
+    public void setIteration(int iteration) {
+        this.iteration = iteration;
+    }
+
+    public boolean allocationsMeasured() {
+        return allocationBean != null;
+    }
+
+    public long allocatedBytes() {
+        return allocationBean == null ? 0L : allocationBean.getCurrentThreadAllocatedBytes();
+    }
+
+    public void record(String analyserKind, String label, long startNanos, long startAllocatedBytes) {
+        long nanos = System.nanoTime() - startNanos;
+        long allocated = allocationBean == null ? 0L : allocatedBytes() - startAllocatedBytes;
+        Entry entry = entries.computeIfAbsent(new Key(analyserKind, label, iteration), k -> new Entry());
+        entry.invocations++;
+        entry.nanos += nanos;
+        entry.allocatedBytes += allocated;
+    }
+
+    public Map<Key, Entry> getEntries() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    // summed over all iterations, sorted by decreasing time
+    public List<Map.Entry<Key, Entry>> totals() {
+        Map<Key, Entry> totals = new HashMap<>();
+        entries.forEach((k, e) -> totals.computeIfAbsent(new Key(k.analyserKind, k.label, -1), kk -> new Entry()).add(e));
+        return totals.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<Key, Entry> e) -> e.getValue().nanos).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .toList();
+    }
+
+    public String table() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-6s %-45s %12s %12s %16s%n", "kind", "component", "invocations", "ms",
+                allocationsMeasured() ? "allocated MB" : ""));
+        for (Map.Entry<Key, Entry> e : totals()) {
+            Entry entry = e.getValue();
+            sb.append(String.format("%-6s %-45s %12d %12.1f %16s%n", e.getKey().analyserKind, e.getKey().label,
+                    entry.invocations, entry.nanos / 1e6,
+                    allocationsMeasured() ? String.format("%.1f", entry.allocatedBytes / 1e6) : ""));
+        }
+        return sb.toString();
+    }
+
+    public String toJson() {
+        return "[\n" + entries.entrySet().stream().sorted(Map.Entry.comparingByKey())
+                .map(e -> "{\"kind\":" + quote(e.getKey().analyserKind)
+                        + ",\"component\":" + quote(e.getKey().label)
+                        + ",\"iteration\":" + e.getKey().iteration
+                        + ",\"invocations\":" + e.getValue().invocations
+                        + ",\"nanos\":" + e.getValue().nanos
+                        + (allocationsMeasured() ? ",\"allocatedBytes\":" + e.getValue().allocatedBytes : "")
+                        + "}")
+                .collect(Collectors.joining(",\n")) + "\n]\n";
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import org.e2immu.analyser.analyser.AnalyserComponents;
+import org.e2immu.analyser.analyser.CauseOfDelay;
+import org.e2immu.analyser.model.WithInspectionAndAnalysis;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.e2immu.analyser.util.StringUtil.quote;
+
+/*
+Structured version of the delay histogram of the primary type analyser: per type cycle, the number of iterations
+taken, the number of delays per cause for each iteration, and the elements that remained delayed in the
+largest number of iterations.
+
+Enabled by AnalyserConfiguration.convergenceReportFile; see AnalyserContext for its life cycle.
+ */
+public class ConvergenceReport {
+
+    public static final int BLOCKING_ELEMENTS = 20;
+
+    private final List<Cycle> cycles = new ArrayList<>();
+
+    public synchronized Cycle startCycle(String name) {
+        Cycle cycle = new Cycle(name);
+        cycles.add(cycle);
+        return cycle;
+    }
+
+    public synchronized List<Cycle> getCycles() {
+        return List.copyOf(cycles);
+    }
+
+    public static class Cycle {
+        private final String name;
+        private final List<Map<CauseOfDelay.Cause, Integer>> causesPerIteration = new ArrayList<>();
+        private final Map<String, Blocking> blocking = new HashMap<>();
+        private String outcome;
+
+        private Cycle(String name) {
+            this.name = name;
+        }
+
+        public void addIteration(Map<WithInspectionAndAnalysis, AnalyserComponents.Info> delayHistogram) {
+            int iteration = causesPerIteration.size();
+            Map<CauseOfDelay.Cause, Integer> causes = new EnumMap<>(CauseOfDelay.Cause.class);
+            delayHistogram.forEach((element, info) -> {
+                info.getCauses().forEach((cause, cnt) -> causes.merge(cause, cnt, Integer::sum));
+                String key = element == null ? "?" : element.niceClassName() + " " + element.fullyQualifiedName();
+                Blocking b = blocking.computeIfAbsent(key, k -> new Blocking(iteration));
+                b.iterations++;
+                b.delays += info.getCnt();
+                b.lastIteration = iteration;
+            });
+            causesPerIteration.add(causes);
+        }
+
+        public void setOutcome(String outcome) {
+            this.outcome = outcome;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getIterations() {
+            return causesPerIteration.size();
+        }
+
+        public List<Map<CauseOfDelay.Cause, Integer>> getCausesPerIteration() {
+            return causesPerIteration;
+        }
+
+        // sorted by decreasing number of iterations in which the element was delayed, then by number of delays
+        public List<Map.Entry<String, Blocking>> blockingLongest() {
+            return blocking.entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Blocking> e) -> e.getValue().iterations)
+                            .thenComparingInt(e -> e.getValue().delays).reversed()
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(BLOCKING_ELEMENTS)
+                    .toList();
+        }
+
+        private String toJson() {
+            return "{\"cycle\":" + quote(name)
+                    + ",\"iterations\":" + getIterations()
+                    + ",\"outcome\":" + (outcome == null ? "null" : quote(outcome))
+                    + ",\"delaysPerIteration\":[" + causesPerIteration.stream()
+                    .map(map -> map.entrySet().stream()
+                            .map(e -> quote(e.getKey().label) + ":" + e.getValue())
+                            .collect(Collectors.joining(",", "{", "}")))
+                    .collect(Collectors.joining(","))
+                    + "],\"blocking\":[" + blockingLongest().stream()
+                    .map(e -> "{\"element\":" + quote(e.getKey())
+                            + ",\"iterations\":" + e.getValue().iterations
+                            + ",\"firstIteration\":" + e.getValue().firstIteration
+                            + ",\"lastIteration\":" + e.getValue().lastIteration
+                            + ",\"delays\":" + e.getValue().delays + "}")
+                    .collect(Collectors.joining(","))
+                    + "]}";
+        }
+    }
+
+    public static class Blocking {
+        private final int firstIteration;
+        private int lastIteration;
+        private int iterations;
+        private int delays;
+
+        private Blocking(int firstIteration) {
+            this.firstIteration = firstIteration;
+        }
+
+        public int getFirstIteration() {
+            return firstIteration;
+        }
+
+        public int getLastIteration() {
+            return lastIteration;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public int getDelays() {
+            return delays;
+        }
+    }
+
+    // cycles sorted by decreasing number of iterations
+    public synchronized String toJson() {
+        return "[\n" + cycles.stream()
+                .sorted(Comparator.comparingInt(Cycle::getIterations).reversed().thenComparing(Cycle::getName))
+                .map(Cycle::toJson)
+                .collect(Collectors.joining(",\n")) + "\n]\n";
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import org.e2immu.analyser.analyser.Analyser;
+import org.e2immu.analyser.analyser.AnalyserContext;
+import org.e2immu.analyser.analyser.VariableInfoContainer;
+import org.e2immu.analyser.analysis.Analysis;
+import org.e2immu.analyser.analysis.ParameterAnalysis;
+import org.e2immu.analyser.analysis.StatementAnalysis;
+import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.model.*;
+import org.e2immu.analyser.parser.Message;
+import org.e2immu.analyser.parser.Primitives;
+import org.e2immu.analyser.parser.TypeMap;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.e2immu.analyser.util.StringUtil.quote;
+
+/*
+Estimates the heap retained by the analysis of a type cycle, once it has been made immutable, by walking the object
+graph starting from the analyses of the members of the cycle, and from its messages.
+
+The walk is bounded: it stops at the inspection model (types, methods, fields, parameters, their inspections,
+statements and parameterized types), at analyser infrastructure, at the analyses of types, methods and fields
+outside the cycle, and after a maximal number of objects. Each object is attributed to the category of its closest
+ancestor that is a statement analysis, a variable info container, an expression, or a message.
+
+Sizes are estimates, assuming a 64-bit JVM with compressed references: 12 byte object header, 16 byte array header,
+8 byte alignment. Objects of JDK classes cannot be inspected reflectively; collections, maps and optionals are
+traversed through their public API, with a fixed overhead per element.
+
+Enabled by AnalyserConfiguration.heapFootprintFile; the Parser measures each type cycle directly after
+makeImmutable(), and writes the summary at the end of the analysis.
+ */
+public class HeapFootprint {
+
+    public static final int DEFAULT_MAX_OBJECTS = 2_000_000;
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int COLLECTION_ELEMENT = 4;
+    private static final int MAP_ENTRY = 32;
+
+    private static final List<Class<?>> STOP = List.of(WithInspectionAndAnalysis.class, Inspection.class,
+            ParameterizedType.class, Statement.class, Analyser.class, AnalyserContext.class, Configuration.class,
+            Primitives.class, TypeMap.class, Class.class, ClassLoader.class, Thread.class, Enum.class);
+
+    public enum Category {
+        STATEMENT_ANALYSIS(StatementAnalysis.class),
+        VARIABLE_INFO(VariableInfoContainer.class),
+        EXPRESSION(Expression.class),
+        MESSAGE(Message.class),
+        OTHER(null);
+
+        private final Class<?> clazz;
+
+        Category(Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        private static Category of(Object object, Category parent) {
+            for (Category category : values()) {
+                if (category.clazz != null && category.clazz.isInstance(object)) return category;
+            }
+            return parent;
+        }
+    }
+
+    public static class CycleFootprint {
+        private final String name;
+        private final long[] bytes = new long[Category.values().length];
+        private final long[] objects = new long[Category.values().length];
+        private boolean truncated;
+
+        private CycleFootprint(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long bytes(Category category) {
+            return bytes[category.ordinal()];
+        }
+
+        public long objects(Category category) {
+            return objects[category.ordinal()];
+        }
+
+        public long totalBytes() {
+            return Arrays.stream(bytes).sum();
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.stream(Category.values())
+                    .map(c -> c.name().toLowerCase() + "=" + bytes(c) / 1024 + "kB")
+                    .collect(Collectors.joining(", ")) + (truncated ? " (truncated)" : "");
+        }
+
+        private String toJson() {
+            return "{\"cycle\":" + quote(name)
+                    + ",\"totalBytes\":" + totalBytes()
+                    + ",\"truncated\":" + truncated
+                    + Arrays.stream(Category.values())
+                    .map(c -> ",\"" + c.name().toLowerCase() + "\":{\"bytes\":" + bytes(c)
+                            + ",\"objects\":" + objects(c) + "}")
+                    .collect(Collectors.joining())
+                    + "}";
+        }
+    }
+
+    private final int maxObjects;
+    private final List<CycleFootprint> cycles = new ArrayList<>();
+    private final ClassValue<List<Field>> instanceFields = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return computeInstanceFields(type);
+        }
+    };
+    private final ClassValue<Integer> shallowSizes = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return computeShallowSize(type);
+        }
+    };
+
+    public HeapFootprint() {
+        this(DEFAULT_MAX_OBJECTS);
+    }
+
+    public HeapFootprint(int maxObjects) {
+        this.maxObjects = maxObjects;
+    }
+
+    public CycleFootprint measure(String name, Stream<Analysis> analyses, Stream<Message> messages) {
+        CycleFootprint footprint = new CycleFootprint(name);
+        Set<Object> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+        analyses.filter(Objects::nonNull).forEach(roots::add);
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Object> objectStack = new ArrayDeque<>();
+        Deque<Category> categoryStack = new ArrayDeque<>();
+        roots.forEach(root -> {
+            objectStack.push(root);
+            categoryStack.push(Category.OTHER);
+        });
+        messages.forEach(message -> {
+            objectStack.push(message);
+            categoryStack.push(Category.MESSAGE);
+        });
+        while (!objectStack.isEmpty()) {
+            Object object = objectStack.pop();
+            Category parentCategory = categoryStack.pop();
+            if (!visited.add(object)) continue;
+            if (visited.size() > maxObjects) {
+                footprint.truncated = true;
+                break;
+            }
+            Category category = Category.of(object, parentCategory);
+            footprint.objects[category.ordinal()]++;
+            footprint.bytes[category.ordinal()] += visit(object, roots, child -> {
+                objectStack.push(child);
+                categoryStack.push(category);
+            });
+        }
+        synchronized (cycles) {
+            cycles.add(footprint);
+        }
+        return footprint;
+    }
+
+    private long visit(Object object, Set<Object> roots, Consumer<Object> children) {
+        Class<?> clazz = object.getClass();
+        if (clazz.isArray()) {
+            int length = Array.getLength(object);
+            Class<?> componentType = clazz.getComponentType();
+            if (!componentType.isPrimitive()) {
+                for (int i = 0; i < length; i++) {
+                    pushIfNotStop(Array.get(object, i), roots, children);
+                }
+            }
+            return align(ARRAY_HEADER + (long) length * sizeOf(componentType));
+        }
+        long size = shallowSizes.get(clazz);
+        if (object instanceof Collection<?> collection && !reflective(clazz)) {
+            collection.forEach(element -> pushIfNotStop(element, roots, children));
+            return size + (long) collection.size() * (object instanceof Set ? MAP_ENTRY : COLLECTION_ELEMENT);
+        }
+        if (object instanceof Map<?, ?> map && !reflective(clazz)) {
+            map.forEach((k, v) -> {
+                pushIfNotStop(k, roots, children);
+                pushIfNotStop(v, roots, children);
+            });
+            return size + (long) map.size() * MAP_ENTRY;
+        }
+        if (object instanceof Optional<?> optional) {
+            optional.ifPresent(value -> pushIfNotStop(value, roots, children));
+            return size;
+        }
+        if (object instanceof String string) {
+            return size + align(ARRAY_HEADER + string.length());
+        }
+        for (Field field : instanceFields.get(clazz)) {
+            try {
+                pushIfNotStop(field.get(object), roots, children);
+            } catch (IllegalAccessException e) {
+                // cannot happen, the field has been made accessible
+            }
+        }
+        return size;
+    }
+
+    private static void pushIfNotStop(Object child, Set<Object> roots, Consumer<Object> children) {
+        if (child == null || roots.contains(child)) return;
+        // the analysis of a type, method or field outside this cycle
+        if (child instanceof Analysis && !(child instanceof StatementAnalysis)
+                && !(child instanceof ParameterAnalysis)) return;
+        for (Class<?> stop : STOP) {
+            if (stop.isInstance(child)) return;
+        }
+        children.accept(child);
+    }
+
+    private static boolean reflective(Class<?> clazz) {
+        return clazz.getClassLoader() != null;
+    }
+
+    // reference fields which we can read; empty for classes of the JDK, which are not open to us
+    private static List<Field> computeInstanceFields(Class<?> type) {
+        if (!reflective(type)) return List.of();
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // not accessible; the field's size is counted, but its value is not visited
+                    }
+                }
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    private static int computeShallowSize(Class<?> type) {
+        long size = OBJECT_HEADER;
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += sizeOf(field.getType());
+                }
+            }
+        }
+        return (int) align(size);
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (!type.isPrimitive()) return REFERENCE;
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    public List<CycleFootprint> getCycles() {
+        synchronized (cycles) {
+            return List.copyOf(cycles);
+        }
+    }
+
+    // cycles sorted by decreasing total size
+    public String toJson() {
+        return "[\n" + getCycles().stream()
+                .sorted(Comparator.comparingLong(CycleFootprint::totalBytes).reversed()
+                        .thenComparing(CycleFootprint::getName))
+                .map(CycleFootprint::toJson)
+                .collect(Collectors.joining(",\n")) + "\n]\n";
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+/*
+Iteration counts of the primary type analyser, per type cycle, and summed over all type cycles.
+
+Iterations are counted per type cycle, iterations with allowBreakDelay per primary type: in a type cycle
+with multiple primary types, break-delay escalation takes place only for the primary types that made no progress.
+An analyser call is a call to Analyser.analyse(SharedState) of a type, field or method analyser at the level
+of the type cycle.
+ */
+public record IterationStatistics(int typeCycles,
+                                  int primaryTypes,
+                                  int iterations,
+                                  int iterationsWithAllowBreakDelay,
+                                  int analyserCalls,
+                                  int analyserCallsWithAllowBreakDelay) {
+
+    public static final IterationStatistics EMPTY = new IterationStatistics(0, 0, 0, 0, 0, 0);
+
+    public IterationStatistics combine(IterationStatistics other) {
+        return new IterationStatistics(typeCycles + other.typeCycles,
+                primaryTypes + other.primaryTypes,
+                iterations + other.iterations,
+                iterationsWithAllowBreakDelay + other.iterationsWithAllowBreakDelay,
+                analyserCalls + other.analyserCalls,
+                analyserCallsWithAllowBreakDelay + other.analyserCallsWithAllowBreakDelay);
+    }
+
+    @Override
+    public String toString() {
+        return typeCycles + " type cycle(s), " + primaryTypes + " primary type(s), " + iterations + " iteration(s), "
+                + iterationsWithAllowBreakDelay + " primary type iteration(s) with allowBreakDelay, "
+                + analyserCalls + " analyser call(s), " + analyserCallsWithAllowBreakDelay
+                + " with allowBreakDelay";
+    }
+}
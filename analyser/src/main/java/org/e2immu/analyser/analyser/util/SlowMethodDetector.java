@@ -0,0 +1,290 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import org.e2immu.analyser.analyser.MethodAnalyser;
+import org.e2immu.analyser.analysis.StatementAnalysis;
+import org.e2immu.analyser.config.AnalyserConfiguration;
+import org.e2immu.analyser.model.*;
+import org.e2immu.analyser.model.statement.Block;
+import org.e2immu.analyser.model.statement.ExplicitConstructorInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+Times each method analyser across the iterations of its primary type analyser. The time is self time: the statements
+of a method analyse the types defined in them (lambdas, anonymous types) through local primary type analysers, and
+the time spent in their methods is recorded for those methods, not for the enclosing one.
+At the end of the analysis of the type cycle, while the statement analyses are still present, a method is reported as
+slow when the time spent exceeds AnalyserConfiguration.slowMethodTimeThreshold, or when one of the values of its
+statements has a complexity (Expression.getComplexity) exceeding AnalyserConfiguration.slowMethodComplexityThreshold.
+
+For each slow method, writeReports writes a short report, and a reproduction source: the source of the enclosing
+primary type in which the bodies of all other methods and constructors have been replaced by a stub. A constructor
+keeps its explicit super(...) or this(...) call, so that the reproduction source still compiles.
+
+Enabled by AnalyserConfiguration.slowMethodDirectory; see AnalyserContext for its life cycle.
+ */
+public class SlowMethodDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowMethodDetector.class);
+
+    public static final int LARGEST_EXPRESSIONS = 3;
+    public static final int MAX_EXPRESSION_LENGTH = 2000;
+    public static final String STUB_STATEMENT = "throw new UnsupportedOperationException();";
+    public static final String STUB = "{ " + STUB_STATEMENT + " }";
+
+    /*
+    The body of a method or constructor, to be replaced by a stub; explicitConstructorInvocation is the position
+    of the super(...) or this(...) call that starts the body of a constructor, or null.
+     */
+    record Body(Identifier.PositionalIdentifier range, Identifier.PositionalIdentifier explicitConstructorInvocation) {
+    }
+
+    public record LargeExpression(String index, int complexity, String expression) {
+    }
+
+    public record SlowMethod(MethodInfo methodInfo,
+                             int iterations,
+                             long millis,
+                             int maxComplexity,
+                             List<LargeExpression> largestExpressions) {
+    }
+
+    private static class Timing {
+        private int iterations;
+        private long nanos;
+    }
+
+    private final long timeThresholdNanos;
+    private final int complexityThreshold;
+    private final Map<MethodInfo, Timing> timings = new HashMap<>();
+    // per thread, the time spent in the nested timed methods of each timed method that is running
+    private final ThreadLocal<Deque<long[]>> nestedNanos = ThreadLocal.withInitial(ArrayDeque::new);
+    private final List<SlowMethod> slowMethods = new ArrayList<>();
+
+    public SlowMethodDetector(AnalyserConfiguration analyserConfiguration) {
+        this.timeThresholdNanos = analyserConfiguration.slowMethodTimeThreshold() * 1_000_000L;
+        this.complexityThreshold = analyserConfiguration.slowMethodComplexityThreshold();
+    }
+
+    /*
+    Must be followed by a call to exit, on the same thread.
+     */
+    public void enter() {
+        nestedNanos.get().push(new long[1]);
+    }
+
+    /*
+    The total time spent in the method analyser, including the time spent in nested timed methods,
+    which is subtracted here, and added to the nested time of the enclosing timed method, if any.
+     */
+    public void exit(MethodInfo methodInfo, long nanos) {
+        Deque<long[]> stack = nestedNanos.get();
+        long nested = stack.pop()[0];
+        long[] enclosing = stack.peek();
+        if (enclosing != null) enclosing[0] += nanos;
+        record(methodInfo, nanos - nested);
+    }
+
+    private synchronized void record(MethodInfo methodInfo, long nanos) {
+        Timing timing = timings.computeIfAbsent(methodInfo, m -> new Timing());
+        timing.iterations++;
+        timing.nanos += nanos;
+    }
+
+    // for testing
+    synchronized long selfNanos(MethodInfo methodInfo) {
+        Timing timing = timings.get(methodInfo);
+        return timing == null ? 0L : timing.nanos;
+    }
+
+    /*
+    Must be called before the type cycle is made immutable, so that the statement analyses are still available.
+     */
+    public void evaluate(Collection<MethodAnalyser> methodAnalysers) {
+        for (MethodAnalyser methodAnalyser : methodAnalysers) {
+            MethodInfo methodInfo = methodAnalyser.getMethodInfo();
+            Timing timing;
+            synchronized (this) {
+                timing = timings.remove(methodInfo);
+            }
+            if (timing == null) continue;
+            List<LargeExpression> expressions = new ArrayList<>();
+            StatementAnalysis first = methodAnalyser.getMethodAnalysis().getFirstStatement();
+            if (first != null) collectExpressions(first, expressions);
+            expressions.sort(Comparator.comparingInt(LargeExpression::complexity).reversed());
+            int maxComplexity = expressions.isEmpty() ? 0 : expressions.get(0).complexity;
+            if (timing.nanos >= timeThresholdNanos || maxComplexity >= complexityThreshold) {
+                SlowMethod slowMethod = new SlowMethod(methodInfo, timing.iterations, timing.nanos / 1_000_000L,
+                        maxComplexity, List.copyOf(expressions.subList(0, Math.min(LARGEST_EXPRESSIONS,
+                        expressions.size()))));
+                LOGGER.warn("Slow method {}: {} iterations, {} ms, max complexity {}", methodInfo.fullyQualifiedName,
+                        slowMethod.iterations, slowMethod.millis, maxComplexity);
+                synchronized (this) {
+                    slowMethods.add(slowMethod);
+                }
+            }
+        }
+    }
+
+    private static void collectExpressions(StatementAnalysis statementAnalysis, List<LargeExpression> expressions) {
+        StatementAnalysis sa = statementAnalysis;
+        while (sa != null) {
+            Expression value = sa.stateData().valueOfExpression.get();
+            if (value != null) {
+                String string = value.toString();
+                expressions.add(new LargeExpression(sa.index(), value.getComplexity(),
+                        string.length() > MAX_EXPRESSION_LENGTH ? string.substring(0, MAX_EXPRESSION_LENGTH) + "..."
+                                : string));
+            }
+            if (sa.navigationData().blocks.isSet()) {
+                for (Optional<StatementAnalysis> block : sa.navigationData().blocks.get()) {
+                    block.ifPresent(b -> collectExpressions(b, expressions));
+                }
+            }
+            sa = sa.navigationData().next.isSet() ? sa.navigationData().next.get().orElse(null) : null;
+        }
+    }
+
+    public synchronized List<SlowMethod> getSlowMethods() {
+        return List.copyOf(slowMethods);
+    }
+
+    public void writeReports(File directory, Map<TypeInfo, URL> sourceURLs, Charset sourceEncoding)
+            throws IOException {
+        for (SlowMethod slowMethod : getSlowMethods()) {
+            String name = slowMethod.methodInfo.fullyQualifiedName.replaceAll("[^A-Za-z0-9_.$-]", "_");
+            File base = new File(directory, name);
+            Files.createDirectories(base.toPath());
+            Files.writeString(new File(base, "report.txt").toPath(), report(slowMethod));
+
+            TypeInfo primaryType = slowMethod.methodInfo.typeInfo.primaryType();
+            URL url = sourceURLs.get(primaryType);
+            if (url == null) {
+                LOGGER.warn("Cannot find the source of {}, not writing a reproduction source",
+                        primaryType.fullyQualifiedName);
+                continue;
+            }
+            String source;
+            try (InputStream inputStream = url.openStream()) {
+                source = new String(inputStream.readAllBytes(), sourceEncoding);
+            }
+            File packageDir = new File(base, primaryType.packageName().replace('.', '/'));
+            Files.createDirectories(packageDir.toPath());
+            File javaFile = new File(packageDir, primaryType.simpleName + ".java");
+            Files.writeString(javaFile.toPath(), reproduction(source, primaryType, slowMethod.methodInfo));
+            LOGGER.info("Wrote report and reproduction source for slow method {} to {}",
+                    slowMethod.methodInfo.fullyQualifiedName, base);
+        }
+    }
+
+    private static String report(SlowMethod slowMethod) {
+        return "method: " + slowMethod.methodInfo.fullyQualifiedName + "\n"
+                + "iterations: " + slowMethod.iterations + "\n"
+                + "time (ms): " + slowMethod.millis + "\n"
+                + "max complexity: " + slowMethod.maxComplexity + "\n"
+                + slowMethod.largestExpressions.stream()
+                .map(e -> "statement " + e.index + ", complexity " + e.complexity + ":\n    " + e.expression)
+                .collect(Collectors.joining("\n")) + "\n";
+    }
+
+    private static String reproduction(String source, TypeInfo primaryType, MethodInfo slowMethodInfo) {
+        Body keep = body(slowMethodInfo);
+        List<Body> bodies = primaryType.typeInspection.get()
+                .methodsAndConstructors(TypeInspection.Methods.INCLUDE_SUBTYPES)
+                .filter(m -> m != slowMethodInfo)
+                .map(SlowMethodDetector::body)
+                .filter(Objects::nonNull)
+                .filter(b -> keep == null || !contains(b.range, keep.range))
+                .toList();
+        return stub(source, bodies);
+    }
+
+    private static Body body(MethodInfo methodInfo) {
+        if (!methodInfo.methodInspection.isSet()) return null;
+        Block body = methodInfo.methodInspection.get().getMethodBody();
+        if (body != null && body.getIdentifier() instanceof Identifier.PositionalIdentifier pi) {
+            List<Statement> statements = body.structure.statements();
+            Identifier.PositionalIdentifier eci = !statements.isEmpty()
+                    && statements.get(0) instanceof ExplicitConstructorInvocation invocation
+                    && invocation.getIdentifier() instanceof Identifier.PositionalIdentifier invocationPi
+                    ? invocationPi : null;
+            return new Body(pi, eci);
+        }
+        return null;
+    }
+
+    private static boolean contains(Identifier.PositionalIdentifier outer, Identifier.PositionalIdentifier inner) {
+        return compare(outer.line(), outer.pos(), inner.line(), inner.pos()) <= 0
+                && compare(inner.endLine(), inner.endPos(), outer.endLine(), outer.endPos()) <= 0;
+    }
+
+    private static int compare(int line1, int pos1, int line2, int pos2) {
+        return line1 != line2 ? line1 - line2 : pos1 - pos2;
+    }
+
+    /**
+     * Replaces the ranges of the given bodies in the source by STUB, keeping the explicit constructor invocation,
+     * if any. Positions are 1-based and inclusive, as in JavaParser. Bodies contained in other bodies are ignored.
+     */
+    static String stub(String source, List<Body> bodies) {
+        List<Body> sorted = bodies.stream()
+                .sorted(Comparator.comparingInt((Body b) -> b.range.line()).thenComparingInt(b -> b.range.pos()))
+                .toList();
+        int[] lineStart = lineStarts(source);
+        StringBuilder sb = new StringBuilder();
+        int copied = 0;
+        for (Body body : sorted) {
+            int start = offset(lineStart, body.range.line(), body.range.pos());
+            int end = offset(lineStart, body.range.endLine(), body.range.endPos()) + 1; // exclusive
+            if (start < copied) continue; // nested in a range that has already been replaced
+            sb.append(source, copied, start);
+            Identifier.PositionalIdentifier eci = body.explicitConstructorInvocation;
+            if (eci == null) {
+                sb.append(STUB);
+            } else {
+                sb.append("{ ")
+                        .append(source, offset(lineStart, eci.line(), eci.pos()),
+                                offset(lineStart, eci.endLine(), eci.endPos()) + 1)
+                        .append(' ').append(STUB_STATEMENT).append(" }");
+            }
+            copied = end;
+        }
+        sb.append(source, copied, source.length());
+        return sb.toString();
+    }
+
+    private static int offset(int[] lineStart, int line, int pos) {
+        return lineStart[line - 1] + pos - 1;
+    }
+
+    private static int[] lineStarts(String source) {
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n') starts.add(i + 1);
+        }
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
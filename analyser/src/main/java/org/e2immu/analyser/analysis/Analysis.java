@@ -57,6 +57,15 @@ public interface Analysis {
 
     void internalAllDoneCheck();
 
+    /**
+     * Called when the analysis budget of a method or a type cycle has been exhausted: replace all remaining
+     * delays by their most conservative value, so that the analysis can be built, and used by later type cycles.
+     * Nothing needs to happen in analyses that have been built already.
+     */
+    default void forceConservativeValues() {
+        // nothing to be done
+    }
+
     void setPropertyDelayWhenNotFinal(Property property, CausesOfDelay causes);
 
     /*
@@ -94,6 +94,20 @@ public class FlowData {
         if (interruptsFlow.isFirst()) interruptsFlow.set(Map.of());
     }
 
+    /*
+    analysis budget exhausted: the statement may or may not be reached, its block may or may not be executed.
+    The statement times are not used anymore, as none of the statements of the method will be analysed again.
+     */
+    public void forceConservativeValues() {
+        if (!guaranteedToBeReachedInMethod.isSet()) guaranteedToBeReachedInMethod.set(CONDITIONALLY);
+        if (!guaranteedToBeReachedInCurrentBlock.isSet()) guaranteedToBeReachedInCurrentBlock.set(CONDITIONALLY);
+        if (!initialTime.isSet()) initialTime.set(ILLEGAL_STATEMENT_TIME);
+        if (!timeAfterEvaluation.isSet()) timeAfterEvaluation.set(ILLEGAL_STATEMENT_TIME);
+        if (!timeAfterSubBlocks.isSet()) timeAfterSubBlocks.set(ILLEGAL_STATEMENT_TIME);
+        if (blockExecution.isFirst()) blockExecution.set(CONDITIONALLY);
+        if (interruptsFlow.isFirst()) interruptsFlow.set(Map.of());
+    }
+
     public void initialiseAssignmentIds(FlowData previous) {
         assignmentIdOfStatementTime.putAll(previous.assignmentIdOfStatementTime);
     }
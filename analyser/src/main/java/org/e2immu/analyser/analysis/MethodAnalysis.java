@@ -62,6 +62,25 @@ public interface MethodAnalysis extends Analysis {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * @return true when the statement analyses have been released after the type cycle was made immutable
+     * (see AnalyserConfiguration.releaseStatementAnalysis). In that case, getFirstStatement and getLastStatement
+     * return null, and only the summary remains.
+     */
+    default boolean statementAnalysisReleased() {
+        return false;
+    }
+
+    /**
+     * Only relevant when the statement analyses have been released; otherwise, the information
+     * is computed from the flow data of the last statement.
+     *
+     * @return true when a call to this method increments the statement time of the caller
+     */
+    default boolean incrementsStatementTime() {
+        throw new UnsupportedOperationException();
+    }
+
     // the value here (size will be one)
     Precondition getPreconditionForEventual();
 
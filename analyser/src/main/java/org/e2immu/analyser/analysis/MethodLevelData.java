@@ -77,6 +77,12 @@ public class MethodLevelData {
         assert linksHaveBeenEstablished.isFinal();
     }
 
+    // analysis budget exhausted: no precondition, and the links are what they are
+    public void forceConservativeValues(Primitives primitives) {
+        if (combinedPrecondition.isVariable()) combinedPrecondition.setFinal(Precondition.empty(primitives));
+        if (linksHaveBeenEstablished.isVariable()) linksHaveBeenEstablished.setFinal(CausesOfDelay.EMPTY);
+    }
+
     public void makeUnreachable(Primitives primitives) {
         if (combinedPrecondition.isVariable()) combinedPrecondition.setFinal(Precondition.empty(primitives));
         if (linksHaveBeenEstablished.isVariable()) linksHaveBeenEstablished.setFinal(CausesOfDelay.EMPTY);
@@ -34,4 +34,6 @@ public interface RangeData {
     Stream<Message> messages();
 
     void internalAllDoneCheck();
+
+    void forceConservativeValues();
 }
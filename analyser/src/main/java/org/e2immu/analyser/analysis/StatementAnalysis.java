@@ -184,6 +184,8 @@ public interface StatementAnalysis extends Analysis,
 
     void makeUnreachable();
 
+    void forceConservativeValues();
+
     Either<CausesOfDelay, Set<Variable>> recursivelyLinkedToParameterOrField(AnalyserContext analyserContext,
                                                                              Variable v,
                                                                              boolean cnnTravelsToFields);
@@ -417,6 +417,13 @@ abstract class AbstractAnalysisBuilder implements Analysis {
         assert properties.delays().isDone() : "Property map: " + properties;
     }
 
+    protected void forceConservativeProperties(Collection<Property> propertiesThatMustBeSet) {
+        properties.replaceDelaysByConservativeValue();
+        for (Property property : propertiesThatMustBeSet) {
+            setPropertyIfAbsentOrDelayed(property, property.conservativeValue());
+        }
+    }
+
     public void setPropertyIfAbsentOrDelayed(Property property, DV finalValue) {
         DV dv = properties.getOrDefaultNull(property);
         if (dv == null || dv.isDelayed()) properties.put(property, finalValue);
@@ -20,6 +20,7 @@ import org.e2immu.analyser.analysis.FieldAnalysis;
 import org.e2immu.analyser.analysis.TypeAnalysis;
 import org.e2immu.analyser.model.*;
 import org.e2immu.analyser.model.expression.DelayedVariableExpression;
+import org.e2immu.analyser.model.expression.UnknownExpression;
 import org.e2immu.analyser.model.variable.FieldReference;
 import org.e2immu.analyser.parser.E2ImmuAnnotationExpressions;
 import org.e2immu.analyser.parser.InspectionProvider;
@@ -239,6 +240,24 @@ public class FieldAnalysisImpl extends AnalysisImpl implements FieldAnalysis {
                     annotationChecks.toImmutableMap());
         }
 
+        private static final List<Property> FORCE_FIELD = List.of(Property.CONTAINER, Property.EXTERNAL_CONTAINER,
+                Property.EXTERNAL_IGNORE_MODIFICATIONS, Property.EXTERNAL_IMMUTABLE, Property.EXTERNAL_NOT_NULL,
+                Property.FINAL, Property.IMMUTABLE, Property.INDEPENDENT, Property.MODIFIED_OUTSIDE_METHOD);
+
+        @Override
+        public void forceConservativeValues() {
+            forceConservativeProperties(FORCE_FIELD);
+            if (value.isVariable()) {
+                setValue(UnknownExpression.forVariableValue(fieldInfo.getIdentifier(), fieldInfo.type));
+            }
+            if (linkedVariables.isVariable()) {
+                linkedVariables.setFinal(LinkedVariables.EMPTY);
+            }
+            if (isOfTransparentType.isVariable()) {
+                isOfTransparentType.setFinal(DV.FALSE_DV);
+            }
+        }
+
         public void transferPropertiesToAnnotations(E2ImmuAnnotationExpressions e2ImmuAnnotationExpressions) {
             DV effectivelyFinal = getProperty(Property.FINAL);
             DV ownerImmutable = typeAnalysisOfOwner.getProperty(Property.IMMUTABLE);
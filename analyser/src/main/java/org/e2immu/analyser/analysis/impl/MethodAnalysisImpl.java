@@ -49,6 +49,8 @@ public class MethodAnalysisImpl extends AnalysisImpl implements MethodAnalysis {
     public final Map<CompanionMethodName, CompanionAnalysis> companionAnalyses;
     public final Map<CompanionMethodName, MethodInfo> computedCompanions;
     public final AnalysisMode analysisMode;
+    public final boolean statementAnalysisReleased;
+    public final boolean incrementsStatementTime;
 
     private MethodAnalysisImpl(MethodInfo methodInfo,
                                StatementAnalysis firstStatement,
@@ -62,7 +64,9 @@ public class MethodAnalysisImpl extends AnalysisImpl implements MethodAnalysis {
                                Map<Property, DV> properties,
                                Map<AnnotationExpression, AnnotationCheck> annotations,
                                Map<CompanionMethodName, CompanionAnalysis> companionAnalyses,
-                               Map<CompanionMethodName, MethodInfo> computedCompanions) {
+                               Map<CompanionMethodName, MethodInfo> computedCompanions,
+                               boolean statementAnalysisReleased,
+                               boolean incrementsStatementTime) {
         super(properties, annotations);
         this.methodInfo = methodInfo;
         this.firstStatement = firstStatement;
@@ -75,6 +79,8 @@ public class MethodAnalysisImpl extends AnalysisImpl implements MethodAnalysis {
         this.companionAnalyses = companionAnalyses;
         this.computedCompanions = computedCompanions;
         this.analysisMode = analysisMode;
+        this.statementAnalysisReleased = statementAnalysisReleased;
+        this.incrementsStatementTime = incrementsStatementTime;
     }
 
     @Override
@@ -82,6 +88,17 @@ public class MethodAnalysisImpl extends AnalysisImpl implements MethodAnalysis {
         return true;
     }
 
+    @Override
+    public boolean statementAnalysisReleased() {
+        return statementAnalysisReleased;
+    }
+
+    @Override
+    public boolean incrementsStatementTime() {
+        assert statementAnalysisReleased;
+        return incrementsStatementTime;
+    }
+
     @Override
     public AnalysisMode analysisMode() {
         return analysisMode;
@@ -304,9 +321,30 @@ public class MethodAnalysisImpl extends AnalysisImpl implements MethodAnalysis {
 
         @Override
         public Analysis build() {
+            return build(firstStatement.getOrDefaultNull(), getLastStatement(), false, false);
+        }
+
+        /*
+        Summary-only retention: the statement analyses are not copied into the immutable method analysis,
+        so that they (with all their variable info containers, condition managers, etc.) can be garbage collected
+        once the type cycle has been made immutable. The only information that later type cycles read from the
+        last statement, is whether a call to this method increments the statement time.
+         */
+        public Analysis buildSummary() {
+            StatementAnalysis lastStatement = getLastStatement();
+            boolean incrementsStatementTime = lastStatement != null
+                    && !lastStatement.flowData().timeAfterSubBlocksNotYetSet()
+                    && lastStatement.flowData().getTimeAfterSubBlocks() > 0;
+            return build(null, null, true, incrementsStatementTime);
+        }
+
+        private Analysis build(StatementAnalysis firstStatement,
+                               StatementAnalysis lastStatement,
+                               boolean statementAnalysisReleased,
+                               boolean incrementsStatementTime) {
             return new MethodAnalysisImpl(methodInfo,
-                    firstStatement.getOrDefaultNull(),
-                    getLastStatement(),
+                    firstStatement,
+                    lastStatement,
                     List.copyOf(parameterAnalyses.stream()
                             .map(parameterAnalysis -> parameterAnalysis instanceof ParameterAnalysisImpl.Builder builder ?
                                     (ParameterAnalysis) builder.build() : parameterAnalysis).collect(Collectors.toList())),
@@ -318,7 +356,9 @@ public class MethodAnalysisImpl extends AnalysisImpl implements MethodAnalysis {
                     properties.toImmutableMap(),
                     annotationChecks.toImmutableMap(),
                     getCompanionAnalyses(),
-                    getComputedCompanions());
+                    getComputedCompanions(),
+                    statementAnalysisReleased,
+                    incrementsStatementTime);
         }
 
         @Override
@@ -495,6 +535,24 @@ public class MethodAnalysisImpl extends AnalysisImpl implements MethodAnalysis {
         public boolean singleReturnValueIsVariable() {
             return !singleReturnValue.isFinal();
         }
+
+        private static final List<Property> FORCE_METHOD = List.of(Property.MODIFIED_METHOD);
+        private static final List<Property> FORCE_METHOD_WITH_RETURN_VALUE = List.of(Property.MODIFIED_METHOD,
+                Property.CONSTANT, Property.CONTAINER, Property.FLUENT, Property.IDENTITY,
+                Property.IGNORE_MODIFICATIONS, Property.IMMUTABLE, Property.INDEPENDENT, Property.NOT_NULL_EXPRESSION);
+
+        @Override
+        public void forceConservativeValues() {
+            boolean hasReturnValue = methodInfo.hasReturnValue();
+            forceConservativeProperties(hasReturnValue ? FORCE_METHOD_WITH_RETURN_VALUE : FORCE_METHOD);
+            if (singleReturnValueIsVariable()) {
+                Expression srv = hasReturnValue
+                        ? UnknownExpression.forReturnVariable(methodInfo.identifier, methodInfo.returnType())
+                        : UnknownExpression.forNoReturnValue(methodInfo.identifier, methodInfo.returnType());
+                setSingleReturnValue(srv);
+            }
+            ensureIsNotEventualUnlessOtherwiseAnnotated();
+        }
     }
 
     private static Set<MethodAnalysis> overrides(AnalysisProvider analysisProvider,
@@ -210,6 +210,19 @@ public class ParameterAnalysisImpl extends AnalysisImpl implements ParameterAnal
             return assignedToField.isFrozen();
         }
 
+        private static final List<Property> FORCE_PARAMETER = List.of(Property.CONTAINER, Property.CONTEXT_CONTAINER,
+                Property.CONTEXT_IMMUTABLE, Property.CONTEXT_MODIFIED, Property.CONTEXT_NOT_NULL,
+                Property.EXTERNAL_CONTAINER, Property.EXTERNAL_IGNORE_MODIFICATIONS, Property.EXTERNAL_IMMUTABLE,
+                Property.EXTERNAL_NOT_NULL, Property.IGNORE_MODIFICATIONS, Property.IMMUTABLE, Property.INDEPENDENT,
+                Property.MODIFIED_OUTSIDE_METHOD, Property.MODIFIED_VARIABLE, Property.NOT_NULL_PARAMETER);
+
+        @Override
+        public void forceConservativeValues() {
+            forceConservativeProperties(FORCE_PARAMETER);
+            if (!assignedToField.isFrozen()) assignedToField.freeze();
+            resolveFieldDelays();
+        }
+
         @Override
         public LinkedVariables getLinksToOtherParameters() {
             return linksToParameters.getOrDefault(LinkedVariables.EMPTY);
@@ -58,6 +58,11 @@ public class RangeDataImpl implements RangeData {
         assert range.isFinal();
     }
 
+    @Override
+    public void forceConservativeValues() {
+        if (range.isVariable()) range.setFinal(Range.NO_RANGE);
+    }
+
     @Override
     public Stream<Message> messages() {
         Stream<Message> streamOfUselessAssignment = uselessAssignment.isSet() ? Stream.of(uselessAssignment.get()) : Stream.of();
@@ -109,6 +109,19 @@ public class StatementAnalysisImpl extends AbstractAnalysisBuilder implements St
         methodLevelData.internalAllDoneCheck();
     }
 
+    /*
+    Called when the analysis budget of the method or its type cycle has been exhausted: everything that is still
+    delayed in this statement gets its least informative value, so that the statement counts as done.
+     */
+    @Override
+    public void forceConservativeValues() {
+        flowData.forceConservativeValues();
+        stateData.forceConservativeValues(primitives);
+        methodLevelData.forceConservativeValues(primitives);
+        if (rangeData != null) rangeData.forceConservativeValues();
+        variables.stream().forEach(e -> e.getValue().forceConservativeValues());
+    }
+
     @Override
     public void makeUnreachable() {
         flowData.makeUnreachable();
@@ -457,6 +457,19 @@ public class TypeAnalysisImpl extends AnalysisImpl implements TypeAnalysis {
             hiddenContentTypes.setFirst(causes);
         }
 
+        private static final List<Property> FORCE_TYPE = List.of(Property.CONTAINER, Property.IMMUTABLE,
+                Property.INDEPENDENT);
+
+        @Override
+        public void forceConservativeValues() {
+            forceConservativeProperties(FORCE_TYPE);
+            if (!approvedPreconditionsE1.isFrozen()) approvedPreconditionsE1.freeze();
+            if (!approvedPreconditionsE2.isFrozen()) approvedPreconditionsE2.freeze();
+            if (!hiddenContentTypes.isSet()) hiddenContentTypes.set(SetOfTypes.EMPTY);
+            if (!immutableCanBeIncreasedByTypeParameters.isSet()) immutableCanBeIncreasedByTypeParameters.set(false);
+            if (!explicitTypes.isSet()) explicitTypes.set(SetOfTypes.EMPTY);
+        }
+
         public TypeAnalysis build() {
             return new TypeAnalysisImpl(typeInfo,
                     properties.toImmutableMap(),
@@ -0,0 +1,86 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.annotationxml;
+
+import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.annotation.UtilityClass;
+
+import java.io.*;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Map;
+
+/*
+Summary of the final analysis of the types of a module, to be packaged in the module's jar as the resource
+META-INF/e2immu/analysis-summary.bin, next to the classes. The analysis is represented by the annotations of the
+type items, exactly as in annotations.xml; the items are encoded as in AnnotationXmlBinaryCache.
+
+When another module is analysed against the jar, AnalysisSummaryStore hands these items to MyClassVisitor in
+preference to those of annotations.xml files, so that the shallow analyser starts from the results of the analysis
+of the module's sources rather than from what it can derive from byte code.
+ */
+@UtilityClass
+public class AnalysisSummary {
+    public static final String ANALYSIS_SUMMARY_BIN = "analysis-summary.bin";
+    public static final String RESOURCE = "META-INF/e2immu/" + ANALYSIS_SUMMARY_BIN;
+
+    private static final int MAGIC = 0xE2A0_5C01;
+    private static final int VERSION = 1;
+
+    private AnalysisSummary() {
+        // nothing here, cannot be instantiated
+        throw new UnsupportedOperationException();
+    }
+
+    /*
+    Written to a temporary file first, and then renamed, so that a concurrent reader never sees half a file.
+     */
+    public static File write(File base, Collection<TypeItem> typeItems) throws IOException {
+        File file = new File(base, RESOURCE);
+        File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        File tmp = new File(directory, ANALYSIS_SUMMARY_BIN + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(typeItems.size());
+            for (TypeItem typeItem : typeItems) {
+                AnnotationXmlBinaryCache.writeTypeItem(out, typeItem);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+        return file;
+    }
+
+    public static void read(URL url, Map<String, TypeItem> typeItemMap) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(url.openStream()))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not an analysis summary: " + url);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported version " + version + " of analysis summary " + url);
+            }
+            int numberOfTypes = in.readInt();
+            for (int i = 0; i < numberOfTypes; i++) {
+                AnnotationXmlBinaryCache.readTypeItem(in, typeItemMap);
+            }
+        }
+    }
+}
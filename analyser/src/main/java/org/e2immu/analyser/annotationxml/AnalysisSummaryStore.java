@@ -0,0 +1,85 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.annotationxml;
+
+import org.e2immu.analyser.annotationxml.model.MethodItem;
+import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.analyser.util.Resources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Reads all the analysis summaries on the class path (see AnalysisSummary). A type present in a summary is described
+by the summary only; all other types are looked up in the fallback stores, in order. Typically, these are the
+annotated API bundle, if any, and the AnnotationXmlReader.
+ */
+public class AnalysisSummaryStore implements AnnotationStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisSummaryStore.class);
+
+    private final Map<String, TypeItem> typeItems;
+    private final List<AnnotationStore> fallbacks;
+    private final int numberOfAnnotations;
+
+    public AnalysisSummaryStore(Resources classPath, AnnotationStore... fallbacks) {
+        Map<String, TypeItem> typeItems = new HashMap<>();
+        for (URL url : classPath.expandURLs(AnalysisSummary.ANALYSIS_SUMMARY_BIN)) {
+            Map<String, TypeItem> inSummary = new HashMap<>();
+            try {
+                AnalysisSummary.read(url, inSummary);
+                typeItems.putAll(inSummary);
+            } catch (IOException io) {
+                LOGGER.warn("Skipping {}: IOException {}", url, io.getMessage());
+            }
+        }
+        this.typeItems = Map.copyOf(typeItems);
+        this.fallbacks = List.of(fallbacks);
+        this.numberOfAnnotations = typeItems.values().stream().mapToInt(AnalysisSummaryStore::countAnnotations).sum();
+    }
+
+    static int countAnnotations(TypeItem typeItem) {
+        return typeItem.getAnnotations().size()
+                + typeItem.getFieldItems().values().stream().mapToInt(f -> f.getAnnotations().size()).sum()
+                + typeItem.getMethodItems().values().stream().mapToInt(AnalysisSummaryStore::countAnnotations).sum();
+    }
+
+    private static int countAnnotations(MethodItem methodItem) {
+        return methodItem.getAnnotations().size() + methodItem.getParameterItems().stream()
+                .mapToInt(p -> p.getAnnotations().size()).sum();
+    }
+
+    @Override
+    public TypeItem typeItemsByFQName(String fqTypeName) {
+        TypeItem typeItem = typeItems.get(fqTypeName);
+        for (int i = 0; typeItem == null && i < fallbacks.size(); i++) {
+            typeItem = fallbacks.get(i).typeItemsByFQName(fqTypeName);
+        }
+        return typeItem;
+    }
+
+    @Override
+    public int getNumberOfAnnotations() {
+        return numberOfAnnotations + fallbacks.stream().mapToInt(AnnotationStore::getNumberOfAnnotations).sum();
+    }
+
+    public int getNumberOfSummarizedTypes() {
+        return typeItems.size();
+    }
+}
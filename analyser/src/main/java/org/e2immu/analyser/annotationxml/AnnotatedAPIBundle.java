@@ -0,0 +1,194 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.annotationxml;
+
+import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.analyser.model.MethodInspection;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.model.TypeInspection;
+import org.e2immu.analyser.util.Resources;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Function;
+
+/*
+Precompiled form of the annotated APIs: the companion methods and contracted annotations which the annotated API
+sources add to the types they describe, as type items (see AnnotationXmlBinaryCache for the encoding).
+
+The bundle's header holds its format version, the version of the analyser which made it, and a fingerprint of the
+annotated API sources it was made from. A bundle of another format or analyser version is never read, because
+the items are the result of the analyser's shallow analysis. When the fingerprint matches that of the current
+sources, or when there are no sources to compare with, Input does not parse the sources; MyClassVisitor takes
+the bundle's items while inspecting the byte code of the types, exactly as it does with annotations.xml files.
+
+Scope: the bundle does not replace the sources which describe types with companion methods. A companion method
+is a method with a body, which can only be built by inspecting and resolving its source; MyClassVisitor cannot
+create it from an item (see CreateCompanionMethod, https://github.com/e2immu/e2immu/issues/39). The bundle lists
+these sources in sourcesToParse, by the fully qualified name of their primary type
+(e.g. org.e2immu.annotatedapi.java.JavaUtil), and Input keeps parsing them.
+ */
+public record AnnotatedAPIBundle(String fingerprint,
+                                 Map<String, TypeItem> typeItems,
+                                 Set<String> sourcesToParse) implements AnnotationStore {
+
+    private static final int MAGIC = 0xE2A0_AB01;
+    private static final int VERSION = 3;
+    private static final String VERSION_RESOURCE = "/org/e2immu/analyser/version.properties";
+
+    @Override
+    public TypeItem typeItemsByFQName(String fqTypeName) {
+        return typeItems.get(fqTypeName);
+    }
+
+    @Override
+    public int getNumberOfAnnotations() {
+        return typeItems.values().stream().mapToInt(AnalysisSummaryStore::countAnnotations).sum();
+    }
+
+    /**
+     * @param annotatedAPITypes the primary types described by the annotated API sources, after shallow analysis
+     * @param sourceOf          the primary type of the annotated API source which describes the type
+     */
+    public static AnnotatedAPIBundle create(String fingerprint,
+                                            Collection<TypeInfo> annotatedAPITypes,
+                                            Function<TypeInfo, TypeInfo> sourceOf) {
+        Set<String> sourcesToParse = new HashSet<>();
+        for (TypeInfo typeInfo : annotatedAPITypes) {
+            if (hasCompanionMethods(typeInfo)) {
+                sourcesToParse.add(sourceOf.apply(typeInfo).fullyQualifiedName);
+            }
+        }
+        Map<String, TypeItem> typeItems = new HashMap<>();
+        for (TypeInfo typeInfo : annotatedAPITypes) {
+            if (!sourcesToParse.contains(sourceOf.apply(typeInfo).fullyQualifiedName)) {
+                typeItems.put(typeInfo.fullyQualifiedName, new TypeItem(typeInfo));
+            }
+        }
+        return new AnnotatedAPIBundle(fingerprint, Map.copyOf(typeItems), Set.copyOf(sourcesToParse));
+    }
+
+    private static boolean hasCompanionMethods(TypeInfo typeInfo) {
+        return typeInfo.typeInspection.get().methodsAndConstructors(TypeInspection.Methods.INCLUDE_SUBTYPES)
+                .map(methodInfo -> methodInfo.methodInspection.get())
+                .map(MethodInspection::getCompanionMethods)
+                .anyMatch(companionMethods -> !companionMethods.isEmpty());
+    }
+
+    /**
+     * @param annotatedAPIsPath the annotated API source directories
+     * @param readPackages      the packages to which the reading of annotated API sources is restricted
+     * @return a digest of the restriction, and the relative paths and contents of the .java files
+     */
+    public static String fingerprint(Resources annotatedAPIsPath, List<String> readPackages) throws IOException {
+        SortedMap<String, URL> sources = new TreeMap<>();
+        annotatedAPIsPath.visit(new String[0], (parts, list) -> {
+            if (parts.length >= 1 && parts[parts.length - 1].endsWith(".java")) {
+                sources.put(String.join("/", parts), list.get(0));
+            }
+        });
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new UnsupportedOperationException(e);
+        }
+        digest.update(String.join(",", readPackages).getBytes(StandardCharsets.UTF_8));
+        for (Map.Entry<String, URL> entry : sources.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            try (InputStream inputStream = entry.getValue().openStream()) {
+                digest.update(inputStream.readAllBytes());
+            }
+        }
+        return new BigInteger(1, digest.digest()).toString(16);
+    }
+
+    /*
+    The version of the analyser's build, filled in by the build when it processes the resources.
+     */
+    static String analyserVersion() throws IOException {
+        try (InputStream inputStream = AnnotatedAPIBundle.class.getResourceAsStream(VERSION_RESOURCE)) {
+            if (inputStream == null) throw new IOException("Cannot find resource " + VERSION_RESOURCE);
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            return Objects.requireNonNull(properties.getProperty("version"), "No version in " + VERSION_RESOURCE);
+        }
+    }
+
+    /**
+     * @param fingerprint the fingerprint of the current annotated API sources; null when there are no sources to
+     *                    compare with
+     * @return null when the file does not exist, has another format version, was made by another version of the
+     * analyser, or was made from other annotated API sources
+     */
+    public static AnnotatedAPIBundle read(File file, String fingerprint) throws IOException {
+        if (!file.canRead()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (!analyserVersion().equals(AnnotationXmlBinaryCache.readString(in))) return null;
+            String fingerprintInFile = AnnotationXmlBinaryCache.readString(in);
+            if (fingerprint != null && !fingerprint.equals(fingerprintInFile)) return null;
+            Set<String> sourcesToParse = new HashSet<>();
+            int numberOfSources = in.readInt();
+            for (int i = 0; i < numberOfSources; i++) {
+                sourcesToParse.add(AnnotationXmlBinaryCache.readString(in));
+            }
+            Map<String, TypeItem> typeItems = new HashMap<>();
+            int numberOfTypes = in.readInt();
+            for (int i = 0; i < numberOfTypes; i++) {
+                AnnotationXmlBinaryCache.readTypeItem(in, typeItems);
+            }
+            return new AnnotatedAPIBundle(fingerprintInFile, Map.copyOf(typeItems), Set.copyOf(sourcesToParse));
+        }
+    }
+
+    /*
+    Written to a temporary file first, and then renamed, so that a concurrent reader never sees half a file.
+     */
+    public void write(File file) throws IOException {
+        write(file, analyserVersion());
+    }
+
+    // the analyser version is a parameter for testing only
+    void write(File file, String analyserVersion) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        File tmp = new File(directory, file.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            AnnotationXmlBinaryCache.writeString(out, analyserVersion);
+            AnnotationXmlBinaryCache.writeString(out, fingerprint);
+            out.writeInt(sourcesToParse.size());
+            for (String source : new TreeSet<>(sourcesToParse)) {
+                AnnotationXmlBinaryCache.writeString(out, source);
+            }
+            out.writeInt(typeItems.size());
+            for (TypeItem typeItem : new TreeSet<>(typeItems.values())) {
+                AnnotationXmlBinaryCache.writeTypeItem(out, typeItem);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+    }
+}
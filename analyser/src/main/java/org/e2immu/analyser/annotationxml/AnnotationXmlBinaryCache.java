@@ -0,0 +1,226 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.annotationxml;
+
+import org.e2immu.analyser.annotationxml.model.*;
+import org.e2immu.annotation.UtilityClass;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/*
+Compact binary copy of a single annotations.xml file, written next to it as annotations.xml.bin.
+
+The header holds the length and modification time of the XML file it was made from, the number of annotations,
+and the names of the types, so that the reader can index the file without decoding any item.
+The items follow the header; they are decoded into a type item map in the same way as the XML reader adds
+its items, so that types spread over multiple files are merged identically.
+The encoding of the items is shared with AnalysisSummary.
+ */
+@UtilityClass
+public class AnnotationXmlBinaryCache {
+    public static final String ANNOTATIONS_XML_BIN = AnnotationXmlReader.ANNOTATIONS_XML + ".bin";
+
+    private static final int MAGIC = 0xE2A0_0C01;
+    private static final int VERSION = 1;
+
+    private AnnotationXmlBinaryCache() {
+        // nothing here, cannot be instantiated
+        throw new UnsupportedOperationException();
+    }
+
+    public record Header(int numberOfAnnotations, List<String> typeNames) {
+    }
+
+    public static File cacheFile(File xmlFile) {
+        return new File(xmlFile.getParentFile(), ANNOTATIONS_XML_BIN);
+    }
+
+    /**
+     * @return null when the cache file does not exist, or is not up-to-date with respect to the XML file
+     */
+    public static Header readHeader(File xmlFile, File cacheFile) throws IOException {
+        if (!cacheFile.canRead()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            if (in.readLong() != xmlFile.length() || in.readLong() != xmlFile.lastModified()) return null;
+            return readHeader(in);
+        }
+    }
+
+    private static Header readHeader(DataInputStream in) throws IOException {
+        int numberOfAnnotations = in.readInt();
+        int numberOfTypes = in.readInt();
+        String[] typeNames = new String[numberOfTypes];
+        for (int i = 0; i < numberOfTypes; i++) {
+            typeNames[i] = readString(in);
+        }
+        return new Header(numberOfAnnotations, List.of(typeNames));
+    }
+
+    public static void readItems(File cacheFile, Map<String, TypeItem> typeItemMap) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a binary annotation cache: " + cacheFile);
+            }
+            in.readLong();
+            in.readLong();
+            readHeader(in);
+            int numberOfTypes = in.readInt();
+            for (int i = 0; i < numberOfTypes; i++) {
+                readTypeItem(in, typeItemMap);
+            }
+        }
+    }
+
+    static void readTypeItem(DataInputStream in, Map<String, TypeItem> typeItemMap) throws IOException {
+        TypeItem typeItem = AnnotationXmlReader.typeItem(typeItemMap, readString(in));
+        readAnnotations(in, typeItem);
+        int numberOfFields = in.readInt();
+        for (int i = 0; i < numberOfFields; i++) {
+            FieldItem fieldItem = AnnotationXmlReader.fieldItem(typeItem, readString(in));
+            readAnnotations(in, fieldItem);
+        }
+        int numberOfMethods = in.readInt();
+        for (int i = 0; i < numberOfMethods; i++) {
+            String name = readString(in);
+            String returnType = readString(in);
+            MethodItem methodItem = AnnotationXmlReader.methodItem(typeItem, name, returnType);
+            readAnnotations(in, methodItem);
+            int numberOfParameters = in.readInt();
+            for (int j = 0; j < numberOfParameters; j++) {
+                ParameterItem parameterItem = new ParameterItem(in.readInt());
+                methodItem.getParameterItems().add(parameterItem);
+                readAnnotations(in, parameterItem);
+            }
+            int numberOfCompanions = in.readInt();
+            for (int j = 0; j < numberOfCompanions; j++) {
+                boolean isStatic = in.readBoolean();
+                String typeParametersCsv = readString(in);
+                String companionReturnType = readString(in);
+                String companionName = readString(in);
+                String paramNamesCsv = readString(in);
+                String companionValue = readString(in);
+                AnnotationXmlReader.addCompanionMethodItem(methodItem, isStatic, typeParametersCsv,
+                        companionReturnType, companionName, paramNamesCsv, companionValue);
+            }
+        }
+    }
+
+    private static void readAnnotations(DataInputStream in, HasAnnotations hasAnnotations) throws IOException {
+        int numberOfAnnotations = in.readInt();
+        for (int i = 0; i < numberOfAnnotations; i++) {
+            Annotation.Builder builder = new Annotation.Builder(readString(in));
+            int numberOfValues = in.readInt();
+            for (int j = 0; j < numberOfValues; j++) {
+                String name = readString(in);
+                builder.addValue(new Value(name, readString(in)));
+            }
+            hasAnnotations.getAnnotations().add(builder.build());
+        }
+    }
+
+    /*
+    Written to a temporary file first, and then renamed, so that a concurrent reader never sees half a file.
+     */
+    public static void write(File xmlFile,
+                             File cacheFile,
+                             int numberOfAnnotations,
+                             Collection<TypeItem> typeItems) throws IOException {
+        File tmp = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(xmlFile.length());
+            out.writeLong(xmlFile.lastModified());
+            out.writeInt(numberOfAnnotations);
+            out.writeInt(typeItems.size());
+            for (TypeItem typeItem : typeItems) {
+                writeString(out, typeItem.name);
+            }
+            out.writeInt(typeItems.size());
+            for (TypeItem typeItem : typeItems) {
+                writeTypeItem(out, typeItem);
+            }
+        }
+        if (!tmp.renameTo(cacheFile)) {
+            throw new IOException("Cannot rename " + tmp + " to " + cacheFile);
+        }
+    }
+
+    static void writeTypeItem(DataOutputStream out, TypeItem typeItem) throws IOException {
+        writeString(out, typeItem.name);
+        writeAnnotations(out, typeItem);
+        out.writeInt(typeItem.getFieldItems().size());
+        for (FieldItem fieldItem : typeItem.getFieldItems().values()) {
+            writeString(out, fieldItem.name);
+            writeAnnotations(out, fieldItem);
+        }
+        out.writeInt(typeItem.getMethodItems().size());
+        for (MethodItem methodItem : typeItem.getMethodItems().values()) {
+            writeString(out, methodItem.name);
+            writeString(out, methodItem.returnType);
+            writeAnnotations(out, methodItem);
+            out.writeInt(methodItem.getParameterItems().size());
+            for (ParameterItem parameterItem : methodItem.getParameterItems()) {
+                out.writeInt(parameterItem.index);
+                writeAnnotations(out, parameterItem);
+            }
+            out.writeInt(methodItem.getCompanionMethods().size());
+            for (MethodItem companion : methodItem.getCompanionMethods()) {
+                out.writeBoolean(companion.isStatic);
+                writeString(out, companion.typeParametersCsv);
+                writeString(out, companion.returnType);
+                writeString(out, companion.name);
+                writeString(out, companion.paramNamesCsv);
+                writeString(out, companion.companionValue);
+            }
+        }
+    }
+
+    private static void writeAnnotations(DataOutputStream out, HasAnnotations hasAnnotations) throws IOException {
+        out.writeInt(hasAnnotations.getAnnotations().size());
+        for (Annotation annotation : hasAnnotations.getAnnotations()) {
+            writeString(out, annotation.name());
+            out.writeInt(annotation.values().size());
+            for (Value value : annotation.values()) {
+                writeString(out, value.name);
+                writeString(out, value.val);
+            }
+        }
+    }
+
+    // writeUTF is limited to 64k, which companion definitions could exceed; -1 encodes null
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) throw new EOFException();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
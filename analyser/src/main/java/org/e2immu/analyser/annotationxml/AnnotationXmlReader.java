@@ -17,31 +17,44 @@ package org.e2immu.analyser.annotationxml;
 import org.e2immu.analyser.annotationxml.model.*;
 import org.e2immu.analyser.config.AnnotationXmlConfiguration;
 import org.e2immu.analyser.util.Resources;
-import org.e2immu.annotation.E2Immutable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-@E2Immutable
+/*
+The constructor only indexes the annotations.xml files: a streaming pass collects the names of the types and counts
+the annotations, without creating any items. The items of a file are parsed on the first lookup of one of its types
+(typically from MyClassVisitor), and kept.
+
+A type can occur in more than one file; the files in which it occurs are always parsed together, so that the
+result is identical to reading all files in one go.
+When the binary cache is enabled, files on the file system are read from, and indexed by, their binary copy
+(see AnnotationXmlBinaryCache) when it is up-to-date.
+ */
 public class AnnotationXmlReader implements AnnotationStore {
     private static final Logger LOGGER = LoggerFactory.getLogger(AnnotationXmlReader.class);
     public static final String ANNOTATIONS_XML = "annotations.xml";
     public static final String ANNOTATIONS_DOT_XML = "annotations\\.xml";
 
-    public final Map<String, TypeItem> typeItemMap;
     public final int numberOfAnnotations;
+    // for each type, the files in which it occurs
+    private final Map<String, List<URL>> urlsOfType;
+    // for each file read from the binary cache, the cache file
+    private final Map<URL, File> binaryCacheFiles;
+    private final Map<List<URL>, Map<String, TypeItem>> parsed = new ConcurrentHashMap<>();
 
     private static final Pattern TYPE = Pattern.compile("(\\p{Alpha}[^\\s<>]+)");
     private static final String METHOD_AND_BRACKETS = "(\\p{Alpha}[^\\s()<>]+\\([^)]*\\))";
@@ -60,27 +73,31 @@ public class AnnotationXmlReader implements AnnotationStore {
     }
 
     public AnnotationXmlReader(Resources classPath, AnnotationXmlConfiguration configuration) {
-        Map<String, TypeItem> typeItemMap = new HashMap<>();
+        Map<String, List<URL>> urlsOfType = new HashMap<>();
+        Map<URL, File> binaryCacheFiles = new HashMap<>();
         int countAnnotations = 0;
         if (configuration.isReadAnnotationXmlPackages()) {
             List<Pattern> restrictToPatterns = computeRestrictionPatterns(configuration.readAnnotationXmlPackages());
             for (URL url : classPath.expandURLs(ANNOTATIONS_XML)) {
                 try {
                     if (accept(url, restrictToPatterns)) {
-                        countAnnotations += parse(url, typeItemMap);
+                        File xmlFile = configuration.annotationXmlBinaryCache() ? fileOrNull(url) : null;
+                        if (xmlFile != null) {
+                            countAnnotations += indexWithBinaryCache(url, xmlFile, urlsOfType, binaryCacheFiles);
+                        } else {
+                            countAnnotations += index(url, urlsOfType);
+                        }
                     }
                 } catch (IOException io) {
                     LOGGER.warn("Skipping {}: IOException {}", url, io.getMessage());
-                } catch (SAXException e) {
-                    LOGGER.warn("Skipping {}: SAXException {}", url, e.getMessage());
-                } catch (ParserConfigurationException e) {
-                    LOGGER.warn("Skipping {}: Parser config exception {}", url, e.getMessage());
+                } catch (XMLStreamException e) {
+                    LOGGER.warn("Skipping {}: XMLStreamException {}", url, e.getMessage());
                 }
             }
         }
         this.numberOfAnnotations = countAnnotations;
-        this.typeItemMap = Map.copyOf(typeItemMap);
-        this.typeItemMap.values().forEach(TypeItem::freeze);
+        this.urlsOfType = freeze(urlsOfType);
+        this.binaryCacheFiles = Map.copyOf(binaryCacheFiles);
     }
 
     /*
@@ -104,165 +121,307 @@ public class AnnotationXmlReader implements AnnotationStore {
         return restrictToPatterns.stream().anyMatch(p -> p.matcher(file).matches());
     }
 
-    public AnnotationXmlReader(URL annotationXml) throws IOException, ParserConfigurationException, SAXException {
+    public AnnotationXmlReader(URL annotationXml) throws IOException {
         this(List.of(annotationXml));
     }
 
-    public AnnotationXmlReader(Collection<URL> annotationXmls) throws IOException, ParserConfigurationException, SAXException {
-        Map<String, TypeItem> typeItemMap = new HashMap<>();
+    public AnnotationXmlReader(Collection<URL> annotationXmls) throws IOException {
+        Map<String, List<URL>> urlsOfType = new HashMap<>();
 
         int countAnnotations = 0;
         for (URL annotationXml : annotationXmls) {
-            countAnnotations += parse(annotationXml, typeItemMap);
+            try {
+                countAnnotations += index(annotationXml, urlsOfType);
+            } catch (XMLStreamException e) {
+                throw new IOException("Problems with XML reading: " + e.getMessage());
+            }
         }
         this.numberOfAnnotations = countAnnotations;
-        this.typeItemMap = Map.copyOf(typeItemMap);
-        this.typeItemMap.values().forEach(TypeItem::freeze);
+        this.urlsOfType = freeze(urlsOfType);
+        this.binaryCacheFiles = Map.of();
     }
 
-    private static int parse(URL annotationXml, Map<String, TypeItem> typeItemMap) throws ParserConfigurationException, IOException, SAXException {
-        LOGGER.debug("Parsing {}", annotationXml);
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document document = builder.parse(annotationXml.openStream());
-        NodeList nodeList = document.getDocumentElement().getChildNodes();
+    private static Map<String, List<URL>> freeze(Map<String, List<URL>> urlsOfType) {
+        Map<String, List<URL>> result = new HashMap<>();
+        // share the lists, so that types from the same file(s) share the key in 'parsed'
+        Map<List<URL>, List<URL>> canonical = new HashMap<>();
+        urlsOfType.forEach((typeName, urls) -> result.put(typeName,
+                canonical.computeIfAbsent(List.copyOf(urls), l -> l)));
+        return Map.copyOf(result);
+    }
+
+    private static File fileOrNull(URL url) {
+        if (!"file".equals(url.getProtocol())) return null;
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static XMLStreamReader createXMLStreamReader(InputStream inputStream) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(inputStream);
+    }
 
+    private static void addType(Map<String, List<URL>> urlsOfType, String typeName, URL url) {
+        List<URL> urls = urlsOfType.computeIfAbsent(typeName, t -> new ArrayList<>());
+        if (!urls.contains(url)) urls.add(url);
+    }
+
+    /*
+    Only reads the names of the items, and counts the annotations. The type name is the part of the item name
+    before the first space, see the TYPE pattern and its use in the CONSTRUCTOR, METHOD and FIELD patterns.
+     */
+    private static int index(URL annotationXml, Map<String, List<URL>> urlsOfType) throws IOException, XMLStreamException {
+        LOGGER.debug("Indexing {}", annotationXml);
         int countAnnotations = 0;
-        for (int i = 0; i < nodeList.getLength(); i++) {
-            Node node = nodeList.item(i);
-            if (node.getNodeType() == Node.ELEMENT_NODE && node.getNodeName().equals("item")) {
-                String name = node.getAttributes().getNamedItem("name").getNodeValue();
-
-                HasAnnotations theItem;
-                boolean companionStatic = false;
-                String companionTypeParametersCsv = null;
-                String companionType = null;
-                String companionName = null;
-
-                Matcher typeMatcher = TYPE.matcher(name);
-                if (typeMatcher.matches()) {
-                    theItem = typeItem(typeItemMap, typeMatcher.group());
-                } else {
-                    Matcher methodWithCompanion = METHOD_WITH_COMPANION.matcher(name);
-                    String methodString;
-                    String paramIndex = null;
-                    if (methodWithCompanion.matches()) {
-                        methodString = methodWithCompanion.group(1);
-                        Matcher companionMatcher = COMPANION_METHOD.matcher(methodWithCompanion.group(2));
-                        if (companionMatcher.matches()) {
-                            companionStatic = "static".equals(companionMatcher.group(1));
-                            companionTypeParametersCsv = companionMatcher.group(3);
-                            companionType = companionMatcher.group(4).trim();
-                            companionName = companionMatcher.group(5);
-                        }
-                    } else {
-                        Matcher methodWithParameter = METHOD_WITH_PARAMETER.matcher(name);
-                        if (methodWithParameter.matches()) {
-                            methodString = methodWithParameter.group(1);
-                            paramIndex = methodWithParameter.group(2);
-                        } else {
-                            methodString = name;
+        try (InputStream inputStream = annotationXml.openStream()) {
+            XMLStreamReader reader = createXMLStreamReader(inputStream);
+            try {
+                int depth = 0;
+                boolean inItem = false;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        depth++;
+                        if (depth == 2 && "item".equals(reader.getLocalName())) {
+                            String name = reader.getAttributeValue(null, "name");
+                            int space = name.indexOf(' ');
+                            addType(urlsOfType, space < 0 ? name : name.substring(0, space), annotationXml);
+                            inItem = true;
+                        } else if (depth == 3 && inItem && "annotation".equalsIgnoreCase(reader.getLocalName())
+                                && reader.getAttributeValue(null, "name") != null) {
+                            countAnnotations++;
                         }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        if (depth == 2) inItem = false;
+                        depth--;
                     }
-                    Matcher constructorMatcher = CONSTRUCTOR.matcher(methodString);
-                    if (constructorMatcher.matches()) {
-                        TypeItem typeItem = typeItem(typeItemMap, constructorMatcher.group(1));
-                        String constructorName = constructorMatcher.group(2);
-                        MethodItem methodItem = methodItem(typeItem, constructorName, null);
-                        if (paramIndex != null) {
-                            theItem = parameterItem(methodItem, paramIndex);
-                        } else {
-                            theItem = methodItem;
-                        }
-                    } else {
-                        Matcher methodMatcher = METHOD.matcher(methodString);
-                        if (methodMatcher.matches()) {
-                            TypeItem typeItem = typeItem(typeItemMap, methodMatcher.group(1));
-                            String methodType = methodMatcher.group(2);
-                            String cleanMethodType = methodType == null ? null : methodType.trim();
-                            String methodName = methodMatcher.group(3);
-                            MethodItem methodItem = methodItem(typeItem, methodName, cleanMethodType);
-                            if (paramIndex != null) {
-                                theItem = parameterItem(methodItem, paramIndex);
-                            } else {
-                                theItem = methodItem;
-                            }
-                            // companion is done later, because we need to read an additional element
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return countAnnotations;
+    }
+
+    /*
+    An up-to-date binary copy provides the index; otherwise, the XML file is parsed completely (rather than indexed),
+    the binary copy is written, and the items are kept so that they need not be parsed again.
+     */
+    private int indexWithBinaryCache(URL url,
+                                     File xmlFile,
+                                     Map<String, List<URL>> urlsOfType,
+                                     Map<URL, File> binaryCacheFiles) throws IOException, XMLStreamException {
+        File cacheFile = AnnotationXmlBinaryCache.cacheFile(xmlFile);
+        AnnotationXmlBinaryCache.Header header = AnnotationXmlBinaryCache.readHeader(xmlFile, cacheFile);
+        if (header != null) {
+            LOGGER.debug("Indexing {} from {}", url, cacheFile);
+            header.typeNames().forEach(typeName -> addType(urlsOfType, typeName, url));
+            binaryCacheFiles.put(url, cacheFile);
+            return header.numberOfAnnotations();
+        }
+        Map<String, TypeItem> typeItemMap = new HashMap<>();
+        int countAnnotations = parse(url, typeItemMap);
+        try {
+            AnnotationXmlBinaryCache.write(xmlFile, cacheFile, countAnnotations, typeItemMap.values());
+            LOGGER.debug("Wrote {}", cacheFile);
+            binaryCacheFiles.put(url, cacheFile);
+        } catch (IOException io) {
+            LOGGER.warn("Cannot write binary cache {}: {}", cacheFile, io.getMessage());
+        }
+        typeItemMap.keySet().forEach(typeName -> addType(urlsOfType, typeName, url));
+        typeItemMap.values().forEach(TypeItem::freeze);
+        parsed.put(List.of(url), Map.copyOf(typeItemMap));
+        return countAnnotations;
+    }
+
+    private Map<String, TypeItem> parse(List<URL> urls) {
+        Map<String, TypeItem> typeItemMap = new HashMap<>();
+        for (URL url : urls) {
+            try {
+                File cacheFile = binaryCacheFiles.get(url);
+                if (cacheFile != null) {
+                    AnnotationXmlBinaryCache.readItems(cacheFile, typeItemMap);
+                } else {
+                    parse(url, typeItemMap);
+                }
+            } catch (IOException io) {
+                LOGGER.warn("Skipping {}: IOException {}", url, io.getMessage());
+            } catch (XMLStreamException e) {
+                LOGGER.warn("Skipping {}: XMLStreamException {}", url, e.getMessage());
+            }
+        }
+        typeItemMap.values().forEach(TypeItem::freeze);
+        return Map.copyOf(typeItemMap);
+    }
+
+    private static int parse(URL annotationXml, Map<String, TypeItem> typeItemMap) throws IOException, XMLStreamException {
+        LOGGER.debug("Parsing {}", annotationXml);
+        int countAnnotations = 0;
+        try (InputStream inputStream = annotationXml.openStream()) {
+            XMLStreamReader reader = createXMLStreamReader(inputStream);
+            try {
+                int depth = 0;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if (depth == 1 && "item".equals(reader.getLocalName())) {
+                            countAnnotations += parseItem(reader, typeItemMap);
                         } else {
-                            Matcher fieldMatcher = FIELD.matcher(name);
-                            if (fieldMatcher.matches()) {
-                                TypeItem typeItem = typeItem(typeItemMap, fieldMatcher.group(1));
-                                theItem = fieldItem(typeItem, fieldMatcher.group(2));
-                            } else {
-                                throw new NoSuchElementException("Have name that is not matched at all: " + name);
-                            }
+                            depth++;
                         }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
                     }
-
                 }
+            } finally {
+                reader.close();
+            }
+        }
+        return countAnnotations;
+    }
 
-                // now read the annotations
-                NodeList annotationNodes = node.getChildNodes();
-                for (int j = 0; j < annotationNodes.getLength(); j++) {
-                    Node subNode = annotationNodes.item(j);
-                    if (subNode.getNodeType() == Node.ELEMENT_NODE &&
-                            "annotation".equalsIgnoreCase(subNode.getNodeName())) {
-                        Node nameAttribute = subNode.getAttributes().getNamedItem("name");
-                        if (nameAttribute != null) {
-                            String annotationType = nameAttribute.getNodeValue();
-                            Annotation.Builder annotationBuilder = new Annotation.Builder(annotationType);
+    /*
+    Positioned at the start of an item element; returns positioned at its end.
+     */
+    private static int parseItem(XMLStreamReader reader, Map<String, TypeItem> typeItemMap) throws XMLStreamException {
+        String name = reader.getAttributeValue(null, "name");
+
+        HasAnnotations theItem;
+        boolean companionStatic = false;
+        String companionTypeParametersCsv = null;
+        String companionType = null;
+        String companionName = null;
+
+        Matcher typeMatcher = TYPE.matcher(name);
+        if (typeMatcher.matches()) {
+            theItem = typeItem(typeItemMap, typeMatcher.group());
+        } else {
+            Matcher methodWithCompanion = METHOD_WITH_COMPANION.matcher(name);
+            String methodString;
+            String paramIndex = null;
+            if (methodWithCompanion.matches()) {
+                methodString = methodWithCompanion.group(1);
+                Matcher companionMatcher = COMPANION_METHOD.matcher(methodWithCompanion.group(2));
+                if (companionMatcher.matches()) {
+                    companionStatic = "static".equals(companionMatcher.group(1));
+                    companionTypeParametersCsv = companionMatcher.group(3);
+                    companionType = companionMatcher.group(4).trim();
+                    companionName = companionMatcher.group(5);
+                }
+            } else {
+                Matcher methodWithParameter = METHOD_WITH_PARAMETER.matcher(name);
+                if (methodWithParameter.matches()) {
+                    methodString = methodWithParameter.group(1);
+                    paramIndex = methodWithParameter.group(2);
+                } else {
+                    methodString = name;
+                }
+            }
+            Matcher constructorMatcher = CONSTRUCTOR.matcher(methodString);
+            if (constructorMatcher.matches()) {
+                TypeItem typeItem = typeItem(typeItemMap, constructorMatcher.group(1));
+                String constructorName = constructorMatcher.group(2);
+                MethodItem methodItem = methodItem(typeItem, constructorName, null);
+                if (paramIndex != null) {
+                    theItem = parameterItem(methodItem, paramIndex);
+                } else {
+                    theItem = methodItem;
+                }
+            } else {
+                Matcher methodMatcher = METHOD.matcher(methodString);
+                if (methodMatcher.matches()) {
+                    TypeItem typeItem = typeItem(typeItemMap, methodMatcher.group(1));
+                    String methodType = methodMatcher.group(2);
+                    String cleanMethodType = methodType == null ? null : methodType.trim();
+                    String methodName = methodMatcher.group(3);
+                    MethodItem methodItem = methodItem(typeItem, methodName, cleanMethodType);
+                    if (paramIndex != null) {
+                        theItem = parameterItem(methodItem, paramIndex);
+                    } else {
+                        theItem = methodItem;
+                    }
+                    // companion is done later, because we need to read an additional element
+                } else {
+                    Matcher fieldMatcher = FIELD.matcher(name);
+                    if (fieldMatcher.matches()) {
+                        TypeItem typeItem = typeItem(typeItemMap, fieldMatcher.group(1));
+                        theItem = fieldItem(typeItem, fieldMatcher.group(2));
+                    } else {
+                        throw new NoSuchElementException("Have name that is not matched at all: " + name);
+                    }
+                }
+            }
+        }
 
-                            countAnnotations++;
-                            NodeList valueNodes = subNode.getChildNodes();
-                            for (int k = 0; k < valueNodes.getLength(); k++) {
-                                Node valueNode = valueNodes.item(k);
-                                if (valueNode.getNodeType() == Node.ELEMENT_NODE) {
-                                    Node valNameNode = valueNode.getAttributes().getNamedItem("name");
-                                    Node valValNode = valueNode.getAttributes().getNamedItem("val");
-                                    if (valValNode != null) {
-                                        String valName = valNameNode == null ? null : valNameNode.getNodeValue();
-                                        String valValue = valValNode.getNodeValue();
-                                        if (valValue != null) {
-                                            Value value = new Value(valName, valValue);
-                                            annotationBuilder.addValue(value);
-                                        }
-                                    } else {
-                                        LOGGER.warn("Have value tag without value? " + valueNode);
-                                    }
-                                }
-                            }
-                            theItem.getAnnotations().add(annotationBuilder.build());
-                        } else {
-                            LOGGER.warn("Attribute 'name' missing?");
-                        }
-                    } else if (subNode.getNodeType() == Node.ELEMENT_NODE &&
-                            "definition".equalsIgnoreCase(subNode.getNodeName())) {
-                        Node paramNamesAttribute = subNode.getAttributes().getNamedItem("paramNames");
-                        String paramNamesCsv;
-                        if (paramNamesAttribute != null) {
-                            paramNamesCsv = paramNamesAttribute.getNodeValue();
-                        } else {
-                            paramNamesCsv = "";
-                        }
-                        String function = subNode.getTextContent();
-                        if (function == null) {
-                            LOGGER.error("No function value in {}", companionName);
+        // now read the annotations
+        int countAnnotations = 0;
+        while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+            String elementName = reader.getLocalName();
+            if ("annotation".equalsIgnoreCase(elementName)) {
+                String annotationType = reader.getAttributeValue(null, "name");
+                if (annotationType != null) {
+                    Annotation.Builder annotationBuilder = new Annotation.Builder(annotationType);
+                    countAnnotations++;
+                    while (nextElement(reader) == XMLStreamConstants.START_ELEMENT) {
+                        String valName = reader.getAttributeValue(null, "name");
+                        String valValue = reader.getAttributeValue(null, "val");
+                        if (valValue != null) {
+                            annotationBuilder.addValue(new Value(valName, valValue));
                         } else {
-                            assert theItem instanceof MethodItem;
-                            assert companionName != null;
-                            assert companionType != null;
-                            MethodItem methodItem = (MethodItem) theItem;
-                            addCompanionMethodItem(methodItem,
-                                    companionStatic, companionTypeParametersCsv,
-                                    companionType, companionName, paramNamesCsv, function);
+                            LOGGER.warn("Have value tag without value? " + reader.getLocalName());
                         }
+                        skipElement(reader);
                     }
+                    theItem.getAnnotations().add(annotationBuilder.build());
+                } else {
+                    LOGGER.warn("Attribute 'name' missing?");
+                    skipElement(reader);
                 }
+            } else if ("definition".equalsIgnoreCase(elementName)) {
+                String paramNamesAttribute = reader.getAttributeValue(null, "paramNames");
+                String paramNamesCsv = paramNamesAttribute != null ? paramNamesAttribute : "";
+                String function = reader.getElementText();
+                assert theItem instanceof MethodItem;
+                assert companionName != null;
+                assert companionType != null;
+                MethodItem methodItem = (MethodItem) theItem;
+                addCompanionMethodItem(methodItem,
+                        companionStatic, companionTypeParametersCsv,
+                        companionType, companionName, paramNamesCsv, function);
+            } else {
+                skipElement(reader);
             }
         }
         return countAnnotations;
     }
 
+    /*
+    Like nextTag(), but ignores text rather than failing on it: returns START_ELEMENT or END_ELEMENT.
+     */
+    private static int nextElement(XMLStreamReader reader) throws XMLStreamException {
+        int event;
+        do {
+            event = reader.next();
+        } while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT);
+        return event;
+    }
+
+    /*
+    Positioned at the start of an element; returns positioned at its end.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) depth++;
+            else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+        }
+    }
 
     private static ParameterItem parameterItem(MethodItem methodItem, String parameterIndex) {
         ParameterItem parameterItem = new ParameterItem(Integer.parseInt(parameterIndex));
@@ -270,7 +429,7 @@ public class AnnotationXmlReader implements AnnotationStore {
         return parameterItem;
     }
 
-    private static MethodItem methodItem(TypeItem typeItem, String methodName, String returnType) {
+    static MethodItem methodItem(TypeItem typeItem, String methodName, String returnType) {
         MethodItem methodItem = typeItem.getMethodItems().get(methodName);
         if (methodItem == null) {
             methodItem = new MethodItem(methodName, returnType);
@@ -284,13 +443,13 @@ public class AnnotationXmlReader implements AnnotationStore {
         return methodItem;
     }
 
-    private static void addCompanionMethodItem(MethodItem methodItem,
-                                               boolean companionStatic,
-                                               String companionTypeParametersCsv,
-                                               String companionReturnType,
-                                               String companionName,
-                                               String parameterNamesCsv,
-                                               String function) {
+    static void addCompanionMethodItem(MethodItem methodItem,
+                                       boolean companionStatic,
+                                       String companionTypeParametersCsv,
+                                       String companionReturnType,
+                                       String companionName,
+                                       String parameterNamesCsv,
+                                       String function) {
         MethodItem companionItem = methodItem.getCompanionMethod(companionName);
         if (companionItem != null) {
             throw new UnsupportedOperationException("?duplicating " + companionName);
@@ -301,7 +460,7 @@ public class AnnotationXmlReader implements AnnotationStore {
         LOGGER.debug("Created companion method {} returns {}", companionName, companionReturnType);
     }
 
-    private static FieldItem fieldItem(TypeItem typeItem, String fieldName) {
+    static FieldItem fieldItem(TypeItem typeItem, String fieldName) {
         FieldItem fieldItem = typeItem.getFieldItems().get(fieldName);
         if (fieldItem == null) {
             fieldItem = new FieldItem(fieldName);
@@ -311,7 +470,7 @@ public class AnnotationXmlReader implements AnnotationStore {
         return fieldItem;
     }
 
-    private static TypeItem typeItem(Map<String, TypeItem> typeItemMap, String name) {
+    static TypeItem typeItem(Map<String, TypeItem> typeItemMap, String name) {
         TypeItem typeItem = typeItemMap.get(name);
         if (typeItem == null) {
             typeItem = new TypeItem(name);
@@ -321,9 +480,20 @@ public class AnnotationXmlReader implements AnnotationStore {
         return typeItem;
     }
 
+    /**
+     * Parses all the files that have not been parsed yet.
+     *
+     * @return all type items, by fully qualified name
+     */
+    public Map<String, TypeItem> typeItemMap() {
+        Map<String, TypeItem> typeItemMap = new HashMap<>();
+        urlsOfType.keySet().forEach(typeName -> typeItemMap.put(typeName, typeItemsByFQName(typeName)));
+        return Map.copyOf(typeItemMap);
+    }
+
     public Map<String, Integer> summary() {
         Map<String, Integer> annotationCounts = new HashMap<>();
-        typeItemMap.values().forEach(typeItem -> {
+        typeItemMap().values().forEach(typeItem -> {
             typeItem.getAnnotations().forEach(annotation -> increment(annotationCounts, "T " + annotation.name()));
 
             typeItem.getMethodItems().values().forEach(methodItem -> {
@@ -348,7 +518,9 @@ public class AnnotationXmlReader implements AnnotationStore {
 
     @Override
     public TypeItem typeItemsByFQName(String fqTypeName) {
-        return typeItemMap.get(fqTypeName);
+        List<URL> urls = urlsOfType.get(fqTypeName);
+        if (urls == null) return null;
+        return parsed.computeIfAbsent(urls, this::parse).get(fqTypeName);
     }
 
     @Override
@@ -21,32 +21,43 @@ import org.e2immu.analyser.util.SMapList;
 import org.e2immu.annotation.UtilityClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import java.io.File;
-import java.io.IOException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.*;
 
+/*
+Writes one annotations.xml file per package, streaming, without building a DOM. The output is identical, byte for byte,
+to that of the DOM Transformer with 2-space indentation that was used before: same declaration, same order of
+items (sorted type, field, method and parameter items), same escaping.
 
+Packages are written concurrently on a bounded pool. In incremental mode, a file is only written when its content
+differs from that of the file already present, so that its modification time only changes when its content does.
+ */
 @UtilityClass
 public class AnnotationXmlWriter {
     private static final Logger LOGGER = LoggerFactory.getLogger(AnnotationXmlWriter.class);
+    private static final String DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>";
 
     private AnnotationXmlWriter() {
         // nothing here
     }
 
     public static void write(AnnotationXmlConfiguration configuration, Set<TypeInfo> typesToWrite) throws IOException {
+        File base = baseDirectory(configuration);
+        Map<String, List<TypeItem>> typeItemsPerPackage = new HashMap<>();
+        typesToWrite.forEach(typeInfo -> {
+            String packageName = typeInfo.packageName();
+            if (accept(configuration, packageName)) {
+                SMapList.add(typeItemsPerPackage, packageName, new TypeItem(typeInfo));
+            }
+        });
+        writeAllPackages(base, typeItemsPerPackage, configuration.writeAnnotationXmlIncrementally());
+    }
+
+    public static File baseDirectory(AnnotationXmlConfiguration configuration) throws IOException {
         File base;
         if (configuration.writeAnnotationXmlDir() != null) {
             base = new File(configuration.writeAnnotationXmlDir());
@@ -59,86 +70,158 @@ public class AnnotationXmlWriter {
         } else {
             base = new File(System.getProperty("user.dir"));
         }
-        Map<String, List<TypeItem>> typeItemsPerPackage = new HashMap<>();
-        boolean isEmpty = configuration.writeAnnotationXmlPackages().isEmpty();
-        typesToWrite.forEach(typeInfo -> {
-            boolean accept = isEmpty;
-            String packageName = typeInfo.packageName();
-            if (packageName != null) {
-                for (String prefix : configuration.writeAnnotationXmlPackages()) {
-                    if (prefix.endsWith(".")) {
-                        accept = packageName.startsWith(prefix.substring(0, prefix.length() - 1));
-                    } else {
-                        accept = prefix.equals(packageName);
-                    }
-                    if (accept) break;
-                }
-                if (accept) SMapList.add(typeItemsPerPackage, packageName, new TypeItem(typeInfo));
+        return base;
+    }
+
+    public static boolean accept(AnnotationXmlConfiguration configuration, String packageName) {
+        if (packageName == null) return false;
+        boolean accept = configuration.writeAnnotationXmlPackages().isEmpty();
+        for (String prefix : configuration.writeAnnotationXmlPackages()) {
+            if (prefix.endsWith(".")) {
+                accept = packageName.startsWith(prefix.substring(0, prefix.length() - 1));
+            } else {
+                accept = prefix.equals(packageName);
             }
-        });
-        writeAllPackages(base, typeItemsPerPackage);
+            if (accept) break;
+        }
+        return accept;
     }
 
-    private static void writeAllPackages(File base, Map<String, List<TypeItem>> typeItemsPerPackage) throws IOException {
-        for (Map.Entry<String, List<TypeItem>> entry : typeItemsPerPackage.entrySet()) {
-            String[] splitOfPackage = entry.getKey().split("\\.");
-            File directory = new File(base, String.join("/", splitOfPackage));
-            boolean created = directory.mkdirs();
-            LOGGER.debug("Created {}? {}", directory, created);
-            File outputFile = new File(directory, "annotations.xml");
-            writeSinglePackage(outputFile, entry.getValue());
+    /**
+     * Writes the packages concurrently, on at most as many threads as there are processors.
+     *
+     * @return the number of files written; in incremental mode, unchanged files are not counted
+     */
+    public static int writeAllPackages(File base,
+                                       Map<String, List<TypeItem>> typeItemsPerPackage,
+                                       boolean incremental) throws IOException {
+        if (typeItemsPerPackage.isEmpty()) return 0;
+        int threads = Math.min(typeItemsPerPackage.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(typeItemsPerPackage.size());
+            for (Map.Entry<String, List<TypeItem>> entry : typeItemsPerPackage.entrySet()) {
+                futures.add(executor.submit(() -> writePackage(base, entry.getKey(), entry.getValue(), incremental)));
+            }
+            int written = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get()) written++;
+            }
+            LOGGER.debug("Wrote {} of {} annotations.xml files", written, typeItemsPerPackage.size());
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing annotations.xml files");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IOException("Problems with XML writing: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
+    public static void writePackage(File base, String packageName, Collection<TypeItem> typeItems) throws IOException {
+        writePackage(base, packageName, typeItems, false);
+    }
+
+    /**
+     * @return false when, in incremental mode, the file was not written because its content has not changed
+     */
+    public static boolean writePackage(File base,
+                                       String packageName,
+                                       Collection<TypeItem> typeItems,
+                                       boolean incremental) throws IOException {
+        String[] splitOfPackage = packageName.split("\\.");
+        File directory = new File(base, String.join("/", splitOfPackage));
+        boolean created = directory.mkdirs();
+        LOGGER.debug("Created {}? {}", directory, created);
+        File outputFile = new File(directory, "annotations.xml");
+        return writeSinglePackage(outputFile, typeItems, incremental);
+    }
+
     public static void writeSinglePackage(File outputFile, Collection<TypeItem> typeItems) throws IOException {
-        try {
-            DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder documentBuilder = documentFactory.newDocumentBuilder();
-            Document document = documentBuilder.newDocument();
-            Element root = document.createElement("root");
-            document.appendChild(root);
-            typeItems.stream().sorted().forEach(typeItem -> addType(document, root, typeItem));
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
-            DOMSource domSource = new DOMSource(document);
-            StreamResult streamResult = new StreamResult(outputFile);
-            transformer.transform(domSource, streamResult);
-        } catch (ParserConfigurationException | TransformerException e) {
-            throw new IOException("Problems with XML writing: " + e.getMessage());
-        }
-    }
-
-    private static void addType(Document document, Element root, TypeItem typeItem) {
+        writeSinglePackage(outputFile, typeItems, false);
+    }
+
+    /**
+     * @return false when, in incremental mode, the file was not written because its content has not changed
+     */
+    public static boolean writeSinglePackage(File outputFile,
+                                             Collection<TypeItem> typeItems,
+                                             boolean incremental) throws IOException {
+        if (!incremental) {
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+                write(outputStream, typeItems);
+            }
+            return true;
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(outputStream, typeItems);
+        byte[] content = outputStream.toByteArray();
+        if (outputFile.length() == content.length && Arrays.equals(Files.readAllBytes(outputFile.toPath()), content)) {
+            LOGGER.debug("Unchanged: {}", outputFile);
+            return false;
+        }
+        Files.write(outputFile.toPath(), content);
+        return true;
+    }
+
+    public static void write(OutputStream outputStream, Collection<TypeItem> typeItems) throws IOException {
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        writer.write(DECLARATION);
+        List<TypeItem> sorted = typeItems.stream().sorted().toList();
+        if (sorted.stream().noneMatch(AnnotationXmlWriter::hasItems)) {
+            writer.write("\n<root/>\n");
+        } else {
+            writer.write("\n<root>");
+            for (TypeItem typeItem : sorted) {
+                addType(writer, typeItem);
+            }
+            writer.write("\n</root>\n");
+        }
+        writer.flush();
+    }
+
+    // true when addType emits at least one item; companion methods always result in an item
+    private static boolean hasItems(TypeItem typeItem) {
+        return !typeItem.getAnnotations().isEmpty()
+                || typeItem.getFieldItems().values().stream().anyMatch(f -> !f.getAnnotations().isEmpty())
+                || typeItem.getMethodItems().values().stream().anyMatch(m -> !m.getAnnotations().isEmpty()
+                || !m.getCompanionMethods().isEmpty()
+                || m.getParameterItems().stream().anyMatch(p -> !p.getAnnotations().isEmpty()));
+    }
+
+    private static void addType(Writer writer, TypeItem typeItem) throws IOException {
         LOGGER.debug("Type {} has {} annots, {} fields, {} methods",
                 typeItem.name, typeItem.getAnnotations().size(),
                 typeItem.getFieldItems().size(), typeItem.getMethodItems().size());
         if (!typeItem.getAnnotations().isEmpty()) {
-            emit(document, root, typeItem.name, typeItem.getAnnotations(), null, null);
+            emit(writer, typeItem.name, typeItem.getAnnotations(), null, null);
+        }
+        for (FieldItem fieldItem : typeItem.getFieldItems().values().stream().sorted().toList()) {
+            addField(writer, typeItem.name, fieldItem);
+        }
+        for (MethodItem methodItem : typeItem.getMethodItems().values().stream().sorted().toList()) {
+            addMethod(writer, typeItem.name, methodItem);
         }
-        typeItem.getFieldItems().values().stream().sorted().forEach(fieldItem ->
-                addField(document, root, typeItem.name, fieldItem));
-        typeItem.getMethodItems().values().stream().sorted().forEach(methodItem ->
-                addMethod(document, root, typeItem.name, methodItem));
     }
 
-    private static void addField(Document document, Element root, String typeName, FieldItem fieldItem) {
+    private static void addField(Writer writer, String typeName, FieldItem fieldItem) throws IOException {
         if (!fieldItem.getAnnotations().isEmpty()) {
             String fieldName = typeName + " " + fieldItem.name;
-            emit(document, root, fieldName, fieldItem.getAnnotations(), null, null);
+            emit(writer, fieldName, fieldItem.getAnnotations(), null, null);
         }
     }
 
-    private static void addMethod(Document document, Element root, String typeName, MethodItem methodItem) {
+    private static void addMethod(Writer writer, String typeName, MethodItem methodItem) throws IOException {
         String returnType = methodItem.returnType != null ? (" " + methodItem.returnType) : "";
         String methodName = typeName + returnType + " " + methodItem.name;
         if (!methodItem.getAnnotations().isEmpty()) {
-            emit(document, root, methodName, methodItem.getAnnotations(), null, null);
+            emit(writer, methodName, methodItem.getAnnotations(), null, null);
         }
-        if (!methodItem.getParameterItems().isEmpty()) {
-            methodItem.getParameterItems().stream().sorted().forEach(parameterItem ->
-                    addParameter(document, root, methodName, parameterItem));
+        for (ParameterItem parameterItem : methodItem.getParameterItems().stream().sorted().toList()) {
+            addParameter(writer, methodName, parameterItem);
         }
         for (MethodItem companionItem : methodItem.getCompanionMethods()) {
             // companions don't have annotations; we also make it obvious they belong to a method
@@ -146,44 +229,110 @@ public class AnnotationXmlWriter {
                     (companionItem.typeParametersCsv.isEmpty() ? "" : "<" + companionItem.typeParametersCsv + "> ") +
                     (companionItem.returnType != null ? companionItem.returnType + " " : "") +
                     companionItem.name;
-            emit(document, root, methodName + " :: " + companionName, List.of(),
+            emit(writer, methodName + " :: " + companionName, List.of(),
                     companionItem.companionValue, companionItem.paramNamesCsv);
         }
         assert !methodName.contains("  ");
     }
 
-    private static void addParameter(Document document, Element root, String methodName, ParameterItem parameterItem) {
+    private static void addParameter(Writer writer, String methodName, ParameterItem parameterItem) throws IOException {
         if (!parameterItem.getAnnotations().isEmpty()) {
             String parameterName = methodName + " " + parameterItem.index;
-            emit(document, root, parameterName, parameterItem.getAnnotations(), null, null);
+            emit(writer, parameterName, parameterItem.getAnnotations(), null, null);
         }
     }
 
-    private static void emit(Document document,
-                             Element root,
+    private static void emit(Writer writer,
                              String itemName,
                              Collection<Annotation> annotations,
                              String companionExpression,
-                             String paramNamesCsv) {
-        Element item = document.createElement("item");
-        item.setAttribute("name", itemName);
-        if (companionExpression != null && !companionExpression.isBlank()) {
-            Element definitionElement = document.createElement("definition");
-            definitionElement.setAttribute("paramNames", paramNamesCsv);
-            definitionElement.setTextContent(companionExpression);
-            item.appendChild(definitionElement);
-        }
-        root.appendChild(item);
+                             String paramNamesCsv) throws IOException {
+        boolean definition = companionExpression != null && !companionExpression.isBlank();
+        writer.write("\n  <item");
+        attribute(writer, "name", itemName);
+        if (!definition && annotations.isEmpty()) {
+            writer.write("/>");
+            return;
+        }
+        writer.write(">");
+        if (definition) {
+            writer.write("\n    <definition");
+            attribute(writer, "paramNames", paramNamesCsv);
+            writer.write(">");
+            text(writer, companionExpression);
+            writer.write("</definition>");
+        }
         for (Annotation annotation : annotations) {
-            Element annotationElement = document.createElement("annotation");
-            annotationElement.setAttribute("name", annotation.name());
-            item.appendChild(annotationElement);
-            for (Value value : annotation.values()) {
-                Element val = document.createElement("val");
-                if (value.name != null) val.setAttribute("name", value.name);
-                val.setAttribute("val", value.val);
-                annotationElement.appendChild(val);
+            writer.write("\n    <annotation");
+            attribute(writer, "name", annotation.name());
+            if (annotation.values().isEmpty()) {
+                writer.write("/>");
+            } else {
+                writer.write(">");
+                for (Value value : annotation.values()) {
+                    writer.write("\n      <val");
+                    if (value.name != null) attribute(writer, "name", value.name);
+                    attribute(writer, "val", value.val);
+                    writer.write("/>");
+                }
+                writer.write("\n    </annotation>");
+            }
+        }
+        writer.write("\n  </item>");
+    }
+
+    /*
+    Escaping as done by the JDK's Transformer: in attribute values, all control characters are written
+    as character references; characters outside the BMP always are.
+     */
+    private static void attribute(Writer writer, String name, String value) throws IOException {
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        for (int i = 0; i < value.length(); ) {
+            int cp = value.codePointAt(i);
+            switch (cp) {
+                case '&' -> writer.write("&amp;");
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                case '"' -> writer.write("&quot;");
+                default -> {
+                    if (cp < 0x20 || Character.isSupplementaryCodePoint(cp)) characterReference(writer, cp);
+                    else writer.write(cp);
+                }
             }
+            i += Character.charCount(cp);
         }
+        writer.write('"');
+    }
+
+    /*
+    In text, tabs and newlines are written as they are; carriage returns, the other control characters
+    (including DEL and the C1 range) and characters outside the BMP are written as character references.
+     */
+    private static void text(Writer writer, String text) throws IOException {
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            switch (cp) {
+                case '&' -> writer.write("&amp;");
+                case '<' -> writer.write("&lt;");
+                case '>' -> writer.write("&gt;");
+                case '\t', '\n' -> writer.write(cp);
+                default -> {
+                    if (cp < 0x20 || cp >= 0x7F && cp <= 0x9F || Character.isSupplementaryCodePoint(cp)) {
+                        characterReference(writer, cp);
+                    } else {
+                        writer.write(cp);
+                    }
+                }
+            }
+            i += Character.charCount(cp);
+        }
+    }
+
+    private static void characterReference(Writer writer, int codePoint) throws IOException {
+        writer.write("&#");
+        writer.write(Integer.toString(codePoint));
+        writer.write(';');
     }
 }
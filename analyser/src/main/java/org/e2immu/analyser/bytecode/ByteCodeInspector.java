@@ -19,6 +19,8 @@ import org.e2immu.analyser.bytecode.asm.MyClassVisitor;
 import org.e2immu.analyser.inspector.TypeContext;
 import org.e2immu.analyser.model.TypeInfo;
 import org.e2immu.analyser.model.TypeInspection;
+import org.e2immu.analyser.util.AnalyserEvents;
+import org.e2immu.analyser.util.Metrics;
 import org.e2immu.analyser.util.Resources;
 import org.e2immu.analyser.util.StringUtil;
 import org.objectweb.asm.ClassReader;
@@ -74,10 +76,19 @@ public class ByteCodeInspector implements OnDemandInspection {
         if (LOGGER.isDebugEnabled()) {
             logTypesInProcess(path);
         }
+        AnalyserEvents.ByteCodeInspection event = new AnalyserEvents.ByteCodeInspection();
+        event.begin();
         String pathWithDotClass = path.endsWith(".class") ? path : path + ".class";
         byte[] classBytes = classPath.loadBytes(pathWithDotClass);
         if (classBytes == null) return List.of();
-        return inspectByteArray(classBytes, new Stack<>(), typeContext);
+        Metrics.bytecodeClassLoaded();
+        List<TypeInfo> types = inspectByteArray(classBytes, new Stack<>(), typeContext);
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.types = types.size();
+            event.commit();
+        }
+        return types;
     }
 
     private void logTypesInProcess(String path) {
@@ -96,9 +107,17 @@ public class ByteCodeInspector implements OnDemandInspection {
             LOGGER.debug(enclosingTypes.stream().map(ti -> ti.fullyQualifiedName)
                     .collect(Collectors.joining(" -> ")));
         }
+        AnalyserEvents.ByteCodeInspection event = new AnalyserEvents.ByteCodeInspection();
+        event.begin();
         byte[] classBytes = classPath.loadBytes(path + ".class");
         if (classBytes == null) return null;
+        Metrics.bytecodeClassLoaded();
         List<TypeInfo> result = inspectByteArray(classBytes, enclosingTypes, parentTypeContext);
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.types = result.size();
+            event.commit();
+        }
         if (result.isEmpty()) return null;
         return result.get(0);
     }
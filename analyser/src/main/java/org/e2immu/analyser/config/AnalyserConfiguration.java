@@ -16,6 +16,7 @@ package org.e2immu.analyser.config;
 
 import org.e2immu.analyser.analyser.AnalysisProvider;
 import org.e2immu.analyser.analyser.StatementAnalyser;
+import org.e2immu.analyser.model.Expression;
 import org.e2immu.analyser.parser.TypeAndInspectionProvider;
 import org.e2immu.analyser.pattern.PatternMatcher;
 import org.e2immu.annotation.Container;
@@ -29,13 +30,38 @@ public record AnalyserConfiguration(boolean skipTransformations,
                                     boolean computeFieldAnalyserAcrossAllMethods,
                                     boolean forceExtraDelayForTesting,
                                     boolean forceAlphabeticAnalysisInPrimaryType,
+                                    boolean breakDelayPerTypeCycle,
+                                    boolean releaseStatementAnalysis,
+                                    int typeCycleIterationBudget,
+                                    long typeCycleTimeBudget,
+                                    int methodIterationBudget,
+                                    long methodTimeBudget,
+                                    boolean conservativeFallback,
+                                    String componentProfileFile,
+                                    String convergenceReportFile,
+                                    String heapFootprintFile,
+                                    String slowMethodDirectory,
+                                    long slowMethodTimeThreshold,
+                                    int slowMethodComplexityThreshold,
+                                    boolean jmxMetrics,
                                     PatternMatcherProvider<StatementAnalyser> patternMatcherProvider,
                                     AnalyserProgram analyserProgram) {
 
     public AnalyserConfiguration {
         Objects.requireNonNull(patternMatcherProvider);
+        if (typeCycleIterationBudget <= 0) {
+            throw new IllegalArgumentException("The type cycle iteration budget must be positive, got "
+                    + typeCycleIterationBudget);
+        }
+        if (typeCycleTimeBudget < 0 || methodIterationBudget < 0 || methodTimeBudget < 0) {
+            throw new IllegalArgumentException("Analysis budgets cannot be negative; use 0 for unlimited");
+        }
     }
 
+    public static final int DEFAULT_TYPE_CYCLE_ITERATION_BUDGET = 100;
+    public static final long DEFAULT_SLOW_METHOD_TIME_THRESHOLD = 2000L;
+    public static final int DEFAULT_SLOW_METHOD_COMPLEXITY_THRESHOLD = Expression.HARD_LIMIT_ON_COMPLEXITY / 2;
+
     public PatternMatcher<StatementAnalyser> newPatternMatcher(TypeAndInspectionProvider inspectionProvider,
                                                                AnalysisProvider analysisProvider) {
         return patternMatcherProvider.newPatternMatcher(inspectionProvider, analysisProvider);
@@ -51,6 +77,41 @@ public record AnalyserConfiguration(boolean skipTransformations,
         private boolean forceExtraDelayForTesting;
         private boolean forceAlphabeticAnalysisInPrimaryType;
 
+        // escalate allowBreakDelay for the type cycle as a whole, rather than per primary type (the behaviour
+        // before per-primary type escalation; used to compare iteration counts)
+        private boolean breakDelayPerTypeCycle;
+
+        // summary-only retention: drop the statement analyses once a type cycle has been made immutable
+        private boolean releaseStatementAnalysis;
+
+        // analysis budgets; time budgets in milliseconds, 0 means unlimited
+        // when conservativeFallback is false, exceeding the type cycle's budget results in a NoProgressException,
+        // and the method budgets are not used
+        private int typeCycleIterationBudget = DEFAULT_TYPE_CYCLE_ITERATION_BUDGET;
+        private long typeCycleTimeBudget;
+        private int methodIterationBudget;
+        private long methodTimeBudget;
+        private boolean conservativeFallback;
+
+        // when not null, profile the analyser components; the report is written to this file as JSON
+        private String componentProfileFile;
+
+        // when not null, write a report on the convergence of each type cycle to this file as JSON
+        private String convergenceReportFile;
+
+        // when not null, estimate the heap retained by each type cycle after it has been made immutable,
+        // and write the numbers to this file as JSON
+        private String heapFootprintFile;
+
+        // when not null, detect slow methods, and write a report and a reproduction source for each of them
+        // in this directory; time threshold in milliseconds
+        private String slowMethodDirectory;
+        private long slowMethodTimeThreshold = DEFAULT_SLOW_METHOD_TIME_THRESHOLD;
+        private int slowMethodComplexityThreshold = DEFAULT_SLOW_METHOD_COMPLEXITY_THRESHOLD;
+
+        // count expressions, delay merges, overload lookups, ... and expose the counters through JMX (see Metrics)
+        private boolean jmxMetrics;
+
         private PatternMatcherProvider<StatementAnalyser> patternMatcherProvider;
 
         private AnalyserProgram analyserProgram = AnalyserProgram.from(ALL);
@@ -70,6 +131,76 @@ public record AnalyserConfiguration(boolean skipTransformations,
             return this;
         }
 
+        public Builder setBreakDelayPerTypeCycle(boolean breakDelayPerTypeCycle) {
+            this.breakDelayPerTypeCycle = breakDelayPerTypeCycle;
+            return this;
+        }
+
+        public Builder setReleaseStatementAnalysis(boolean releaseStatementAnalysis) {
+            this.releaseStatementAnalysis = releaseStatementAnalysis;
+            return this;
+        }
+
+        public Builder setTypeCycleIterationBudget(int typeCycleIterationBudget) {
+            this.typeCycleIterationBudget = typeCycleIterationBudget;
+            return this;
+        }
+
+        public Builder setTypeCycleTimeBudget(long typeCycleTimeBudget) {
+            this.typeCycleTimeBudget = typeCycleTimeBudget;
+            return this;
+        }
+
+        public Builder setMethodIterationBudget(int methodIterationBudget) {
+            this.methodIterationBudget = methodIterationBudget;
+            return this;
+        }
+
+        public Builder setMethodTimeBudget(long methodTimeBudget) {
+            this.methodTimeBudget = methodTimeBudget;
+            return this;
+        }
+
+        public Builder setConservativeFallback(boolean conservativeFallback) {
+            this.conservativeFallback = conservativeFallback;
+            return this;
+        }
+
+        public Builder setComponentProfileFile(String componentProfileFile) {
+            this.componentProfileFile = componentProfileFile;
+            return this;
+        }
+
+        public Builder setConvergenceReportFile(String convergenceReportFile) {
+            this.convergenceReportFile = convergenceReportFile;
+            return this;
+        }
+
+        public Builder setHeapFootprintFile(String heapFootprintFile) {
+            this.heapFootprintFile = heapFootprintFile;
+            return this;
+        }
+
+        public Builder setSlowMethodDirectory(String slowMethodDirectory) {
+            this.slowMethodDirectory = slowMethodDirectory;
+            return this;
+        }
+
+        public Builder setSlowMethodTimeThreshold(long slowMethodTimeThreshold) {
+            this.slowMethodTimeThreshold = slowMethodTimeThreshold;
+            return this;
+        }
+
+        public Builder setSlowMethodComplexityThreshold(int slowMethodComplexityThreshold) {
+            this.slowMethodComplexityThreshold = slowMethodComplexityThreshold;
+            return this;
+        }
+
+        public Builder setJmxMetrics(boolean jmxMetrics) {
+            this.jmxMetrics = jmxMetrics;
+            return this;
+        }
+
         public Builder setForceExtraDelayForTesting(boolean forceExtraDelayForTesting) {
             this.forceExtraDelayForTesting = forceExtraDelayForTesting;
             return this;
@@ -96,6 +227,20 @@ public record AnalyserConfiguration(boolean skipTransformations,
                     computeFieldAnalyserAcrossAllMethods,
                     forceExtraDelayForTesting,
                     forceAlphabeticAnalysisInPrimaryType,
+                    breakDelayPerTypeCycle,
+                    releaseStatementAnalysis,
+                    typeCycleIterationBudget,
+                    typeCycleTimeBudget,
+                    methodIterationBudget,
+                    methodTimeBudget,
+                    conservativeFallback,
+                    componentProfileFile,
+                    convergenceReportFile,
+                    heapFootprintFile,
+                    slowMethodDirectory,
+                    slowMethodTimeThreshold,
+                    slowMethodComplexityThreshold,
+                    jmxMetrics,
                     patternMatcherProvider == null ?
                             (ip, ap) -> PatternMatcher.NO_PATTERN_MATCHER : patternMatcherProvider,
                     analyserProgram);
@@ -109,6 +254,20 @@ public record AnalyserConfiguration(boolean skipTransformations,
                 "\n    computeContextPropertiesOverAllMethods=" + computeContextPropertiesOverAllMethods +
                 "\n    computeFieldAnalyserAcrossAllMethods=" + computeFieldAnalyserAcrossAllMethods +
                 "\n    forceExtraDelayForTesting=" + forceExtraDelayForTesting +
+                "\n    breakDelayPerTypeCycle=" + breakDelayPerTypeCycle +
+                "\n    releaseStatementAnalysis=" + releaseStatementAnalysis +
+                "\n    typeCycleIterationBudget=" + typeCycleIterationBudget +
+                "\n    typeCycleTimeBudget=" + typeCycleTimeBudget +
+                "\n    methodIterationBudget=" + methodIterationBudget +
+                "\n    methodTimeBudget=" + methodTimeBudget +
+                "\n    conservativeFallback=" + conservativeFallback +
+                "\n    componentProfileFile=" + componentProfileFile +
+                "\n    convergenceReportFile=" + convergenceReportFile +
+                "\n    heapFootprintFile=" + heapFootprintFile +
+                "\n    slowMethodDirectory=" + slowMethodDirectory +
+                "\n    slowMethodTimeThreshold=" + slowMethodTimeThreshold +
+                "\n    slowMethodComplexityThreshold=" + slowMethodComplexityThreshold +
+                "\n    jmxMetrics=" + jmxMetrics +
                 "\n    analyserProgram=" + analyserProgram;
     }
 }
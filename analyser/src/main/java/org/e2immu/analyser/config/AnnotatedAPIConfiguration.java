@@ -27,12 +27,14 @@ public record AnnotatedAPIConfiguration(boolean disabled,
                                         // read
                                         List<String> annotatedAPISourceDirs,
                                         List<String> readAnnotatedAPIPackages,
+                                        String annotatedAPIBundle,
                                         // writing fields
                                         boolean reportWarnings,
                                         WriteMode writeMode,
                                         List<String> writeAnnotatedAPIPackages,
                                         String writeAnnotatedAPIsDir,
-                                        String destinationPackage) {
+                                        String destinationPackage,
+                                        boolean writeAnnotatedAPIBundle) {
 
     public static final String DEFAULT_DESTINATION_PACKAGE = "annotatedapi";
     public static final String DEFAULT_DESTINATION_DIRECTORY = "build/annotatedAPIs";
@@ -55,6 +57,10 @@ public record AnnotatedAPIConfiguration(boolean disabled,
         private final List<String> writeAnnotatedAPIsPackages = new ArrayList<>();
         private String writeAnnotatedAPIsDir;
         private String destinationPackage;
+        // precompiled annotated APIs, see AnnotatedAPIBundle; read instead of most sources when up-to-date
+        private String annotatedAPIBundle;
+        // write the bundle after parsing the annotated API sources
+        private boolean writeAnnotatedAPIBundle;
 
         public AnnotatedAPIConfiguration build() {
             return new AnnotatedAPIConfiguration(
@@ -62,6 +68,7 @@ public record AnnotatedAPIConfiguration(boolean disabled,
                     // reading fields
                     List.copyOf(annotatedAPISourceDirs),
                     List.copyOf(readAnnotatedAPIPackages),
+                    annotatedAPIBundle,
                     // writing fields
                     reportWarnings,
                     writeMode == null ? WriteMode.DO_NOT_WRITE : writeMode,
@@ -69,7 +76,8 @@ public record AnnotatedAPIConfiguration(boolean disabled,
                     writeAnnotatedAPIsDir == null || writeAnnotatedAPIsDir.isBlank() ?
                             DEFAULT_DESTINATION_DIRECTORY : writeAnnotatedAPIsDir,
                     destinationPackage == null || destinationPackage.isBlank() ?
-                            DEFAULT_DESTINATION_PACKAGE : destinationPackage.trim());
+                            DEFAULT_DESTINATION_PACKAGE : destinationPackage.trim(),
+                    writeAnnotatedAPIBundle);
         }
 
         public Builder setDisabled(boolean disabled) {
@@ -77,6 +85,18 @@ public record AnnotatedAPIConfiguration(boolean disabled,
             return this;
         }
 
+        @Fluent
+        public Builder setAnnotatedAPIBundle(String annotatedAPIBundle) {
+            this.annotatedAPIBundle = annotatedAPIBundle;
+            return this;
+        }
+
+        @Fluent
+        public Builder setWriteAnnotatedAPIBundle(boolean writeAnnotatedAPIBundle) {
+            this.writeAnnotatedAPIBundle = writeAnnotatedAPIBundle;
+            return this;
+        }
+
         @Fluent
         public Builder setWriteAnnotatedAPIsDir(String writeAnnotatedAPIsDir) {
             this.writeAnnotatedAPIsDir = writeAnnotatedAPIsDir;
@@ -126,10 +146,12 @@ public record AnnotatedAPIConfiguration(boolean disabled,
                 "\n    disabled=" + disabled +
                 ",\n    annotatedAPISourceDirs=" + annotatedAPISourceDirs +
                 ",\n    readAnnotatedAPIPackages=" + readAnnotatedAPIPackages +
+                ",\n    annotatedAPIBundle='" + annotatedAPIBundle + '\'' +
                 ",\n    reportWarnings=" + reportWarnings +
                 ",\n    writeMode=" + writeMode +
                 ",\n    writeAnnotatedAPIPackages=" + writeAnnotatedAPIPackages +
                 ",\n    writeAnnotatedAPIsDir='" + writeAnnotatedAPIsDir + '\'' +
-                ",\n    destinationPackage='" + destinationPackage + '\'';
+                ",\n    destinationPackage='" + destinationPackage + '\'' +
+                ",\n    writeAnnotatedAPIBundle=" + writeAnnotatedAPIBundle;
     }
 }
@@ -26,7 +26,10 @@ import java.util.List;
 public record AnnotationXmlConfiguration(boolean writeAnnotationXml,
                                          List<String> writeAnnotationXmlPackages,
                                          List<String> readAnnotationXmlPackages,
-                                         String writeAnnotationXmlDir) {
+                                         String writeAnnotationXmlDir,
+                                         boolean annotationXmlBinaryCache,
+                                         boolean writeAnnotationXmlIncrementally,
+                                         String writeAnalysisSummaryDir) {
 
     @Override
     public String toString() {
@@ -34,7 +37,10 @@ public record AnnotationXmlConfiguration(boolean writeAnnotationXml,
                 "\n    writeAnnotationXml=" + writeAnnotationXml +
                 ",\n    writeAnnotationXmlPackages=" + writeAnnotationXmlPackages +
                 ",\n    readAnnotationXmlPackages=" + readAnnotationXmlPackages +
-                ",\n    writeAnnotationXmlDir='" + writeAnnotationXmlDir + '\'';
+                ",\n    writeAnnotationXmlDir='" + writeAnnotationXmlDir + '\'' +
+                ",\n    annotationXmlBinaryCache=" + annotationXmlBinaryCache +
+                ",\n    writeAnnotationXmlIncrementally=" + writeAnnotationXmlIncrementally +
+                ",\n    writeAnalysisSummaryDir='" + writeAnalysisSummaryDir + '\'';
     }
 
     public boolean isReadAnnotationXmlPackages() {
@@ -48,13 +54,22 @@ public record AnnotationXmlConfiguration(boolean writeAnnotationXml,
         private final List<String> writeAnnotationXmlPackages = new ArrayList<>();
         private final List<String> readAnnotationXmlPackages = new ArrayList<>();
         private String writeAnnotationXmlDir;
+        // read and write a binary copy of each annotations.xml file next to it, see AnnotationXmlBinaryCache
+        private boolean annotationXmlBinaryCache;
+        // only write an annotations.xml file when its content has changed
+        private boolean writeAnnotationXmlIncrementally;
+        // when not null, write the analysis summary of the sources in this directory, see AnalysisSummary
+        private String writeAnalysisSummaryDir;
 
         public AnnotationXmlConfiguration build() {
             return new AnnotationXmlConfiguration(
                     writeAnnotationXml,
                     List.copyOf(writeAnnotationXmlPackages),
                     List.copyOf(readAnnotationXmlPackages),
-                    writeAnnotationXmlDir
+                    writeAnnotationXmlDir,
+                    annotationXmlBinaryCache,
+                    writeAnnotationXmlIncrementally,
+                    writeAnalysisSummaryDir
             );
         }
 
@@ -64,6 +79,24 @@ public record AnnotationXmlConfiguration(boolean writeAnnotationXml,
             return this;
         }
 
+        @Fluent
+        public Builder setAnnotationXmlBinaryCache(boolean annotationXmlBinaryCache) {
+            this.annotationXmlBinaryCache = annotationXmlBinaryCache;
+            return this;
+        }
+
+        @Fluent
+        public Builder setWriteAnnotationXmlIncrementally(boolean writeAnnotationXmlIncrementally) {
+            this.writeAnnotationXmlIncrementally = writeAnnotationXmlIncrementally;
+            return this;
+        }
+
+        @Fluent
+        public Builder setWriteAnalysisSummaryDir(String writeAnalysisSummaryDir) {
+            this.writeAnalysisSummaryDir = writeAnalysisSummaryDir;
+            return this;
+        }
+
         @Fluent
         public Builder setAnnotationXml(boolean writeAnnotationXml) {
             this.writeAnnotationXml = writeAnnotationXml;
@@ -27,9 +27,15 @@ import java.util.List;
 
 @E2Immutable
 public record UploadConfiguration(boolean upload, String annotationServerUrl, String projectName,
-                                  List<String> uploadPackages) {
+                                  List<String> uploadPackages,
+                                  int batchSize,
+                                  int retries,
+                                  String stateFile,
+                                  boolean gzip) {
     public static final String DEFAULT_ANNOTATION_SERVER_URL = "http://localhost:8281/v1";
     public static final String DEFAULT_PROJECT = "default";
+    public static final int DEFAULT_BATCH_SIZE = 256 * 1024;
+    public static final int DEFAULT_RETRIES = 3;
 
     @Override
     public String toString() {
@@ -37,7 +43,11 @@ public record UploadConfiguration(boolean upload, String annotationServerUrl, St
                 "\n    upload=" + upload +
                 ",\n    annotationServerUrl='" + annotationServerUrl + '\'' +
                 ",\n    projectName='" + projectName + '\'' +
-                ",\n    uploadPackages=" + uploadPackages;
+                ",\n    uploadPackages=" + uploadPackages +
+                ",\n    batchSize=" + batchSize +
+                ",\n    retries=" + retries +
+                ",\n    stateFile='" + stateFile + '\'' +
+                ",\n    gzip=" + gzip;
     }
 
     public String createUrlWithProjectName(String action) {
@@ -67,15 +77,51 @@ public record UploadConfiguration(boolean upload, String annotationServerUrl, St
         private String annotationServerUrl;
         private boolean upload;
         private final List<String> uploadPackages = new ArrayList<>();
+        // maximal size, in characters of uncompressed JSON, of the body of one request
+        private int batchSize = DEFAULT_BATCH_SIZE;
+        // number of times a request is retried on an IOException or a 5xx response
+        private int retries = DEFAULT_RETRIES;
+        // when set, only values that differ from those recorded in this file are uploaded
+        private String stateFile;
+        // compress the request bodies; off by default, as not every annotation server accepts gzip
+        private boolean gzip;
 
         public UploadConfiguration build() {
             return new UploadConfiguration(upload,
                     annotationServerUrl == null ? DEFAULT_ANNOTATION_SERVER_URL : annotationServerUrl,
                     projectName == null ? DEFAULT_PROJECT : projectName,
-                    List.copyOf(uploadPackages)
+                    List.copyOf(uploadPackages),
+                    batchSize,
+                    retries,
+                    stateFile,
+                    gzip
             );
         }
 
+        @Fluent
+        public Builder setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        @Fluent
+        public Builder setRetries(int retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        @Fluent
+        public Builder setStateFile(String stateFile) {
+            this.stateFile = stateFile;
+            return this;
+        }
+
+        @Fluent
+        public Builder setGzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
 
         @Fluent
         public Builder setAnnotationServerUrl(String annotationServerUrl) {
@@ -28,6 +28,7 @@ import org.e2immu.analyser.model.TypeInspection;
 import org.e2immu.analyser.parser.TypeMap;
 import org.e2immu.analyser.parser.impl.TypeMapImpl;
 import org.e2immu.analyser.resolver.impl.ResolverImpl;
+import org.e2immu.analyser.util.AnalyserEvents;
 import org.e2immu.analyser.util.Resources;
 import org.e2immu.analyser.util.StringUtil;
 import org.e2immu.analyser.util.Trie;
@@ -64,6 +65,8 @@ public record ParseAndInspect(Resources classPath,
                               TypeContext typeContextOfFile,
                               String fileName, String sourceCode) throws ParseException {
         LOGGER.debug("Parsing compilation unit {}", fileName);
+        AnalyserEvents.Parse event = new AnalyserEvents.Parse();
+        event.begin();
 
         JavaParser javaParser = new JavaParser(new ParserConfiguration().setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_16));
         ParseResult<CompilationUnit> parseResult = javaParser.parse(sourceCode);
@@ -123,6 +126,11 @@ public record ParseAndInspect(Resources classPath,
             }
         }
 
+        if (event.shouldCommit()) {
+            event.fileName = fileName;
+            event.primaryTypes = allPrimaryTypesInspected.size();
+            event.commit();
+        }
         return allPrimaryTypesInspected;
     }
 
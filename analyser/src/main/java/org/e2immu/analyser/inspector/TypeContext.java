@@ -21,6 +21,7 @@ import org.e2immu.analyser.parser.ImportantClasses;
 import org.e2immu.analyser.parser.Primitives;
 import org.e2immu.analyser.parser.TypeAndInspectionProvider;
 import org.e2immu.analyser.parser.TypeMap;
+import org.e2immu.analyser.util.Metrics;
 import org.e2immu.annotation.NotNull;
 
 import java.util.*;
@@ -285,6 +286,7 @@ public class TypeContext implements TypeAndInspectionProvider {
                                                     Map<NamedType, ParameterizedType> typeMap,
                                                     List<MethodCandidate> result,
                                                     Scope.ScopeNature scopeNature) {
+        Metrics.overloadLookup();
         recursivelyResolveOverloadedMethods(typeOfObject, methodName, parametersPresented, decrementWhenNotStatic,
                 typeMap, result, new HashSet<>(), false, scopeNature, 0);
     }
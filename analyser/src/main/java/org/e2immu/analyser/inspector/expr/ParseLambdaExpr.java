@@ -264,7 +264,8 @@ public class ParseLambdaExpr {
                 .noParent(typeMapBuilder.getPrimitives())
                 .setTypeNature(TypeNature.CLASS)
                 .addInterfaceImplemented(functionalInterfaceType)
-                .addMethod(methodInfo).setFunctionalInterface(true);
+                .addMethod(methodInfo).setFunctionalInterface(true)
+                .setLambdaImplementation(true);
         TypeInspection builtTypeInspection = typeInspectionBuilder.build();
         typeInfo.typeInspection.set(builtTypeInspection);
     }
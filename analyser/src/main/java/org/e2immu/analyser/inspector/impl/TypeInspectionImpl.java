@@ -50,6 +50,7 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
     public final TypeModifier access;
     public final Inspector inspector;
     public final boolean functionalInterface;
+    public final boolean lambdaImplementation;
     public final Identifier.PositionalIdentifier positionalIdentifier;
 
     private TypeInspectionImpl(TypeInfo typeInfo,
@@ -68,6 +69,7 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
                                Inspector inspector,
                                boolean synthetic,
                                boolean functionalInterface,
+                               boolean lambdaImplementation,
                                Identifier.PositionalIdentifier positionalIdentifier) {
         super(annotations, synthetic);
         this.parentClass = parentClass;
@@ -83,6 +85,7 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
         this.access = access;
         this.permittedWhenSealed = permittedWhenSealed;
         this.functionalInterface = functionalInterface;
+        this.lambdaImplementation = lambdaImplementation;
         this.inspector = inspector;
         this.positionalIdentifier = positionalIdentifier;
     }
@@ -92,6 +95,11 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
         return functionalInterface;
     }
 
+    @Override
+    public boolean isLambdaImplementation() {
+        return lambdaImplementation;
+    }
+
     @Override
     public Inspector inspector() {
         return inspector;
@@ -185,6 +193,7 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
         private final Inspector inspector;
         private InspectionState inspectionState;
         private boolean functionalInterface;
+        private boolean lambdaImplementation;
         private Identifier.PositionalIdentifier positionalIdentifier;
 
         public Builder(TypeInfo typeInfo, InspectionState inspectionState) {
@@ -198,6 +207,11 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
             return this;
         }
 
+        public Builder setLambdaImplementation(boolean lambdaImplementation) {
+            this.lambdaImplementation = lambdaImplementation;
+            return this;
+        }
+
         public void setPositionalIdentifier(Identifier.PositionalIdentifier positionalIdentifier) {
             this.positionalIdentifier = positionalIdentifier;
         }
@@ -207,6 +221,11 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
             return functionalInterface;
         }
 
+        @Override
+        public boolean isLambdaImplementation() {
+            return lambdaImplementation;
+        }
+
         @Override
         public Inspector inspector() {
             return inspector;
@@ -349,6 +368,7 @@ public class TypeInspectionImpl extends InspectionImpl implements TypeInspection
                     inspector,
                     isSynthetic(),
                     isFunctionalInterface(),
+                    isLambdaImplementation(),
                     positionalIdentifier);
         }
 
@@ -21,6 +21,7 @@ import org.e2immu.analyser.parser.InspectionProvider;
 import org.e2immu.analyser.parser.PrimitivesWithoutParameterizedType;
 import org.e2immu.analyser.util.UpgradableBooleanMap;
 import org.e2immu.annotation.NotNull;
+import org.e2immu.support.Either;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -265,6 +266,50 @@ public class ParameterizedType {
         return Objects.hash(typeInfo, parameters, typeParameter, arrays, wildCard);
     }
 
+    /*
+    used in comparators: the components of the type rather than its detailed string, so that nothing is rendered.
+    Consistent with equals; absent components come first.
+     */
+    public static int compareStructurally(ParameterizedType pt1, ParameterizedType pt2) {
+        if (pt1 == pt2) return 0;
+        int c = compareNames(pt1.typeInfo == null ? null : pt1.typeInfo.fullyQualifiedName,
+                pt2.typeInfo == null ? null : pt2.typeInfo.fullyQualifiedName);
+        if (c != 0) return c;
+        c = compareTypeParameters(pt1.typeParameter, pt2.typeParameter);
+        if (c != 0) return c;
+        c = pt1.wildCard.compareTo(pt2.wildCard);
+        if (c != 0) return c;
+        c = pt1.arrays - pt2.arrays;
+        if (c != 0) return c;
+        int n = Math.min(pt1.parameters.size(), pt2.parameters.size());
+        for (int i = 0; i < n; i++) {
+            c = compareStructurally(pt1.parameters.get(i), pt2.parameters.get(i));
+            if (c != 0) return c;
+        }
+        return pt1.parameters.size() - pt2.parameters.size();
+    }
+
+    private static int compareTypeParameters(TypeParameter tp1, TypeParameter tp2) {
+        if (tp1 == tp2) return 0;
+        if (tp1 == null) return -1;
+        if (tp2 == null) return 1;
+        int c = tp1.getIndex() - tp2.getIndex();
+        if (c != 0) return c;
+        return compareNames(ownerName(tp1), ownerName(tp2));
+    }
+
+    private static String ownerName(TypeParameter typeParameter) {
+        Either<TypeInfo, MethodInfo> owner = typeParameter.getOwner();
+        if (owner == null) return null;
+        return owner.isLeft() ? owner.getLeft().fullyQualifiedName : owner.getRight().fullyQualifiedName;
+    }
+
+    private static int compareNames(String s1, String s2) {
+        if (s1 == null) return s2 == null ? 0 : -1;
+        if (s2 == null) return 1;
+        return s1.compareTo(s2);
+    }
+
     public static boolean notEqualsTypeParametersOnlyIndex(ParameterizedType pt1, ParameterizedType pt2) {
         if (pt1.typeInfo == null && pt2.typeInfo != null) return true;
         if (pt1.typeInfo != null && pt2.typeInfo == null) return true;
@@ -237,6 +237,12 @@ public interface TypeInspection extends Inspection {
         return typeNature() == TypeNature.INTERFACE;
     }
 
+    /**
+     * @return true for the synthetic class that holds the implementation of a lambda expression, or of a switch
+     * expression, which is parsed as a lambda; set by ParseLambdaExpr.continueCreationOfAnonymousType
+     */
+    boolean isLambdaImplementation();
+
     default boolean isEnum() {
         return typeNature() == TypeNature.ENUM;
     }
@@ -323,6 +329,9 @@ public interface TypeInspection extends Inspection {
         @Fluent
         Builder setFunctionalInterface(boolean b);
 
+        @Fluent
+        Builder setLambdaImplementation(boolean b);
+
         @Fluent
         Builder addInterfaceImplemented(ParameterizedType functionalInterfaceType);
 
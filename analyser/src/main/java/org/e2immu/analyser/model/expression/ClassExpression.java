@@ -72,7 +72,7 @@ public class ClassExpression extends BaseExpression implements ConstantExpressio
 
     @Override
     public int internalCompareTo(Expression v) {
-        return parameterizedType.detailedString().compareTo(((ClassExpression) v).parameterizedType.detailedString());
+        return ParameterizedType.compareStructurally(parameterizedType, ((ClassExpression) v).parameterizedType);
     }
 
     @Override
@@ -288,8 +288,7 @@ public class ConstructorCall extends BaseExpression implements HasParameterExpre
 
     @Override
     public int internalCompareTo(Expression v) {
-        return parameterizedType.detailedString()
-                .compareTo(((ConstructorCall) v).parameterizedType.detailedString());
+        return ParameterizedType.compareStructurally(parameterizedType, ((ConstructorCall) v).parameterizedType);
     }
 
     @Override
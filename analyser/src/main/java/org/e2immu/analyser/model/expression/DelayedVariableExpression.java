@@ -163,7 +163,7 @@ public class DelayedVariableExpression extends BaseExpression implements IsVaria
         IsVariableExpression ive;
         if ((ive = e.asInstanceOf(IsVariableExpression.class)) != null) {
             // compare variables
-            int c = variableId().compareTo(ive.variableId());
+            int c = VariableExpression.compareVariables(this, ive);
             if (c == 0) {
                 DelayedVariableExpression dve;
                 if ((dve = e.asInstanceOf(DelayedVariableExpression.class)) != null) {
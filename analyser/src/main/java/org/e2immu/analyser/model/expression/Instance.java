@@ -236,8 +236,7 @@ public final class Instance extends BaseExpression implements Expression {
         if (!(v instanceof Instance)) {
             return 1; // we're at the back; Instance is used as "too complex" in boolean expressions
         }
-        return parameterizedType.detailedString()
-                .compareTo(((Instance) v).parameterizedType.detailedString());
+        return ParameterizedType.compareStructurally(parameterizedType, ((Instance) v).parameterizedType);
     }
 
     @Override
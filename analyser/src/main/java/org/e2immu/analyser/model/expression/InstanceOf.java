@@ -110,10 +110,10 @@ public class InstanceOf extends BaseExpression implements Expression {
             if (expression instanceof VariableExpression ve
                     && other.expression instanceof VariableExpression ve2) {
                 int c = ve.variable().fullyQualifiedName().compareTo(ve2.variable().fullyQualifiedName());
-                if (c == 0) c = parameterizedType.detailedString().compareTo(other.parameterizedType.detailedString());
+                if (c == 0) c = ParameterizedType.compareStructurally(parameterizedType, other.parameterizedType);
                 return c;
             }
-            int c = parameterizedType.fullyQualifiedName().compareTo(other.parameterizedType.fullyQualifiedName());
+            int c = ParameterizedType.compareStructurally(parameterizedType, other.parameterizedType);
             if (c != 0) return c;
             return expression.compareTo(other.expression);
         }
@@ -179,11 +179,17 @@ public class Lambda extends BaseExpression implements Expression {
         } else {
             Guide.GuideGenerator guideGenerator = Guide.generatorForBlock();
             outputBuilder.add(Symbol.LEFT_BRACE);
-            if (methodInfo.methodAnalysis.isSet()) {
+            if (methodInfo.methodAnalysis.isSet() && !methodInfo.methodAnalysis.get().statementAnalysisReleased()) {
                 outputBuilder.add(guideGenerator.start());
                 StatementAnalysis firstStatement = methodInfo.methodAnalysis.get().getFirstStatement().followReplacements();
                 Block.statementsString(qualification, outputBuilder, guideGenerator, firstStatement);
                 outputBuilder.add(guideGenerator.end());
+            } else if (methodInfo.methodAnalysis.isSet()) {
+                // statement analyses have been released; fall back on the inspected statements
+                outputBuilder.add(methodInfo.methodInspection.get().getMethodBody().structure.statements().stream()
+                        .filter(s -> !s.isSynthetic())
+                        .map(s -> s.output(qualification, null))
+                        .collect(OutputBuilder.joining(Space.NONE, guideGenerator)));
             } else {
                 outputBuilder.add(new Text("... debugging ..."));
             }
@@ -460,7 +460,9 @@ public class MethodCall extends ExpressionWithMethodReferenceResolution implemen
         switch (methodAnalysis.analysisMode()) {
             case COMPUTED -> {
                 StatementAnalysis lastStatement = methodAnalysis.getLastStatement();
-                if (lastStatement == null) {
+                if (methodAnalysis.statementAnalysisReleased()) {
+                    increment = methodAnalysis.incrementsStatementTime();
+                } else if (lastStatement == null) {
                     increment = false;
                 } else if (lastStatement.flowData().initialTimeNotYetSet()) {
                     CausesOfDelay initialTime = DelayFactory.createDelay(methodAnalysis.location(Stage.INITIAL),
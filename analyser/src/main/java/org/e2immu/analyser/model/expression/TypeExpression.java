@@ -104,7 +104,7 @@ public class TypeExpression extends BaseExpression implements Expression {
 
     @Override
     public int internalCompareTo(Expression v) {
-        return parameterizedType.detailedString().compareTo(((TypeExpression) v).parameterizedType.detailedString());
+        return ParameterizedType.compareStructurally(parameterizedType, ((TypeExpression) v).parameterizedType);
     }
 
     @Override
@@ -82,13 +82,45 @@ public class VariableExpression extends BaseExpression implements IsVariableExpr
             return outputBuilder;
         }
 
+        // same result as comparing the toString() values, without creating them
         @Override
         public int compareTo(Suffix o) {
             if (o instanceof VariableField vf) {
-                return toString().compareTo(vf.toString());
+                int length = length();
+                int otherLength = vf.length();
+                int min = Math.min(length, otherLength);
+                for (int i = 0; i < min; i++) {
+                    char c = charAt(i);
+                    char d = vf.charAt(i);
+                    if (c != d) return c - d;
+                }
+                return length - otherLength;
             }
             return 1;
         }
+
+        private int length() {
+            return 1 + (assignmentId == null ? 0 : assignmentId.length() + 1) + digits(statementTime);
+        }
+
+        private char charAt(int index) {
+            if (index == 0) return '$';
+            int i = index - 1;
+            if (assignmentId != null) {
+                if (i < assignmentId.length()) return assignmentId.charAt(i);
+                if (i == assignmentId.length()) return '$';
+                i -= assignmentId.length() + 1;
+            }
+            int divisor = 1;
+            for (int k = digits(statementTime) - 1; k > i; k--) divisor *= 10;
+            return (char) ('0' + statementTime / divisor % 10);
+        }
+
+        private static int digits(int value) {
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10) digits++;
+            return digits;
+        }
     }
 
     public record VariableInLoop(String assignmentId) implements Suffix {
@@ -182,7 +214,7 @@ public class VariableExpression extends BaseExpression implements IsVariableExpr
         IsVariableExpression ive;
         if ((ive = e.asInstanceOf(IsVariableExpression.class)) != null) {
             // compare variables
-            return variableId().compareTo(ive.variableId());
+            return compareVariables(this, ive);
         }
         throw new UnsupportedOperationException();
     }
@@ -583,13 +615,26 @@ public class VariableExpression extends BaseExpression implements IsVariableExpr
         return variable;
     }
 
-    // used by internal compare to
-    @Override
-    public String variableId() {
-        StringBuilder sb = new StringBuilder(variable.fullyQualifiedName());
-        if (suffix != NO_SUFFIX) sb.append(suffix.toString());
-        if (scopeValue != null) sb.append("#").append(scopeValue.output(Qualification.FULLY_QUALIFIED_NAME));
-        return sb.toString();
+    /*
+    Used by internalCompareTo here and in DelayedVariableExpression: the fully qualified name of the variable, then
+    the suffix, then the scope value, absent components first. Nothing is rendered: the name is computed when the
+    variable is created, the scope values are compared by ExpressionComparator.
+     */
+    static int compareVariables(IsVariableExpression e1, IsVariableExpression e2) {
+        int c = e1.variable().fullyQualifiedName().compareTo(e2.variable().fullyQualifiedName());
+        if (c != 0) return c;
+        Suffix suffix1 = e1 instanceof VariableExpression ve1 ? ve1.suffix : NO_SUFFIX;
+        Suffix suffix2 = e2 instanceof VariableExpression ve2 ? ve2.suffix : NO_SUFFIX;
+        if (suffix1 == NO_SUFFIX || suffix2 == NO_SUFFIX) {
+            c = Boolean.compare(suffix1 != NO_SUFFIX, suffix2 != NO_SUFFIX);
+        } else {
+            c = suffix1.compareTo(suffix2);
+        }
+        if (c != 0) return c;
+        Expression scope1 = e1 instanceof VariableExpression ve1 ? ve1.scopeValue : null;
+        Expression scope2 = e2 instanceof VariableExpression ve2 ? ve2.scopeValue : null;
+        if (scope1 == null || scope2 == null) return Boolean.compare(scope1 != null, scope2 != null);
+        return scope1.compareTo(scope2);
     }
 
     @Override
@@ -16,6 +16,7 @@ package org.e2immu.analyser.model.expression.util;
 
 import org.e2immu.analyser.model.Expression;
 import org.e2immu.analyser.model.expression.ExpressionWrapper;
+import org.e2immu.analyser.util.Metrics;
 import org.e2immu.annotation.IgnoreModifications;
 
 import java.util.Comparator;
@@ -98,7 +99,12 @@ public class ExpressionComparator implements Comparator<Expression> {
     public int compare(Expression v1, Expression v2) {
         if (cache.size() > 1_000) cache.clear();
         IdentityHashMap<Expression, Integer> map = cache.computeIfAbsent(v1, e -> new IdentityHashMap<>());
-        return map.computeIfAbsent(v2, e -> compareNotCached(v1, v2));
+        Integer cached = map.get(v2);
+        Metrics.comparatorCache(cached != null);
+        if (cached != null) return cached;
+        int result = compareNotCached(v1, v2);
+        map.put(v2, result);
+        return result;
     }
 
     private int compareNotCached(Expression v1, Expression v2) {
@@ -22,6 +22,7 @@ import org.e2immu.analyser.model.expression.util.ExpressionComparator;
 import org.e2immu.analyser.model.variable.FieldReference;
 import org.e2immu.analyser.model.variable.This;
 import org.e2immu.analyser.parser.InspectionProvider;
+import org.e2immu.analyser.util.Metrics;
 
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -32,11 +33,13 @@ public abstract class BaseExpression extends ElementImpl implements Expression {
     protected BaseExpression(Identifier identifier) {
         super(identifier);
         this.complexity = 1;
+        Metrics.expressionCreated(getClass());
     }
 
     protected BaseExpression(Identifier identifier, int complexity) {
         super(identifier);
         this.complexity = complexity;
+        Metrics.expressionCreated(getClass());
     }
 
     @Override
@@ -20,9 +20,7 @@ import org.e2immu.analyser.output.formatter.ForwardInfo;
 import org.e2immu.analyser.output.formatter.Lookahead;
 
 import java.io.IOException;
-import java.io.StringWriter;
 import java.io.Writer;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Stack;
 
@@ -33,14 +31,54 @@ public record Formatter(FormattingOptions options) {
     }
 
     public String write(OutputBuilder outputBuilder) {
-        try (StringWriter stringWriter = new StringWriter()) {
-            write(outputBuilder, stringWriter);
-            return stringWriter.toString();
+        try {
+            StringBuilderWriter writer = new StringBuilderWriter();
+            write(outputBuilder, writer);
+            return writer.toString();
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
     }
 
+    /*
+    Unlike StringWriter, not synchronized; appending its content to another StringBuilderWriter does not copy
+    it into an intermediate string.
+     */
+    private static class StringBuilderWriter extends Writer {
+        private final StringBuilder sb = new StringBuilder();
+
+        @Override
+        public void write(String str) {
+            sb.append(str);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            sb.append(cbuf, off, len);
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            sb.append(csq);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            // nothing to flush
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+
     private static final int NO_GUIDE = -1;
     private static final int LINE_SPLIT = -2;
 
@@ -53,7 +91,7 @@ public record Formatter(FormattingOptions options) {
         final boolean allowNewLineBefore;
         int countLines;
         boolean seenFirstMid;
-        Writer writer = new StringWriter();
+        StringBuilderWriter writer = new StringBuilderWriter();
         boolean previousWriteNewLineBefore;
 
         Tab(int indent, int guideIndex, boolean allowNewLineBefore) {
@@ -74,8 +112,16 @@ public record Formatter(FormattingOptions options) {
 
     // guides typically organised as  ( S int i, M int j, M int k E )
 
+    /**
+     * Writes the output to the writer. Only the tabs of guides whose layout is not yet known are buffered;
+     * everything else goes to the writer as soon as the line is complete. Lookahead is bounded, see Lookahead.
+     *
+     * @param outputBuilder the source
+     * @param writer        the destination
+     * @throws IOException when writing fails
+     */
     public void write(OutputBuilder outputBuilder, Writer writer) throws IOException {
-        List<OutputElement> list = new ArrayList<>(outputBuilder.list);
+        List<OutputElement> list = outputBuilder.list();
         Stack<Tab> tabs = new Stack<>();
         int pos = 0;
         int end = list.size();
@@ -136,7 +182,7 @@ public record Formatter(FormattingOptions options) {
             Tab tab = tabs.pop();
             Writer dest = writer(writer, tabs);
             dest.write(writeBefore);
-            dest.write(tab.writer.toString());
+            dest.append(tab.writer.sb);
         }
     }
 
@@ -144,8 +190,8 @@ public record Formatter(FormattingOptions options) {
         Writer destination = tabs.size() == 1 ? writer : tabs.get(tabs.size() - 2).writer;
         destination.write(writeBefore);
         Tab tab = tabs.peek();
-        destination.write(tab.writer.toString());
-        tab.writer = new StringWriter();
+        destination.append(tab.writer.sb);
+        tab.writer = new StringBuilderWriter();
     }
 
     private static Writer writer(Writer writer, Stack<Tab> tabs) {
@@ -22,27 +22,74 @@ import java.util.function.*;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
+/*
+The elements are stored in immutable ropes, so that adding one output builder to another never copies the ropes'
+elements: nested expressions used to copy their elements once per level of nesting.
+Elements added one by one go into the tail. Adding another builder first turns the tail into a rope, and then adds
+a snapshot of the other builder: the concatenation of its ropes and a copy of its tail. Later changes to the added
+builder are not visible. Reading, and taking a snapshot, do not change the builder.
+ */
 @E1Container
 public class OutputBuilder implements Comparable<OutputBuilder> {
-    final List<OutputElement> list = new LinkedList<>();
+    private final List<Rope> ropes = new ArrayList<>();
+    private final List<OutputElement> tail = new ArrayList<>();
 
     public OutputBuilder addIfNotNull(OutputBuilder outputBuilder) {
         if (outputBuilder != null) {
-            list.addAll(outputBuilder.list);
+            append(snapshot(outputBuilder.ropes, outputBuilder.tail));
         }
         return this;
     }
 
     public OutputBuilder add(OutputElement... outputElements) {
-        Collections.addAll(list, outputElements);
+        Collections.addAll(tail, outputElements);
         return this;
     }
 
     public OutputBuilder add(OutputBuilder... outputBuilders) {
-        Arrays.stream(outputBuilders).flatMap(ob -> ob.list.stream()).forEach(list::add);
+        Arrays.stream(outputBuilders).map(ob -> snapshot(ob.ropes, ob.tail)).forEach(this::append);
         return this;
     }
 
+    private static Rope snapshot(List<Rope> ropes, List<OutputElement> tail) {
+        Rope last = Rope.leaf(tail.toArray(OutputElement[]::new));
+        if (ropes.isEmpty()) return last;
+        List<Rope> parts = new ArrayList<>(ropes);
+        parts.add(last);
+        return Rope.concat(parts);
+    }
+
+    private void append(Rope other) {
+        if (other.size > 0) {
+            if (!tail.isEmpty()) {
+                ropes.add(Rope.leaf(tail.toArray(OutputElement[]::new)));
+                tail.clear();
+            }
+            ropes.add(other);
+        }
+    }
+
+    /*
+    Visits the elements in order, until the predicate returns true.
+     */
+    private boolean visit(Predicate<OutputElement> stop) {
+        return ropes.stream().anyMatch(rope -> rope.visit(stop)) || tail.stream().anyMatch(stop);
+    }
+
+    public int size() {
+        return ropes.stream().mapToInt(rope -> rope.size).sum() + tail.size();
+    }
+
+    /**
+     * @return a new list with all the elements, in order
+     */
+    List<OutputElement> list() {
+        List<OutputElement> list = new ArrayList<>(size());
+        ropes.forEach(rope -> rope.addTo(list));
+        list.addAll(tail);
+        return list;
+    }
+
     public static Collector<OutputBuilder, OutputBuilder, OutputBuilder> joining() {
         return joining(Space.NONE, Space.NONE, Space.NONE, Guide.defaultGuideGenerator());
     }
@@ -118,33 +165,37 @@ public class OutputBuilder implements Comparable<OutputBuilder> {
     }
 
     public boolean isEmpty() {
-        return list.isEmpty();
+        return ropes.isEmpty() && tail.isEmpty();
     }
 
     private boolean notStart() {
-        return !list.stream().allMatch(outputElement -> outputElement instanceof Guide);
+        return visit(outputElement -> !(outputElement instanceof Guide));
     }
 
     @Override
     public String toString() {
-        return list.stream().map(OutputElement::minimal).collect(Collectors.joining());
+        return list().stream().map(OutputElement::minimal).collect(Collectors.joining());
     }
 
     // used for sorting annotations
     public OutputElement get(int i) {
-        return list.get(i);
+        return list().get(i);
     }
 
     public String generateJavaForDebugging() {
-        return list.stream().map(OutputElement::generateJavaForDebugging).collect(Collectors.joining("\n"));
+        return list().stream().map(OutputElement::generateJavaForDebugging).collect(Collectors.joining("\n"));
     }
 
     public void replace(UnaryOperator<OutputElement> replacer) {
-        list.replaceAll(replacer);
+        Rope rope = snapshot(ropes, tail);
+        ropes.clear();
+        tail.clear();
+        rope.addTo(tail);
+        tail.replaceAll(replacer);
     }
 
     public TypeName findTypeName() {
-        return (TypeName) list.stream().filter(oe -> oe instanceof TypeName).findFirst().orElseThrow();
+        return (TypeName) list().stream().filter(oe -> oe instanceof TypeName).findFirst().orElseThrow();
     }
 
     // expensive operation, and always sorts on toString!
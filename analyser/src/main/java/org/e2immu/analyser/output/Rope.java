@@ -0,0 +1,87 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.output;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/*
+Immutable rope of output elements, the storage of OutputBuilder: a leaf holds an array of elements,
+a concatenation holds a list of ropes. Concatenation copies references to ropes, never their elements.
+The depth of a rope is the nesting depth of the output builders it was taken from.
+ */
+public class Rope {
+
+    private static final OutputElement[] NO_ELEMENTS = new OutputElement[0];
+
+    static final Rope EMPTY = new Rope(NO_ELEMENTS, List.of());
+
+    final int size;
+    // a leaf has elements and no children, a concatenation has children and no elements
+    private final OutputElement[] elements;
+    private final List<Rope> children;
+
+    private Rope(OutputElement[] elements, List<Rope> children) {
+        this.elements = elements;
+        this.children = children;
+        this.size = elements.length + children.stream().mapToInt(child -> child.size).sum();
+    }
+
+    static Rope leaf(OutputElement[] elements) {
+        return elements.length == 0 ? EMPTY : new Rope(elements, List.of());
+    }
+
+    static Rope concat(List<Rope> ropes) {
+        return new Rope(NO_ELEMENTS, List.copyOf(ropes));
+    }
+
+    /**
+     * Visits the elements in order, until the predicate returns true.
+     * Uses an explicit stack rather than recursion, because output builders can be nested very deeply.
+     *
+     * @return true when the predicate stopped the traversal
+     */
+    boolean visit(Predicate<OutputElement> stop) {
+        List<Rope> stack = new ArrayList<>();
+        stack.add(this);
+        while (!stack.isEmpty()) {
+            Rope rope = stack.remove(stack.size() - 1);
+            for (OutputElement outputElement : rope.elements) {
+                if (stop.test(outputElement)) return true;
+            }
+            for (int i = rope.children.size() - 1; i >= 0; i--) {
+                stack.add(rope.children.get(i));
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the elements, in order.
+     */
+    void addTo(List<OutputElement> list) {
+        List<Rope> stack = new ArrayList<>();
+        stack.add(this);
+        while (!stack.isEmpty()) {
+            Rope rope = stack.remove(stack.size() - 1);
+            Collections.addAll(list, rope.elements);
+            for (int i = rope.children.size() - 1; i >= 0; i--) {
+                stack.add(rope.children.get(i));
+            }
+        }
+    }
+}
@@ -14,15 +14,18 @@
 
 package org.e2immu.analyser.parser;
 
-import org.e2immu.analyser.annotationxml.AnnotationStore;
+import org.e2immu.analyser.annotationxml.AnalysisSummaryStore;
+import org.e2immu.analyser.annotationxml.AnnotatedAPIBundle;
 import org.e2immu.analyser.annotationxml.AnnotationXmlReader;
 import org.e2immu.analyser.bytecode.ByteCodeInspector;
 import org.e2immu.analyser.bytecode.OnDemandInspection;
+import org.e2immu.analyser.config.AnnotatedAPIConfiguration;
 import org.e2immu.analyser.config.Configuration;
 import org.e2immu.analyser.inspector.ParseAndInspect;
 import org.e2immu.analyser.inspector.TypeContext;
 import org.e2immu.analyser.model.TypeInfo;
 import org.e2immu.analyser.parser.impl.TypeMapImpl;
+import org.e2immu.analyser.util.AnalyserEvents;
 import org.e2immu.analyser.util.Resources;
 import org.e2immu.analyser.util.Trie;
 import org.slf4j.Logger;
@@ -36,6 +39,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static org.e2immu.analyser.inspector.InspectionState.TRIGGER_JAVA_PARSER;
@@ -47,7 +51,8 @@ public record Input(Configuration configuration,
                     Map<TypeInfo, URL> sourceURLs,
                     Trie<TypeInfo> sourceTypes,
                     Trie<TypeInfo> annotatedAPITypes,
-                    Resources classPath) {
+                    Resources classPath,
+                    AnnotatedAPIBundle annotatedAPIBundle) {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Input.class);
 
@@ -64,10 +69,21 @@ public record Input(Configuration configuration,
     public static final String JAR_WITH_PATH_PREFIX = "jar-on-classpath:";
 
     public static Input create(Configuration configuration) throws IOException {
+        AnalyserEvents.ClassPathAssembly event = new AnalyserEvents.ClassPathAssembly();
+        event.begin();
         Resources classPath = assemblePath(configuration, true, "Classpath",
                 configuration.inputConfiguration().classPathParts());
-        AnnotationStore annotationStore = new AnnotationXmlReader(classPath, configuration.annotationXmlConfiguration());
-        LOGGER.info("Read {} annotations from 'annotation.xml' files in classpath", annotationStore.getNumberOfAnnotations());
+        if (event.shouldCommit()) {
+            event.parts = configuration.inputConfiguration().classPathParts().size();
+            event.commit();
+        }
+        AnnotationXmlReader annotationXmlReader = new AnnotationXmlReader(classPath, configuration.annotationXmlConfiguration());
+        LOGGER.info("Read {} annotations from 'annotation.xml' files in classpath", annotationXmlReader.getNumberOfAnnotations());
+        AnnotatedAPIBundle annotatedAPIBundle = readAnnotatedAPIBundle(configuration);
+        AnalysisSummaryStore annotationStore = annotatedAPIBundle == null
+                ? new AnalysisSummaryStore(classPath, annotationXmlReader)
+                : new AnalysisSummaryStore(classPath, annotatedAPIBundle, annotationXmlReader);
+        LOGGER.info("Read {} types from analysis summaries in classpath", annotationStore.getNumberOfSummarizedTypes());
         TypeContext globalTypeContext = new TypeContext(new TypeMapImpl.Builder(classPath));
         OnDemandInspection byteCodeInspector = new ByteCodeInspector(classPath, annotationStore, globalTypeContext);
         globalTypeContext.typeMap.setByteCodeInspector(byteCodeInspector);
@@ -76,33 +92,76 @@ public record Input(Configuration configuration,
             preload(globalTypeContext, byteCodeInspector, classPath, packageName); // needed for our own stuff
         }
 
-        return createNext(configuration, classPath, globalTypeContext, byteCodeInspector);
+        return createNext(configuration, classPath, globalTypeContext, byteCodeInspector, annotatedAPIBundle);
+    }
+
+    /*
+    The bundle has to be read before the first types are inspected, because its items are handed to MyClassVisitor.
+    It is not read when it is about to be written.
+     */
+    private static AnnotatedAPIBundle readAnnotatedAPIBundle(Configuration configuration) throws IOException {
+        AnnotatedAPIConfiguration api = configuration.annotatedAPIConfiguration();
+        if (api.annotatedAPIBundle() == null || api.writeAnnotatedAPIBundle()) return null;
+        // without sources, only the format and analyser versions are checked
+        String fingerprint = api.annotatedAPISourceDirs().isEmpty() ? null : annotatedAPIFingerprint(configuration);
+        AnnotatedAPIBundle annotatedAPIBundle = AnnotatedAPIBundle.read(new File(api.annotatedAPIBundle()), fingerprint);
+        if (annotatedAPIBundle == null) {
+            LOGGER.info("Annotated API bundle {} is absent or stale", api.annotatedAPIBundle());
+        }
+        return annotatedAPIBundle;
+    }
+
+    public static String annotatedAPIFingerprint(Configuration configuration) throws IOException {
+        AnnotatedAPIConfiguration api = configuration.annotatedAPIConfiguration();
+        Resources annotatedAPIsPath = assemblePath(configuration, false, "Annotated APIs path",
+                api.annotatedAPISourceDirs());
+        return AnnotatedAPIBundle.fingerprint(annotatedAPIsPath, api.readAnnotatedAPIPackages());
     }
 
+    /**
+     * @param annotatedAPIBundle when not null, only the annotated API sources listed in its sourcesToParse are
+     *                           parsed: the bundle's items have been given to the byte code inspector instead
+     */
     public static Input createNext(Configuration configuration,
                                    Resources classPath,
                                    TypeContext globalTypeContext,
-                                   OnDemandInspection byteCodeInspector) throws IOException {
+                                   OnDemandInspection byteCodeInspector,
+                                   AnnotatedAPIBundle annotatedAPIBundle) throws IOException {
         Resources sourcePath = assemblePath(configuration, false, "Source path",
                 configuration.inputConfiguration().sources());
         Trie<TypeInfo> sourceTypes = new Trie<>();
         Map<TypeInfo, URL> sourceURLs = computeSourceURLs(sourcePath, globalTypeContext,
-                configuration.inputConfiguration().restrictSourceToPackages(), sourceTypes, "source path");
+                configuration.inputConfiguration().restrictSourceToPackages(), fqn -> true, sourceTypes,
+                "source path");
 
+        Trie<TypeInfo> annotatedAPITypes = new Trie<>();
         Resources annotatedAPIsPath = assemblePath(configuration, false, "Annotated APIs path",
                 configuration.annotatedAPIConfiguration().annotatedAPISourceDirs());
-        Trie<TypeInfo> annotatedAPITypes = new Trie<>();
+        Predicate<String> parseAnnotatedAPI;
+        if (annotatedAPIBundle != null) {
+            LOGGER.info("Read {} types from the annotated API bundle, parsing {} annotated API sources",
+                    annotatedAPIBundle.typeItems().size(), annotatedAPIBundle.sourcesToParse().size());
+            if (!annotatedAPIBundle.sourcesToParse().isEmpty()
+                    && configuration.annotatedAPIConfiguration().annotatedAPISourceDirs().isEmpty()) {
+                LOGGER.warn("No annotated API sources: companion methods in {} are not available",
+                        annotatedAPIBundle.sourcesToParse());
+            }
+            parseAnnotatedAPI = annotatedAPIBundle.sourcesToParse()::contains;
+        } else {
+            parseAnnotatedAPI = fqn -> true;
+        }
         Map<TypeInfo, URL> annotatedAPIs = computeSourceURLs(annotatedAPIsPath, globalTypeContext,
-                configuration.annotatedAPIConfiguration().readAnnotatedAPIPackages(),
+                configuration.annotatedAPIConfiguration().readAnnotatedAPIPackages(), parseAnnotatedAPI,
                 annotatedAPITypes, "annotated API path");
 
         return new Input(configuration, globalTypeContext, byteCodeInspector, annotatedAPIs, sourceURLs, sourceTypes,
-                annotatedAPITypes, classPath);
+                annotatedAPITypes, classPath, annotatedAPIBundle);
     }
 
     private static Map<TypeInfo, URL> computeSourceURLs(Resources sourcePath,
                                                         TypeContext globalTypeContext,
                                                         List<String> restrictions,
+                                                        Predicate<String> accept,
                                                         Trie<TypeInfo> trie,
                                                         String what) {
         Map<TypeInfo, URL> sourceURLs = new HashMap<>();
@@ -114,7 +173,7 @@ public record Input(Configuration configuration,
                 if (name.endsWith(".java")) {
                     String typeName = name.substring(0, name.length() - 5);
                     String packageName = Arrays.stream(parts).limit(n).collect(Collectors.joining("."));
-                    if (acceptSource(packageName, typeName, restrictions)) {
+                    if (acceptSource(packageName, typeName, restrictions) && accept.test(packageName + "." + typeName)) {
                         TypeInfo typeInfo = new TypeInfo(packageName, typeName);
                         globalTypeContext.typeMap.add(typeInfo, TRIGGER_JAVA_PARSER);
                         URL url = list.get(0);
@@ -35,6 +35,7 @@ public record Message(Location location, Label message, String extra) {
     }
 
     public enum Label {
+        ANALYSIS_BUDGET_EXCEEDED(Severity.WARN),
         ANNOTATION_ABSENT,
         ANNOTATION_UNEXPECTEDLY_PRESENT,
         ASSERT_EVALUATES_TO_CONSTANT_FALSE,
@@ -19,6 +19,13 @@ import org.e2immu.analyser.analyser.AnalyserContext;
 import org.e2immu.analyser.analyser.PrimaryTypeAnalyser;
 import org.e2immu.analyser.analyser.impl.AnnotatedAPIAnalyser;
 import org.e2immu.analyser.analyser.impl.PrimaryTypeAnalyserImpl;
+import org.e2immu.analyser.analyser.util.ComponentProfile;
+import org.e2immu.analyser.analyser.util.ConvergenceReport;
+import org.e2immu.analyser.analyser.util.HeapFootprint;
+import org.e2immu.analyser.analyser.util.IterationStatistics;
+import org.e2immu.analyser.analyser.util.SlowMethodDetector;
+import org.e2immu.analyser.analysis.Analysis;
+import org.e2immu.analyser.annotationxml.AnnotatedAPIBundle;
 import org.e2immu.analyser.bytecode.OnDemandInspection;
 import org.e2immu.analyser.config.Configuration;
 import org.e2immu.analyser.inspector.*;
@@ -29,16 +36,22 @@ import org.e2immu.analyser.parser.impl.ImportantClassesImpl;
 import org.e2immu.analyser.resolver.SortedTypes;
 import org.e2immu.analyser.resolver.TypeCycle;
 import org.e2immu.analyser.resolver.impl.ResolverImpl;
+import org.e2immu.analyser.util.Metrics;
+import org.e2immu.analyser.util.MetricsJmx;
 import org.e2immu.analyser.util.Trie;
 import org.e2immu.analyser.visitor.TypeMapVisitor;
 import org.e2immu.support.Either;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,6 +65,10 @@ public class Parser {
     private final Input input;
     private final Messages messages = new Messages();
     private final AnonymousTypeCounters anonymousTypeCounters = new AnonymousTypeCounters(); // anonymous class counter
+    private final List<TypeCycleListener> typeCycleListeners = new ArrayList<>();
+    // described primary type -> primary type of the annotated API source, e.g. java.util.List -> ...JavaUtil
+    private final Map<TypeInfo, TypeInfo> annotatedAPISources = new HashMap<>();
+    private IterationStatistics iterationStatistics = IterationStatistics.EMPTY;
 
     public Parser() throws IOException {
         // all the defaults will do...
@@ -60,13 +77,23 @@ public class Parser {
 
     public Parser(Configuration configuration) throws IOException {
         this.configuration = configuration;
+        registerMetrics(configuration);
         input = Input.create(configuration);
     }
 
     public Parser(Configuration newConfiguration, Parser previousParser) throws IOException {
         this.configuration = newConfiguration;
+        registerMetrics(newConfiguration);
         this.input = Input.createNext(newConfiguration, previousParser.input.classPath(),
-                previousParser.input.globalTypeContext(), previousParser.input.byteCodeInspector());
+                previousParser.input.globalTypeContext(), previousParser.input.byteCodeInspector(),
+                previousParser.input.annotatedAPIBundle());
+    }
+
+    // registered once per JVM, so that the counters accumulate over the runs of a long-running process
+    private static synchronized void registerMetrics(Configuration configuration) {
+        if (configuration.analyserConfiguration().jmxMetrics() && !Metrics.isEnabled()) {
+            MetricsJmx.register();
+        }
     }
 
     // meant for tests only!
@@ -74,6 +101,10 @@ public class Parser {
         Input.preload(input.globalTypeContext(), getByteCodeInspector(), input.classPath(), packageName);
     }
 
+    public void addTypeCycleListener(TypeCycleListener typeCycleListener) {
+        typeCycleListeners.add(typeCycleListener);
+    }
+
     public record RunResult(SortedTypes annotatedAPISortedTypes,
                             SortedTypes sourceSortedTypes,
                             TypeMap typeMap) {
@@ -101,6 +132,9 @@ public class Parser {
             sortedAnnotatedAPITypes = inspectAndResolve(input.annotatedAPIs(), input.annotatedAPITypes(),
                     configuration.annotatedAPIConfiguration().reportWarnings(), true);
         }
+        if (input.annotatedAPIBundle() != null) {
+            inspectAnnotatedAPIBundleTypes();
+        }
 
         // and the inspection and resolution of Java sources (Java parser)
         SortedTypes resolvedSourceTypes = inspectAndResolve(input.sourceURLs(), input.sourceTypes(), true, false);
@@ -118,12 +152,37 @@ public class Parser {
             // we pass on the Java sources for the PrimaryTypeAnalyser, while all other loaded types
             // will be sent to the ShallowAnalyser
             AnalyserContext shallowContext = runShallowAnalyser(typeMap, sortedAnnotatedAPITypes, resolvedSourceTypes);
+            typeCycleListeners.forEach(l -> l.startAnalysis(sortedAnnotatedAPITypes, resolvedSourceTypes));
             runPrimaryTypeAnalyser(typeMap, shallowContext, resolvedSourceTypes);
         }
 
         return new RunResult(sortedAnnotatedAPITypes, resolvedSourceTypes, typeMap);
     }
 
+    /*
+    Parsing the annotated API sources inspects all the types they describe, so that the shallow analyser analyses
+    them whether they are used or not. We do the same for the types of the bundle, which replace these sources.
+     */
+    private void inspectAnnotatedAPIBundleTypes() {
+        TypeContext typeContext = input.globalTypeContext();
+        for (String fqn : new TreeSet<>(input.annotatedAPIBundle().typeItems().keySet())) {
+            TypeInfo typeInfo = typeContext.getFullyQualified(fqn, false);
+            if (typeInfo != null) {
+                typeContext.getTypeInspection(typeInfo);
+            }
+        }
+    }
+
+    /**
+     * @param annotatedAPITypes the annotated API types after shallow analysis, see RunResult.annotatedAPISortedTypes
+     * @return a bundle which replaces the annotated API sources of this parser
+     */
+    public AnnotatedAPIBundle createAnnotatedAPIBundle(Collection<TypeInfo> annotatedAPITypes) throws IOException {
+        return AnnotatedAPIBundle.create(Input.annotatedAPIFingerprint(configuration), annotatedAPITypes,
+                typeInfo -> Objects.requireNonNull(annotatedAPISources.get(typeInfo),
+                        "No annotated API source for " + typeInfo.fullyQualifiedName));
+    }
+
     public TypeMap.Builder inspectOnlyForTesting() {
         inspectAndResolve(input.annotatedAPIs(), input.annotatedAPITypes(),
                 configuration.annotatedAPIConfiguration().reportWarnings(), true);
@@ -140,6 +199,7 @@ public class Parser {
         InspectWithJavaParserImpl onDemandSourceInspection = new InspectWithJavaParserImpl(urls, typesForWildcardImport, resolver);
         typeMapBuilder.setInspectWithJavaParser(onDemandSourceInspection);
 
+        typeCycleListeners.forEach(l -> l.startInspection(urls.size(), shallowResolver));
         // trigger the on-demand detection
         urls.entrySet().stream().sorted(Comparator.comparing(e -> e.getValue().toString())).forEach(e ->
                 input.globalTypeContext().getTypeInspection(e.getKey()));
@@ -157,6 +217,10 @@ public class Parser {
             expressionContexts.put(e.getKey(), ec);
         }
         SortedTypes sortedTypes = resolver.resolve(expressionContexts);
+        if (shallowResolver) {
+            annotatedAPISources.putAll(onDemandSourceInspection.sources);
+        }
+        typeCycleListeners.forEach(l -> l.resolved(sortedTypes, shallowResolver));
         messages.addAll(resolver.getMessageStream()
                 .filter(m -> m.message().severity != Message.Severity.WARN || reportWarnings));
         return sortedTypes;
@@ -164,6 +228,7 @@ public class Parser {
 
     private class InspectWithJavaParserImpl implements InspectWithJavaParser {
         private final Map<TypeInfo, TypeContext> typeContexts = new HashMap<>();
+        private final Map<TypeInfo, TypeInfo> sources = new HashMap<>();
         private final Map<TypeInfo, URL> urls;
         private final Trie<TypeInfo> typesForWildcardImport;
         private final ResolverImpl resolver;
@@ -197,7 +262,11 @@ public class Parser {
                         input.globalTypeContext().typeMap(), typesForWildcardImport, anonymousTypeCounters,
                         configuration.annotatedAPIConfiguration().disabled());
                 List<TypeInfo> primaryTypes = parseAndInspect.run(resolver, inspectionTypeContext, url.toString(), source);
-                primaryTypes.forEach(t -> typeContexts.put(t, inspectionTypeContext));
+                primaryTypes.forEach(t -> {
+                    typeContexts.put(t, inspectionTypeContext);
+                    sources.put(t, typeInfo);
+                });
+                typeCycleListeners.forEach(l -> l.compilationUnitInspected(url));
 
                 typeInspectionBuilder.setInspectionState(FINISHED_JAVA_PARSER);
 
@@ -221,12 +290,76 @@ public class Parser {
             LOGGER.debug("Analysing primary types:\n{}", sortedTypes);
         }
 
+        String heapFootprintFile = configuration.analyserConfiguration().heapFootprintFile();
+        HeapFootprint heapFootprint = heapFootprintFile == null ? null : new HeapFootprint();
         for (TypeCycle typeCycle : sortedTypes.typeCycles()) {
-            analyseSortedTypeCycle(typeCycle, shallowContext);
+            analyseSortedTypeCycle(typeCycle, shallowContext, heapFootprint);
+        }
+        LOGGER.info("Iteration statistics: {}", iterationStatistics);
+        ComponentProfile componentProfile = shallowContext.getComponentProfile();
+        if (componentProfile != null) {
+            writeComponentProfile(componentProfile);
+        }
+        ConvergenceReport convergenceReport = shallowContext.getConvergenceReport();
+        if (convergenceReport != null) {
+            writeConvergenceReport(convergenceReport);
+        }
+        if (heapFootprint != null) {
+            writeHeapFootprint(heapFootprint, heapFootprintFile);
+        }
+        SlowMethodDetector slowMethodDetector = shallowContext.getSlowMethodDetector();
+        if (slowMethodDetector != null) {
+            writeSlowMethodReports(slowMethodDetector);
+        }
+    }
+
+    private void writeSlowMethodReports(SlowMethodDetector slowMethodDetector) {
+        String directory = configuration.analyserConfiguration().slowMethodDirectory();
+        try {
+            slowMethodDetector.writeReports(new File(directory), input.sourceURLs(),
+                    configuration.inputConfiguration().sourceEncoding());
+            LOGGER.info("Detected {} slow methods, reports in {}", slowMethodDetector.getSlowMethods().size(),
+                    directory);
+        } catch (IOException ioe) {
+            LOGGER.error("Cannot write slow method reports to {}: {}", directory, ioe.getMessage());
+        }
+    }
+
+    private static void writeHeapFootprint(HeapFootprint heapFootprint, String fileName) {
+        try {
+            Files.writeString(Path.of(fileName), heapFootprint.toJson(), StandardCharsets.UTF_8);
+            LOGGER.info("Wrote heap footprint of {} type cycles to {}", heapFootprint.getCycles().size(), fileName);
+        } catch (IOException ioe) {
+            LOGGER.error("Cannot write heap footprint to {}: {}", fileName, ioe.getMessage());
+        }
+    }
+
+    private void writeConvergenceReport(ConvergenceReport convergenceReport) {
+        String fileName = configuration.analyserConfiguration().convergenceReportFile();
+        try {
+            Files.writeString(Path.of(fileName), convergenceReport.toJson(), StandardCharsets.UTF_8);
+            LOGGER.info("Wrote convergence report of {} type cycles to {}", convergenceReport.getCycles().size(),
+                    fileName);
+        } catch (IOException ioe) {
+            LOGGER.error("Cannot write convergence report to {}: {}", fileName, ioe.getMessage());
         }
     }
 
-    private void analyseSortedTypeCycle(TypeCycle typeCycle, AnalyserContext analyserContext) {
+    private void writeComponentProfile(ComponentProfile componentProfile) {
+        LOGGER.info("Analyser component profile, summed over all iterations:\n{}", componentProfile.table());
+        String fileName = configuration.analyserConfiguration().componentProfileFile();
+        try {
+            Files.writeString(Path.of(fileName), componentProfile.toJson(), StandardCharsets.UTF_8);
+            LOGGER.info("Wrote analyser component profile to {}", fileName);
+        } catch (IOException ioe) {
+            LOGGER.error("Cannot write analyser component profile to {}: {}", fileName, ioe.getMessage());
+        }
+    }
+
+    private void analyseSortedTypeCycle(TypeCycle typeCycle,
+                                        AnalyserContext analyserContext,
+                                        HeapFootprint heapFootprint) {
+        typeCycleListeners.forEach(l -> l.startTypeCycle(typeCycle));
         ImportantClassesImpl importantClasses = new ImportantClassesImpl(input.globalTypeContext());
         PrimaryTypeAnalyser primaryTypeAnalyser = new PrimaryTypeAnalyserImpl(analyserContext, typeCycle, configuration,
                 getTypeContext().getPrimitives(),
@@ -259,7 +392,17 @@ public class Parser {
                     primaryTypeAnalyser.getName());
             throw rte;
         }
-        messages.addAll(primaryTypeAnalyser.getMessageStream());
+        iterationStatistics = iterationStatistics.combine(primaryTypeAnalyser.getIterationStatistics());
+        List<Message> cycleMessages = primaryTypeAnalyser.getMessageStream().toList();
+        messages.addAll(cycleMessages.stream());
+        if (heapFootprint != null) {
+            List<Analysis> analyses = new ArrayList<>();
+            primaryTypeAnalyser.loopOverAnalysers(analyser -> analyses.add(analyser.getMember().getAnalysis()));
+            HeapFootprint.CycleFootprint footprint = heapFootprint.measure(primaryTypeAnalyser.getName(),
+                    analyses.stream(), cycleMessages.stream());
+            LOGGER.info("Heap footprint of {}: {}", primaryTypeAnalyser.getName(), footprint);
+        }
+        typeCycleListeners.forEach(l -> l.typeCycleAnalysed(typeCycle, cycleMessages));
     }
 
     private AnalyserContext runShallowAnalyser(TypeMap typeMap, SortedTypes annotatedAPITypes, SortedTypes sourceTypes) {
@@ -340,6 +483,10 @@ public class Parser {
         return input.byteCodeInspector();
     }
 
+    public IterationStatistics getIterationStatistics() {
+        return iterationStatistics;
+    }
+
     public Stream<Message> getMessages() {
         return messages.getMessageStream();
     }
@@ -0,0 +1,72 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.parser;
+
+import org.e2immu.analyser.resolver.SortedTypes;
+import org.e2immu.analyser.resolver.TypeCycle;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Allows results to be emitted while the parser is still analysing the remaining type cycles.
+ * When a type cycle is reported, its primary types have been analysed, checked and made immutable.
+ * <p>
+ * The inspection and resolution callbacks allow for progress reporting; they are called twice,
+ * first for the annotated APIs, then for the Java sources.
+ */
+public interface TypeCycleListener {
+
+    /**
+     * Called before the inspection of a set of compilation units starts.
+     *
+     * @param compilationUnits the number of compilation units to be parsed and inspected
+     * @param annotatedAPIs    true when the compilation units are annotated API files
+     */
+    default void startInspection(int compilationUnits, boolean annotatedAPIs) {
+        // nothing to be done
+    }
+
+    /**
+     * Called after each compilation unit has been parsed and inspected.
+     */
+    default void compilationUnitInspected(URL url) {
+        // nothing to be done
+    }
+
+    /**
+     * Called after the inspected types have been resolved, and sorted into type cycles.
+     */
+    default void resolved(SortedTypes sortedTypes, boolean annotatedAPIs) {
+        // nothing to be done
+    }
+
+    /**
+     * Called once, after the shallow analysis of the annotated APIs and byte-code inspected types,
+     * before the first type cycle is analysed. Not called when the analysis is skipped.
+     */
+    default void startAnalysis(SortedTypes annotatedAPISortedTypes, SortedTypes sourceSortedTypes) {
+        // nothing to be done
+    }
+
+    /**
+     * Called before the analysis of each type cycle starts.
+     */
+    default void startTypeCycle(TypeCycle typeCycle) {
+        // nothing to be done
+    }
+
+    void typeCycleAnalysed(TypeCycle typeCycle, List<Message> messages);
+}
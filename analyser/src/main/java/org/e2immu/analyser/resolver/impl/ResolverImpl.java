@@ -36,6 +36,7 @@ import org.e2immu.analyser.resolver.Resolver;
 import org.e2immu.analyser.resolver.ShallowMethodResolver;
 import org.e2immu.analyser.resolver.SortedTypes;
 import org.e2immu.analyser.resolver.TypeCycle;
+import org.e2immu.analyser.util.AnalyserEvents;
 import org.e2immu.analyser.util.DependencyGraph;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -116,6 +117,8 @@ public class ResolverImpl implements Resolver {
 
     @Override
     public SortedTypes resolve(Map<TypeInfo, ExpressionContext> inspectedTypes) {
+        AnalyserEvents.Resolve event = new AnalyserEvents.Resolve();
+        event.begin();
         DependencyGraph<TypeInfo> typeGraph = new DependencyGraph<>();
         Map<TypeInfo, TypeResolution.Builder> resolutionBuilders = new HashMap<>();
         Set<TypeInfo> stayWithin = inspectedTypes.keySet().stream()
@@ -144,7 +147,13 @@ public class ResolverImpl implements Resolver {
         if (parent == null) methodResolution();
 
         List<TypeInfo> sorted = sortWarnForCircularDependencies(typeGraph, resolutionBuilders);
-        return computeTypeResolution(sorted, resolutionBuilders);
+        SortedTypes sortedTypes = computeTypeResolution(sorted, resolutionBuilders);
+        if (event.shouldCommit()) {
+            event.inspectedTypes = inspectedTypes.size();
+            event.typeCycles = sortedTypes.typeCycles().size();
+            event.commit();
+        }
+        return sortedTypes;
     }
 
     private List<TypeInfo> typeAndAllSubTypes(TypeInfo typeInfo) {
@@ -0,0 +1,114 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.util;
+
+import jdk.jfr.*;
+import org.e2immu.annotation.UtilityClass;
+
+/*
+Java Flight Recorder events for the major phases of the analyser. They cost next to nothing when no recording
+is active; start one with -XX:StartFlightRecording=filename=analyser.jfr, and look for the "e2immu" category.
+Unlike DEBUG logging, they do not change the timing of the run.
+
+Call begin() at the start of the phase; at the end, compute the fields and commit only when shouldCommit() returns
+true, i.e., when the event is enabled in a recording and exceeds its threshold.
+ */
+@UtilityClass
+public class AnalyserEvents {
+
+    private AnalyserEvents() {
+        // nothing here, cannot be instantiated
+        throw new UnsupportedOperationException();
+    }
+
+    private static final String CATEGORY = "e2immu";
+
+    @Name("org.e2immu.ClassPathAssembly")
+    @Label("Class path assembly")
+    @Category({CATEGORY, "Input"})
+    public static class ClassPathAssembly extends Event {
+        @Label("Parts")
+        public int parts;
+    }
+
+    @Name("org.e2immu.ByteCodeInspection")
+    @Label("Byte code inspection")
+    @Category({CATEGORY, "Input"})
+    public static class ByteCodeInspection extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("Types")
+        public int types;
+    }
+
+    @Name("org.e2immu.Parse")
+    @Label("Parse and inspect compilation unit")
+    @Category({CATEGORY, "Input"})
+    public static class Parse extends Event {
+        @Label("File")
+        public String fileName;
+
+        @Label("Primary types")
+        public int primaryTypes;
+    }
+
+    @Name("org.e2immu.Resolve")
+    @Label("Resolve")
+    @Category({CATEGORY, "Resolver"})
+    public static class Resolve extends Event {
+        @Label("Inspected types")
+        public int inspectedTypes;
+
+        @Label("Type cycles")
+        public int typeCycles;
+    }
+
+    @Name("org.e2immu.AnnotatedAPIAnalysis")
+    @Label("Annotated API analysis")
+    @Category({CATEGORY, "Analyser"})
+    public static class AnnotatedAPIAnalysis extends Event {
+        @Label("Types")
+        public int types;
+
+        @Label("Methods")
+        public int methods;
+    }
+
+    @Name("org.e2immu.PrimaryTypeAnalyserIteration")
+    @Label("Primary type analyser iteration")
+    @Category({CATEGORY, "Analyser"})
+    public static class PrimaryTypeAnalyserIteration extends Event {
+        @Label("Type cycle")
+        public String cycle;
+
+        @Label("Iteration")
+        public int iteration;
+
+        @Label("Allow break delay")
+        public boolean allowBreakDelay;
+
+        @Label("Delayed elements")
+        @Description("Number of elements (types, methods, fields, parameters) with at least one delay")
+        public int delayedElements;
+
+        @Label("Delays")
+        @Description("Number of causes of delay, summed over all delayed elements")
+        public int delays;
+
+        @Label("Status")
+        public String status;
+    }
+}
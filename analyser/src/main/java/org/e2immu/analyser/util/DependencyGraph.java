@@ -108,54 +108,6 @@ public class DependencyGraph<T> extends Freezable {
         }
     }
 
-    private List<T> removeAsManyAsPossible(Set<T> set) {
-        List<T> removed = new ArrayList<>();
-        boolean changed = true;
-        while (changed) {
-            List<T> inSingleStep = singleRemoveStep(set);
-            changed = !inSingleStep.isEmpty();
-            removed.addAll(inSingleStep);
-
-            DependencyGraph<T> reverse = reverse(set);
-            List<T> inReverse = reverse.singleRemoveStep(set);
-            changed |= !inReverse.isEmpty();
-            removed.addAll(inReverse);
-        }
-        return removed;
-    }
-
-    private List<T> singleRemoveStep(Set<T> set) {
-        List<T> removed = new ArrayList<>();
-        set.removeIf(t -> {
-            Node<T> node = nodeMap.get(t);
-            assert node != null;
-            boolean remove = node.dependsOn == null || node.dependsOn.isEmpty() ||
-                    node.dependsOn.stream().noneMatch(set::contains);
-            if (remove) removed.add(t);
-            return remove;
-        });
-        return removed;
-    }
-
-    /*
-    create a reverse graph, based on the nodes in the set
-     */
-    private DependencyGraph<T> reverse(Set<T> set) {
-        DependencyGraph<T> dg = new DependencyGraph<>();
-        for (T t : set) {
-            dg.addNode(t, Set.of());
-            Node<T> node = nodeMap.get(t);
-            if (node.dependsOn != null) {
-                for (T d : node.dependsOn) {
-                    if (set.contains(d)) {
-                        dg.addNode(d, Set.of(t));
-                    }
-                }
-            }
-        }
-        return dg;
-    }
-
     @NotNull
     @Modified
     @Only(before = "frozen")
@@ -202,14 +154,14 @@ public class DependencyGraph<T> extends Freezable {
         return sorted(null, null, null);
     }
 
+    /*
+    the number of different dependencies in the subset is computed once per node, rather than once per comparison
+     */
     static <T> Comparator<Map.Entry<T, Node<T>>> comparator(Comparator<T> backupComparator, Set<T> subSet) {
+        Map<T, Integer> counts = new HashMap<>();
         return (e1, e2) -> {
-            Set<T> sub1 = new HashSet<>(e1.getValue().dependsOn);
-            sub1.retainAll(subSet);
-            Set<T> sub2 = new HashSet<>(e2.getValue().dependsOn);
-            sub2.retainAll(subSet);
-
-            int c = sub1.size() - sub2.size();
+            int c = counts.computeIfAbsent(e1.getKey(), t -> countDependenciesIn(e1.getValue(), subSet))
+                    - counts.computeIfAbsent(e2.getKey(), t -> countDependenciesIn(e2.getValue(), subSet));
             if (c == 0) {
                 c = backupComparator == null ? 0 : backupComparator.compare(e1.getKey(), e2.getKey());
             }
@@ -217,80 +169,353 @@ public class DependencyGraph<T> extends Freezable {
         };
     }
 
+    private static <T> int countDependenciesIn(Node<T> node, Set<T> subSet) {
+        if (node.dependsOn == null) return 0;
+        return (int) node.dependsOn.stream().distinct().filter(subSet::contains).count();
+    }
+
+    /**
+     * Sorts the nodes so that each node comes after its dependencies. Nodes are added in passes over the nodes that
+     * remain, in the iteration order of the node map: a node is safe when all its dependencies have been added,
+     * including those added earlier in the same pass. When a pass finds no safe node, the remaining nodes contain
+     * a cycle; the nodes that no remaining node depends on are peeled off and added, and then one node of a cycle
+     * is added.
+     * <p>
+     * Neither the passes nor the peeling are executed one by one: both are computed incrementally, starting from
+     * the nodes whose counts of remaining dependencies or dependents dropped to zero. The result and the order of the
+     * reports are the same.
+     *
+     * @param reportPartOfCycle called each time a node of a cycle is added, with the nodes of that cycle
+     * @param reportIndependent called for each node that is not added as part of a cycle
+     * @param backupComparator  for deterministic tie-breaking inside a cycle, can be null
+     * @return a modifiable list
+     */
     @Independent1
     public List<T> sorted(Consumer<List<T>> reportPartOfCycle,
                           Consumer<T> reportIndependent,
                           Comparator<T> backupComparator) {
-        Map<T, Node<T>> toDo = new HashMap<>(nodeMap);
-        Set<T> done = new HashSet<>();
-        List<T> result = new ArrayList<>(nodeMap.size());
-        while (!toDo.isEmpty()) {
-            List<T> keys = new LinkedList<>();
-            for (Map.Entry<T, Node<T>> entry : toDo.entrySet()) {
-                List<T> dependencies = entry.getValue().dependsOn;
-                boolean safe;
-                if (dependencies == null || dependencies.isEmpty()) {
-                    safe = true;
-                } else {
-                    Set<T> copy = new HashSet<>(dependencies);
-                    copy.removeAll(done);
-                    copy.remove(entry.getKey());
-                    safe = copy.isEmpty();
-                }
-                if (safe) {
-                    keys.add(entry.getKey());
-                    done.add(entry.getKey());
-                    if (reportIndependent != null) reportIndependent.accept(entry.getKey());
-                }
-            }
-            if (keys.isEmpty()) {
-                // find the core of the cycle
-                Map<T, Node<T>> cycle = new HashMap<>(toDo);
-                List<T> removed = removeAsManyAsPossible(cycle.keySet());
-                removed.forEach(t -> {
+        // removing entries from a map does not change the relative iteration order of the remaining ones
+        List<T> nodes = new ArrayList<>(new HashMap<>(nodeMap).keySet());
+        int n = nodes.size();
+        Map<T, Integer> indices = new HashMap<>(2 * n);
+        for (int i = 0; i < n; i++) {
+            indices.put(nodes.get(i), i);
+        }
+        Sorting sorting = new Sorting(nodes, indices);
+
+        List<T> result = new ArrayList<>(n);
+        while (sorting.remaining > 0) {
+            int[] keys = sorting.safeNodesInPassOrder();
+            if (keys.length == 0) {
+                sorting.copyRemaining();
+                for (int i : sorting.peel()) {
+                    T t = nodes.get(i);
                     result.add(t);
-                    toDo.remove(t);
-                    done.add(t);
                     if (reportIndependent != null) reportIndependent.accept(t);
-                });
-
-                assert !cycle.isEmpty();
-                //  There can be multiple cycles, we should separate them
-                Map<T, Node<T>> smallerCycle = startArbitrarily(cycle);
+                }
+                // the nodes reachable from the first remaining node in the iteration order of the copy
+                Map<T, Node<T>> smallerCycle = new HashMap<>();
+                for (int i : sorting.reachableFromFirst()) {
+                    T t = nodes.get(i);
+                    smallerCycle.put(t, nodeMap.get(t));
+                }
                 List<T> sortedCycle = smallerCycle.entrySet().stream()
                         .sorted(comparator(backupComparator, smallerCycle.keySet()))
                         .map(Map.Entry::getKey).toList();
                 T key = sortedCycle.get(0);
-                toDo.remove(key);
-                done.add(key);
+                sorting.breakCycle(indices.get(key));
                 result.add(key);
                 if (reportPartOfCycle != null) reportPartOfCycle.accept(sortedCycle);
             } else {
-                keys.forEach(toDo.keySet()::remove);
-                result.addAll(keys);
+                for (int i : keys) {
+                    T t = nodes.get(i);
+                    if (reportIndependent != null) reportIndependent.accept(t);
+                    result.add(t);
+                }
             }
         }
         return result;
     }
 
-    // return a sub-map, starting off at some point, and then following links
-    private Map<T, Node<T>> startArbitrarily(Map<T, Node<T>> cycle) {
-        Map<T, Node<T>> sub = new HashMap<>();
-        Node<T> first = cycle.values().stream().findFirst().orElseThrow();
-        sub.put(first.t, first);
-        recursivelyAddToSubGraph(first, sub, cycle);
-        return sub;
+    /*
+    dependencies, as indices in the nodes list, without duplicates and without self-references
+     */
+    private int[][] indexedDependencies(List<T> nodes, Map<T, Integer> indices) {
+        int n = nodes.size();
+        int[][] dependsOn = new int[n][];
+        int[] seen = new int[n];
+        Arrays.fill(seen, -1);
+        int[] buffer = new int[n];
+        for (int i = 0; i < n; i++) {
+            List<T> list = nodeMap.get(nodes.get(i)).dependsOn;
+            int count = 0;
+            if (list != null) {
+                for (T d : list) {
+                    int j = indices.get(d);
+                    if (j != i && seen[j] != i) {
+                        seen[j] = i;
+                        buffer[count++] = j;
+                    }
+                }
+            }
+            dependsOn[i] = Arrays.copyOf(buffer, count);
+        }
+        return dependsOn;
+    }
+
+    private static int[][] indexedDependents(int[][] dependsOn) {
+        int n = dependsOn.length;
+        int[] count = new int[n];
+        for (int[] ds : dependsOn) {
+            for (int d : ds) count[d]++;
+        }
+        int[][] dependents = new int[n][];
+        for (int i = 0; i < n; i++) {
+            dependents[i] = new int[count[i]];
+            count[i] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int d : dependsOn[i]) dependents[d][count[d]++] = i;
+        }
+        return dependents;
+    }
+
+    /*
+    the capacity of the table of new HashMap<>(map), for a map of the given size: see HashMap.putMapEntries
+    and HashMap.tableSizeFor
+     */
+    static int copyCapacity(int size) {
+        int t = (int) (size / 0.75f + 1.0f);
+        return t <= 1 ? 1 : Integer.highestOneBit(t - 1) << 1;
     }
 
-    private void recursivelyAddToSubGraph(Node<T> start, Map<T, Node<T>> sub, Map<T, Node<T>> cycle) {
-        if (start.dependsOn != null) {
-            for (T t : start.dependsOn) {
-                if (!sub.containsKey(t) && cycle.containsKey(t)) {
-                    Node<T> node = nodeMap.get(t);
-                    sub.put(t, node);
-                    recursivelyAddToSubGraph(node, sub, cycle);
+    /*
+    The state of sorted(), on the indices of the nodes list.
+    A node is added when it is safe, when it is peeled off, or when it breaks a cycle. The counts of remaining
+    dependencies and dependents are kept up to date, so that each step starts from the nodes whose count
+    dropped to zero, rather than from all the remaining nodes.
+     */
+    private class Sorting {
+        final int[][] dependsOn;
+        final int[][] dependents;
+        final boolean[] selfReference;
+        final int[] hashes;
+        final boolean[] done;
+        int remaining;
+
+        // number of dependencies, and of dependents, that have not been added
+        final int[] pending;
+        final int[] dependentsLeft;
+
+        // nodes whose count dropped to zero since the last pass, resp. the last peeling
+        final int[] safe;
+        int safeCount;
+        final int[] withoutDependents;
+        int withoutDependentsCount;
+
+        // pass or round in which a node is added; only valid when the stamp is the current step
+        final int[] pass;
+        final int[] passStamp;
+        int step;
+        final int[] queue;
+
+        // iteration order of a copy of the remaining nodes, as a HashMap with mask + 1 buckets
+        int mask = -1;
+        int[] copyOrder;
+        final int[] rank;
+        int firstInCopyOrder;
+
+        // depth-first traversal
+        final int[] reachableStamp;
+        final int[] stack;
+        final int[] position;
+
+        Sorting(List<T> nodes, Map<T, Integer> indices) {
+            int n = nodes.size();
+            dependsOn = indexedDependencies(nodes, indices);
+            dependents = indexedDependents(dependsOn);
+            selfReference = new boolean[n];
+            hashes = new int[n];
+            for (int i = 0; i < n; i++) {
+                T t = nodes.get(i);
+                List<T> list = nodeMap.get(t).dependsOn;
+                selfReference[i] = list != null && list.contains(t);
+                int h = t.hashCode();
+                hashes[i] = h ^ (h >>> 16); // see HashMap.hash
+            }
+            done = new boolean[n];
+            remaining = n;
+            pending = new int[n];
+            dependentsLeft = new int[n];
+            safe = new int[n];
+            withoutDependents = new int[n];
+            for (int i = 0; i < n; i++) {
+                pending[i] = dependsOn[i].length;
+                if (pending[i] == 0) safe[safeCount++] = i;
+                dependentsLeft[i] = dependents[i].length;
+                if (dependentsLeft[i] == 0 && !selfReference[i]) withoutDependents[withoutDependentsCount++] = i;
+            }
+            pass = new int[n];
+            passStamp = new int[n];
+            queue = new int[n];
+            rank = new int[n];
+            reachableStamp = new int[n];
+            stack = new int[n];
+            position = new int[n];
+        }
+
+        /*
+        Computes the nodes that successive passes over the remaining nodes add, until a pass adds nothing, in the
+        order in which the passes add them. A pass visits the nodes in index order, so a node u is added in pass
+        max(0, pass(d) if d < u, pass(d) + 1 if d > u) over its dependencies d added in the same call.
+         */
+        int[] safeNodesInPassOrder() {
+            step++;
+            int count = 0;
+            for (int k = 0; k < safeCount; k++) {
+                int i = safe[k];
+                queue[count++] = i;
+                setPass(i, 0);
+            }
+            safeCount = 0;
+            for (int head = 0; head < count; head++) {
+                int u = queue[head];
+                for (int w : dependents[u]) {
+                    if (done[w]) continue;
+                    setPass(w, u > w ? pass[u] + 1 : pass[u]);
+                    if (--pending[w] == 0) queue[count++] = w;
+                }
+            }
+            // all the dependencies of these nodes have been added, so they do not change dependentsLeft
+            return addInOrder(count, false);
+        }
+
+        /*
+        Called when there are no safe nodes: computes the iteration order of new HashMap<>(toDo), with toDo
+        the remaining nodes in index order. A bucket holds the nodes in the order in which they were put.
+        The number of buckets only depends on the number of remaining nodes, as long as no bucket grows beyond
+        HashMap's treeify threshold, so the order is recomputed only when that number changes.
+         */
+        void copyRemaining() {
+            int newMask = copyCapacity(remaining) - 1;
+            if (newMask == mask) return;
+            mask = newMask;
+            long[] sortKeys = new long[remaining];
+            int count = 0;
+            for (int i = 0; i < done.length; i++) {
+                if (!done[i]) sortKeys[count++] = ((long) (hashes[i] & mask) << 32) | i;
+            }
+            Arrays.sort(sortKeys);
+            copyOrder = new int[count];
+            for (int k = 0; k < count; k++) {
+                int i = (int) sortKeys[k];
+                copyOrder[k] = i;
+                rank[i] = k;
+            }
+            firstInCopyOrder = 0;
+        }
+
+        /*
+        Peels off the nodes that no remaining node depends on, as rounds over the remaining nodes in the iteration
+        order of the copy, until a round peels nothing. A node u is peeled in round
+        max(0, round(d) if d comes before u, round(d) + 1 if d comes after u) over its dependents d.
+        None of the remaining nodes is safe, so a node always depends on another remaining node, and that node
+        is peeled later: peeling never makes a node safe.
+         */
+        int[] peel() {
+            step++;
+            int count = 0;
+            for (int k = 0; k < withoutDependentsCount; k++) {
+                int i = withoutDependents[k];
+                if (!done[i]) {
+                    queue[count++] = i;
+                    setPass(i, 0);
                 }
             }
+            withoutDependentsCount = 0;
+            for (int head = 0; head < count; head++) {
+                int u = queue[head];
+                for (int d : dependsOn[u]) {
+                    if (done[d]) continue;
+                    setPass(d, rank[u] < rank[d] ? pass[u] : pass[u] + 1);
+                    if (--dependentsLeft[d] == 0 && !selfReference[d]) queue[count++] = d;
+                }
+            }
+            return addInOrder(count, true);
+        }
+
+        /*
+        The nodes reachable from the first remaining node in the iteration order of the copy, in the order of a
+        depth-first traversal of the dependencies. Uses an explicit stack, because a cycle can be very long.
+         */
+        int[] reachableFromFirst() {
+            while (done[copyOrder[firstInCopyOrder]]) firstInCopyOrder++;
+            int first = copyOrder[firstInCopyOrder];
+            step++;
+            int count = 0;
+            int depth = 0;
+            queue[count++] = first;
+            reachableStamp[first] = step;
+            stack[depth] = first;
+            position[depth++] = 0;
+            while (depth > 0) {
+                int u = stack[depth - 1];
+                if (position[depth - 1] < dependsOn[u].length) {
+                    int d = dependsOn[u][position[depth - 1]++];
+                    if (!done[d] && reachableStamp[d] != step) {
+                        reachableStamp[d] = step;
+                        queue[count++] = d;
+                        stack[depth] = d;
+                        position[depth++] = 0;
+                    }
+                } else {
+                    depth--;
+                }
+            }
+            return Arrays.copyOf(queue, count);
+        }
+
+        void breakCycle(int key) {
+            done[key] = true;
+            remaining--;
+            for (int w : dependents[key]) {
+                if (!done[w] && --pending[w] == 0) safe[safeCount++] = w;
+            }
+            for (int d : dependsOn[key]) {
+                if (!done[d] && --dependentsLeft[d] == 0 && !selfReference[d]) {
+                    withoutDependents[withoutDependentsCount++] = d;
+                }
+            }
+        }
+
+        private void setPass(int i, int candidate) {
+            if (passStamp[i] != step) {
+                passStamp[i] = step;
+                pass[i] = candidate;
+            } else if (candidate > pass[i]) {
+                pass[i] = candidate;
+            }
+        }
+
+        /*
+        sorts the first count nodes in the queue on pass, then on index or on rank in the copy, and marks them done
+         */
+        private int[] addInOrder(int count, boolean onRank) {
+            long[] sortKeys = new long[count];
+            for (int k = 0; k < count; k++) {
+                int i = queue[k];
+                sortKeys[k] = ((long) pass[i] << 32) | (onRank ? rank[i] : i);
+            }
+            Arrays.sort(sortKeys);
+            int[] keys = new int[count];
+            for (int k = 0; k < count; k++) {
+                int j = (int) sortKeys[k];
+                int i = onRank ? copyOrder[j] : j;
+                keys[k] = i;
+                done[i] = true;
+            }
+            remaining -= count;
+            return keys;
         }
     }
 }
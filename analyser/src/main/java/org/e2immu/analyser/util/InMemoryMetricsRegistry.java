@@ -0,0 +1,91 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Default registry: keeps all counters and distributions in memory.
+A distribution keeps its count, total and maximum, which is sufficient to compute the average.
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, InMemoryCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, InMemoryDistribution> distributions = new ConcurrentHashMap<>();
+
+    @Override
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new InMemoryCounter());
+    }
+
+    @Override
+    public Distribution distribution(String name) {
+        return distributions.computeIfAbsent(name, n -> new InMemoryDistribution());
+    }
+
+    /*
+    A snapshot, sorted by name; a distribution "d" contributes "d.count", "d.total" and "d.max".
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, counter) -> result.put(name, counter.adder.sum()));
+        distributions.forEach((name, distribution) -> {
+            result.put(name + ".count", distribution.count.sum());
+            result.put(name + ".total", distribution.total.sum());
+            result.put(name + ".max", distribution.max.get());
+        });
+        return result;
+    }
+
+    public void reset() {
+        counters.values().forEach(counter -> counter.adder.reset());
+        distributions.values().forEach(distribution -> {
+            distribution.count.reset();
+            distribution.total.reset();
+            distribution.max.reset();
+        });
+    }
+
+    private static class InMemoryCounter implements Counter {
+        private final LongAdder adder = new LongAdder();
+
+        @Override
+        public void increment() {
+            adder.increment();
+        }
+
+        @Override
+        public void add(long amount) {
+            adder.add(amount);
+        }
+    }
+
+    private static class InMemoryDistribution implements Distribution {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+        @Override
+        public void record(long value) {
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.util;
+
+import org.e2immu.annotation.UtilityClass;
+
+/*
+Facade for the analyser's counters. Without a registry, which is the default, every method returns immediately.
+Install a registry with setRegistry, e.g. an InMemoryMetricsRegistry, optionally exposed through JMX by
+MetricsJmx.register. Counting then costs one counter update per event; the counters are looked up once,
+when the registry is installed.
+
+The registry is global to the JVM, so that a long-running process (a daemon, a Gradle build) accumulates the
+counters of successive runs.
+ */
+@UtilityClass
+public class Metrics {
+
+    private Metrics() {
+        // nothing here, cannot be instantiated
+        throw new UnsupportedOperationException();
+    }
+
+    public static final String EXPRESSIONS_CREATED = "expressions.created";
+    public static final String AND_NORMALISATIONS = "expressions.and.normalisations";
+    public static final String OR_NORMALISATIONS = "expressions.or.normalisations";
+    public static final String COMPARATOR_CACHE_HITS = "expressions.comparator.cacheHits";
+    public static final String COMPARATOR_CACHE_MISSES = "expressions.comparator.cacheMisses";
+    public static final String CAUSES_OF_DELAY_MERGES = "delays.merges";
+    public static final String OVERLOAD_LOOKUPS = "typeContext.overloadLookups";
+    public static final String BYTECODE_CLASSES_LOADED = "bytecode.classesLoaded";
+    public static final String RESOURCES_BYTES_READ = "resources.bytesRead";
+    public static final String ITERATIONS_PER_TYPE_CYCLE = "analyser.iterationsPerTypeCycle";
+
+    private record Instruments(MetricsRegistry registry,
+                               ClassValue<MetricsRegistry.Counter> expressionsCreated,
+                               MetricsRegistry.Counter andNormalisations,
+                               MetricsRegistry.Counter orNormalisations,
+                               MetricsRegistry.Counter comparatorCacheHits,
+                               MetricsRegistry.Counter comparatorCacheMisses,
+                               MetricsRegistry.Counter causesOfDelayMerges,
+                               MetricsRegistry.Counter overloadLookups,
+                               MetricsRegistry.Counter bytecodeClassesLoaded,
+                               MetricsRegistry.Counter resourcesBytesRead,
+                               MetricsRegistry.Distribution iterationsPerTypeCycle) {
+
+        Instruments(MetricsRegistry registry) {
+            this(registry, new ClassValue<>() {
+                        @Override
+                        protected MetricsRegistry.Counter computeValue(Class<?> type) {
+                            return registry.counter(EXPRESSIONS_CREATED + "." + type.getSimpleName());
+                        }
+                    },
+                    registry.counter(AND_NORMALISATIONS),
+                    registry.counter(OR_NORMALISATIONS),
+                    registry.counter(COMPARATOR_CACHE_HITS),
+                    registry.counter(COMPARATOR_CACHE_MISSES),
+                    registry.counter(CAUSES_OF_DELAY_MERGES),
+                    registry.counter(OVERLOAD_LOOKUPS),
+                    registry.counter(BYTECODE_CLASSES_LOADED),
+                    registry.counter(RESOURCES_BYTES_READ),
+                    registry.distribution(ITERATIONS_PER_TYPE_CYCLE));
+        }
+    }
+
+    private static volatile Instruments instruments;
+
+    /**
+     * @param registry the new registry, or null to stop counting
+     */
+    public static void setRegistry(MetricsRegistry registry) {
+        instruments = registry == null ? null : new Instruments(registry);
+    }
+
+    public static MetricsRegistry getRegistry() {
+        Instruments i = instruments;
+        return i == null ? null : i.registry;
+    }
+
+    public static boolean isEnabled() {
+        return instruments != null;
+    }
+
+    public static void expressionCreated(Class<?> expressionClass) {
+        Instruments i = instruments;
+        if (i != null) i.expressionsCreated.get(expressionClass).increment();
+    }
+
+    public static void andNormalisation() {
+        Instruments i = instruments;
+        if (i != null) i.andNormalisations.increment();
+    }
+
+    public static void orNormalisation() {
+        Instruments i = instruments;
+        if (i != null) i.orNormalisations.increment();
+    }
+
+    public static void comparatorCache(boolean hit) {
+        Instruments i = instruments;
+        if (i != null) (hit ? i.comparatorCacheHits : i.comparatorCacheMisses).increment();
+    }
+
+    public static void causesOfDelayMerge() {
+        Instruments i = instruments;
+        if (i != null) i.causesOfDelayMerges.increment();
+    }
+
+    public static void overloadLookup() {
+        Instruments i = instruments;
+        if (i != null) i.overloadLookups.increment();
+    }
+
+    public static void bytecodeClassLoaded() {
+        Instruments i = instruments;
+        if (i != null) i.bytecodeClassesLoaded.increment();
+    }
+
+    public static void bytesRead(int bytes) {
+        Instruments i = instruments;
+        if (i != null) i.resourcesBytesRead.add(bytes);
+    }
+
+    public static void typeCycleIterations(int iterations) {
+        Instruments i = instruments;
+        if (i != null) i.iterationsPerTypeCycle.record(iterations);
+    }
+}
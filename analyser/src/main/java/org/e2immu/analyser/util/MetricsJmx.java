@@ -0,0 +1,103 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.util;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/*
+Exposes the counters of an InMemoryMetricsRegistry as read-only attributes of a dynamic MBean, one attribute per
+counter, under the object name org.e2immu.analyser:type=Metrics. The operation "reset" sets all counters to 0.
+Counters created after registration appear as new attributes.
+ */
+public class MetricsJmx implements DynamicMBean {
+
+    public static final String OBJECT_NAME = "org.e2immu.analyser:type=Metrics";
+
+    private final InMemoryMetricsRegistry registry;
+
+    public MetricsJmx(InMemoryMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Installs a new in-memory registry in Metrics, and registers it with the platform MBean server,
+     * replacing an earlier registration.
+     *
+     * @return the registry
+     */
+    public static InMemoryMetricsRegistry register() {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) server.unregisterMBean(objectName);
+            server.registerMBean(new MetricsJmx(registry), objectName);
+        } catch (JMException jmException) {
+            throw new IllegalStateException("Cannot register metrics MBean", jmException);
+        }
+        Metrics.setRegistry(registry);
+        return registry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Long value = registry.snapshot().get(attribute);
+        if (value == null) throw new AttributeNotFoundException(attribute);
+        return value;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Long> snapshot = registry.snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            Long value = snapshot.get(attribute);
+            if (value != null) list.add(new Attribute(attribute, value));
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if ("reset".equals(actionName)) {
+            registry.reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] attributes = registry.snapshot().keySet().stream()
+                .map(name -> new MBeanAttributeInfo(name, "long", name, true, false, false))
+                .toArray(MBeanAttributeInfo[]::new);
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Set all counters to 0",
+                new MBeanParameterInfo[0], "void", MBeanOperationInfo.ACTION);
+        return new MBeanInfo(getClass().getName(), "e2immu analyser metrics", attributes, null,
+                new MBeanOperationInfo[]{reset}, null);
+    }
+}
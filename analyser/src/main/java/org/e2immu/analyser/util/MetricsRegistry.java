@@ -0,0 +1,41 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.util;
+
+/*
+A registry of named counters and distributions, the extension point of Metrics.
+The analyser itself only ships with an in-memory implementation, InMemoryMetricsRegistry, which can be exposed
+through JMX by MetricsMBean. A bridge to another metrics library (e.g. Micrometer) implements this interface
+outside the analyser, and is installed with Metrics.setRegistry.
+
+Implementations must be thread-safe; counter and distribution are called once per name by the facade,
+and the resulting objects are cached.
+ */
+public interface MetricsRegistry {
+
+    Counter counter(String name);
+
+    Distribution distribution(String name);
+
+    interface Counter {
+        void increment();
+
+        void add(long amount);
+    }
+
+    interface Distribution {
+        void record(long value);
+    }
+}
@@ -101,6 +101,7 @@ public class Resources {
             for (URL url : urls) {
                 try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
                     url.openStream().transferTo(byteArrayOutputStream);
+                    Metrics.bytesRead(byteArrayOutputStream.size());
                     return byteArrayOutputStream.toByteArray();
                 } catch (IOException e) {
                     throw new ResourceAccessException("URL = " + url + ", Cannot read? " + e.getMessage());
@@ -14,6 +14,9 @@
 
 package org.e2immu.analyser.analyser;
 
+import org.e2immu.analyser.analyser.delay.DelayFactory;
+import org.e2immu.analyser.model.MultiLevel;
+import org.e2immu.analyser.model.impl.LocationImpl;
 import org.junit.jupiter.api.Test;
 
 import java.util.Set;
@@ -51,4 +54,23 @@ public class TestProperty {
                     EvaluationContext.VALUE_PROPERTIES.contains(property), "for " + property);
         }
     }
+
+    @Test
+    public void testConservativeValue() {
+        assertEquals(DV.TRUE_DV, Property.MODIFIED_METHOD.conservativeValue());
+        assertEquals(DV.TRUE_DV, Property.CONTEXT_MODIFIED.conservativeValue());
+        assertEquals(MultiLevel.MUTABLE_DV, Property.IMMUTABLE.conservativeValue());
+        assertEquals(MultiLevel.NULLABLE_DV, Property.NOT_NULL_PARAMETER.conservativeValue());
+        assertEquals(DV.FALSE_DV, Property.FINAL.conservativeValue());
+
+        DV delay = DelayFactory.createDelay(LocationImpl.NOT_YET_SET, CauseOfDelay.Cause.INITIAL_VALUE);
+        Properties properties = Properties.writable();
+        properties.put(Property.MODIFIED_VARIABLE, delay);
+        properties.put(Property.CONTAINER, delay);
+        properties.put(Property.IMMUTABLE, MultiLevel.EFFECTIVELY_RECURSIVELY_IMMUTABLE_DV);
+        properties.replaceDelaysByConservativeValue();
+        assertEquals(DV.TRUE_DV, properties.get(Property.MODIFIED_VARIABLE));
+        assertEquals(MultiLevel.NOT_CONTAINER_DV, properties.get(Property.CONTAINER));
+        assertEquals(MultiLevel.EFFECTIVELY_RECURSIVELY_IMMUTABLE_DV, properties.get(Property.IMMUTABLE));
+    }
 }
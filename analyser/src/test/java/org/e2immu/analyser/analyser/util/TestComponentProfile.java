@@ -0,0 +1,53 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestComponentProfile {
+
+    @Test
+    public void test() {
+        ComponentProfile profile = new ComponentProfile();
+        profile.setIteration(0);
+        long t0 = System.nanoTime();
+        long a0 = profile.allocatedBytes();
+        profile.record("CMA", "computeModified", t0, a0);
+        profile.record("CMA", "computeModified", t0, a0);
+        profile.record("SA", "evaluationOfMainExpression", t0, a0);
+        profile.setIteration(1);
+        profile.record("CMA", "computeModified", t0, a0);
+
+        assertEquals(3, profile.getEntries().size());
+        ComponentProfile.Entry it0 = profile.getEntries().get(new ComponentProfile.Key("CMA", "computeModified", 0));
+        assertEquals(2, it0.getInvocations());
+
+        List<Map.Entry<ComponentProfile.Key, ComponentProfile.Entry>> totals = profile.totals();
+        assertEquals(2, totals.size());
+        ComponentProfile.Entry cma = totals.stream().filter(e -> "CMA".equals(e.getKey().analyserKind()))
+                .findFirst().orElseThrow().getValue();
+        assertEquals(3, cma.getInvocations());
+
+        String json = profile.toJson();
+        assertTrue(json.startsWith("[\n{\"kind\":\"CMA\",\"component\":\"computeModified\",\"iteration\":0,\"invocations\":2"),
+                json);
+        assertTrue(profile.table().contains("evaluationOfMainExpression"));
+    }
+}
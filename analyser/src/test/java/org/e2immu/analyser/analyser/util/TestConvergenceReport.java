@@ -0,0 +1,69 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import org.e2immu.analyser.analyser.AnalyserComponents;
+import org.e2immu.analyser.analyser.CauseOfDelay;
+import org.e2immu.analyser.analyser.delay.SimpleCause;
+import org.e2immu.analyser.model.Location;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.model.WithInspectionAndAnalysis;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestConvergenceReport {
+
+    private static AnalyserComponents.Info info(CauseOfDelay.Cause cause) {
+        return new AnalyserComponents.Info(new SimpleCause(Location.NOT_YET_SET, cause));
+    }
+
+    @Test
+    public void test() {
+        TypeInfo a = new TypeInfo("com.foo", "A");
+        TypeInfo b = new TypeInfo("com.foo", "B");
+        ConvergenceReport report = new ConvergenceReport();
+        ConvergenceReport.Cycle cycle = report.startCycle("com.foo.A, com.foo.B");
+
+        Map<WithInspectionAndAnalysis, AnalyserComponents.Info> it0 = new HashMap<>();
+        it0.put(a, info(CauseOfDelay.Cause.ECI));
+        it0.put(b, info(CauseOfDelay.Cause.ECI));
+        cycle.addIteration(it0);
+        Map<WithInspectionAndAnalysis, AnalyserComponents.Info> it1 = new HashMap<>();
+        it1.put(b, info(CauseOfDelay.Cause.ASPECT));
+        cycle.addIteration(it1);
+        cycle.setOutcome("DONE");
+
+        assertEquals(2, cycle.getIterations());
+        assertEquals(2, cycle.getCausesPerIteration().get(0).get(CauseOfDelay.Cause.ECI));
+        assertEquals(1, cycle.getCausesPerIteration().get(1).get(CauseOfDelay.Cause.ASPECT));
+
+        List<Map.Entry<String, ConvergenceReport.Blocking>> blocking = cycle.blockingLongest();
+        assertEquals("Type com.foo.B", blocking.get(0).getKey());
+        assertEquals(2, blocking.get(0).getValue().getIterations());
+        assertEquals(0, blocking.get(0).getValue().getFirstIteration());
+        assertEquals(1, blocking.get(0).getValue().getLastIteration());
+        assertEquals("Type com.foo.A", blocking.get(1).getKey());
+
+        String json = report.toJson();
+        assertTrue(json.contains("\"cycle\":\"com.foo.A, com.foo.B\",\"iterations\":2,\"outcome\":\"DONE\""), json);
+        assertTrue(json.contains("\"delaysPerIteration\":[{\"eci\":2},{\"aspect\":1}]"), json);
+    }
+}
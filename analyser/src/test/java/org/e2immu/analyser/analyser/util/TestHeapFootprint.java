@@ -0,0 +1,53 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import org.e2immu.analyser.model.Location;
+import org.e2immu.analyser.parser.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestHeapFootprint {
+
+    @Test
+    public void test() {
+        HeapFootprint heapFootprint = new HeapFootprint();
+        Message m1 = new Message(Location.NOT_YET_SET, Message.Label.EMPTY_LOOP, "some extra information");
+        Message m2 = new Message(Location.NOT_YET_SET, Message.Label.DIVISION_BY_ZERO, "");
+        HeapFootprint.CycleFootprint footprint = heapFootprint.measure("cycle", Stream.of(), Stream.of(m1, m2));
+
+        assertFalse(footprint.isTruncated());
+        assertTrue(footprint.objects(HeapFootprint.Category.MESSAGE) >= 3); // two messages, one string
+        assertTrue(footprint.bytes(HeapFootprint.Category.MESSAGE) >= 3 * 16);
+        assertEquals(0, footprint.bytes(HeapFootprint.Category.STATEMENT_ANALYSIS));
+        assertEquals(footprint.totalBytes(), footprint.bytes(HeapFootprint.Category.MESSAGE)
+                + footprint.bytes(HeapFootprint.Category.OTHER));
+
+        String json = heapFootprint.toJson();
+        assertTrue(json.startsWith("[\n{\"cycle\":\"cycle\",\"totalBytes\":" + footprint.totalBytes()), json);
+    }
+
+    @Test
+    public void testBounded() {
+        HeapFootprint heapFootprint = new HeapFootprint(1);
+        Message m1 = new Message(Location.NOT_YET_SET, Message.Label.EMPTY_LOOP, "some extra information");
+        HeapFootprint.CycleFootprint footprint = heapFootprint.measure("cycle", Stream.of(), Stream.of(m1));
+        assertTrue(footprint.isTruncated());
+        assertEquals(1, footprint.objects(HeapFootprint.Category.MESSAGE));
+    }
+}
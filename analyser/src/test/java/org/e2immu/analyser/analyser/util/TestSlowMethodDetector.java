@@ -0,0 +1,114 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.analyser.util;
+
+import org.e2immu.analyser.config.AnalyserConfiguration;
+import org.e2immu.analyser.model.Identifier;
+import org.e2immu.analyser.model.MethodInfo;
+import org.e2immu.analyser.model.TypeInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestSlowMethodDetector {
+
+    private static final String SOURCE = """
+            package a;
+            class X {
+                int f() {
+                    return 1;
+                }
+                int slow() { return 2; }
+                void g() {
+                    Runnable r = () -> { };
+                }
+            }
+            """;
+
+    private static Identifier.PositionalIdentifier range(int line, int pos, int endLine, int endPos) {
+        return new Identifier.PositionalIdentifier((short) line, (short) pos, (short) endLine, (short) endPos);
+    }
+
+    @Test
+    public void test() {
+        Identifier.PositionalIdentifier f = range(3, 13, 5, 5);
+        Identifier.PositionalIdentifier g = range(7, 14, 9, 5);
+        // nested in g, ignored
+        Identifier.PositionalIdentifier lambda = range(8, 28, 8, 30);
+        String stubbed = SlowMethodDetector.stub(SOURCE, List.of(new SlowMethodDetector.Body(lambda, null),
+                new SlowMethodDetector.Body(g, null), new SlowMethodDetector.Body(f, null)));
+        assertEquals("""
+                package a;
+                class X {
+                    int f() { throw new UnsupportedOperationException(); }
+                    int slow() { return 2; }
+                    void g() { throw new UnsupportedOperationException(); }
+                }
+                """, stubbed);
+    }
+
+    private static final String SOURCE_CONSTRUCTORS = """
+            package a;
+            class Y extends java.util.ArrayList<String> {
+                Y(int n) {
+                    super(n);
+                    add("x");
+                }
+                Y() {
+                    this(3);
+                }
+            }
+            """;
+
+    @Test
+    public void testKeepExplicitConstructorInvocation() {
+        Identifier.PositionalIdentifier y1 = range(3, 14, 6, 5);
+        Identifier.PositionalIdentifier super1 = range(4, 9, 4, 17);
+        Identifier.PositionalIdentifier y2 = range(7, 9, 9, 5);
+        Identifier.PositionalIdentifier this2 = range(8, 9, 8, 16);
+        String stubbed = SlowMethodDetector.stub(SOURCE_CONSTRUCTORS,
+                List.of(new SlowMethodDetector.Body(y1, super1), new SlowMethodDetector.Body(y2, this2)));
+        assertEquals("""
+                package a;
+                class Y extends java.util.ArrayList<String> {
+                    Y(int n) { super(n); throw new UnsupportedOperationException(); }
+                    Y() { this(3); throw new UnsupportedOperationException(); }
+                }
+                """, stubbed);
+    }
+
+    @Test
+    public void testSelfTime() {
+        SlowMethodDetector detector = new SlowMethodDetector(new AnalyserConfiguration.Builder().build());
+        TypeInfo x = new TypeInfo("a", "X");
+        MethodInfo g = new MethodInfo(Identifier.generate("test"), x, "g", "a.X.g()", "g()", false);
+        MethodInfo lambda = new MethodInfo(Identifier.generate("test"), x, "get", "a.X.$1.get()", "get()", false);
+
+        // g runs for 100 ns, 70 of which are spent in the lambda defined in one of its statements
+        detector.enter();
+        detector.enter();
+        detector.exit(lambda, 70L);
+        detector.exit(g, 100L);
+        assertEquals(70L, detector.selfNanos(lambda));
+        assertEquals(30L, detector.selfNanos(g));
+
+        // next iteration, without the lambda
+        detector.enter();
+        detector.exit(g, 10L);
+        assertEquals(40L, detector.selfNanos(g));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.annotationxml;
+
+import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.analyser.util.Resources;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAnalysisSummary {
+
+    @Test
+    public void test() throws IOException {
+        URL resourceUrl = getClass().getClassLoader().getResource("annotations/jdkAnnotations/java/lang/annotations.xml");
+        Objects.requireNonNull(resourceUrl);
+        AnnotationXmlReader reader = new AnnotationXmlReader(resourceUrl);
+        TypeItem booleanType = reader.typeItemsByFQName("java.lang.Boolean");
+        assertNotNull(booleanType);
+
+        File base = Files.createTempDirectory("e2immu").toFile();
+        File file = AnalysisSummary.write(base, List.of(booleanType));
+        assertEquals(new File(base, AnalysisSummary.RESOURCE), file);
+
+        Resources resources = new Resources();
+        resources.addDirectoryFromFileSystem(base);
+        AnalysisSummaryStore store = new AnalysisSummaryStore(resources, reader);
+        assertEquals(1, store.getNumberOfSummarizedTypes());
+
+        // the summary takes precedence over the fallback store
+        TypeItem fromSummary = store.typeItemsByFQName("java.lang.Boolean");
+        assertNotSame(booleanType, fromSummary);
+        assertEquals(booleanType.getAnnotations(), fromSummary.getAnnotations());
+        assertEquals(booleanType.getMethodItems().keySet(), fromSummary.getMethodItems().keySet());
+        assertEquals(booleanType.getFieldItems().keySet(), fromSummary.getFieldItems().keySet());
+
+        // other types come from the fallback store
+        assertSame(reader.typeItemsByFQName("java.lang.Integer"), store.typeItemsByFQName("java.lang.Integer"));
+        assertTrue(store.getNumberOfAnnotations() > reader.getNumberOfAnnotations());
+    }
+}
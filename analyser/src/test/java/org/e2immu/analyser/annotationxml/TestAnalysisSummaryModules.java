@@ -0,0 +1,187 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.annotationxml;
+
+import org.e2immu.analyser.analyser.DV;
+import org.e2immu.analyser.analyser.Property;
+import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.config.InputConfiguration;
+import org.e2immu.analyser.model.Inspector;
+import org.e2immu.analyser.model.MethodInfo;
+import org.e2immu.analyser.model.MultiLevel;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.parser.Parser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Analyses a library module, writes its analysis summary next to its compiled classes, and analyses a dependent module
+against these classes: once with the summary, once without. With the summary, the byte code inspector (MyClassVisitor)
+hands the summarized annotations to the shallow analyser, which then arrives at the properties of the analysis of
+the library's sources; without it, the shallow analyser only has the byte code to go by.
+ */
+public class TestAnalysisSummaryModules {
+
+    private static final String LIB = "org.e2immu.summary.lib";
+
+    private static final String COUNTER = """
+            package org.e2immu.summary.lib;
+
+            public class Counter {
+                private int count;
+
+                public void increment() {
+                    count++;
+                }
+
+                public int get() {
+                    return count;
+                }
+            }
+            """;
+
+    private static final String POINT = """
+            package org.e2immu.summary.lib;
+
+            public class Point {
+                private final int x;
+
+                public Point(int x) {
+                    this.x = x;
+                }
+
+                public int getX() {
+                    return x;
+                }
+            }
+            """;
+
+    private static final String APP = """
+            package org.e2immu.summary.app;
+
+            import org.e2immu.summary.lib.Counter;
+            import org.e2immu.summary.lib.Point;
+
+            public class App {
+                public static int sum(Point point, Counter counter) {
+                    return point.getX() + counter.get();
+                }
+            }
+            """;
+
+    private static final List<String> METHODS = List.of("Counter.increment", "Counter.get", "Point.getX");
+
+    @Test
+    public void test(@TempDir Path libSources, @TempDir Path appSources,
+                     @TempDir Path summarized, @TempDir Path plain) throws IOException {
+        write(libSources, LIB, "Counter", COUNTER);
+        write(libSources, LIB, "Point", POINT);
+        write(appSources, "org.e2immu.summary.app", "App", APP);
+
+        // 1. analyse the library, write its summary next to its classes
+        Parser libParser = new Parser(configuration(libSources));
+        Parser.RunResult libResult = libParser.run();
+        List<TypeItem> typeItems = libResult.sourceSortedTypes().primaryTypeStream().map(TypeItem::new).toList();
+        assertEquals(2, typeItems.size());
+        AnalysisSummary.write(summarized.toFile(), typeItems);
+        compile(libSources, summarized);
+        compile(libSources, plain);
+        Map<String, DV> analysed = properties(libParser);
+
+        // 2. analyse the dependent module against the library, with and without summary
+        Parser withSummary = new Parser(configuration(appSources, summarized.toString()));
+        withSummary.run();
+        Map<String, DV> fromSummary = properties(withSummary);
+
+        Parser withoutSummary = new Parser(configuration(appSources, plain.toString()));
+        withoutSummary.run();
+        Map<String, DV> shallow = properties(withoutSummary);
+
+        // the library types come from byte code in both cases
+        TypeInfo point = withSummary.getTypeContext().getFullyQualified(LIB + ".Point", true);
+        assertSame(Inspector.BYTE_CODE_INSPECTION, point.typeInspection.get().inspector());
+
+        assertEquals(analysed, fromSummary);
+        assertNotEquals(analysed, shallow);
+        // from byte code only, the shallow analyser cannot see that increment() modifies, or that Point is immutable
+        assertEquals(DV.TRUE_DV, fromSummary.get("Counter.increment " + Property.MODIFIED_METHOD));
+        assertEquals(DV.FALSE_DV, shallow.get("Counter.increment " + Property.MODIFIED_METHOD));
+        assertEquals(MultiLevel.EFFECTIVELY_RECURSIVELY_IMMUTABLE_DV, fromSummary.get("Point " + Property.IMMUTABLE));
+        assertEquals(MultiLevel.MUTABLE_DV, shallow.get("Point " + Property.IMMUTABLE));
+        assertEquals(MultiLevel.CONTAINER_DV, fromSummary.get("Counter " + Property.CONTAINER));
+        assertEquals(MultiLevel.NOT_CONTAINER_DV, shallow.get("Counter " + Property.CONTAINER));
+    }
+
+    private static Map<String, DV> properties(Parser parser) {
+        Map<String, DV> map = new TreeMap<>();
+        for (String type : List.of("Counter", "Point")) {
+            TypeInfo typeInfo = parser.getTypeContext().getFullyQualified(LIB + "." + type, true);
+            map.put(type + " " + Property.IMMUTABLE, typeInfo.typeAnalysis.get().getProperty(Property.IMMUTABLE));
+            map.put(type + " " + Property.CONTAINER, typeInfo.typeAnalysis.get().getProperty(Property.CONTAINER));
+        }
+        for (String method : METHODS) {
+            String[] split = method.split("\\.");
+            TypeInfo typeInfo = parser.getTypeContext().getFullyQualified(LIB + "." + split[0], true);
+            MethodInfo methodInfo = typeInfo.findUniqueMethod(split[1], 0);
+            map.put(method + " " + Property.MODIFIED_METHOD,
+                    methodInfo.methodAnalysis.get().getProperty(Property.MODIFIED_METHOD));
+        }
+        return map;
+    }
+
+    private static Configuration configuration(Path sources, String... classPath) {
+        return new Configuration.Builder()
+                .setInputConfiguration(new InputConfiguration.Builder()
+                        .addSources(sources.toString())
+                        .addClassPath("jmods/java.base.jmod")
+                        .addClassPath("src/main/resources/annotations/minimal")
+                        .addClassPath(classPath)
+                        .build())
+                .build();
+    }
+
+    private static void write(Path sources, String packageName, String simpleName, String content)
+            throws IOException {
+        Path directory = sources.resolve(packageName.replace('.', '/'));
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(simpleName + ".java"), content);
+    }
+
+    private static void compile(Path sources, Path classes) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> arguments;
+        try (Stream<Path> files = Files.walk(sources)) {
+            arguments = new ArrayList<>(List.of("-d", classes.toString()));
+            files.map(Path::toString).filter(f -> f.endsWith(".java")).forEach(arguments::add);
+        }
+        assertEquals(0, compiler.run(null, null, null, arguments.toArray(String[]::new)));
+        assertTrue(new File(classes.toFile(), LIB.replace('.', '/') + "/Point.class").isFile());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.annotationxml;
+
+import org.e2immu.analyser.analyser.Property;
+import org.e2immu.analyser.analysis.MethodAnalysis;
+import org.e2immu.analyser.analysis.TypeAnalysis;
+import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.analyser.config.AnnotatedAPIConfiguration;
+import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.config.InputConfiguration;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.parser.CommonTestRunner;
+import org.e2immu.analyser.parser.Input;
+import org.e2immu.analyser.parser.Message;
+import org.e2immu.analyser.parser.Parser;
+import org.e2immu.analyser.util.Resources;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAnnotatedAPIBundle {
+
+    @Test
+    public void test() throws IOException {
+        URL resourceUrl = getClass().getClassLoader().getResource("annotations/jdkAnnotations/java/lang/annotations.xml");
+        Objects.requireNonNull(resourceUrl);
+        AnnotationXmlReader reader = new AnnotationXmlReader(resourceUrl);
+
+        File sources = Files.createTempDirectory("e2immu").toFile();
+        File javaFile = new File(sources, "org/e2immu/annotatedapi/JavaLang.java");
+        assertTrue(javaFile.getParentFile().mkdirs());
+        Files.writeString(javaFile.toPath(), "package org.e2immu.annotatedapi;\npublic class JavaLang { }\n");
+        Resources resources = new Resources();
+        resources.addDirectoryFromFileSystem(sources);
+        String fingerprint = AnnotatedAPIBundle.fingerprint(resources, List.of());
+        assertEquals(fingerprint, AnnotatedAPIBundle.fingerprint(resources, List.of()));
+        assertNotEquals(fingerprint, AnnotatedAPIBundle.fingerprint(resources, List.of("java.lang")));
+
+        File file = new File(Files.createTempDirectory("e2immu").toFile(), "bundle/annotatedAPIs.bin");
+        new AnnotatedAPIBundle(fingerprint, reader.typeItemMap(), Set.of("org.e2immu.annotatedapi.JavaLang"))
+                .write(file);
+
+        AnnotatedAPIBundle bundle = AnnotatedAPIBundle.read(file, fingerprint);
+        assertNotNull(bundle);
+        assertEquals(Set.of("org.e2immu.annotatedapi.JavaLang"), bundle.sourcesToParse());
+        assertEquals(reader.typeItemMap().keySet(), bundle.typeItems().keySet());
+        assertEquals(reader.getNumberOfAnnotations(), bundle.getNumberOfAnnotations());
+        TypeItem booleanType = bundle.typeItemsByFQName("java.lang.Boolean");
+        assertEquals(reader.typeItemsByFQName("java.lang.Boolean").getMethodItems().keySet(),
+                booleanType.getMethodItems().keySet());
+
+        // without sources, the bundle cannot be stale
+        assertNotNull(AnnotatedAPIBundle.read(file, null));
+
+        // a bundle made by another version of the analyser is never read, not even without sources
+        File otherVersion = new File(file.getParentFile(), "otherVersion.bin");
+        bundle.write(otherVersion, AnnotatedAPIBundle.analyserVersion() + "-other");
+        assertNull(AnnotatedAPIBundle.read(otherVersion, fingerprint));
+        assertNull(AnnotatedAPIBundle.read(otherVersion, null));
+
+        // the bundle is stale as soon as one of the sources changes
+        Files.writeString(javaFile.toPath(), "package org.e2immu.annotatedapi;\npublic class JavaLang { int i; }\n");
+        String changed = AnnotatedAPIBundle.fingerprint(resources, List.of());
+        assertNotEquals(fingerprint, changed);
+        assertNull(AnnotatedAPIBundle.read(file, changed));
+        assertNull(AnnotatedAPIBundle.read(new File(file.getParentFile(), "absent.bin"), fingerprint));
+    }
+
+    /*
+    BasicCompanionMethods_0 is only @Constant("4") when the companion methods of List and ArrayList are present.
+     */
+    @Test
+    public void testSameAnalysisWithBundle() throws IOException {
+        File file = new File(Files.createTempDirectory("e2immu").toFile(), "annotatedAPIs.bin");
+
+        Parser parser = new Parser(configuration(new AnnotatedAPIConfiguration.Builder()));
+        Parser.RunResult runResult = parser.run();
+        AnnotatedAPIBundle bundle = parser.createAnnotatedAPIBundle(runResult.annotatedAPISortedTypes()
+                .primaryTypeStream().toList());
+        assertTrue(bundle.sourcesToParse().contains("org.e2immu.annotatedapi.java.JavaUtil"));
+        assertFalse(bundle.typeItems().containsKey("java.util.List"));
+        assertTrue(bundle.typeItems().containsKey("java.io.PrintStream"));
+        bundle.write(file);
+        List<String> withoutBundle = summary(parser, runResult);
+
+        Configuration withBundle = configuration(new AnnotatedAPIConfiguration.Builder()
+                .setAnnotatedAPIBundle(file.getPath()));
+        assertNotNull(AnnotatedAPIBundle.read(file, Input.annotatedAPIFingerprint(withBundle)));
+        Parser parser2 = new Parser(withBundle);
+        Parser.RunResult runResult2 = parser2.run();
+        assertEquals(withoutBundle, summary(parser2, runResult2));
+    }
+
+    private static Configuration configuration(AnnotatedAPIConfiguration.Builder annotatedAPI) {
+        InputConfiguration inputConfiguration = new InputConfiguration.Builder()
+                .addSources("src/test/java")
+                .addRestrictSourceToPackages("org.e2immu.analyser.parser.start.testexample.BasicCompanionMethods_0")
+                .addClassPath(InputConfiguration.DEFAULT_CLASSPATH)
+                .addClassPath(Input.JAR_WITH_PATH_PREFIX + "org/slf4j")
+                .addClassPath(Input.JAR_WITH_PATH_PREFIX + "org/junit/jupiter/api")
+                .addClassPath(Input.JAR_WITH_PATH_PREFIX + "ch/qos/logback/core/spi")
+                .build();
+        annotatedAPI.addAnnotatedAPISourceDirs(CommonTestRunner.DEFAULT_ANNOTATED_API_DIRS)
+                .addReadAnnotatedAPIPackages("org.e2immu.annotatedapi.java");
+        return new Configuration.Builder()
+                .setInputConfiguration(inputConfiguration)
+                .setAnnotatedAPIConfiguration(annotatedAPI.build())
+                .build();
+    }
+
+    /*
+    The messages about, and the analysis of, the source types; the analysis of types from parsed annotated API sources,
+    and of types from the bundle's items.
+    Messages about the other types are not compared: which types the shallow analyser has already seen when it reports
+    them depends on the order in which the types are inspected, which differs with and without bundle.
+     */
+    private static List<String> summary(Parser parser, Parser.RunResult runResult) {
+        List<String> summary = new ArrayList<>();
+        Set<TypeInfo> sourceTypes = runResult.sourceSortedTypes().primaryTypeStream().collect(Collectors.toSet());
+        parser.getMessages()
+                .filter(message -> sourceTypes.contains(message.location().getInfo().primaryType()))
+                .map(Message::toString).sorted().forEach(summary::add);
+        assertFalse(summary.isEmpty());
+        List<TypeInfo> types = new ArrayList<>(runResult.sourceSortedTypes().primaryTypeStream().toList());
+        for (String fqn : List.of("java.util.Collection", "java.util.List", "java.util.ArrayList",
+                "java.io.PrintStream", "java.util.function.Function")) {
+            types.add(runResult.typeMap().get(fqn));
+        }
+        for (TypeInfo typeInfo : types) {
+            TypeAnalysis typeAnalysis = typeInfo.typeAnalysis.get();
+            summary.add(typeInfo.fullyQualifiedName + " " + typeAnalysis.getProperty(Property.IMMUTABLE)
+                    + " " + typeAnalysis.getProperty(Property.CONTAINER));
+            // the shallow analyser does not analyse private methods
+            typeInfo.typeInspection.get().methodsAndConstructors().stream()
+                    .filter(methodInfo -> methodInfo.methodAnalysis.isSet()).forEach(methodInfo -> {
+                MethodAnalysis methodAnalysis = methodInfo.methodAnalysis.get();
+                summary.add(methodInfo.fullyQualifiedName
+                        + " " + methodAnalysis.getProperty(Property.MODIFIED_METHOD)
+                        + " " + methodAnalysis.getProperty(Property.INDEPENDENT)
+                        + " " + methodAnalysis.getSingleReturnValue()
+                        + " " + methodInfo.methodInspection.get().getCompanionMethods().keySet().stream()
+                        .map(Object::toString).sorted().toList());
+            });
+        }
+        return summary;
+    }
+}
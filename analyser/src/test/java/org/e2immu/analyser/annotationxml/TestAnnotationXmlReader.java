@@ -15,6 +15,7 @@
 package org.e2immu.analyser.annotationxml;
 
 import org.e2immu.analyser.annotationxml.model.TypeItem;
+import org.e2immu.analyser.config.AnnotationXmlConfiguration;
 import org.e2immu.analyser.util.Resources;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -25,6 +26,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -38,7 +40,7 @@ public class TestAnnotationXmlReader {
         final URL resourceUrl = getClass().getClassLoader().getResource("annotations/jdkAnnotations/java/lang/annotations.xml");
         Objects.requireNonNull(resourceUrl);
         AnnotationXmlReader reader = new AnnotationXmlReader(resourceUrl);
-        TypeItem booleanType = reader.typeItemMap.get("java.lang.Boolean");
+        TypeItem booleanType = reader.typeItemMap().get("java.lang.Boolean");
         assertNotNull(booleanType);
         System.out.println(reader
                 .summary()
@@ -48,13 +50,13 @@ public class TestAnnotationXmlReader {
                 .collect(Collectors.joining("\n")));
         File outputFile = File.createTempFile("e2immu", "TestAnnotationReader.xml");
         outputFile.deleteOnExit();
-        AnnotationXmlWriter.writeSinglePackage(outputFile, reader.typeItemMap.values());
+        AnnotationXmlWriter.writeSinglePackage(outputFile, reader.typeItemMap().values());
         LOGGER.info("Wrote to {}", outputFile);
 
-        assertTrue(reader.typeItemMap.size() > 20);
+        assertTrue(reader.typeItemMap().size() > 20);
         AnnotationXmlReader reader2 = new AnnotationXmlReader(outputFile.toURI().toURL());
 
-        assertEquals(reader.typeItemMap.keySet(), reader2.typeItemMap.keySet());
+        assertEquals(reader.typeItemMap().keySet(), reader2.typeItemMap().keySet());
         // TODO more tests would be good
     }
 
@@ -63,7 +65,7 @@ public class TestAnnotationXmlReader {
         Resources resources = new Resources();
         resources.addDirectoryFromFileSystem(new File("src/main/resources/annotations/jdkAnnotations"));
         AnnotationXmlReader annotationParser = new AnnotationXmlReader(resources);
-        TypeItem booleanType = annotationParser.typeItemMap.get("java.lang.Boolean");
+        TypeItem booleanType = annotationParser.typeItemMap().get("java.lang.Boolean");
         assertNotNull(booleanType);
         System.out.println(annotationParser
                 .summary()
@@ -73,6 +75,39 @@ public class TestAnnotationXmlReader {
                 .collect(Collectors.joining("\n")));
     }
 
+    @Test
+    public void testBinaryCache() throws IOException {
+        File base = Files.createTempDirectory("e2immu").toFile();
+        File directory = new File(base, "java/lang");
+        assertTrue(directory.mkdirs());
+        File xmlFile = new File(directory, AnnotationXmlReader.ANNOTATIONS_XML);
+        Files.copy(new File("src/main/resources/annotations/jdkAnnotations/java/lang/annotations.xml").toPath(),
+                xmlFile.toPath());
+        Resources resources = new Resources();
+        resources.addDirectoryFromFileSystem(base);
+        AnnotationXmlConfiguration configuration = new AnnotationXmlConfiguration.Builder()
+                .setAnnotationXmlBinaryCache(true).build();
+
+        AnnotationXmlReader reader = new AnnotationXmlReader(resources, configuration);
+        File cacheFile = AnnotationXmlBinaryCache.cacheFile(xmlFile);
+        assertTrue(cacheFile.canRead());
+        AnnotationXmlReader fromCache = new AnnotationXmlReader(resources, configuration);
+        AnnotationXmlReader fromXml = new AnnotationXmlReader(xmlFile.toURI().toURL());
+
+        assertEquals(fromXml.numberOfAnnotations, reader.numberOfAnnotations);
+        assertEquals(fromXml.numberOfAnnotations, fromCache.numberOfAnnotations);
+        assertEquals(fromXml.summary(), fromCache.summary());
+        assertEquals(fromXml.typeItemMap().keySet(), fromCache.typeItemMap().keySet());
+        TypeItem booleanType = fromCache.typeItemsByFQName("java.lang.Boolean");
+        assertNotNull(booleanType);
+        assertEquals(fromXml.typeItemsByFQName("java.lang.Boolean").getMethodItems().keySet(),
+                booleanType.getMethodItems().keySet());
+
+        // the cache is not used anymore when the XML file changes
+        assertTrue(xmlFile.setLastModified(xmlFile.lastModified() + 1000));
+        assertNull(AnnotationXmlBinaryCache.readHeader(xmlFile, cacheFile));
+    }
+
     @Test
     public void testPattern() {
         assertTrue(AnnotationXmlReader.METHOD_WITH_COMPANION
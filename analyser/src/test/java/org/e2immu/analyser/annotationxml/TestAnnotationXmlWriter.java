@@ -14,6 +14,7 @@
 
 package org.e2immu.analyser.annotationxml;
 
+import org.e2immu.analyser.annotationxml.model.*;
 import org.e2immu.analyser.config.AnnotatedAPIConfiguration;
 import org.e2immu.analyser.config.AnnotationXmlConfiguration;
 import org.e2immu.analyser.config.Configuration;
@@ -23,10 +24,30 @@ import org.e2immu.analyser.parser.Input;
 import org.e2immu.analyser.parser.Parser;
 import org.e2immu.analyser.resolver.SortedTypes;
 import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.util.Set;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 /*
   description = "Convert all annotations in the annotatedAPIs to annotation.xml files"
@@ -71,4 +92,166 @@ public class TestAnnotationXmlWriter {
         Set<TypeInfo> types = res.primaryTypeStream().collect(Collectors.toSet());
         AnnotationXmlWriter.write(configuration.annotationXmlConfiguration(), types);
     }
+
+    @Test
+    public void testIncremental() throws IOException {
+        URL resourceUrl = Objects.requireNonNull(getClass().getClassLoader()
+                .getResource("annotations/jdkAnnotations/java/lang/annotations.xml"));
+        AnnotationXmlReader reader = new AnnotationXmlReader(resourceUrl);
+        Map<String, List<TypeItem>> typeItemsPerPackage = Map.of("java.lang", List.copyOf(reader.typeItemMap().values()),
+                "java.lang.empty", List.of());
+        File base = Files.createTempDirectory("e2immu").toFile();
+
+        assertEquals(2, AnnotationXmlWriter.writeAllPackages(base, typeItemsPerPackage, true));
+        File written = new File(base, "java/lang/annotations.xml");
+        byte[] content = Files.readAllBytes(written.toPath());
+        assertEquals(0, AnnotationXmlWriter.writeAllPackages(base, typeItemsPerPackage, true));
+        assertEquals(2, AnnotationXmlWriter.writeAllPackages(base, typeItemsPerPackage, false));
+        assertArrayEquals(content, Files.readAllBytes(written.toPath()));
+
+        AnnotationXmlReader reader2 = new AnnotationXmlReader(written.toURI().toURL());
+        assertEquals(reader.summary(), reader2.summary());
+    }
+
+    /*
+    The streaming writer must produce the same bytes as the DOM Transformer it replaced, see transformerWrite.
+    First, for every annotations.xml file of the JDK in the resources.
+     */
+    @Test
+    public void testSameAsTransformerOnJdkAnnotations() throws IOException, URISyntaxException {
+        URL jdkAnnotations = Objects.requireNonNull(getClass().getClassLoader()
+                .getResource("annotations/jdkAnnotations"));
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(Path.of(jdkAnnotations.toURI()))) {
+            files = stream.filter(path -> path.endsWith(AnnotationXmlReader.ANNOTATIONS_XML)).sorted().toList();
+        }
+        assertTrue(files.size() > 10, "Have " + files.size());
+        for (Path file : files) {
+            AnnotationXmlReader reader = new AnnotationXmlReader(file.toUri().toURL());
+            assertSameAsTransformer(reader.typeItemMap().values(), file.toString());
+        }
+    }
+
+    /*
+    Then, for names and values that need escaping, in attributes and in the text of a companion definition.
+     */
+    @Test
+    public void testSameAsTransformerWithEscapes() throws IOException {
+        TypeItem typeItem = new TypeItem("org.e2immu.Escape<T>");
+        typeItem.getAnnotations().add(new Annotation.Builder("org.e2immu.annotation.E2Container")
+                .addValue(new Value("after", "a&b"))
+                .addValue(new Value(null, "\"quoted\" <tag> 'single'"))
+                .build());
+        FieldItem fieldItem = AnnotationXmlReader.fieldItem(typeItem, "map&\"list\"");
+        fieldItem.getAnnotations().add(new Annotation.Builder("org.e2immu.annotation.NotNull").build());
+        FieldItem noAnnotations = AnnotationXmlReader.fieldItem(typeItem, "empty");
+        assertTrue(noAnnotations.getAnnotations().isEmpty());
+
+        MethodItem methodItem = AnnotationXmlReader.methodItem(typeItem,
+                "put(java.util.Map<K, V>, java.lang.String)", "java.util.Map<K, V>");
+        methodItem.getAnnotations().add(new Annotation.Builder("org.e2immu.annotation.Modified").build());
+        ParameterItem parameterItem = new ParameterItem(1);
+        parameterItem.getAnnotations().add(new Annotation.Builder("org.e2immu.annotation.NotNull")
+                .addValue(new Value("content", "tab\there, line\nfeed, cr\r, bell\u0007, del\u007f, é, \uD83D\uDE00"))
+                .build());
+        methodItem.getParameterItems().add(parameterItem);
+        AnnotationXmlReader.addCompanionMethodItem(methodItem, true, "K,V", "boolean", "put$Postcondition",
+                "map,s", "0<s.length()&&s!=\"a\" > 1\n\tand\r\u0007\u0085 é \uD83D\uDE00");
+        AnnotationXmlReader.addCompanionMethodItem(methodItem, false, "", "int", "put$Size", "", " ");
+
+        AnnotationXmlReader.methodItem(typeItem, "Escape()", null);
+        typeItem.freeze();
+
+        assertSameAsTransformer(List.of(typeItem), "escapes");
+        assertSameAsTransformer(List.of(new TypeItem("org.e2immu.Empty")), "no items");
+        assertSameAsTransformer(List.of(), "no types");
+    }
+
+    private static void assertSameAsTransformer(Collection<TypeItem> typeItems, String what) throws IOException {
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        AnnotationXmlWriter.write(streamed, typeItems);
+        ByteArrayOutputStream transformed = new ByteArrayOutputStream();
+        transformerWrite(transformed, typeItems);
+        assertEquals(transformed.toString(StandardCharsets.UTF_8), streamed.toString(StandardCharsets.UTF_8), what);
+        assertArrayEquals(transformed.toByteArray(), streamed.toByteArray(), what);
+    }
+
+    // the DOM-based implementation of AnnotationXmlWriter, before it was replaced by the streaming one
+
+    private static void transformerWrite(ByteArrayOutputStream outputStream, Collection<TypeItem> typeItems)
+            throws IOException {
+        try {
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+            Element root = document.createElement("root");
+            document.appendChild(root);
+            typeItems.stream().sorted().forEach(typeItem -> transformerAddType(document, root, typeItem));
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2");
+            transformer.transform(new DOMSource(document), new StreamResult(outputStream));
+        } catch (ParserConfigurationException | TransformerException e) {
+            throw new IOException("Problems with XML writing: " + e.getMessage());
+        }
+    }
+
+    private static void transformerAddType(Document document, Element root, TypeItem typeItem) {
+        if (!typeItem.getAnnotations().isEmpty()) {
+            transformerEmit(document, root, typeItem.name, typeItem.getAnnotations(), null, null);
+        }
+        typeItem.getFieldItems().values().stream().sorted().forEach(fieldItem -> {
+            if (!fieldItem.getAnnotations().isEmpty()) {
+                transformerEmit(document, root, typeItem.name + " " + fieldItem.name, fieldItem.getAnnotations(),
+                        null, null);
+            }
+        });
+        typeItem.getMethodItems().values().stream().sorted().forEach(methodItem -> {
+            String returnType = methodItem.returnType != null ? (" " + methodItem.returnType) : "";
+            String methodName = typeItem.name + returnType + " " + methodItem.name;
+            if (!methodItem.getAnnotations().isEmpty()) {
+                transformerEmit(document, root, methodName, methodItem.getAnnotations(), null, null);
+            }
+            methodItem.getParameterItems().stream().sorted().forEach(parameterItem -> {
+                if (!parameterItem.getAnnotations().isEmpty()) {
+                    transformerEmit(document, root, methodName + " " + parameterItem.index,
+                            parameterItem.getAnnotations(), null, null);
+                }
+            });
+            for (MethodItem companionItem : methodItem.getCompanionMethods()) {
+                String companionName = (companionItem.isStatic ? "static " : "") +
+                        (companionItem.typeParametersCsv.isEmpty() ? "" : "<" + companionItem.typeParametersCsv + "> ") +
+                        (companionItem.returnType != null ? companionItem.returnType + " " : "") +
+                        companionItem.name;
+                transformerEmit(document, root, methodName + " :: " + companionName, List.of(),
+                        companionItem.companionValue, companionItem.paramNamesCsv);
+            }
+        });
+    }
+
+    private static void transformerEmit(Document document,
+                                        Element root,
+                                        String itemName,
+                                        Collection<Annotation> annotations,
+                                        String companionExpression,
+                                        String paramNamesCsv) {
+        Element item = document.createElement("item");
+        item.setAttribute("name", itemName);
+        if (companionExpression != null && !companionExpression.isBlank()) {
+            Element definitionElement = document.createElement("definition");
+            definitionElement.setAttribute("paramNames", paramNamesCsv);
+            definitionElement.setTextContent(companionExpression);
+            item.appendChild(definitionElement);
+        }
+        root.appendChild(item);
+        for (Annotation annotation : annotations) {
+            Element annotationElement = document.createElement("annotation");
+            annotationElement.setAttribute("name", annotation.name());
+            item.appendChild(annotationElement);
+            for (Value value : annotation.values()) {
+                Element val = document.createElement("val");
+                if (value.name != null) val.setAttribute("name", value.name);
+                val.setAttribute("val", value.val);
+                annotationElement.appendChild(val);
+            }
+        }
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.model.expression;
+
+import org.e2immu.analyser.model.LocalVariable;
+import org.e2immu.analyser.model.ParameterizedType;
+import org.e2immu.analyser.model.expression.util.ExpressionComparator;
+import org.e2immu.analyser.model.variable.LocalVariableReference;
+import org.e2immu.analyser.parser.Primitives;
+import org.e2immu.analyser.parser.impl.PrimitivesImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestVariableExpressionSortKey {
+
+    private final Primitives primitives = new PrimitivesImpl();
+
+    private LocalVariableReference makeLocalVariableInt(String name) {
+        return new LocalVariableReference(new LocalVariable.Builder()
+                .setName(name)
+                .setParameterizedType(primitives.intParameterizedType())
+                .setOwningType(primitives.stringTypeInfo())
+                .build());
+    }
+
+    @Test
+    public void testVariableFieldOrderEqualsStringOrder() {
+        List<VariableExpression.VariableField> suffixes = new ArrayList<>();
+        for (String assignmentId : new String[]{null, "1", "1-E", "0.0.1", "10", "2-E"}) {
+            for (int statementTime : new int[]{0, 1, 2, 9, 10, 19, 100}) {
+                suffixes.add(new VariableExpression.VariableField(statementTime, assignmentId));
+            }
+        }
+        for (VariableExpression.VariableField vf1 : suffixes) {
+            for (VariableExpression.VariableField vf2 : suffixes) {
+                assertEquals(Integer.signum(vf1.toString().compareTo(vf2.toString())),
+                        Integer.signum(vf1.compareTo(vf2)), vf1 + " vs " + vf2);
+            }
+        }
+    }
+
+    @Test
+    public void testVariablesComparedStructurally() {
+        LocalVariableReference lvrI = makeLocalVariableInt("i");
+        VariableExpression i = new VariableExpression(lvrI);
+        VariableExpression j = new VariableExpression(makeLocalVariableInt("j"));
+        VariableExpression i0 = new VariableExpression(lvrI, new VariableExpression.VariableField(0, null),
+                null, null);
+        VariableExpression i1 = new VariableExpression(lvrI, new VariableExpression.VariableField(1, null),
+                null, null);
+
+        // same order as the rendered ids i, i$0, i$1, j
+        List<VariableExpression> sorted = List.of(i, i0, i1, j);
+        for (int k = 0; k < sorted.size(); k++) {
+            for (int l = 0; l < sorted.size(); l++) {
+                assertEquals(Integer.signum(Integer.compare(k, l)),
+                        Integer.signum(ExpressionComparator.SINGLETON.compare(sorted.get(k), sorted.get(l))),
+                        sorted.get(k) + " vs " + sorted.get(l));
+            }
+        }
+    }
+
+    @Test
+    public void testTypesComparedStructurally() {
+        List<ParameterizedType> types = List.of(primitives.intParameterizedType(),
+                new ParameterizedType(primitives.intTypeInfo(), 1),
+                primitives.stringParameterizedType(),
+                new ParameterizedType(primitives.stringTypeInfo(), 1),
+                new ParameterizedType(primitives.stringTypeInfo(), 2));
+        for (ParameterizedType pt1 : types) {
+            for (ParameterizedType pt2 : types) {
+                int c = ParameterizedType.compareStructurally(pt1, pt2);
+                assertEquals(pt1.equals(pt2), c == 0, pt1 + " vs " + pt2);
+                assertEquals(-Integer.signum(c), Integer.signum(ParameterizedType.compareStructurally(pt2, pt1)));
+            }
+        }
+        assertTrue(ParameterizedType.compareStructurally(types.get(0), types.get(2)) < 0);
+        assertTrue(ParameterizedType.compareStructurally(types.get(2), types.get(3)) < 0);
+        assertTrue(ParameterizedType.compareStructurally(types.get(3), types.get(4)) < 0);
+    }
+}
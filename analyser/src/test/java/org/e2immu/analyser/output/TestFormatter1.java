@@ -67,7 +67,7 @@ public class TestFormatter1 {
         Formatter formatter = new Formatter(options);
 
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, outputBuilder.list, fi -> {
+        Forward.forward(options, outputBuilder.list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -89,7 +89,7 @@ public class TestFormatter1 {
                 .add(new Text("method")).add(Symbol.SEMICOLON);
 
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, outputBuilder.list, fi -> {
+        Forward.forward(options, outputBuilder.list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -121,7 +121,7 @@ public class TestFormatter1 {
 
         // the space is recognized by the forward method
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, createExample1().list, fi -> {
+        Forward.forward(options, createExample1().list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -130,7 +130,7 @@ public class TestFormatter1 {
         assertNull(info.get(8).string());
         assertEquals(" int", info.get(9).string());
 
-        //assertEquals(53, new Formatter(options).lookAhead(createExample1().list, 120));
+        //assertEquals(53, new Formatter(options).lookAhead(createExample1().list(), 120));
 
         assertEquals("public int method(int p1, int p2) { return p1 + p2; }\n",
                 new Formatter(options).write(createExample1()));
@@ -216,7 +216,7 @@ public class TestFormatter1 {
         // around 90 characters long
 
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, createExample2().list, fi -> {
+        Forward.forward(options, createExample2().list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -225,7 +225,7 @@ public class TestFormatter1 {
         assertEquals(" somewhatLonger", info.get(14).string());
         assertNull(info.get(16).string()); // ensure that the MID is there
 
-        //assertEquals(89, new Formatter(options).lookAhead(createExample2().list, 120));
+        //assertEquals(89, new Formatter(options).lookAhead(createExample2().list(), 120));
 
         assertEquals("public int method(int p1,int p2,double somewhatLonger,double d){log(p1,p2);return p1+p2;}\n",
                 new Formatter(options).write(createExample2()));
@@ -352,7 +352,7 @@ public class TestFormatter1 {
     public void testGuide4Compact() {
         FormattingOptions options = new FormattingOptions.Builder().setLengthOfLine(120).setCompact(true).build();
         Formatter formatter = new Formatter(options);
-        List<OutputElement> list = createExample4().list;
+        List<OutputElement> list = createExample4().list();
         assertEquals(41, list.size());
 
         List<ForwardInfo> info = new ArrayList<>();
@@ -453,7 +453,7 @@ public class TestFormatter1 {
     public void testGuide5() {
         FormattingOptions options = new FormattingOptions.Builder().setLengthOfLine(120).setCompact(false).build();
         Formatter formatter = new Formatter(options);
-        List<OutputElement> list = createExample5(false).list;
+        List<OutputElement> list = createExample5(false).list();
 
         // the two guides one after the other should not result in a blank line
         assertTrue(list.get(55) instanceof Guide);
@@ -545,7 +545,7 @@ public class TestFormatter1 {
         FormattingOptions options = new FormattingOptions.Builder().setLengthOfLine(80)
                 .setSpacesInTab(2).setTabsForLineSplit(2).build();
         Formatter formatter = new Formatter(options);
-        List<OutputElement> list = createExample7().list;
+        List<OutputElement> list = createExample7().list();
         assertEquals(30, list.size());
 
         List<ForwardInfo> info = new ArrayList<>();
@@ -581,7 +581,7 @@ public class TestFormatter1 {
                 .add(Symbol.RIGHT_PARENTHESIS) // 12
                 .add(Symbol.SEMICOLON); // 13
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, outputBuilder.list, fi -> {
+        Forward.forward(options, outputBuilder.list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -605,7 +605,7 @@ public class TestFormatter1 {
                 .add(new Text("c")) //5
                 .add(Symbol.SEMICOLON); // 6
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, outputBuilder.list, fi -> {
+        Forward.forward(options, outputBuilder.list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -632,7 +632,7 @@ public class TestFormatter1 {
                 .add(Symbol.RIGHT_BRACE)
                 .add(Symbol.SEMICOLON); // 11
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, outputBuilder.list, fi -> {
+        Forward.forward(options, outputBuilder.list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -645,7 +645,7 @@ public class TestFormatter1 {
         FormattingOptions options = new FormattingOptions.Builder().setLengthOfLine(15)
                 .setSpacesInTab(2).setTabsForLineSplit(1).build();
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, createExample0().list, fi -> {
+        Forward.forward(options, createExample0().list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -658,7 +658,7 @@ public class TestFormatter1 {
         FormattingOptions options = new FormattingOptions.Builder().setLengthOfLine(15)
                 .setSpacesInTab(2).setTabsForLineSplit(1).build();
         List<ForwardInfo> info = new ArrayList<>();
-        Forward.forward(options, createExample0().list, fi -> {
+        Forward.forward(options, createExample0().list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
@@ -680,7 +680,7 @@ public class TestFormatter1 {
                 .add(guideGenerator.start())
                 .add(new Text("int")); // 5
         List<ForwardInfo> info = new ArrayList<>();
-        boolean interrupted = Forward.forward(options, outputBuilder.list, fi -> {
+        boolean interrupted = Forward.forward(options, outputBuilder.list(), fi -> {
             info.add(fi);
             System.out.println(fi);
             return false;
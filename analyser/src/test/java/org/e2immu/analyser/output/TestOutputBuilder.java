@@ -29,11 +29,31 @@ public class TestOutputBuilder {
                 new OutputBuilder().add(new Text("b")),
                 new OutputBuilder().add(new Text("c")), };
         OutputBuilder all = Arrays.stream(outputBuilders).collect(OutputBuilder.joining(Symbol.COMMA));
-        System.out.println(all.list);
-        assertEquals(9, all.list.size());
-        assertTrue(all.list.get(0) instanceof Guide guide && guide.position() == Guide.Position.START);
-        assertTrue(all.list.get(3) instanceof Guide guide && guide.position() == Guide.Position.MID);
-        assertTrue(all.list.get(6) instanceof Guide guide && guide.position() == Guide.Position.MID);
-        assertTrue(all.list.get(8) instanceof Guide guide && guide.position() == Guide.Position.END);
+        System.out.println(all.list());
+        assertEquals(9, all.list().size());
+        assertTrue(all.list().get(0) instanceof Guide guide && guide.position() == Guide.Position.START);
+        assertTrue(all.list().get(3) instanceof Guide guide && guide.position() == Guide.Position.MID);
+        assertTrue(all.list().get(6) instanceof Guide guide && guide.position() == Guide.Position.MID);
+        assertTrue(all.list().get(8) instanceof Guide guide && guide.position() == Guide.Position.END);
+    }
+
+    @Test
+    public void testDeepNesting() {
+        OutputBuilder nested = new OutputBuilder().add(new Text("x"));
+        for (int i = 0; i < 100_000; i++) {
+            nested = new OutputBuilder().add(Symbol.LEFT_PARENTHESIS).add(nested).add(Symbol.RIGHT_PARENTHESIS);
+        }
+        assertEquals(200_001, nested.size());
+        assertEquals(200_001, nested.list().size());
+        assertEquals("x", nested.get(100_000).minimal());
+    }
+
+    @Test
+    public void testSnapshot() {
+        OutputBuilder b = new OutputBuilder().add(new Text("b"));
+        OutputBuilder a = new OutputBuilder().add(new Text("a")).add(b);
+        b.add(new Text("c"));
+        assertEquals("ab", a.toString());
+        assertEquals("bc", b.toString());
     }
 }
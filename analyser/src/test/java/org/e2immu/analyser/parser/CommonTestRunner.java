@@ -15,6 +15,7 @@
 
 package org.e2immu.analyser.parser;
 
+import org.e2immu.analyser.analyser.util.IterationStatistics;
 import org.e2immu.analyser.config.*;
 import org.e2immu.analyser.inspector.TypeContext;
 import org.e2immu.analyser.model.impl.LocationImpl;
@@ -22,6 +23,8 @@ import org.e2immu.analyser.output.Formatter;
 import org.e2immu.analyser.output.FormattingOptions;
 import org.e2immu.analyser.output.OutputBuilder;
 import org.e2immu.analyser.resolver.SortedTypes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +41,12 @@ public abstract class CommonTestRunner extends VisitorTestSupport {
     public static final int DONT_CARE = -1;
     public static final int BIG = 200; // Expressions_0 currently at 97
     public final boolean withAnnotatedAPIs;
+    // iteration counts of the last call to testClass, testSupportAndUtilClasses
+    protected IterationStatistics iterationStatistics;
+    // bytes allocated by the parser in the last call, -1 when not measured (see PerformanceBaselines)
+    protected long allocatedBytes = -1L;
+    private String testId;
+    private int executions;
 
     protected CommonTestRunner(boolean withAnnotatedAPIs) {
         this.withAnnotatedAPIs = withAnnotatedAPIs;
@@ -47,6 +56,12 @@ public abstract class CommonTestRunner extends VisitorTestSupport {
         this.withAnnotatedAPIs = false;
     }
 
+    @BeforeEach
+    public void registerTestId(TestInfo testInfo) {
+        testId = getClass().getSimpleName() + testInfo.getTestMethod().map(m -> "." + m.getName()).orElse("");
+        executions = 0;
+    }
+
     protected TypeContext testClass(String className, int errorsToExpect, int warningsToExpect, DebugConfiguration debugConfiguration) throws IOException {
         AnnotatedAPIConfiguration.Builder builder = new AnnotatedAPIConfiguration.Builder();
         if (withAnnotatedAPIs) {
@@ -154,7 +169,17 @@ public abstract class CommonTestRunner extends VisitorTestSupport {
     private TypeContext execute(Configuration configuration, int errorsToExpect, int warningsToExpect) throws IOException {
         configuration.initializeLoggers();
         Parser parser = new Parser(configuration);
+        boolean measure = PerformanceBaselines.isActive();
+        long allocatedBefore = measure ? PerformanceBaselines.currentThreadAllocatedBytes() : -1L;
         SortedTypes types = parser.run().sourceSortedTypes();
+        iterationStatistics = parser.getIterationStatistics();
+        if (measure) {
+            long allocatedAfter = PerformanceBaselines.currentThreadAllocatedBytes();
+            allocatedBytes = allocatedBefore < 0 ? -1L : allocatedAfter - allocatedBefore;
+            // a test method may run the parser more than once
+            String id = executions++ == 0 ? testId : testId + "#" + executions;
+            PerformanceBaselines.verify(id, iterationStatistics, allocatedBytes);
+        }
 
         if (!mustSee.isEmpty()) {
             mustSee.forEach((label, iteration) -> LOGGER.error("MustSee: {} has only reached iteration {}", label, iteration));
@@ -0,0 +1,166 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.parser;
+
+import org.e2immu.analyser.analyser.util.IterationStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+Performance regression gate for the test corpora, activated by the system property "e2immu.performance".
+
+In "check" mode, the number of iterations, the number of analyser calls and the bytes allocated by the
+thread running the parser are compared to the baselines in /performance/baselines.properties on the test class path.
+A value exceeding its baseline by more than the tolerance fails the test, and so does a test without a baseline.
+In "record" mode, the values are appended to the file in the system property "e2immu.performance.output",
+in the format of the baseline file, so that they can be checked in.
+Without the system property, nothing is measured or checked.
+
+Allocations are measured on the thread running the parser only. The analysis itself runs on that thread, but work
+handed to other threads, such as the concurrent writing of annotation XML files, is not included.
+
+The Gradle task "performanceTest", part of "check", runs the parser/own tests in check mode;
+"-Pe2immu.performance=record" records.
+ */
+public class PerformanceBaselines {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PerformanceBaselines.class);
+
+    public static final String MODE_PROPERTY = "e2immu.performance";
+    public static final String OUTPUT_PROPERTY = "e2immu.performance.output";
+    public static final String BASELINE_RESOURCE = "/performance/baselines.properties";
+
+    public static final String ITERATIONS = "iterations";
+    public static final String ANALYSER_CALLS = "analyserCalls";
+    public static final String ALLOCATED_BYTES = "allocatedBytes";
+
+    public static final double DEFAULT_ITERATION_TOLERANCE = 0.0;
+    public static final double DEFAULT_ALLOCATION_TOLERANCE = 0.2;
+
+    public enum Mode {OFF, CHECK, RECORD}
+
+    private static Properties baselines;
+
+    private PerformanceBaselines() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static boolean isActive() {
+        return mode() != Mode.OFF;
+    }
+
+    static Mode mode() {
+        String value = System.getProperty(MODE_PROPERTY, "off");
+        try {
+            return Mode.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException illegalArgumentException) {
+            throw new IllegalArgumentException("Unknown value '" + value + "' of system property " + MODE_PROPERTY
+                    + ", expected one of off, check, record");
+        }
+    }
+
+    /*
+    Bytes allocated by the current thread so far; the parser runs on the thread of the test.
+    Returns -1 when the JVM does not support the measurement.
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+                && threadMXBean.isThreadAllocatedMemorySupported()) {
+            if (!threadMXBean.isThreadAllocatedMemoryEnabled()) threadMXBean.setThreadAllocatedMemoryEnabled(true);
+            return threadMXBean.getCurrentThreadAllocatedBytes();
+        }
+        return -1L;
+    }
+
+    public static void verify(String testId, IterationStatistics iterationStatistics, long allocatedBytes) {
+        LOGGER.info("Performance of {}: {} iteration(s), {} analyser call(s), {} allocated bytes", testId,
+                iterationStatistics.iterations(), iterationStatistics.analyserCalls(), allocatedBytes);
+        switch (mode()) {
+            case CHECK -> check(testId, iterationStatistics, allocatedBytes);
+            case RECORD -> record(testId, iterationStatistics, allocatedBytes);
+        }
+    }
+
+    private static void check(String testId, IterationStatistics iterationStatistics, long allocatedBytes) {
+        Properties properties = baselines();
+        double iterationTolerance = tolerance(properties, ITERATIONS, DEFAULT_ITERATION_TOLERANCE);
+        double allocationTolerance = tolerance(properties, ALLOCATED_BYTES, DEFAULT_ALLOCATION_TOLERANCE);
+        checkValue(properties, testId, ITERATIONS, iterationStatistics.iterations(), iterationTolerance);
+        checkValue(properties, testId, ANALYSER_CALLS, iterationStatistics.analyserCalls(), iterationTolerance);
+        if (allocatedBytes >= 0) {
+            checkValue(properties, testId, ALLOCATED_BYTES, allocatedBytes, allocationTolerance);
+        }
+    }
+
+    private static double tolerance(Properties properties, String what, double defaultValue) {
+        String value = properties.getProperty("tolerance." + what);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    private static void checkValue(Properties properties, String testId, String what, long actual, double tolerance) {
+        String value = properties.getProperty(testId + "." + what);
+        assertNotNull(value, () -> "No performance baseline for " + testId + "." + what + " in " + BASELINE_RESOURCE
+                + ", record one with -Pe2immu.performance=record");
+        long baseline = Long.parseLong(value.trim());
+        long limit = baseline + (long) Math.floor(baseline * tolerance);
+        assertTrue(actual <= limit, () -> "Performance regression in " + testId + ": " + what + " = " + actual
+                + ", baseline " + baseline + ", limit " + limit);
+        if (actual < baseline - (long) Math.floor(baseline * tolerance)) {
+            LOGGER.info("{}: {} = {} is well below the baseline {}, consider recording new baselines",
+                    testId, what, actual, baseline);
+        }
+    }
+
+    private static synchronized Properties baselines() {
+        if (baselines == null) {
+            baselines = new Properties();
+            try (InputStream inputStream = PerformanceBaselines.class.getResourceAsStream(BASELINE_RESOURCE)) {
+                if (inputStream != null) {
+                    baselines.load(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+                } else {
+                    LOGGER.warn("Cannot find {} on the class path", BASELINE_RESOURCE);
+                }
+            } catch (IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+        }
+        return baselines;
+    }
+
+    private static synchronized void record(String testId, IterationStatistics iterationStatistics, long allocatedBytes) {
+        String output = System.getProperty(OUTPUT_PROPERTY, "build/performance/baselines.properties");
+        File file = new File(output);
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new UncheckedIOException(new IOException("Cannot create directory " + parent));
+        }
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            writer.write(testId + "." + ITERATIONS + "=" + iterationStatistics.iterations() + "\n");
+            writer.write(testId + "." + ANALYSER_CALLS + "=" + iterationStatistics.analyserCalls() + "\n");
+            if (allocatedBytes >= 0) {
+                writer.write(testId + "." + ALLOCATED_BYTES + "=" + allocatedBytes + "\n");
+            }
+        } catch (IOException ioException) {
+            throw new UncheckedIOException(ioException);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.parser.basics;
+
+import org.e2immu.analyser.analyser.Property;
+import org.e2immu.analyser.analysis.MethodAnalysis;
+import org.e2immu.analyser.analysis.StatementAnalysis;
+import org.e2immu.analyser.config.AnalyserConfiguration;
+import org.e2immu.analyser.config.DebugConfiguration;
+import org.e2immu.analyser.inspector.TypeContext;
+import org.e2immu.analyser.model.MethodInfo;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.parser.CommonTestRunner;
+import org.e2immu.analyser.parser.basics.testexample.Basics_1;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Test_00_Basics_1_budget extends CommonTestRunner {
+
+    public Test_00_Basics_1_budget() {
+        super(true);
+    }
+
+    /*
+    Basics_1 needs more than one iteration; with a budget of one iteration, the conservative fallback kicks in:
+    a warning per analyser that was still delayed, and everything, down to the statements, is done.
+    The convergence report records the fallback as the outcome of the type cycle.
+     */
+    @Test
+    public void test() throws IOException {
+        Path convergenceReport = Files.createTempFile("convergence", ".json");
+        TypeContext typeContext = testClass("Basics_1", 0, 4, new DebugConfiguration.Builder().build(),
+                new AnalyserConfiguration.Builder()
+                        .setTypeCycleIterationBudget(1)
+                        .setConservativeFallback(true)
+                        .setConvergenceReportFile(convergenceReport.toString())
+                        .build());
+        TypeInfo basics1 = typeContext.getFullyQualified(Basics_1.class);
+        basics1.typeInspection.get().methodsAndConstructors().forEach(methodInfo -> {
+            MethodAnalysis methodAnalysis = methodInfo.methodAnalysis.get();
+            assertFalse(methodAnalysis.statementAnalysisReleased());
+            assertAllStatementsDone(methodAnalysis.getFirstStatement());
+        });
+        MethodInfo getF1 = basics1.findUniqueMethod("getF1", 0);
+        MethodAnalysis getF1Analysis = getF1.methodAnalysis.get();
+        assertTrue(getF1Analysis.getSingleReturnValue().isDone());
+        assertTrue(getF1Analysis.getProperty(Property.MODIFIED_METHOD).isDone());
+
+        String json = Files.readString(convergenceReport);
+        Files.delete(convergenceReport);
+        assertTrue(json.contains("\"iterations\":1,\"outcome\":\"CONSERVATIVE_FALLBACK\""), json);
+    }
+
+    private static void assertAllStatementsDone(StatementAnalysis statementAnalysis) {
+        if (statementAnalysis == null) return;
+        // throws an AssertionError when anything is still delayed
+        statementAnalysis.internalAllDoneCheck();
+        assertTrue(statementAnalysis.flowData().getGuaranteedToBeReachedInMethod().isDone(), statementAnalysis.index());
+        assertTrue(statementAnalysis.stateData().valueOfExpressionIsDelayed().isDone(), statementAnalysis.index());
+        statementAnalysis.navigationData().blocks.get()
+                .forEach(optSa -> optSa.ifPresent(Test_00_Basics_1_budget::assertAllStatementsDone));
+        assertAllStatementsDone(statementAnalysis.navigationData().next.get().orElse(null));
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.parser.basics;
+
+import org.e2immu.analyser.analysis.MethodAnalysis;
+import org.e2immu.analyser.config.AnalyserConfiguration;
+import org.e2immu.analyser.config.DebugConfiguration;
+import org.e2immu.analyser.inspector.TypeContext;
+import org.e2immu.analyser.model.MethodInfo;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.parser.CommonTestRunner;
+import org.e2immu.analyser.parser.basics.testexample.Basics_1;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Test_00_Basics_1_release extends CommonTestRunner {
+
+    public Test_00_Basics_1_release() {
+        super(true);
+    }
+
+    // same results as Test_00_Basics_1, but the statement analyses are gone after the analysis
+    @Test
+    public void test() throws IOException {
+        TypeContext typeContext = testClass("Basics_1", 0, 2, new DebugConfiguration.Builder().build(),
+                new AnalyserConfiguration.Builder().setReleaseStatementAnalysis(true).build());
+        TypeInfo basics1 = typeContext.getFullyQualified(Basics_1.class);
+        MethodInfo getF1 = basics1.findUniqueMethod("getF1", 0);
+        MethodAnalysis methodAnalysis = getF1.methodAnalysis.get();
+        assertTrue(methodAnalysis.statementAnalysisReleased());
+        assertNull(methodAnalysis.getFirstStatement());
+        assertNull(methodAnalysis.getLastStatement());
+        assertFalse(methodAnalysis.incrementsStatementTime());
+        assertTrue(methodAnalysis.getSingleReturnValue().isDone());
+    }
+}
@@ -15,7 +15,10 @@
 package org.e2immu.analyser.parser.functional;
 
 import org.e2immu.analyser.analyser.DV;
+import org.e2immu.analyser.analyser.PrimaryTypeAnalyser;
 import org.e2immu.analyser.analyser.Property;
+import org.e2immu.analyser.analyser.TypeAnalyser;
+import org.e2immu.analyser.analyser.impl.ComputingTypeAnalyser;
 import org.e2immu.analyser.config.AnalyserConfiguration;
 import org.e2immu.analyser.config.DebugConfiguration;
 import org.e2immu.analyser.model.Expression;
@@ -30,6 +33,10 @@ import org.e2immu.analyser.visitor.*;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collector;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -474,4 +481,46 @@ public class Test_57_Lambda extends CommonTestRunner {
                         .build(),
                 new AnalyserConfiguration.Builder().setComputeFieldAnalyserAcrossAllMethods(false).build());
     }
+
+    @Test
+    public void test_14() throws IOException {
+        StatementAnalyserVisitor statementAnalyserVisitor = d -> {
+            if (("method".equals(d.methodInfo().name) || "anonymous".equals(d.methodInfo().name))
+                    && "0".equals(d.statementId())) {
+                // all types defined in the statement share a single primary type analyser
+                List<PrimaryTypeAnalyser> local = d.context().evaluationContext().getLocalPrimaryTypeAnalysers();
+                assertEquals(1, local.size());
+                AtomicInteger typeAnalysers = new AtomicInteger();
+                local.get(0).loopOverAnalysers(analyser -> {
+                    if (analyser instanceof TypeAnalyser) typeAnalysers.incrementAndGet();
+                });
+                assertEquals(2, typeAnalysers.get());
+            }
+        };
+        Map<TypeInfo, TypeAnalyserVisitor.Data> lastSeen = new HashMap<>();
+        TypeAnalyserVisitor typeAnalyserVisitor = d -> {
+            if (!"Lambda_14".equals(d.typeInfo().simpleName)) {
+                lastSeen.put(d.typeInfo(), d);
+            }
+            if (d.typeInspection().isLambdaImplementation()) {
+                assertFalse(d.statuses().containsKey(ComputingTypeAnalyser.ANALYSE_UTILITY_CLASS));
+                assertDv(d, DV.FALSE_DV, Property.UTILITY_CLASS);
+            }
+        };
+        testClass("Lambda_14", 0, 0, new DebugConfiguration.Builder()
+                .addStatementAnalyserVisitor(statementAnalyserVisitor)
+                .addAfterTypeAnalyserVisitor(typeAnalyserVisitor)
+                .build());
+
+        // three lambdas and one anonymous type; whether written directly or computed, the values are the same
+        assertEquals(3, lastSeen.values().stream().filter(d -> d.typeInspection().isLambdaImplementation()).count());
+        assertEquals(4, lastSeen.size());
+        for (TypeAnalyserVisitor.Data d : lastSeen.values()) {
+            assertEquals(DV.FALSE_DV, d.typeAnalysis().getProperty(Property.UTILITY_CLASS), d.label());
+            assertEquals(DV.FALSE_DV, d.typeAnalysis().getProperty(Property.SINGLETON), d.label());
+            assertEquals(DV.FALSE_DV, d.typeAnalysis().getProperty(Property.EXTENSION_CLASS), d.label());
+            assertTrue(d.typeAnalysis().approvedPreconditionsStatus(false).isDone(), d.label());
+            assertFalse(d.typeAnalysis().approvedPreconditionsIsNotEmpty(false), d.label());
+        }
+    }
 }
@@ -0,0 +1,44 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.parser.functional.testexample;
+
+import java.util.function.Supplier;
+
+public class Lambda_14 {
+    private final int i;
+
+    public Lambda_14(int i) {
+        this.i = i;
+    }
+
+    private static int sum(Supplier<Integer> s1, Supplier<Integer> s2) {
+        return s1.get() + s2.get();
+    }
+
+    // two lambdas defined in the same statement
+    public int method(int k) {
+        return sum(() -> i, () -> k);
+    }
+
+    // an anonymous type and a lambda defined in the same statement
+    public int anonymous(int k) {
+        return sum(new Supplier<>() {
+            @Override
+            public Integer get() {
+                return i;
+            }
+        }, () -> k);
+    }
+}
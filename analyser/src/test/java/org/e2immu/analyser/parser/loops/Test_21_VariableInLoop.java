@@ -95,7 +95,7 @@ public class Test_21_VariableInLoop extends CommonTestRunner {
                         String expected = switch (d.iteration()) {
                             case 0 -> "<null-check>&&(<null-check>||!<m:isPresent>)?<v:sa>:null";
                             case 1, 2 -> "(<m:isPresent>||<null-check>)&&(<null-check>||!<null-check>)?null:<vl:sa>";
-                            default -> "([(sa$1.navigationData()).next.get().get(),((null==sa$1?firstStatementAnalyser:(sa$1.navigationData()).next.isPresent()&&null!=(sa$1.navigationData()).next.get().orElse(null)?(sa$1.navigationData()).next.get().get():sa$1).navigationData()).next.isPresent(),(sa$1.navigationData()).next.isPresent(),((null==sa$1?firstStatementAnalyser:(sa$1.navigationData()).next.isPresent()&&null!=(sa$1.navigationData()).next.get().orElse(null)?(sa$1.navigationData()).next.get().get():sa$1).navigationData()).next.get().orElse(null),(sa$1.navigationData()).next.get().orElse(null),firstStatementAnalyser,sa$1,instance type boolean])?null:null==sa$1?firstStatementAnalyser:(sa$1.navigationData()).next.isPresent()&&null!=(sa$1.navigationData()).next.get().orElse(null)?(sa$1.navigationData()).next.get().get():sa$1";
+                            default -> "([(sa$1.navigationData()).next.get().get(),(sa$1.navigationData()).next.isPresent(),((null==sa$1?firstStatementAnalyser:(sa$1.navigationData()).next.isPresent()&&null!=(sa$1.navigationData()).next.get().orElse(null)?(sa$1.navigationData()).next.get().get():sa$1).navigationData()).next.isPresent(),(sa$1.navigationData()).next.get().orElse(null),((null==sa$1?firstStatementAnalyser:(sa$1.navigationData()).next.isPresent()&&null!=(sa$1.navigationData()).next.get().orElse(null)?(sa$1.navigationData()).next.get().get():sa$1).navigationData()).next.get().orElse(null),firstStatementAnalyser,sa$1,instance type boolean])?null:null==sa$1?firstStatementAnalyser:(sa$1.navigationData()).next.isPresent()&&null!=(sa$1.navigationData()).next.get().orElse(null)?(sa$1.navigationData()).next.get().get():sa$1";
                         };
                         assertEquals(expected, d.currentValue().toString());
                     }
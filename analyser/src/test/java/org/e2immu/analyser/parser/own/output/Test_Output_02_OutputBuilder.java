@@ -41,7 +41,7 @@ public class Test_Output_02_OutputBuilder extends CommonTestRunner {
     @Test
     public void test() throws IOException {
         StatementAnalyserVisitor statementAnalyserVisitor = d -> {
-            if ("apply".equals(d.methodInfo().name) && "$4".equals(d.methodInfo().typeInfo.simpleName)) {
+            if ("apply".equals(d.methodInfo().name) && "$7".equals(d.methodInfo().typeInfo.simpleName)) {
                 if ("2.0.0".equals(d.statementId())) { // a.add(separator); add is fluent; the identity is there because "a" is the first parameter of apply
                     String expected = d.iteration() == 0 ? "<m:add>" : "nullable instance type OutputBuilder/*@Identity*//*{L a:statically_assigned:0}*//*@NotNull*/";
                     assertEquals(expected, d.statementAnalysis().stateData().valueOfExpression.get().toString());
@@ -52,13 +52,13 @@ public class Test_Output_02_OutputBuilder extends CommonTestRunner {
             if ("add".equals(d.methodInfo().name)) {
                 String typeOfParameter = d.methodInfo().methodInspection.get().getParameters().get(0).parameterizedType.typeInfo.simpleName;
                 if ("OutputBuilder".equals(typeOfParameter)) {
-                    assertDv(d, DV.TRUE_DV, Property.MODIFIED_METHOD);
+                    assertDv(d, 1, DV.TRUE_DV, Property.MODIFIED_METHOD);
                 } else if ("OutputElement".equals(typeOfParameter)) {
                     assertDv(d, DV.TRUE_DV, Property.MODIFIED_METHOD);
                 } else fail();
             }
         };
-        testSupportAndUtilClasses(List.of(OutputBuilder.class, OutputElement.class, Qualifier.class,
+        testSupportAndUtilClasses(List.of(OutputBuilder.class, Rope.class, OutputElement.class, Qualifier.class,
                         FormattingOptions.class, Guide.class, ElementarySpace.class, Space.class, TypeName.class),
                 0, 0, new DebugConfiguration.Builder()
                         .addStatementAnalyserVisitor(statementAnalyserVisitor)
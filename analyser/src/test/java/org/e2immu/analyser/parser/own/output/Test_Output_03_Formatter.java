@@ -17,6 +17,7 @@ package org.e2immu.analyser.parser.own.output;
 
 import org.e2immu.analyser.analyser.DV;
 import org.e2immu.analyser.analyser.Property;
+import org.e2immu.analyser.analyser.util.IterationStatistics;
 import org.e2immu.analyser.analysis.impl.FieldAnalysisImpl;
 import org.e2immu.analyser.config.AnalyserConfiguration;
 import org.e2immu.analyser.config.DebugConfiguration;
@@ -43,11 +44,22 @@ public class Test_Output_03_Formatter extends CommonTestRunner {
     // without the whole formatter package
     @Test
     public void test_0() throws IOException {
-        testSupportAndUtilClasses(List.of(ElementarySpace.class, OutputElement.class, FormattingOptions.class,
-                        TypeName.class, Qualifier.class, Guide.class, Symbol.class, Space.class, Split.class),
-                0, 0, new DebugConfiguration.Builder()
-                        .build(),
+        List<Class<?>> classes = List.of(ElementarySpace.class, OutputElement.class, FormattingOptions.class,
+                TypeName.class, Qualifier.class, Guide.class, Symbol.class, Space.class, Split.class);
+        testSupportAndUtilClasses(classes, 0, 0, new DebugConfiguration.Builder().build(),
                 new AnalyserConfiguration.Builder().setComputeFieldAnalyserAcrossAllMethods(true).build());
+        IterationStatistics perPrimaryType = iterationStatistics;
+
+        // OutputElement and its implementations form a type cycle of multiple primary types: escalating
+        // allowBreakDelay only for the primary types without progress must not cost extra iterations
+        testSupportAndUtilClasses(classes, 0, 0, new DebugConfiguration.Builder().build(),
+                new AnalyserConfiguration.Builder().setComputeFieldAnalyserAcrossAllMethods(true)
+                        .setBreakDelayPerTypeCycle(true).build());
+        IterationStatistics perTypeCycle = iterationStatistics;
+        assertTrue(perPrimaryType.primaryTypes() > perPrimaryType.typeCycles());
+        assertEquals(perTypeCycle.typeCycles(), perPrimaryType.typeCycles());
+        assertTrue(perPrimaryType.iterations() <= perTypeCycle.iterations(),
+                "Per primary type: " + perPrimaryType + "; per type cycle: " + perTypeCycle);
     }
 
     // the real deal
@@ -17,6 +17,8 @@ package org.e2immu.analyser.parser.start;
 
 import org.e2immu.analyser.analyser.DV;
 import org.e2immu.analyser.analyser.Property;
+import org.e2immu.analyser.analyser.util.IterationStatistics;
+import org.e2immu.analyser.config.AnalyserConfiguration;
 import org.e2immu.analyser.config.DebugConfiguration;
 import org.e2immu.analyser.inspector.MethodResolution;
 import org.e2immu.analyser.model.Expression;
@@ -56,9 +58,18 @@ public class Test_20_CyclicReferences extends CommonTestRunner {
                 }
             }
         };
-        testClass("CyclicReferences_0", 0, 0, new DebugConfiguration.Builder()
+        DebugConfiguration debugConfiguration = new DebugConfiguration.Builder()
                 .addStatementAnalyserVariableVisitor(statementAnalyserVariableVisitor)
-                .build());
+                .build();
+        testClass("CyclicReferences_0", 0, 0, debugConfiguration);
+        IterationStatistics perPrimaryType = iterationStatistics;
+
+        // every type cycle consists of a single primary type: escalating allowBreakDelay per primary type
+        // or for the whole type cycle must make no difference at all
+        testClass("CyclicReferences_0", 0, 0, debugConfiguration,
+                new AnalyserConfiguration.Builder().setBreakDelayPerTypeCycle(true).build());
+        assertEquals(iterationStatistics.primaryTypes(), iterationStatistics.typeCycles());
+        assertEquals(iterationStatistics, perPrimaryType);
     }
 
     @Test
@@ -0,0 +1,87 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.util;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.config.InputConfiguration;
+import org.e2immu.analyser.parser.Input;
+import org.e2immu.analyser.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAnalyserEvents {
+
+    private static final List<String> EVENTS = List.of("org.e2immu.ClassPathAssembly", "org.e2immu.ByteCodeInspection",
+            "org.e2immu.Parse", "org.e2immu.Resolve", "org.e2immu.AnnotatedAPIAnalysis",
+            "org.e2immu.PrimaryTypeAnalyserIteration");
+
+    @Test
+    public void test() throws IOException {
+        Path file = Files.createTempFile("e2immu", ".jfr");
+        try (Recording recording = new Recording()) {
+            EVENTS.forEach(name -> recording.enable(name).withoutThreshold());
+            recording.start();
+            analyseBasics0();
+            recording.stop();
+            recording.dump(file);
+        }
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+        Files.delete(file);
+        assertEquals(EVENTS.stream().sorted().toList(), events.keySet().stream().sorted().toList());
+
+        List<RecordedEvent> classPathAssembly = events.get("org.e2immu.ClassPathAssembly");
+        assertEquals(1, classPathAssembly.size());
+        assertEquals(InputConfiguration.CLASSPATH_WITHOUT_ANNOTATED_APIS.length + 1,
+                classPathAssembly.get(0).getInt("parts"));
+
+        assertTrue(events.get("org.e2immu.ByteCodeInspection").stream()
+                .anyMatch(e -> "java/lang/Object".equals(e.getString("path"))));
+
+        List<RecordedEvent> parse = events.get("org.e2immu.Parse");
+        assertEquals(1, parse.size());
+        assertTrue(parse.get(0).getString("fileName").endsWith("Basics_0.java"));
+        assertEquals(1, parse.get(0).getInt("primaryTypes"));
+
+        RecordedEvent iteration = events.get("org.e2immu.PrimaryTypeAnalyserIteration").get(0);
+        assertEquals(0, iteration.getInt("iteration"));
+        assertTrue(iteration.getString("cycle").contains("Basics_0"));
+    }
+
+    private static void analyseBasics0() throws IOException {
+        InputConfiguration inputConfiguration = new InputConfiguration.Builder()
+                .addSources("src/test/java")
+                .addRestrictSourceToPackages("org.e2immu.analyser.parser.basics.testexample.Basics_0")
+                .addClassPath(InputConfiguration.CLASSPATH_WITHOUT_ANNOTATED_APIS)
+                .addClassPath(Input.JAR_WITH_PATH_PREFIX + "org/slf4j")
+                .build();
+        Configuration configuration = new Configuration.Builder()
+                .setInputConfiguration(inputConfiguration)
+                .build();
+        configuration.initializeLoggers();
+        new Parser(configuration).run();
+    }
+}
@@ -16,9 +16,7 @@ package org.e2immu.analyser.util;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -173,4 +171,267 @@ public class TestDependencyGraph {
         assertEquals(ALL, graph.dependencies('b').toString());
         assertEquals(ALL, graph.dependencies('c').toString());
     }
+
+    @Test
+    public void test_8_LongChain() {
+        DependencyGraph<Integer> graph = new DependencyGraph<>();
+        int n = 100_000;
+        // i -> i+1; every pass over the node map adds only one node
+        for (int i = 0; i < n; i++) {
+            graph.addNode(i, i + 1 < n ? List.of(i + 1) : List.of());
+        }
+        List<Integer> sorted = graph.sorted(c -> {
+            throw new UnsupportedOperationException();
+        }, null, null);
+        assertEquals(n, sorted.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(n - 1 - i, (int) sorted.get(i));
+        }
+    }
+
+    @Test
+    public void test_9_SameAsPassesOverNodeMap() {
+        Random random = new Random(41);
+        for (int round = 0; round < 2000; round++) {
+            int n = 1 + random.nextInt(40);
+            int edges = random.nextInt(3 * n);
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < n; i++) names.add("n" + random.nextInt(1000));
+            DependencyGraph<String> graph = new DependencyGraph<>();
+            PassesOverNodeMap<String> reference = new PassesOverNodeMap<>();
+            for (int e = 0; e < edges; e++) {
+                String from = names.get(random.nextInt(n));
+                List<String> to = random.nextInt(5) == 0 ? List.of() : List.of(names.get(random.nextInt(n)));
+                graph.addNode(from, to);
+                reference.addNode(from, to);
+            }
+            Comparator<String> backupComparator = round % 2 == 0 ? null : Comparator.naturalOrder();
+
+            List<String> reports = new ArrayList<>();
+            List<String> sorted = graph.sorted(c -> reports.add("cycle " + c), t -> reports.add("independent " + t),
+                    backupComparator);
+            List<String> expectedReports = new ArrayList<>();
+            List<String> expected = reference.sorted(c -> expectedReports.add("cycle " + c),
+                    t -> expectedReports.add("independent " + t), backupComparator);
+            assertEquals(expected, sorted, "round " + round);
+            assertEquals(expectedReports, reports, "round " + round);
+        }
+    }
+
+    @Test
+    public void test_10_OneLargeCycle() {
+        DependencyGraph<Integer> graph = new DependencyGraph<>();
+        int n = 100_000;
+        // i -> i+1, n-1 -> 0: one strongly connected component
+        for (int i = 0; i < n; i++) {
+            graph.addNode(i, List.of((i + 1) % n));
+        }
+        List<List<Integer>> cycles = new ArrayList<>();
+        List<Integer> sorted = graph.sorted(cycles::add, null, Comparator.naturalOrder());
+        assertEquals(n, sorted.size());
+        assertEquals(0, (int) sorted.get(0));
+        for (int i = 1; i < n; i++) {
+            assertEquals(n - i, (int) sorted.get(i));
+        }
+        assertEquals(1, cycles.size());
+        List<Integer> cycle = cycles.get(0);
+        assertEquals(n, cycle.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, (int) cycle.get(i));
+        }
+    }
+
+    @Test
+    public void test_11_SameAsPassesOverNodeMapLarger() {
+        Random random = new Random(43);
+        for (int round = 0; round < 200; round++) {
+            int n = 50 + random.nextInt(500);
+            int edges = random.nextInt(3 * n);
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < n; i++) names.add("n" + random.nextInt(10 * n));
+            DependencyGraph<String> graph = new DependencyGraph<>();
+            PassesOverNodeMap<String> reference = new PassesOverNodeMap<>();
+            for (int e = 0; e < edges; e++) {
+                String from = names.get(random.nextInt(n));
+                List<String> to = random.nextInt(5) == 0 ? List.of() : List.of(names.get(random.nextInt(n)));
+                graph.addNode(from, to);
+                reference.addNode(from, to);
+            }
+            List<String> reports = new ArrayList<>();
+            List<String> sorted = graph.sorted(c -> reports.add("cycle " + c), t -> reports.add("independent " + t),
+                    Comparator.naturalOrder());
+            List<String> expectedReports = new ArrayList<>();
+            List<String> expected = reference.sorted(c -> expectedReports.add("cycle " + c),
+                    t -> expectedReports.add("independent " + t), Comparator.naturalOrder());
+            assertEquals(expected, sorted, "round " + round);
+            assertEquals(expectedReports, reports, "round " + round);
+        }
+    }
+
+    /*
+    the implementation of DependencyGraph.sorted which executes the passes one by one
+     */
+    private static class PassesOverNodeMap<T> {
+
+        private static class Node<T> {
+            List<T> dependsOn;
+            final T t;
+
+            private Node(T t) {
+                this.t = t;
+            }
+        }
+
+        private final Map<T, Node<T>> nodeMap = new HashMap<>();
+
+        // not computeIfAbsent, which changes the iteration order of the node map
+        private Node<T> getOrCreate(T t) {
+            Node<T> node = nodeMap.get(t);
+            if (node == null) {
+                node = new Node<>(t);
+                nodeMap.put(t, node);
+            }
+            return node;
+        }
+
+        void addNode(T t, Collection<T> dependsOn) {
+            Node<T> node = getOrCreate(t);
+            for (T d : dependsOn) {
+                if (node.dependsOn == null) node.dependsOn = new LinkedList<>();
+                node.dependsOn.add(d);
+                getOrCreate(d);
+            }
+        }
+
+        private List<T> removeAsManyAsPossible(Set<T> set) {
+            List<T> removed = new ArrayList<>();
+            boolean changed = true;
+            while (changed) {
+                List<T> inSingleStep = singleRemoveStep(set);
+                changed = !inSingleStep.isEmpty();
+                removed.addAll(inSingleStep);
+
+                PassesOverNodeMap<T> reverse = reverse(set);
+                List<T> inReverse = reverse.singleRemoveStep(set);
+                changed |= !inReverse.isEmpty();
+                removed.addAll(inReverse);
+            }
+            return removed;
+        }
+
+        private List<T> singleRemoveStep(Set<T> set) {
+            List<T> removed = new ArrayList<>();
+            set.removeIf(t -> {
+                Node<T> node = nodeMap.get(t);
+                boolean remove = node.dependsOn == null || node.dependsOn.isEmpty() ||
+                        node.dependsOn.stream().noneMatch(set::contains);
+                if (remove) removed.add(t);
+                return remove;
+            });
+            return removed;
+        }
+
+        private PassesOverNodeMap<T> reverse(Set<T> set) {
+            PassesOverNodeMap<T> dg = new PassesOverNodeMap<>();
+            for (T t : set) {
+                dg.addNode(t, Set.of());
+                Node<T> node = nodeMap.get(t);
+                if (node.dependsOn != null) {
+                    for (T d : node.dependsOn) {
+                        if (set.contains(d)) {
+                            dg.addNode(d, Set.of(t));
+                        }
+                    }
+                }
+            }
+            return dg;
+        }
+
+        private static <T> Comparator<Map.Entry<T, Node<T>>> comparator(Comparator<T> backupComparator,
+                                                                        Set<T> subSet) {
+            return (e1, e2) -> {
+                Set<T> sub1 = new HashSet<>(e1.getValue().dependsOn);
+                sub1.retainAll(subSet);
+                Set<T> sub2 = new HashSet<>(e2.getValue().dependsOn);
+                sub2.retainAll(subSet);
+
+                int c = sub1.size() - sub2.size();
+                if (c == 0) {
+                    c = backupComparator == null ? 0 : backupComparator.compare(e1.getKey(), e2.getKey());
+                }
+                return c;
+            };
+        }
+
+        List<T> sorted(Consumer<List<T>> reportPartOfCycle,
+                       Consumer<T> reportIndependent,
+                       Comparator<T> backupComparator) {
+            Map<T, Node<T>> toDo = new HashMap<>(nodeMap);
+            Set<T> done = new HashSet<>();
+            List<T> result = new ArrayList<>(nodeMap.size());
+            while (!toDo.isEmpty()) {
+                List<T> keys = new LinkedList<>();
+                for (Map.Entry<T, Node<T>> entry : toDo.entrySet()) {
+                    List<T> dependencies = entry.getValue().dependsOn;
+                    boolean safe;
+                    if (dependencies == null || dependencies.isEmpty()) {
+                        safe = true;
+                    } else {
+                        Set<T> copy = new HashSet<>(dependencies);
+                        copy.removeAll(done);
+                        copy.remove(entry.getKey());
+                        safe = copy.isEmpty();
+                    }
+                    if (safe) {
+                        keys.add(entry.getKey());
+                        done.add(entry.getKey());
+                        if (reportIndependent != null) reportIndependent.accept(entry.getKey());
+                    }
+                }
+                if (keys.isEmpty()) {
+                    Map<T, Node<T>> cycle = new HashMap<>(toDo);
+                    List<T> removed = removeAsManyAsPossible(cycle.keySet());
+                    removed.forEach(t -> {
+                        result.add(t);
+                        toDo.remove(t);
+                        done.add(t);
+                        if (reportIndependent != null) reportIndependent.accept(t);
+                    });
+                    Map<T, Node<T>> smallerCycle = startArbitrarily(cycle);
+                    List<T> sortedCycle = smallerCycle.entrySet().stream()
+                            .sorted(comparator(backupComparator, smallerCycle.keySet()))
+                            .map(Map.Entry::getKey).toList();
+                    T key = sortedCycle.get(0);
+                    toDo.remove(key);
+                    done.add(key);
+                    result.add(key);
+                    if (reportPartOfCycle != null) reportPartOfCycle.accept(sortedCycle);
+                } else {
+                    keys.forEach(toDo.keySet()::remove);
+                    result.addAll(keys);
+                }
+            }
+            return result;
+        }
+
+        private Map<T, Node<T>> startArbitrarily(Map<T, Node<T>> cycle) {
+            Map<T, Node<T>> sub = new HashMap<>();
+            Node<T> first = cycle.values().stream().findFirst().orElseThrow();
+            sub.put(first.t, first);
+            recursivelyAddToSubGraph(first, sub, cycle);
+            return sub;
+        }
+
+        private void recursivelyAddToSubGraph(Node<T> start, Map<T, Node<T>> sub, Map<T, Node<T>> cycle) {
+            if (start.dependsOn != null) {
+                for (T t : start.dependsOn) {
+                    if (!sub.containsKey(t) && cycle.containsKey(t)) {
+                        Node<T> node = nodeMap.get(t);
+                        sub.put(t, node);
+                        recursivelyAddToSubGraph(node, sub, cycle);
+                    }
+                }
+            }
+        }
+    }
 }
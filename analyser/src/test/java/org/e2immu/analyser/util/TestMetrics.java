@@ -0,0 +1,91 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.util;
+
+import org.e2immu.analyser.model.expression.IntConstant;
+import org.e2immu.analyser.parser.Primitives;
+import org.e2immu.analyser.parser.impl.PrimitivesImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMetrics {
+
+    @AfterEach
+    public void after() {
+        Metrics.setRegistry(null);
+    }
+
+    @Test
+    public void testDisabled() {
+        Metrics.setRegistry(null);
+        assertFalse(Metrics.isEnabled());
+        assertNull(Metrics.getRegistry());
+        Metrics.andNormalisation(); // no effect
+    }
+
+    @Test
+    public void testCounters() throws IOException {
+        InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+        Metrics.setRegistry(registry);
+        assertTrue(Metrics.isEnabled());
+
+        Primitives primitives = new PrimitivesImpl();
+        new IntConstant(primitives, 3);
+        new IntConstant(primitives, 4);
+        Metrics.orNormalisation();
+        Metrics.typeCycleIterations(3);
+        Metrics.typeCycleIterations(5);
+
+        Resources resources = new Resources();
+        resources.addJarFromClassPath("org/e2immu/annotation");
+        byte[] bytes = resources.loadBytes("org/e2immu/annotation/Final.class");
+        assertNotNull(bytes);
+
+        Map<String, Long> snapshot = registry.snapshot();
+        assertEquals(2L, snapshot.get(Metrics.EXPRESSIONS_CREATED + ".IntConstant"));
+        assertEquals(1L, snapshot.get(Metrics.OR_NORMALISATIONS));
+        assertEquals(0L, snapshot.get(Metrics.AND_NORMALISATIONS));
+        assertEquals(bytes.length, snapshot.get(Metrics.RESOURCES_BYTES_READ));
+        assertEquals(2L, snapshot.get(Metrics.ITERATIONS_PER_TYPE_CYCLE + ".count"));
+        assertEquals(8L, snapshot.get(Metrics.ITERATIONS_PER_TYPE_CYCLE + ".total"));
+        assertEquals(5L, snapshot.get(Metrics.ITERATIONS_PER_TYPE_CYCLE + ".max"));
+
+        registry.reset();
+        assertEquals(0L, registry.snapshot().get(Metrics.OR_NORMALISATIONS));
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        InMemoryMetricsRegistry registry = MetricsJmx.register();
+        assertSame(registry, Metrics.getRegistry());
+        Metrics.causesOfDelayMerge();
+        Metrics.causesOfDelayMerge();
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(MetricsJmx.OBJECT_NAME);
+        assertEquals(2L, server.getAttribute(objectName, Metrics.CAUSES_OF_DELAY_MERGES));
+        server.invoke(objectName, "reset", new Object[0], new String[0]);
+        assertEquals(0L, server.getAttribute(objectName, Metrics.CAUSES_OF_DELAY_MERGES));
+        server.unregisterMBean(objectName);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.analyser.*;
+import org.e2immu.analyser.analyser.nonanalyserimpl.AbstractEvaluationContextImpl;
+import org.e2immu.analyser.model.*;
+import org.e2immu.analyser.model.expression.*;
+import org.e2immu.analyser.model.variable.Variable;
+import org.e2immu.analyser.output.OutputBuilder;
+import org.e2immu.analyser.output.QualifiedName;
+import org.e2immu.analyser.parser.Primitives;
+import org.e2immu.analyser.parser.impl.TypeMapImpl;
+import org.e2immu.analyser.util.Resources;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+Normalisation of conjunctions and disjunctions, outside of any analysis. The set-up mirrors the one of
+the tests in org.e2immu.analyser.model.value: boolean and int variables, without an analyser context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AndOrBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int clauses;
+
+    private Primitives primitives;
+    private EvaluationResult context;
+    private Expression[] andClauses;
+    private Expression[] orClauses;
+    private Expression[] disjunctions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TypeMapImpl.Builder typeMapBuilder = new TypeMapImpl.Builder(new Resources());
+        primitives = typeMapBuilder.getPrimitives();
+        primitives.setInspectionOfBoxedTypesForTesting();
+        context = EvaluationResult.from(new EvaluationContextImpl());
+
+        VariableExpression i = new VariableExpression(createVariable("i", primitives.intParameterizedType()));
+        andClauses = new Expression[clauses];
+        orClauses = new Expression[clauses];
+        disjunctions = new Expression[clauses];
+        for (int k = 0; k < clauses; k++) {
+            VariableExpression a = new VariableExpression(createVariable("a" + k, primitives.booleanParameterizedType()));
+            // boolean variables, negations and comparisons; every fourth clause repeats an earlier one
+            Expression clause = switch (k % 4) {
+                case 0 -> a;
+                case 1 -> Negation.negate(context, a);
+                case 2 -> Negation.negate(context, Equals.equals(context, i, new IntConstant(primitives, k)));
+                default -> andClauses[k - 3];
+            };
+            andClauses[k] = clause;
+            orClauses[k] = k % 4 == 2 ? Equals.equals(context, i, new IntConstant(primitives, k)) : clause;
+            disjunctions[k] = Or.or(context, a, Equals.equals(context, i, new IntConstant(primitives, k)));
+        }
+    }
+
+    @Benchmark
+    public Expression and() {
+        return And.and(context, andClauses);
+    }
+
+    @Benchmark
+    public Expression or() {
+        return Or.or(context, orClauses);
+    }
+
+    @Benchmark
+    public Expression andOfOrs() {
+        return And.and(context, disjunctions);
+    }
+
+    private Variable createVariable(String name, ParameterizedType parameterizedType) {
+        return new Variable() {
+            @Override
+            public ParameterizedType parameterizedType() {
+                return parameterizedType;
+            }
+
+            @Override
+            public String simpleName() {
+                return name;
+            }
+
+            @Override
+            public String fullyQualifiedName() {
+                return name;
+            }
+
+            @Override
+            public boolean isStatic() {
+                return false;
+            }
+
+            @Override
+            public OutputBuilder output(Qualification qualification) {
+                return new OutputBuilder().add(new QualifiedName(name));
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    private class EvaluationContextImpl extends AbstractEvaluationContextImpl {
+
+        private EvaluationContextImpl(ConditionManager conditionManager) {
+            super(1, 0, false, conditionManager, null);
+        }
+
+        EvaluationContextImpl() {
+            this(ConditionManager.initialConditionManager(primitives));
+        }
+
+        @Override
+        public EvaluationContext child(Expression condition, Set<Variable> conditionVariables) {
+            return new EvaluationContextImpl(conditionManager
+                    .newAtStartOfNewBlockDoNotChangePrecondition(primitives, condition, conditionVariables));
+        }
+
+        @Override
+        public AnalyserContext getAnalyserContext() {
+            return () -> primitives;
+        }
+
+        @Override
+        public Expression currentValue(Variable variable,
+                                       Expression scopeValue,
+                                       Expression indexValue,
+                                       ForwardEvaluationInfo forwardEvaluationInfo) {
+            return new VariableExpression(variable, VariableExpression.NO_SUFFIX, scopeValue, null);
+        }
+
+        @Override
+        public Primitives getPrimitives() {
+            return primitives;
+        }
+
+        @Override
+        public DV getProperty(Expression value,
+                              Property property,
+                              boolean duringEvaluation,
+                              boolean ignoreStateInConditionManager) {
+            if (value instanceof VariableExpression && property == Property.NOT_NULL_EXPRESSION) {
+                return MultiLevel.EFFECTIVELY_NOT_NULL_DV;
+            }
+            return value.getProperty(context, property, true);
+        }
+
+        @Override
+        public TypeInfo getCurrentType() {
+            return primitives.booleanTypeInfo();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.annotationxml.AnnotationXmlReader;
+import org.e2immu.analyser.bytecode.ByteCodeInspector;
+import org.e2immu.analyser.inspector.TypeContext;
+import org.e2immu.analyser.parser.Input;
+import org.e2immu.analyser.parser.impl.TypeMapImpl;
+import org.e2immu.analyser.util.Resources;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/*
+Byte code inspection of the primary types of one or more packages in java.base, starting from an empty type map
+in every invocation. "java" covers all packages in java.base starting with "java.".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ByteCodeInspectorBenchmark {
+
+    @Param({"java.lang", "java.util", "java"})
+    public String thePackage;
+
+    private Resources classPath;
+    private TypeContext typeContext;
+    private ByteCodeInspector byteCodeInspector;
+
+    @Setup(Level.Trial)
+    public void setUpClassPath() throws IOException {
+        classPath = new Resources();
+        classPath.addJmod(new URL("jar:file:" + System.getProperty("java.home") + "/jmods/java.base.jmod!/"));
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpTypeContext() {
+        AnnotationXmlReader annotationParser = new AnnotationXmlReader(new Resources());
+        typeContext = new TypeContext(new TypeMapImpl.Builder(classPath));
+        byteCodeInspector = new ByteCodeInspector(classPath, annotationParser, typeContext);
+        typeContext.typeMap.setByteCodeInspector(byteCodeInspector);
+        typeContext.loadPrimitives();
+    }
+
+    @Benchmark
+    public TypeContext inspectFromPath() {
+        Input.preload(typeContext, byteCodeInspector, classPath, thePackage);
+        return typeContext;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.analyser.CauseOfDelay;
+import org.e2immu.analyser.analyser.CausesOfDelay;
+import org.e2immu.analyser.analyser.delay.DelayFactory;
+import org.e2immu.analyser.model.TypeInfo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+Merging of delays: two sets of the given size with half of their causes in common, and the accumulation
+of single delays one by one, which is how the analysers typically arrive at their large delay sets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CausesOfDelayBenchmark {
+
+    private static final CauseOfDelay.Cause[] CAUSES = {CauseOfDelay.Cause.IMMUTABLE,
+            CauseOfDelay.Cause.CONTEXT_MODIFIED, CauseOfDelay.Cause.VALUE, CauseOfDelay.Cause.LINKING};
+
+    @Param({"1", "8", "64"})
+    public int size;
+
+    private CausesOfDelay left;
+    private CausesOfDelay right;
+    private CausesOfDelay[] singles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TypeInfo[] types = new TypeInfo[2 * size];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = new TypeInfo("org.e2immu.benchmark", "Type" + i);
+        }
+        singles = new CausesOfDelay[2 * size];
+        for (int i = 0; i < singles.length; i++) {
+            singles[i] = DelayFactory.createDelay(types[i], CAUSES[i % CAUSES.length]);
+        }
+        left = accumulate(0, size);
+        right = accumulate(size / 2, size / 2 + size);
+    }
+
+    private CausesOfDelay accumulate(int from, int to) {
+        CausesOfDelay causes = CausesOfDelay.EMPTY;
+        for (int i = from; i < to; i++) {
+            causes = causes.merge(singles[i]);
+        }
+        return causes;
+    }
+
+    @Benchmark
+    public CausesOfDelay mergeSets() {
+        return left.merge(right);
+    }
+
+    @Benchmark
+    public CausesOfDelay mergeOneByOne() {
+        return accumulate(0, singles.length);
+    }
+}
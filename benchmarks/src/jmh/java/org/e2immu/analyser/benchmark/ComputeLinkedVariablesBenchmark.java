@@ -0,0 +1,67 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.analyser.ComputeLinkedVariables;
+import org.e2immu.analyser.analyser.EvaluationContext;
+import org.e2immu.analyser.analyser.LinkedVariables;
+import org.e2immu.analyser.analyser.Stage;
+import org.e2immu.analyser.analysis.StatementAnalysis;
+import org.e2immu.analyser.config.DebugConfiguration;
+import org.e2immu.analyser.parser.Parser;
+import org.e2immu.analyser.visitor.StatementAnalyserVisitor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+The clustering of linked variables at the end of the evaluation of a statement. The set-up analyses the
+self-analysis corpus, and keeps the statement with the most variables, as seen in the last iteration.
+ComputeLinkedVariables.create only reads from the statement analysis, so it can be called repeatedly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComputeLinkedVariablesBenchmark {
+
+    private StatementAnalysis statementAnalysis;
+    private EvaluationContext evaluationContext;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        long[] mostVariables = {-1};
+        StatementAnalyserVisitor visitor = d -> {
+            long variables = d.statementAnalysis().variableEntryStream(Stage.EVALUATION).count();
+            if (variables >= mostVariables[0]) {
+                mostVariables[0] = variables;
+                statementAnalysis = d.statementAnalysis();
+                evaluationContext = d.context().evaluationContext();
+            }
+        };
+        DebugConfiguration debugConfiguration = new DebugConfiguration.Builder()
+                .addStatementAnalyserVisitor(visitor)
+                .build();
+        new Parser(Corpora.own(debugConfiguration)).run();
+        if (statementAnalysis == null) throw new IllegalStateException("No statements seen");
+    }
+
+    @Benchmark
+    public ComputeLinkedVariables create() {
+        return ComputeLinkedVariables.create(statementAnalysis, Stage.EVALUATION, false, false,
+                (vic, v) -> false, Set.of(), v -> LinkedVariables.EMPTY, evaluationContext);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.config.*;
+import org.e2immu.analyser.parser.Input;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/*
+The inputs of the benchmarks. Paths are computed relative to the root of the project, which is passed on
+by the build as the system property e2immu.root.
+ */
+public class Corpora {
+
+    public static final String OWN = "own";
+    public static final String SYNTHETIC = "synthetic";
+
+    private static final String OWN_PREFIX = "org.e2immu.analyser.parser.own.";
+
+    // the self-analysis test examples in analyser/src/test/java
+    public static final String[] OWN_PACKAGES = {
+            OWN_PREFIX + "annotationstore.testexample",
+            OWN_PREFIX + "output.testexample",
+            OWN_PREFIX + "snippet.testexample",
+            OWN_PREFIX + "support.testexample",
+            OWN_PREFIX + "util.testexample"
+    };
+
+    private Corpora() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static File root() {
+        return new File(System.getProperty("e2immu.root", ".."));
+    }
+
+    public static Configuration own(DebugConfiguration debugConfiguration) {
+        InputConfiguration inputConfiguration = inputConfigurationBuilder()
+                .addSources(new File(root(), "analyser/src/test/java").getPath())
+                .addRestrictSourceToPackages(OWN_PACKAGES)
+                .build();
+        return configuration(inputConfiguration, debugConfiguration);
+    }
+
+    public static Configuration synthetic(File sourceDirectory) {
+        InputConfiguration inputConfiguration = inputConfigurationBuilder()
+                .addSources(sourceDirectory.getPath())
+                .build();
+        return configuration(inputConfiguration, new DebugConfiguration.Builder().build());
+    }
+
+    private static InputConfiguration.Builder inputConfigurationBuilder() {
+        return new InputConfiguration.Builder()
+                .addClassPath(new File(root(), "analyser/build/classes/java/main").getPath(),
+                        "jmods/java.base.jmod", "jmods/java.xml.jmod")
+                .addClassPath(Input.JAR_WITH_PATH_PREFIX + "org/slf4j");
+    }
+
+    private static Configuration configuration(InputConfiguration inputConfiguration,
+                                               DebugConfiguration debugConfiguration) {
+        AnnotatedAPIConfiguration annotatedAPIConfiguration = new AnnotatedAPIConfiguration.Builder()
+                .addAnnotatedAPISourceDirs(new File(root(), "annotatedAPIs/src/main/java").getPath())
+                .build();
+        Configuration configuration = new Configuration.Builder()
+                .setQuiet(true)
+                .setInputConfiguration(inputConfiguration)
+                .setAnnotatedAPIConfiguration(annotatedAPIConfiguration)
+                .setDebugConfiguration(debugConfiguration)
+                .build();
+        configuration.initializeLoggers();
+        return configuration;
+    }
+
+    public static void deleteRecursively(File directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
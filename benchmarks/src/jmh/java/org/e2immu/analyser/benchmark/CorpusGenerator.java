@@ -0,0 +1,247 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/*
+Writes a valid Java source tree, in a single package, that stresses the scaling dimensions of the analyser:
+
+- the number of types;
+- the size of the type cycles: every type refers to the next one in its group of cycleSize types;
+- the number of methods per type, and the number of statements per method;
+- the nesting depth of the if and switch statements;
+- the density of lambdas, as the fraction of the statements that define and apply a lambda;
+- the number of fields per type.
+
+The output is completely determined by the settings.
+ */
+public class CorpusGenerator {
+
+    public static final String PACKAGE = "org.e2immu.synthetic";
+
+    public record Settings(int types,
+                           int cycleSize,
+                           int methodsPerType,
+                           int methodLength,
+                           int nestingDepth,
+                           double lambdaDensity,
+                           int fields) {
+
+        public Settings {
+            if (types < 1 || cycleSize < 1 || methodsPerType < 1 || methodLength < 0 || nestingDepth < 0
+                    || lambdaDensity < 0 || lambdaDensity > 1 || fields < 0) {
+                throw new IllegalArgumentException("Invalid settings: " + this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "types=" + types + ",cycleSize=" + cycleSize + ",methodsPerType=" + methodsPerType
+                    + ",methodLength=" + methodLength + ",nestingDepth=" + nestingDepth
+                    + ",lambdaDensity=" + lambdaDensity + ",fields=" + fields;
+        }
+
+        public static class Builder {
+            private int types = 100;
+            private int cycleSize = 5;
+            private int methodsPerType = 2;
+            private int methodLength = 10;
+            private int nestingDepth = 2;
+            private double lambdaDensity = 0.2;
+            private int fields = 4;
+
+            public Builder setTypes(int types) {
+                this.types = types;
+                return this;
+            }
+
+            public Builder setCycleSize(int cycleSize) {
+                this.cycleSize = cycleSize;
+                return this;
+            }
+
+            public Builder setMethodsPerType(int methodsPerType) {
+                this.methodsPerType = methodsPerType;
+                return this;
+            }
+
+            public Builder setMethodLength(int methodLength) {
+                this.methodLength = methodLength;
+                return this;
+            }
+
+            public Builder setNestingDepth(int nestingDepth) {
+                this.nestingDepth = nestingDepth;
+                return this;
+            }
+
+            public Builder setLambdaDensity(double lambdaDensity) {
+                this.lambdaDensity = lambdaDensity;
+                return this;
+            }
+
+            public Builder setFields(int fields) {
+                this.fields = fields;
+                return this;
+            }
+
+            /**
+             * @param dimension the name of one of the components of Settings
+             * @param value     the value, as a string
+             */
+            public Builder set(String dimension, String value) {
+                switch (dimension) {
+                    case "types" -> types = Integer.parseInt(value);
+                    case "cycleSize" -> cycleSize = Integer.parseInt(value);
+                    case "methodsPerType" -> methodsPerType = Integer.parseInt(value);
+                    case "methodLength" -> methodLength = Integer.parseInt(value);
+                    case "nestingDepth" -> nestingDepth = Integer.parseInt(value);
+                    case "lambdaDensity" -> lambdaDensity = Double.parseDouble(value);
+                    case "fields" -> fields = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown dimension " + dimension);
+                }
+                return this;
+            }
+
+            public Settings build() {
+                return new Settings(types, cycleSize, methodsPerType, methodLength, nestingDepth, lambdaDensity,
+                        fields);
+            }
+        }
+    }
+
+    private final Settings settings;
+
+    public CorpusGenerator(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @param sourceDirectory the root of the source tree; the package directories are created
+     * @return the source directory
+     */
+    public File write(File sourceDirectory) throws IOException {
+        File packageDirectory = new File(sourceDirectory, PACKAGE.replace('.', '/'));
+        if (!packageDirectory.mkdirs() && !packageDirectory.isDirectory()) {
+            throw new IOException("Cannot create " + packageDirectory);
+        }
+        for (int i = 0; i < settings.types; i++) {
+            File file = new File(packageDirectory, typeName(i) + ".java");
+            Files.writeString(file.toPath(), type(i), StandardCharsets.UTF_8);
+        }
+        return sourceDirectory;
+    }
+
+    private static String typeName(int i) {
+        return "T" + i;
+    }
+
+    // the next type in the cycle of i; the last group can be smaller than cycleSize
+    int next(int i) {
+        int start = (i / settings.cycleSize) * settings.cycleSize;
+        int next = start + (i - start + 1) % settings.cycleSize;
+        return next >= settings.types ? start : next;
+    }
+
+    String type(int i) {
+        String name = typeName(i);
+        String next = typeName(next(i));
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(PACKAGE).append(";\n\n");
+        sb.append("import java.util.ArrayList;\n");
+        sb.append("import java.util.List;\n");
+        sb.append("import java.util.function.IntUnaryOperator;\n\n");
+        sb.append("public class ").append(name).append(" {\n");
+        for (int f = 0; f < settings.fields; f++) {
+            if (f % 2 == 0) {
+                sb.append("    private int i").append(f).append(";\n");
+            } else {
+                sb.append("    private final List<String> s").append(f).append(" = new ArrayList<>();\n");
+            }
+        }
+        sb.append("    private ").append(next).append(" next;\n\n");
+        sb.append("    public void setNext(").append(next).append(" next) {\n");
+        sb.append("        this.next = next;\n");
+        sb.append("    }\n");
+        for (int m = 0; m < settings.methodsPerType; m++) {
+            sb.append('\n');
+            method(sb, m);
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private void method(StringBuilder sb, int m) {
+        sb.append("    public int compute").append(m).append("(int k) {\n");
+        sb.append("        int r = k;\n");
+        int lambdaEvery = settings.lambdaDensity == 0 ? 0 : (int) Math.max(1, Math.round(1 / settings.lambdaDensity));
+        for (int s = 0; s < settings.methodLength; s++) {
+            if (lambdaEvery > 0 && s % lambdaEvery == 0) {
+                sb.append("        IntUnaryOperator l").append(s).append(" = x -> x + ").append(s)
+                        .append(" + ").append(intOperand(s)).append(";\n");
+                sb.append("        r = l").append(s).append(".applyAsInt(r);\n");
+            } else {
+                nested(sb, s, settings.nestingDepth, "        ");
+            }
+        }
+        sb.append("        if (next != null && k > 0) {\n");
+        sb.append("            r += next.compute").append(m).append("(k - 1);\n");
+        sb.append("        }\n");
+        sb.append("        return r;\n");
+        sb.append("    }\n");
+    }
+
+    private void nested(StringBuilder sb, int s, int depth, String indent) {
+        if (depth == 0) {
+            leaf(sb, s, indent);
+        } else if (depth % 2 == 0) {
+            sb.append(indent).append("if (r > ").append(s).append(") {\n");
+            nested(sb, s, depth - 1, indent + "    ");
+            sb.append(indent).append("} else {\n");
+            sb.append(indent).append("    r--;\n");
+            sb.append(indent).append("}\n");
+        } else {
+            sb.append(indent).append("switch (r % 3) {\n");
+            sb.append(indent).append("    case 0:\n");
+            nested(sb, s, depth - 1, indent + "        ");
+            sb.append(indent).append("        break;\n");
+            sb.append(indent).append("    case 1:\n");
+            sb.append(indent).append("        r += ").append(s).append(";\n");
+            sb.append(indent).append("        break;\n");
+            sb.append(indent).append("    default:\n");
+            sb.append(indent).append("        r -= 1;\n");
+            sb.append(indent).append("}\n");
+        }
+    }
+
+    private void leaf(StringBuilder sb, int s, String indent) {
+        int f = settings.fields == 0 ? -1 : s % settings.fields;
+        if (f >= 0 && f % 2 == 1) {
+            sb.append(indent).append("s").append(f).append(".add(\"").append(s).append(":\" + r);\n");
+        } else {
+            sb.append(indent).append("r = r * 31 + ").append(intOperand(s)).append(";\n");
+        }
+    }
+
+    // an int field when there is one, a constant otherwise
+    private String intOperand(int s) {
+        int intFields = (settings.fields + 1) / 2;
+        return intFields == 0 ? Integer.toString(s) : "i" + 2 * (s % intFields);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.config.DebugConfiguration;
+import org.e2immu.analyser.model.TypeInfo;
+import org.e2immu.analyser.output.Formatter;
+import org.e2immu.analyser.output.FormattingOptions;
+import org.e2immu.analyser.output.OutputBuilder;
+import org.e2immu.analyser.parser.Parser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Formatting of the annotated output of all primary types of the self-analysis corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FormatterBenchmark {
+
+    private List<OutputBuilder> outputBuilders;
+    private Formatter formatter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Parser.RunResult runResult = new Parser(Corpora.own(new DebugConfiguration.Builder().build())).run();
+        outputBuilders = runResult.sourceSortedTypes().primaryTypeStream().map(TypeInfo::output).toList();
+        formatter = new Formatter(FormattingOptions.DEFAULT);
+    }
+
+    @Benchmark
+    public void write(Blackhole blackhole) {
+        for (OutputBuilder outputBuilder : outputBuilders) {
+            blackhole.consume(formatter.write(outputBuilder));
+        }
+    }
+}
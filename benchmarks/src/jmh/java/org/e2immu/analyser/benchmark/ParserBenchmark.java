@@ -0,0 +1,67 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.config.DebugConfiguration;
+import org.e2immu.analyser.parser.Parser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/*
+End-to-end: inspection, resolution and analysis of a fixed corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+
+    @Param({Corpora.OWN, Corpora.SYNTHETIC})
+    public String corpus;
+
+    @Param({"200"})
+    public int syntheticTypes;
+
+    private File syntheticDirectory;
+    private Configuration configuration;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (Corpora.SYNTHETIC.equals(corpus)) {
+            syntheticDirectory = Files.createTempDirectory("e2immu-synthetic").toFile();
+            CorpusGenerator.Settings settings = new CorpusGenerator.Settings.Builder().setTypes(syntheticTypes).build();
+            new CorpusGenerator(settings).write(syntheticDirectory);
+            configuration = Corpora.synthetic(syntheticDirectory);
+        } else {
+            configuration = Corpora.own(new DebugConfiguration.Builder().build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (syntheticDirectory != null) {
+            Corpora.deleteRecursively(syntheticDirectory);
+        }
+    }
+
+    @Benchmark
+    public Parser.RunResult run() throws IOException {
+        return new Parser(configuration).run();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.analyser.benchmark;
+
+import org.e2immu.analyser.parser.Parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Runs the Parser on generated corpora of increasing size along one dimension, and records, per step,
+the wall clock time and the peak heap usage. Arguments are key=value pairs:
+
+dimension=types                   one of the components of CorpusGenerator.Settings
+steps=50,100,200,400              the values of that dimension
+output=build/results/scaling.json where to write the results
+any other component of CorpusGenerator.Settings, e.g. cycleSize=10, fixes that dimension
+
+Run with: gradle :benchmarks:scaling -Pargs="dimension=cycleSize steps=1,5,25,125"
+ */
+public class ScalingHarness {
+
+    public record Step(String dimension, String value, String settings, long millis, long peakHeapBytes,
+                       int primaryTypes) {
+        String toJson() {
+            return "{\"dimension\":\"" + dimension + "\",\"value\":\"" + value + "\",\"settings\":\"" + settings
+                    + "\",\"millis\":" + millis + ",\"peakHeapBytes\":" + peakHeapBytes
+                    + ",\"primaryTypes\":" + primaryTypes + "}";
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String dimension = "types";
+        String[] steps = {"50", "100", "200", "400"};
+        File output = new File("build/results/scaling.json");
+        CorpusGenerator.Settings.Builder builder = new CorpusGenerator.Settings.Builder();
+        List<String[]> fixed = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Expected key=value, got " + arg);
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "dimension" -> dimension = value;
+                case "steps" -> steps = value.split(",");
+                case "output" -> output = new File(value);
+                default -> fixed.add(new String[]{key, value});
+            }
+        }
+        fixed.forEach(kv -> builder.set(kv[0], kv[1]));
+
+        List<Step> results = new ArrayList<>();
+        for (String value : steps) {
+            CorpusGenerator.Settings settings = builder.set(dimension, value).build();
+            Step step = run(dimension, value, settings);
+            System.out.println(step.toJson());
+            results.add(step);
+        }
+        write(output, results);
+    }
+
+    static Step run(String dimension, String value, CorpusGenerator.Settings settings) throws IOException {
+        File directory = Files.createTempDirectory("e2immu-scaling").toFile();
+        try {
+            new CorpusGenerator(settings).write(directory);
+            Parser parser = new Parser(Corpora.synthetic(directory));
+
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid()).toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            long start = System.nanoTime();
+            Parser.RunResult runResult = parser.run();
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+
+            // the sum of the peaks of the individual pools is an upper bound of the real peak
+            long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            int primaryTypes = (int) runResult.sourceSortedTypes().primaryTypeStream().count();
+            return new Step(dimension, value, settings.toString(), millis, peak, primaryTypes);
+        } finally {
+            Corpora.deleteRecursively(directory);
+        }
+    }
+
+    private static void write(File output, List<Step> results) throws IOException {
+        File parent = output.getAbsoluteFile().getParentFile();
+        if (!parent.mkdirs() && !parent.isDirectory()) throw new IOException("Cannot create " + parent);
+        String json = "[\n" + String.join(",\n", results.stream().map(Step::toJson).toList()) + "\n]\n";
+        Files.writeString(output.toPath(), json, StandardCharsets.UTF_8);
+    }
+}
@@ -19,10 +19,13 @@ import org.gradle.api.Action;
 public class AnalyserExtension {
     public static final String ANALYSER_EXTENSION_NAME = "e2immu";
     public static final String ANALYSER_TASK_NAME = "e2immu-analyser";
+    public static final String REPLAY_TASK_NAME = "e2immu-analyser-replay";
 
     /* local to the plugin */
     /* for Gradle multi-project builds; allows a project to be skipped. */
     private boolean skipProject;
+    /* for Gradle multi-project builds, on the root project; see AnalyserTask.projectLevels */
+    private boolean aggregate;
 
     /* from InputConfiguration -- sources taken from Gradle */
     private String jmods; // part of the class path
@@ -35,12 +38,15 @@ public class AnalyserExtension {
     private String writeAnnotatedAPIPackages;
     private String writeAnnotatedAPIDestinationPackage;
     private String writeAnnotatedAPIDir;
+    private String annotatedAPIBundle;
 
     /* from AnnotationXMLConfiguration */
     private String readAnnotationXMLPackages;
     private boolean writeAnnotationXML;
     private String writeAnnotationXMLPackages;
     private String writeAnnotationXMLDir;
+    private boolean writeAnalysisSummary;
+    private String writeAnalysisSummaryDir;
 
     /* from UploadConfiguration */
     private Boolean upload;
@@ -52,6 +58,9 @@ public class AnalyserExtension {
     private String debug;
     private boolean ignoreErrors;
 
+    /* local to the plugin: the maximum heap size of the worker process running the analyser, e.g. 4g */
+    private String maxHeapSize;
+
     private final ActionBroadcast<AnalyserProperties> propertiesActions;
 
     public AnalyserExtension(ActionBroadcast<AnalyserProperties> propertiesActions) {
@@ -72,6 +81,14 @@ public class AnalyserExtension {
         this.skipProject = skipProject;
     }
 
+    public boolean isAggregate() {
+        return aggregate;
+    }
+
+    public void setAggregate(boolean aggregate) {
+        this.aggregate = aggregate;
+    }
+
     public String getJmods() {
         return jmods;
     }
@@ -215,4 +232,36 @@ public class AnalyserExtension {
     public void setIgnoreErrors(boolean ignoreErrors) {
         this.ignoreErrors = ignoreErrors;
     }
+
+    public String getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    public void setMaxHeapSize(String maxHeapSize) {
+        this.maxHeapSize = maxHeapSize;
+    }
+
+    public boolean isWriteAnalysisSummary() {
+        return writeAnalysisSummary;
+    }
+
+    public void setWriteAnalysisSummary(boolean writeAnalysisSummary) {
+        this.writeAnalysisSummary = writeAnalysisSummary;
+    }
+
+    public String getWriteAnalysisSummaryDir() {
+        return writeAnalysisSummaryDir;
+    }
+
+    public void setWriteAnalysisSummaryDir(String writeAnalysisSummaryDir) {
+        this.writeAnalysisSummaryDir = writeAnalysisSummaryDir;
+    }
+
+    public String getAnnotatedAPIBundle() {
+        return annotatedAPIBundle;
+    }
+
+    public void setAnnotatedAPIBundle(String annotatedAPIBundle) {
+        this.annotatedAPIBundle = annotatedAPIBundle;
+    }
 }
@@ -29,6 +29,7 @@ import java.util.stream.Collectors;
 
 public class AnalyserPlugin implements Plugin<Project> {
     private static final Logger LOGGER = Logging.getLogger(AnalyserPlugin.class);
+    private static final String RESULT_FILE = "e2immu/result.txt";
 
     @Override
     public void apply(Project project) {
@@ -55,6 +56,20 @@ public class AnalyserPlugin implements Plugin<Project> {
         ConventionMapping conventionMapping = analyserTask.getConventionMapping();
         // this will call the AnalyserPropertyComputer to populate the properties of the task just before running it
         conventionMapping.map("properties", () -> new AnalyserPropertyComputer(actionBroadcastMap, project).computeProperties());
+        AnalyserExtension extension = project.getExtensions().getByType(AnalyserExtension.class);
+        analyserTask.getMaxHeapSize().convention(project.provider(() -> {
+            String maxHeapSize = extension.getMaxHeapSize();
+            return maxHeapSize == null || maxHeapSize.isBlank() ? AnalyserTask.DEFAULT_MAX_HEAP_SIZE : maxHeapSize.trim();
+        }));
+        analyserTask.getAggregate().convention(project.provider(extension::isAggregate));
+        analyserTask.getResultFile().convention(project.getLayout().getBuildDirectory().file(RESULT_FILE));
+
+        // an up-to-date or cached task does not run, so its messages are printed by a task which always runs after it
+        Task replayTask = project.getTasks().create(AnalyserExtension.REPLAY_TASK_NAME);
+        replayTask.setDescription("Prints the messages of the e2immu analyser when its task did not run.");
+        replayTask.onlyIf(task -> analyserTask.getState().getSkipped());
+        replayTask.doLast(task -> analyserTask.replayResult());
+        analyserTask.finalizedBy(replayTask);
 
         Callable<Iterable<? extends Task>> compileTasks = () -> project.getAllprojects().stream()
                 .filter(p -> p.getPlugins().hasPlugin(JavaPlugin.class) && !p.getExtensions().getByType(AnalyserExtension.class).isSkipProject())
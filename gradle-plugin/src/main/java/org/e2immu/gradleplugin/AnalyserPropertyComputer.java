@@ -16,6 +16,7 @@ package org.e2immu.gradleplugin;
 
 import org.e2immu.analyser.config.AnnotatedAPIConfiguration;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.internal.plugins.DslObject;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -25,11 +26,9 @@ import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.compile.JavaCompile;
 
 import java.io.File;
-import java.util.Arrays;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.e2immu.analyser.cli.Main;
 
@@ -43,13 +42,52 @@ public record AnalyserPropertyComputer(
 
     private static final Logger LOGGER = Logging.getLogger(AnalyserPropertyComputer.class);
     public static final String PREFIX = "e2immu-analyser.";
+    // local to the plugin: the project, and the projects it depends on, for the aggregated mode
+    public static final String PROJECT_PATH = "project-path";
+    public static final String UPSTREAM_PROJECTS = "upstream-projects";
 
     public Map<String, Object> computeProperties() {
         Map<String, Object> properties = new LinkedHashMap<>();
         computeProperties(targetProject, properties, "");
+        if (targetProject.getExtensions().getByType(AnalyserExtension.class).isAggregate()) {
+            connectUpstreamProjects(properties);
+        }
         return properties;
     }
 
+    /*
+    In aggregated mode, a project reads the annotation XML and analysis summaries written by the projects it depends
+    on, rather than re-deriving their properties from byte code: their output directories go in front of its class path.
+     */
+    private static void connectUpstreamProjects(Map<String, Object> properties) {
+        Map<String, String> prefixOfProject = new HashMap<>();
+        properties.forEach((key, value) -> {
+            if (PROJECT_PATH.equals(AnalyserTask.baseKey(key))) {
+                prefixOfProject.put(value.toString(), AnalyserTask.projectPrefix(key));
+            }
+        });
+        for (String prefix : prefixOfProject.values()) {
+            Object upstreamProjects = properties.get(prefix + UPSTREAM_PROJECTS);
+            if (upstreamProjects == null) continue;
+            List<String> upstreamDirs = new ArrayList<>();
+            for (String upstreamProject : upstreamProjects.toString().split(Main.COMMA)) {
+                String upstreamPrefix = prefixOfProject.get(upstreamProject);
+                if (upstreamPrefix != null) { // null when skipped
+                    properties.put(upstreamPrefix + Main.WRITE_ANNOTATION_XML, "true");
+                    Object dir = properties.get(upstreamPrefix + Main.WRITE_ANNOTATION_XML_DIR);
+                    if (dir != null) upstreamDirs.add(dir.toString());
+                    Object summaryDir = properties.get(upstreamPrefix + Main.WRITE_ANALYSIS_SUMMARY_DIR);
+                    if (summaryDir != null) upstreamDirs.add(summaryDir.toString());
+                }
+            }
+            if (!upstreamDirs.isEmpty()) {
+                Object classPath = properties.get(prefix + Main.CLASSPATH);
+                if (classPath != null && !classPath.toString().isEmpty()) upstreamDirs.add(classPath.toString());
+                properties.put(prefix + Main.CLASSPATH, String.join(Main.PATH_SEPARATOR, upstreamDirs));
+            }
+        }
+    }
+
     private void computeProperties(Project project, Map<String, Object> properties, String prefix) {
         AnalyserExtension extension = project.getExtensions().getByType(AnalyserExtension.class);
         if (extension.isSkipProject()) {
@@ -95,6 +133,7 @@ public record AnalyserPropertyComputer(
     }
 
     private void detectProperties(final Project project, final Map<String, Object> properties, AnalyserExtension extension) {
+        properties.put(PROJECT_PATH, project.getPath());
         properties.put(Main.DEBUG, extension.getDebug());
         properties.put(Main.SOURCE_PACKAGES, extension.getSourcePackages());
         properties.put(Main.JRE, extension.getJre());
@@ -115,15 +154,21 @@ public record AnalyserPropertyComputer(
                 new File(buildDir, "annotatedAPIs").getAbsolutePath()));
         properties.put(Main.WRITE_ANNOTATED_API_PACKAGES, extension.getWriteAnnotatedAPIPackages());
         properties.put(Main.WRITE_ANNOTATED_API_DESTINATION_PACKAGE, extension.getWriteAnnotatedAPIDestinationPackage());
+        properties.put(Main.ANNOTATED_API_BUNDLE, extension.getAnnotatedAPIBundle());
 
         properties.put(Main.READ_ANNOTATION_XML_PACKAGES, extension.getReadAnnotationXMLPackages());
         properties.put(Main.WRITE_ANNOTATION_XML, extension.isWriteAnnotationXML());
         properties.put(Main.WRITE_ANNOTATION_XML_DIR, getOrDefault(extension.getWriteAnnotationXMLDir(),
                 new File(buildDir, "annotationXml").getAbsolutePath()));
         properties.put(Main.WRITE_ANNOTATION_XML_PACKAGES, extension.getWriteAnnotationXMLPackages());
+        if (extension.isWriteAnalysisSummary()) {
+            properties.put(Main.WRITE_ANALYSIS_SUMMARY_DIR, getOrDefault(extension.getWriteAnalysisSummaryDir(),
+                    new File(buildDir, "analysisSummary").getAbsolutePath()));
+        }
 
         project.getPlugins().withType(JavaPlugin.class, javaPlugin -> {
             boolean hasSource = detectSourceDirsAndJavaClasspath(project, properties, extension.getJmods());
+            properties.put(UPSTREAM_PROJECTS, upstreamProjects(project));
             if (hasSource) {
                 detectSourceEncoding(project, properties);
             }
@@ -171,6 +216,18 @@ public record AnalyserPropertyComputer(
         return !sourceDirectoriesPathSeparated.isEmpty() || !testDirectoriesPathSeparated.isEmpty();
     }
 
+    private static String upstreamProjects(Project project) {
+        return Stream.of(JavaPlugin.COMPILE_CLASSPATH_CONFIGURATION_NAME,
+                        JavaPlugin.TEST_COMPILE_CLASSPATH_CONFIGURATION_NAME)
+                .map(name -> project.getConfigurations().findByName(name))
+                .filter(Objects::nonNull)
+                .flatMap(configuration -> configuration.getAllDependencies().withType(ProjectDependency.class).stream())
+                .map(dependency -> dependency.getDependencyProject().getPath())
+                .filter(path -> !path.equals(project.getPath()))
+                .distinct()
+                .collect(Collectors.joining(Main.COMMA));
+    }
+
     private static String sourcePathFromSourceSet(SourceSet sourceSet) {
         return sourceSet.getAllJava().getSrcDirs()
                 .stream()
@@ -15,57 +15,266 @@
 package org.e2immu.gradleplugin;
 
 import org.e2immu.analyser.cli.Main;
-import org.e2immu.analyser.cli.RunAnalyser;
-import org.e2immu.analyser.config.Configuration;
+import org.e2immu.analyser.config.AnnotatedAPIConfiguration;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.gradle.api.tasks.Input;
-import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.internal.logging.progress.ProgressLogger;
+import org.gradle.internal.logging.progress.ProgressLoggerFactory;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import javax.inject.Inject;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
-
-public class AnalyserTask extends ConventionTask {
+/**
+ * The analyser runs in a separate worker process, see {@link AnalyserWorkAction}.
+ * <p>
+ * Source directories, class path and annotated API sources (or bundle) are tracked as input files, the annotation
+ * XML and annotated API directories as outputs, so that the task is up-to-date when nothing changed, and its outputs
+ * can be taken from the build cache. The result file, with the messages and exit value of each project, is always an
+ * output; its messages are replayed when the task is up-to-date or taken from the cache, see {@link #replayResult()}.
+ * The paths themselves are not part of the input properties, which keeps the cache key independent of the location
+ * of the project; the JRE is represented by its version.
+ * <p>
+ * The workers write their progress reports to a file, which the task polls to show them in Gradle's status bar.
+ * <p>
+ * In aggregated mode, the projects of a multi-project build are analysed level by level, see
+ * {@link #projectLevels(Map)}.
+ */
+@CacheableTask
+public abstract class AnalyserTask extends ConventionTask {
     private static final Logger LOGGER = Logging.getLogger(AnalyserTask.class);
+    public static final String DEFAULT_MAX_HEAP_SIZE = "2g";
+
+    private static final Set<String> SOURCE_KEYS = Set.of(Main.SOURCE, Main.TEST_SOURCE);
+    private static final Set<String> ANNOTATED_API_SOURCE_KEYS = Set.of(Main.ANNOTATED_API_SOURCE,
+            Main.ANNOTATED_API_BUNDLE);
+    private static final Set<String> CLASSPATH_KEYS = Set.of(Main.CLASSPATH, Main.TEST_CLASSPATH);
+    // paths which are either tracked as files or by version, or do not influence the outputs
+    private static final Set<String> PATH_KEYS = Set.of(Main.SOURCE, Main.TEST_SOURCE, Main.ANNOTATED_API_SOURCE,
+            Main.ANNOTATED_API_BUNDLE, Main.CLASSPATH, Main.TEST_CLASSPATH, Main.JRE, Main.WRITE_ANNOTATION_XML_DIR,
+            Main.WRITE_ANNOTATED_API_DIR, Main.WRITE_ANALYSIS_SUMMARY_DIR, Main.UPLOAD_STATE_FILE);
+    private static final long PROGRESS_POLL_INTERVAL = 500L; // milliseconds
+
     private Map<String, String> analyserProperties;
 
+    public AnalyserTask() {
+        getSourceFiles().from((Callable<List<File>>) () -> filesOf(SOURCE_KEYS));
+        getAnnotatedAPISourceFiles().from((Callable<List<File>>) () -> filesOf(ANNOTATED_API_SOURCE_KEYS));
+        // in aggregated mode, the class path contains the output of upstream projects
+        getClasspath().from((Callable<List<File>>) () -> {
+            List<File> files = filesOf(CLASSPATH_KEYS);
+            files.removeAll(getOutputDirectories().values());
+            return files;
+        });
+        // uploading to the annotation store is a side effect which cannot be restored from the cache
+        getOutputs().doNotCacheIf("the analyser uploads to the annotation store", task -> isUploading());
+    }
+
+    @Inject
+    public abstract WorkerExecutor getWorkerExecutor();
+
     @TaskAction
     public void run() {
         Map<String, String> properties = getProperties();
 
+        File resultFile = getResultFile().get().getAsFile();
         if (properties.isEmpty()) {
             LOGGER.warn("Skipping e2immu analysis: no properties configured, was it skipped in all projects?");
+            writeResultFile(resultFile, List.of());
             return;
         }
-        if (!LOGGER.isInfoEnabled()) {
-            properties.put(Main.QUIET, "true");
-        } else if (LOGGER.isDebugEnabled()) {
-            String inExtension = properties.get(Main.DEBUG);
-            if (inExtension == null || inExtension.trim().isEmpty()) {
-                properties.put(Main.DEBUG, inExtension);
+        List<List<String>> levels = getAggregate().get() ? projectLevels(properties) : List.of(List.of(""));
+        for (List<String> level : levels) {
+            for (String prefix : level) {
+                if (!LOGGER.isInfoEnabled()) {
+                    properties.put(prefix + Main.QUIET, "true");
+                } else if (LOGGER.isDebugEnabled()) {
+                    String inExtension = properties.get(prefix + Main.DEBUG);
+                    if (inExtension == null || inExtension.trim().isEmpty()) {
+                        properties.put(prefix + Main.DEBUG, inExtension);
+                    }
+                }
+            }
+        }
+
+        File progressFile = new File(getTemporaryDir(), "progress.txt");
+        if (progressFile.exists() && !progressFile.delete()) {
+            LOGGER.debug("Cannot delete {}", progressFile);
+        }
+        ProgressLoggerFactory progressLoggerFactory = getServices().get(ProgressLoggerFactory.class);
+        ProgressLogger progressLogger = progressLoggerFactory.newOperation(AnalyserTask.class);
+        progressLogger.start("e2immu analysis", null);
+        ScheduledExecutorService progressPoller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "e2immu progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicReference<String> lastProgress = new AtomicReference<>();
+        progressPoller.scheduleWithFixedDelay(() -> {
+            String progress = readProgress(progressFile);
+            if (progress != null && !progress.equals(lastProgress.getAndSet(progress))) {
+                progressLogger.progress(progress);
+            }
+        }, PROGRESS_POLL_INTERVAL, PROGRESS_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+
+        // one work item per project; the worker executor runs the projects of a level in parallel, each in its own
+        // process. await() rethrows the failure of a project, so that its downstream projects are not analysed.
+        WorkQueue workQueue = getWorkerExecutor().processIsolation(spec ->
+                spec.forkOptions(options -> options.setMaxHeapSize(getMaxHeapSize().get())));
+        List<File> projectResultFiles = new ArrayList<>();
+        try {
+            for (List<String> level : levels) {
+                for (String prefix : level) {
+                    File projectResultFile = new File(getTemporaryDir(), "result" + projectResultFiles.size() + ".txt");
+                    projectResultFiles.add(projectResultFile);
+                    workQueue.submit(AnalyserWorkAction.class, parameters -> {
+                        parameters.getProperties().set(properties);
+                        parameters.getProjectPrefix().set(prefix);
+                        parameters.getProgressFile().set(progressFile);
+                        parameters.getResultFile().set(projectResultFile);
+                    });
+                }
+                workQueue.await();
+            }
+            writeResultFile(resultFile, projectResultFiles);
+        } finally {
+            progressPoller.shutdownNow();
+            progressLogger.completed();
+        }
+    }
+
+    /*
+    the results of the projects, in the order in which they were analysed
+     */
+    private static void writeResultFile(File resultFile, List<File> projectResultFiles) {
+        List<String> lines = new ArrayList<>();
+        try {
+            for (File projectResultFile : projectResultFiles) {
+                lines.addAll(Files.readAllLines(projectResultFile.toPath()));
+            }
+            Files.createDirectories(resultFile.getParentFile().toPath());
+            Files.write(resultFile.toPath(), lines);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /**
+     * Prints the messages of the last analysis, as the worker did while analysing. Called when the task is up-to-date
+     * or taken from the cache, see AnalyserPlugin.
+     */
+    public void replayResult() {
+        File resultFile = getResultFile().get().getAsFile();
+        if (!resultFile.isFile()) return;
+        try {
+            // standard out = QUIET level, as in AnalyserWorkAction
+            Files.readAllLines(resultFile.toPath()).forEach(System.out::println);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    private static String readProgress(File progressFile) {
+        if (!progressFile.isFile()) return null;
+        try {
+            return Files.readString(progressFile.toPath());
+        } catch (IOException ioe) {
+            return null; // replaced while reading; the next poll reads the new report
+        }
+    }
+
+    /*
+    A project goes in the level after the last level of its upstream projects, so that it can read the annotation XML
+    written by the upstream ones (see AnalyserPropertyComputer). The projects of a level do not depend on each other,
+    and are analysed in parallel. Projects in, or downstream of, a dependency cycle follow in levels of one project,
+    upstream projects first.
+
+    Returns the levels as lists of project prefixes, the empty string being the prefix of the root project.
+     */
+    static List<List<String>> projectLevels(Map<String, String> properties) {
+        Map<String, String> prefixOfProject = new LinkedHashMap<>();
+        properties.forEach((key, value) -> {
+            if (AnalyserPropertyComputer.PROJECT_PATH.equals(baseKey(key))) {
+                prefixOfProject.put(value, projectPrefix(key));
             }
+        });
+        Map<String, List<String>> upstreamOf = new LinkedHashMap<>();
+        for (String prefix : prefixOfProject.values()) {
+            String upstreamProjects = properties.get(prefix + AnalyserPropertyComputer.UPSTREAM_PROJECTS);
+            upstreamOf.put(prefix, upstreamProjects == null ? List.of() : Arrays.stream(upstreamProjects.split(Main.COMMA))
+                    .map(prefixOfProject::get)
+                    .filter(u -> u != null && !u.equals(prefix))
+                    .distinct()
+                    .collect(Collectors.toList()));
         }
+        Map<String, Integer> waitingFor = new HashMap<>();
+        Map<String, List<String>> downstreamOf = new HashMap<>();
+        upstreamOf.forEach((prefix, upstream) -> {
+            waitingFor.put(prefix, upstream.size());
+            upstream.forEach(u -> downstreamOf.computeIfAbsent(u, k -> new ArrayList<>()).add(prefix));
+        });
 
-        Configuration configuration = Main.fromProperties(properties);
-        LOGGER.debug("Configuration:\n{}", configuration);
+        List<List<String>> levels = new ArrayList<>();
+        Set<String> done = new HashSet<>();
+        List<String> level = upstreamOf.keySet().stream().filter(prefix -> waitingFor.get(prefix) == 0)
+                .collect(Collectors.toList());
+        while (!level.isEmpty()) {
+            levels.add(List.copyOf(level));
+            done.addAll(level);
+            List<String> next = new ArrayList<>();
+            for (String prefix : level) {
+                for (String downstream : downstreamOf.getOrDefault(prefix, List.of())) {
+                    if (waitingFor.merge(downstream, -1, Integer::sum) == 0) next.add(downstream);
+                }
+            }
+            level = next;
+        }
+        List<String> ordered = new ArrayList<>();
+        upstreamOf.keySet().forEach(prefix -> addUpstreamFirst(prefix, upstreamOf, done, ordered));
+        ordered.forEach(prefix -> levels.add(List.of(prefix)));
+        return List.copyOf(levels);
+    }
 
-        RunAnalyser runAnalyser = new RunAnalyser(configuration);
-        runAnalyser.run();
-        // print to standard out = QUIET level
-        runAnalyser.getMessageStream().forEach(m -> System.out.println(m.detailedMessage()));
-        int exitValue = runAnalyser.getExitValue();
-        if (exitValue != 0) {
-            throw new RuntimeException("Analyser exited with error value " + exitValue + ": " + Main.exitMessage(exitValue));
+    private static void addUpstreamFirst(String prefix, Map<String, List<String>> upstreamOf,
+                                         Set<String> visited, List<String> ordered) {
+        if (visited.add(prefix)) {
+            upstreamOf.get(prefix).forEach(u -> addUpstreamFirst(u, upstreamOf, visited, ordered));
+            ordered.add(prefix);
         }
     }
 
+    /*
+    the properties of one project, without the project prefix
+     */
+    static Map<String, String> propertiesOfProject(Map<String, String> properties, String prefix) {
+        return properties.entrySet().stream()
+                .filter(e -> projectPrefix(e.getKey()).equals(prefix))
+                .collect(Collectors.toMap(e -> baseKey(e.getKey()), Map.Entry::getValue));
+    }
+
     /**
      * @return The String key/value pairs to be passed to the analyser.
      * {@code null} values are not permitted.
      */
-    @Input
+    @Internal
     public Map<String, String> getProperties() {
         if (analyserProperties == null) {
             analyserProperties = new LinkedHashMap<>();
@@ -73,4 +282,137 @@ public class AnalyserTask extends ConventionTask {
         return analyserProperties;
     }
 
+    /**
+     * @return the properties which are not paths; the paths are represented by the input files and output directories.
+     */
+    @Input
+    public Map<String, String> getInputProperties() {
+        return getProperties().entrySet().stream()
+                .filter(e -> !PATH_KEYS.contains(baseKey(e.getKey())))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1, TreeMap::new));
+    }
+
+    /**
+     * @return the version of the JRE each project is analysed against, keyed by the (possibly project-prefixed)
+     * property which configures it. Without such a property, the analyser uses the JRE of the worker process, which
+     * is the one running Gradle; its version is keyed by the empty string.
+     */
+    @Input
+    public Map<String, String> getJreVersions() {
+        Map<String, String> result = new TreeMap<>();
+        result.put("", System.getProperty("java.version"));
+        getProperties().forEach((key, value) -> {
+            if (Main.JRE.equals(baseKey(key)) && value != null && !value.isBlank()) {
+                result.put(key, jreVersion(new File(value.trim())));
+            }
+        });
+        return result;
+    }
+
+    /*
+    the JAVA_VERSION in the release file of the JRE; the name of its directory when there is no such file
+     */
+    static String jreVersion(File jreHome) {
+        File release = new File(jreHome, "release");
+        if (release.isFile()) {
+            try (Reader reader = new FileReader(release)) {
+                Properties properties = new Properties();
+                properties.load(reader);
+                String version = properties.getProperty("JAVA_VERSION");
+                if (version != null) return version.replace("\"", "").trim();
+            } catch (IOException ioe) {
+                LOGGER.warn("Cannot read {}: {}", release, ioe.getMessage());
+            }
+        }
+        return jreHome.getName();
+    }
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getSourceFiles();
+
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract ConfigurableFileCollection getAnnotatedAPISourceFiles();
+
+    @Classpath
+    public abstract ConfigurableFileCollection getClasspath();
+
+    /**
+     * @return the directories written to, keyed by the (possibly project-prefixed) property which configures them.
+     * Annotation XML, analysis summary and annotated API directories are only present when they are written.
+     */
+    @OutputDirectories
+    public Map<String, File> getOutputDirectories() {
+        Map<String, String> properties = getProperties();
+        Map<String, File> result = new TreeMap<>();
+        properties.forEach((key, value) -> {
+            String baseKey = baseKey(key);
+            String projectPrefix = projectPrefix(key);
+            if (Main.WRITE_ANNOTATION_XML_DIR.equals(baseKey)
+                    && Boolean.parseBoolean(properties.get(projectPrefix + Main.WRITE_ANNOTATION_XML))
+                    || Main.WRITE_ANNOTATED_API_DIR.equals(baseKey)
+                    && isWritingAnnotatedAPIs(properties.get(projectPrefix + Main.ANNOTATED_API_WRITE_MODE))
+                    || Main.WRITE_ANALYSIS_SUMMARY_DIR.equals(baseKey)) {
+                result.put(key, new File(value));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @return the messages and the exit value of each analysed project, by default in build/e2immu/result.txt.
+     * Always written, so that the task has an output to be up-to-date with, or to take from the cache, even when
+     * it writes no annotation XML, analysis summaries or annotated APIs.
+     */
+    @OutputFile
+    public abstract RegularFileProperty getResultFile();
+
+    /**
+     * @return the maximum heap size of the worker process running the analyser, in the format of the JVM's -Xmx option
+     */
+    @Internal
+    public abstract Property<String> getMaxHeapSize();
+
+    /**
+     * @return true when the projects of a multi-project build are analysed separately, rather than only the
+     * root project
+     */
+    @Input
+    public abstract Property<Boolean> getAggregate();
+
+    private boolean isUploading() {
+        return getProperties().entrySet().stream()
+                .anyMatch(e -> Main.UPLOAD.equals(baseKey(e.getKey())) && Boolean.parseBoolean(e.getValue()));
+    }
+
+    private static boolean isWritingAnnotatedAPIs(String writeMode) {
+        return writeMode != null && !writeMode.isBlank()
+                && AnnotatedAPIConfiguration.WriteMode.valueOf(writeMode.trim().toUpperCase())
+                != AnnotatedAPIConfiguration.WriteMode.DO_NOT_WRITE;
+    }
+
+    /*
+    properties of sub-projects are prefixed by the project path and a dot, see AnalyserPropertyComputer
+     */
+    static String baseKey(String key) {
+        int dot = key.lastIndexOf('.');
+        return dot < 0 ? key : key.substring(dot + 1);
+    }
+
+    // including the dot; empty for the root project
+    static String projectPrefix(String key) {
+        return key.substring(0, key.lastIndexOf('.') + 1);
+    }
+
+    private List<File> filesOf(Set<String> keys) {
+        return getProperties().entrySet().stream()
+                .filter(e -> keys.contains(baseKey(e.getKey())))
+                .flatMap(e -> Arrays.stream(e.getValue().split(Main.PATH_SEPARATOR)))
+                .filter(s -> !s.isBlank())
+                .map(File::new)
+                .filter(File::isAbsolute)
+                .distinct()
+                .collect(Collectors.toList());
+    }
 }
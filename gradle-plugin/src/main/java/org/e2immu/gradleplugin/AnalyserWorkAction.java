@@ -0,0 +1,124 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.gradleplugin;
+
+import org.e2immu.analyser.cli.Main;
+import org.e2immu.analyser.cli.RunAnalyser;
+import org.e2immu.analyser.config.Configuration;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.MapProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the analyser in a Gradle worker process, so that the analyser's heap is independent of the Gradle daemon's.
+ * Only serializable parameters can cross the process boundary; the configuration is rebuilt from the properties.
+ * <p>
+ * One work item analyses one project. Gradle keeps the worker process alive for later work items with the same
+ * fork options, so that subsequent projects and builds run in a warm JVM.
+ */
+public abstract class AnalyserWorkAction implements WorkAction<AnalyserWorkAction.Parameters> {
+    private static final Logger LOGGER = Logging.getLogger(AnalyserWorkAction.class);
+
+    public interface Parameters extends WorkParameters {
+        MapProperty<String, String> getProperties();
+
+        /*
+        the project to analyse, see AnalyserTask.projectLevels
+         */
+        Property<String> getProjectPrefix();
+
+        /*
+        the latest progress report is written to this file, and forwarded to Gradle's status bar by AnalyserTask
+         */
+        RegularFileProperty getProgressFile();
+
+        /*
+        the messages and the exit value of the project, see AnalyserTask.getResultFile
+         */
+        RegularFileProperty getResultFile();
+    }
+
+    @Override
+    public void execute() {
+        Map<String, String> allProperties = getParameters().getProperties().get();
+        String prefix = getParameters().getProjectPrefix().get();
+        Map<String, String> properties = new HashMap<>(AnalyserTask.propertiesOfProject(allProperties, prefix));
+        Configuration configuration = Main.fromProperties(properties);
+        LOGGER.debug("Configuration:\n{}", configuration);
+        String project = properties.getOrDefault(AnalyserPropertyComputer.PROJECT_PATH, "");
+
+        // print to standard out = QUIET level, while the analyser is running
+        List<String> result = new ArrayList<>();
+        RunAnalyser runAnalyser = new RunAnalyser(configuration, m -> {
+            String message = m.detailedMessage();
+            System.out.println(message);
+            result.add(message);
+        }, progress -> reportProgress(project + " " + progress));
+        runAnalyser.run();
+        int exitValue = runAnalyser.getExitValue();
+        result.add(resultLine(project, exitValue, result.size()));
+        System.out.println(result.get(result.size() - 1));
+        writeResult(result);
+        if (exitValue != 0) {
+            // fails the task before the downstream projects are analysed
+            throw new RuntimeException("Analyser exited with error value " + exitValue + " on project " + project
+                    + ": " + Main.exitMessage(exitValue));
+        }
+    }
+
+    static String resultLine(String project, int exitValue, int messages) {
+        return "e2immu analyser: " + messages + " message(s), exit value " + exitValue + " on project " + project;
+    }
+
+    private void writeResult(List<String> result) {
+        File resultFile = getParameters().getResultFile().get().getAsFile();
+        try {
+            Files.write(resultFile.toPath(), result);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+    }
+
+    /*
+    The worker process has no access to Gradle's status bar. The report replaces the progress file in one move,
+    so that AnalyserTask never reads half a report.
+     */
+    private void reportProgress(String progress) {
+        LOGGER.info(progress);
+        File progressFile = getParameters().getProgressFile().get().getAsFile();
+        try {
+            Path tmp = Files.createTempFile(progressFile.getParentFile().toPath(), "progress", ".tmp");
+            Files.writeString(tmp, progress);
+            Files.move(tmp, progressFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            LOGGER.debug("Cannot write progress to {}: {}", progressFile, ioe.getMessage());
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.gradleplugin;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.BuildTask;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAnalyserTaskCaching {
+    private static final String TASK = ":" + AnalyserExtension.ANALYSER_TASK_NAME;
+
+    private static final String WRITE_ANNOTATION_XML = """
+            e2immu {
+                writeAnnotationXML = true
+                upload = false
+            }
+            """;
+
+    // the default configuration: the result file is the only output
+    private static final String NO_OTHER_OUTPUT = """
+            e2immu {
+                upload = false
+            }
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testUpToDateAndFromCache() throws IOException {
+        upToDateAndFromCache(WRITE_ANNOTATION_XML);
+    }
+
+    @Test
+    public void testUpToDateAndFromCacheWithoutOtherOutput() throws IOException {
+        upToDateAndFromCache(NO_OTHER_OUTPUT);
+    }
+
+    private void upToDateAndFromCache(String configuration) throws IOException {
+        Path cache = tempDir.resolve("cache");
+        Path first = createProject(tempDir.resolve("first"), cache, configuration);
+
+        BuildResult analysed = run(first);
+        assertEquals(TaskOutcome.SUCCESS, outcome(analysed));
+        List<String> result = Files.readAllLines(first.resolve("build/e2immu/result.txt"));
+        assertFalse(result.isEmpty());
+        assertContainsResult(analysed, result);
+
+        // the messages are replayed
+        BuildResult upToDate = run(first);
+        assertEquals(TaskOutcome.UP_TO_DATE, outcome(upToDate));
+        assertContainsResult(upToDate, result);
+
+        // same sources in a different location: the cache key does not depend on absolute paths
+        Path second = createProject(tempDir.resolve("second"), cache, configuration);
+        BuildResult fromCache = run(second);
+        assertEquals(TaskOutcome.FROM_CACHE, outcome(fromCache));
+        assertEquals(result, Files.readAllLines(second.resolve("build/e2immu/result.txt")));
+        assertContainsResult(fromCache, result);
+    }
+
+    private static void assertContainsResult(BuildResult buildResult, List<String> result) {
+        result.forEach(line -> assertTrue(buildResult.getOutput().contains(line), buildResult.getOutput()));
+    }
+
+    private static Path createProject(Path dir, Path cache, String configuration) throws IOException {
+        Path sourceDir = dir.resolve("src/main/java/org/e2immu/example");
+        Files.createDirectories(sourceDir);
+        Files.writeString(dir.resolve("settings.gradle"), """
+                rootProject.name = 'example'
+                buildCache {
+                    local {
+                        directory = '%s'
+                    }
+                }
+                """.formatted(cache.toAbsolutePath().toString().replace('\\', '/')));
+        Files.writeString(dir.resolve("build.gradle"), """
+                plugins {
+                    id 'java'
+                    id 'org.e2immu.analyser'
+                }
+                """ + configuration);
+        Files.writeString(sourceDir.resolve("Example.java"), """
+                package org.e2immu.example;
+
+                public class Example {
+                    private final int i;
+
+                    public Example(int i) {
+                        this.i = i;
+                    }
+
+                    public int getI() {
+                        return i;
+                    }
+                }
+                """);
+        return dir;
+    }
+
+    private static BuildResult run(Path projectDir) {
+        return GradleRunner.create()
+                .withProjectDir(projectDir.toFile())
+                .withPluginClasspath(pluginClasspath())
+                .withArguments("--build-cache", TASK)
+                .build();
+    }
+
+    private static TaskOutcome outcome(BuildResult result) {
+        BuildTask task = result.task(TASK);
+        assertNotNull(task, result.getOutput());
+        return task.getOutcome();
+    }
+
+    // see the test task in build.gradle
+    private static List<File> pluginClasspath() {
+        String classpath = System.getProperty("e2immu.pluginClasspath");
+        assertNotNull(classpath, "Run from Gradle, which sets the plugin class path");
+        return Arrays.stream(classpath.split(File.pathSeparator)).map(File::new).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * e2immu: a static code analyser for effective and eventual immutability
+ * Copyright 2020-2021, Bart Naudts, https://www.e2immu.org
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for
+ * more details. You should have received a copy of the GNU Lesser General Public
+ * License along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.e2immu.gradleplugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestAnalyserTaskProjectLevels {
+
+    // root project ':' with sub-projects; project path -> upstream project paths
+    private static Map<String, String> properties(String... projectsAndUpstream) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put(AnalyserPropertyComputer.PROJECT_PATH, ":");
+        for (int i = 0; i < projectsAndUpstream.length; i += 2) {
+            String project = projectsAndUpstream[i];
+            properties.put(project + "." + AnalyserPropertyComputer.PROJECT_PATH, project);
+            properties.put(project + ".jre", "/usr/lib/jvm/17");
+            if (!projectsAndUpstream[i + 1].isEmpty()) {
+                properties.put(project + "." + AnalyserPropertyComputer.UPSTREAM_PROJECTS, projectsAndUpstream[i + 1]);
+            }
+        }
+        return properties;
+    }
+
+    @Test
+    public void testBaseKeyAndProjectPrefix() {
+        assertEquals("jre", AnalyserTask.baseKey("jre"));
+        assertEquals("", AnalyserTask.projectPrefix("jre"));
+        assertEquals("jre", AnalyserTask.baseKey(":a.jre"));
+        assertEquals(":a.", AnalyserTask.projectPrefix(":a.jre"));
+        assertEquals("project-path", AnalyserTask.baseKey(":a.:a:b.project-path"));
+        assertEquals(":a.:a:b.", AnalyserTask.projectPrefix(":a.:a:b.project-path"));
+    }
+
+    @Test
+    public void testChain() {
+        // :c depends on :b, which depends on :a
+        Map<String, String> properties = properties(":a", "", ":b", ":a", ":c", ":b");
+        assertEquals(List.of(List.of("", ":a."), List.of(":b."), List.of(":c.")),
+                AnalyserTask.projectLevels(properties));
+    }
+
+    @Test
+    public void testDiamond() {
+        // :b and :c depend on :a, :d on both :b and :c
+        Map<String, String> properties = properties(":a", "", ":b", ":a", ":c", ":a", ":d", ":b,:c");
+        assertEquals(List.of(List.of("", ":a."), List.of(":b.", ":c."), List.of(":d.")),
+                AnalyserTask.projectLevels(properties));
+    }
+
+    @Test
+    public void testHub() {
+        // all projects depend on :hub; they are analysed in parallel, once :hub has been analysed
+        Map<String, String> properties = properties(":hub", "", ":a", ":hub", ":b", ":hub", ":c", ":hub",
+                ":d", ":hub,:a");
+        assertEquals(List.of(List.of("", ":hub."), List.of(":a.", ":b.", ":c."), List.of(":d.")),
+                AnalyserTask.projectLevels(properties));
+    }
+
+    @Test
+    public void testDisconnected() {
+        Map<String, String> properties = properties(":a", "", ":b", "", ":c", ":b");
+        assertEquals(List.of(List.of("", ":a.", ":b."), List.of(":c.")), AnalyserTask.projectLevels(properties));
+    }
+
+    @Test
+    public void testCycle() {
+        // :a and :b depend on each other, :c depends on :b; unknown and skipped projects are ignored
+        Map<String, String> properties = properties(":a", ":b", ":b", ":a,:skipped", ":c", ":b,:c", ":d", "");
+        assertEquals(List.of(List.of("", ":d."), List.of(":b."), List.of(":a."), List.of(":c.")),
+                AnalyserTask.projectLevels(properties));
+    }
+
+    @Test
+    public void testPropertiesOfProject() {
+        Map<String, String> properties = properties(":a", "", ":b", ":a");
+        assertEquals(Map.of(AnalyserPropertyComputer.PROJECT_PATH, ":b", AnalyserPropertyComputer.UPSTREAM_PROJECTS,
+                ":a", "jre", "/usr/lib/jvm/17"), AnalyserTask.propertiesOfProject(properties, ":b."));
+    }
+}